@@ -0,0 +1,669 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Base class for sparse matrices stored in compressed form.
+ * <p>
+ * The matrix is split in slices along a <em>major</em> dimension (rows for
+ * {@link CompressedRowRealMatrix compressed row} storage, columns for
+ * {@link CompressedColumnRealMatrix compressed column} storage). The non-zero
+ * entries of all slices are stored contiguously in two arrays holding their
+ * index along the <em>minor</em> dimension and their value. A third array of
+ * pointers holds for each slice the index of its first entry, so slice
+ * {@code k} spans indices {@code pointers[k]} (included) to {@code
+ * pointers[k + 1]} (excluded). Within one slice, minor indices are sorted in
+ * increasing order, so a single entry is retrieved by a binary search.
+ * </p>
+ * <p>
+ * This storage uses 12 bytes per non-zero entry plus 4 bytes per slice, and
+ * allows streaming traversal of all entries in memory order, which is very
+ * efficient for matrix-vector and matrix-matrix products.
+ * </p>
+ * <p>
+ * Setting a structurally zero entry to a non-zero value is supported, but
+ * requires shifting all subsequent entries. Large matrices should rather be
+ * assembled using a {@link CompressedRealMatrixBuilder}. Setting an entry to
+ * zero does not change the structure, the zero value is simply stored.
+ * </p>
+ * <p>
+ * As products only traverse the stored entries, they do not follow IEEE754
+ * semantics for infinite or NaN entries of the other operand when multiplied
+ * by structural zeros (i.e. {@code 0 * NaN} is considered to be {@code 0}).
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public abstract class AbstractCompressedRealMatrix extends AbstractRealMatrix
+    implements Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140127L;
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Index of the first entry of each slice (with one extra trailing element). */
+    private int[] pointers;
+
+    /** Minor indices of the stored entries. */
+    private int[] indices;
+
+    /** Values of the stored entries. */
+    private double[] values;
+
+    /**
+     * Build an empty matrix.
+     *
+     * @param rows Number of rows of the matrix.
+     * @param columns Number of columns of the matrix.
+     * @param majorDimension Number of slices (i.e. either {@code rows} or
+     * {@code columns}).
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    AbstractCompressedRealMatrix(final int rows, final int columns,
+                                 final int majorDimension)
+        throws NotStrictlyPositiveException {
+        super(rows, columns);
+        this.rows     = rows;
+        this.columns  = columns;
+        this.pointers = new int[majorDimension + 1];
+        this.indices  = new int[0];
+        this.values   = new double[0];
+    }
+
+    /**
+     * Build a matrix from its compressed storage arrays.
+     * <p>
+     * The arrays are referenced, not copied. They must be consistent (this
+     * is not checked).
+     * </p>
+     *
+     * @param rows Number of rows of the matrix.
+     * @param columns Number of columns of the matrix.
+     * @param pointers Index of the first entry of each slice.
+     * @param indices Minor indices of the stored entries.
+     * @param values Values of the stored entries.
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    AbstractCompressedRealMatrix(final int rows, final int columns,
+                                 final int[] pointers, final int[] indices,
+                                 final double[] values)
+        throws NotStrictlyPositiveException {
+        super(rows, columns);
+        this.rows     = rows;
+        this.columns  = columns;
+        this.pointers = pointers;
+        this.indices  = indices;
+        this.values   = values;
+    }
+
+    /**
+     * Build a matrix by copying the non-zero entries of another matrix.
+     *
+     * @param m Matrix to copy.
+     * @param rowMajor If {@code true}, slices are rows, otherwise they are columns.
+     */
+    AbstractCompressedRealMatrix(final RealMatrix m, final boolean rowMajor) {
+        this.rows    = m.getRowDimension();
+        this.columns = m.getColumnDimension();
+        final int nMajor = rowMajor ? rows : columns;
+        final int nMinor = rowMajor ? columns : rows;
+
+        if (m instanceof AbstractCompressedRealMatrix) {
+            AbstractCompressedRealMatrix c = (AbstractCompressedRealMatrix) m;
+            if ((c instanceof CompressedRowRealMatrix) != rowMajor) {
+                c = c.swapOrientation();
+            }
+            final int nnz = c.getNonZeroCount();
+            pointers = c.pointers.clone();
+            indices  = copyOf(c.indices, nnz);
+            values   = copyOf(c.values, nnz);
+        } else {
+            pointers = new int[nMajor + 1];
+            int[] i = new int[16];
+            double[] v = new double[16];
+            int n = 0;
+            for (int major = 0; major < nMajor; ++major) {
+                for (int minor = 0; minor < nMinor; ++minor) {
+                    final double value = rowMajor ?
+                                         m.getEntry(major, minor) :
+                                         m.getEntry(minor, major);
+                    if (value != 0.0) {
+                        if (n == i.length) {
+                            i = copyOf(i, 2 * n);
+                            v = copyOf(v, 2 * n);
+                        }
+                        i[n] = minor;
+                        v[n] = value;
+                        ++n;
+                    }
+                }
+                pointers[major + 1] = n;
+            }
+            indices = copyOf(i, n);
+            values  = copyOf(v, n);
+        }
+    }
+
+    /**
+     * Create a matrix with the same storage orientation as the instance.
+     * <p>
+     * The arrays are referenced, not copied.
+     * </p>
+     *
+     * @param nRows Number of rows of the matrix.
+     * @param nColumns Number of columns of the matrix.
+     * @param p Index of the first entry of each slice.
+     * @param i Minor indices of the stored entries.
+     * @param v Values of the stored entries.
+     * @return a new matrix
+     */
+    abstract AbstractCompressedRealMatrix create(int nRows, int nColumns,
+                                                 int[] p, int[] i, double[] v);
+
+    /**
+     * Create a matrix with the other storage orientation.
+     * <p>
+     * The arrays are referenced, not copied.
+     * </p>
+     *
+     * @param nRows Number of rows of the matrix.
+     * @param nColumns Number of columns of the matrix.
+     * @param p Index of the first entry of each slice.
+     * @param i Minor indices of the stored entries.
+     * @param v Values of the stored entries.
+     * @return a new matrix
+     */
+    abstract AbstractCompressedRealMatrix createSwapped(int nRows, int nColumns,
+                                                        int[] p, int[] i, double[] v);
+
+    /**
+     * Get the slice index of an entry.
+     *
+     * @param row Row index of the entry.
+     * @param column Column index of the entry.
+     * @return index of the slice containing the entry
+     */
+    abstract int majorIndex(int row, int column);
+
+    /**
+     * Get the index of an entry within its slice.
+     *
+     * @param row Row index of the entry.
+     * @param column Column index of the entry.
+     * @return index of the entry within its slice
+     */
+    abstract int minorIndex(int row, int column);
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /**
+     * Get the number of stored entries.
+     * <p>
+     * Entries explicitly set to zero after construction are counted.
+     * </p>
+     *
+     * @return number of stored entries
+     */
+    public int getNonZeroCount() {
+        return pointers[pointers.length - 1];
+    }
+
+    /**
+     * Get a reference to the slice pointers array.
+     * @return slice pointers (array length is number of slices + 1)
+     */
+    int[] getPointersRef() {
+        return pointers;
+    }
+
+    /**
+     * Get a reference to the minor indices array.
+     * <p>The array may be larger than the number of stored entries.</p>
+     * @return minor indices
+     */
+    int[] getIndicesRef() {
+        return indices;
+    }
+
+    /**
+     * Get a reference to the values array.
+     * <p>The array may be larger than the number of stored entries.</p>
+     * @return values
+     */
+    double[] getValuesRef() {
+        return values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int k = locate(majorIndex(row, column), minorIndex(row, column));
+        return (k < 0) ? 0.0 : values[k];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int major = majorIndex(row, column);
+        final int minor = minorIndex(row, column);
+        final int k = locate(major, minor);
+        if (k >= 0) {
+            values[k] = value;
+        } else if (value != 0.0) {
+            insert(major, minor, -(k + 1), value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int major = majorIndex(row, column);
+        final int minor = minorIndex(row, column);
+        final int k = locate(major, minor);
+        if (k >= 0) {
+            values[k] += increment;
+        } else if (increment != 0.0) {
+            insert(major, minor, -(k + 1), increment);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column, final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int k = locate(majorIndex(row, column), minorIndex(row, column));
+        if (k >= 0) {
+            values[k] *= factor;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix add(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof AbstractCompressedRealMatrix &&
+            m.getClass() == getClass()) {
+            MatrixUtils.checkAdditionCompatible(this, m);
+            return merge((AbstractCompressedRealMatrix) m, 1.0);
+        }
+        return super.add(m);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix subtract(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof AbstractCompressedRealMatrix &&
+            m.getClass() == getClass()) {
+            MatrixUtils.checkSubtractionCompatible(this, m);
+            return merge((AbstractCompressedRealMatrix) m, -1.0);
+        }
+        return super.subtract(m);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix scalarMultiply(final double d) {
+        final int nnz = getNonZeroCount();
+        final double[] v = new double[nnz];
+        for (int k = 0; k < nnz; ++k) {
+            v[k] = values[k] * d;
+        }
+        return create(rows, columns, pointers.clone(), copyOf(indices, nnz), v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getFrobeniusNorm() {
+        final int nnz = getNonZeroCount();
+        double sum2 = 0;
+        for (int k = 0; k < nnz; ++k) {
+            sum2 += values[k] * values[k];
+        }
+        return FastMath.sqrt(sum2);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AbstractCompressedRealMatrix copy() {
+        final int nnz = getNonZeroCount();
+        return create(rows, columns, pointers.clone(),
+                      copyOf(indices, nnz), copyOf(values, nnz));
+    }
+
+    /**
+     * Find an entry in a slice.
+     *
+     * @param major Slice index.
+     * @param minor Index of the entry within the slice.
+     * @return index of the entry in the {@code indices} and {@code values}
+     * arrays if it is stored, {@code -(insertionPoint + 1)} otherwise
+     */
+    int locate(final int major, final int minor) {
+        int low  = pointers[major];
+        int high = pointers[major + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midIndex = indices[mid];
+            if (midIndex < minor) {
+                low = mid + 1;
+            } else if (midIndex > minor) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Insert a new entry in the storage.
+     *
+     * @param major Slice index.
+     * @param minor Index of the entry within the slice.
+     * @param position Insertion position in the storage arrays.
+     * @param value Value of the entry.
+     */
+    private void insert(final int major, final int minor,
+                        final int position, final double value) {
+        final int nnz = getNonZeroCount();
+        if (nnz == indices.length) {
+            // grow storage
+            final int capacity = FastMath.max(16, nnz + (nnz >> 1));
+            indices = copyOf(indices, capacity);
+            values  = copyOf(values, capacity);
+        }
+        System.arraycopy(indices, position, indices, position + 1, nnz - position);
+        System.arraycopy(values,  position, values,  position + 1, nnz - position);
+        indices[position] = minor;
+        values[position]  = value;
+        for (int k = major + 1; k < pointers.length; ++k) {
+            ++pointers[k];
+        }
+    }
+
+    /**
+     * Compute {@code this + factor * m} for a matrix with the same orientation.
+     *
+     * @param m Other matrix.
+     * @param factor Multiplicative factor for {@code m}.
+     * @return a new matrix
+     */
+    private AbstractCompressedRealMatrix merge(final AbstractCompressedRealMatrix m,
+                                               final double factor) {
+        final int nMajor = pointers.length - 1;
+        final int[] p = new int[nMajor + 1];
+        final int[] i = new int[getNonZeroCount() + m.getNonZeroCount()];
+        final double[] v = new double[i.length];
+        int n = 0;
+        for (int major = 0; major < nMajor; ++major) {
+            int k1 = pointers[major];
+            final int end1 = pointers[major + 1];
+            int k2 = m.pointers[major];
+            final int end2 = m.pointers[major + 1];
+            while (k1 < end1 || k2 < end2) {
+                final int minor1 = (k1 < end1) ? indices[k1]   : Integer.MAX_VALUE;
+                final int minor2 = (k2 < end2) ? m.indices[k2] : Integer.MAX_VALUE;
+                if (minor1 < minor2) {
+                    i[n] = minor1;
+                    v[n] = values[k1++];
+                } else if (minor1 > minor2) {
+                    i[n] = minor2;
+                    v[n] = factor * m.values[k2++];
+                } else {
+                    i[n] = minor1;
+                    v[n] = values[k1++] + factor * m.values[k2++];
+                }
+                ++n;
+            }
+            p[major + 1] = n;
+        }
+        return create(rows, columns, p, copyOf(i, n), copyOf(v, n));
+    }
+
+    /**
+     * Compute the product of the matrix seen as slices by a vector indexed
+     * along the minor dimension.
+     * <p>
+     * For each slice, the result is the dot product of the slice and the
+     * vector. This corresponds to {@code operate} for compressed row
+     * storage and to {@code preMultiply} for compressed column storage.
+     * </p>
+     *
+     * @param v Vector (length must be the minor dimension).
+     * @return a new vector of length the major dimension
+     */
+    double[] gather(final double[] v) {
+        final int nMajor = pointers.length - 1;
+        final double[] out = new double[nMajor];
+        for (int major = 0; major < nMajor; ++major) {
+            double sum = 0;
+            final int end = pointers[major + 1];
+            for (int k = pointers[major]; k < end; ++k) {
+                sum += values[k] * v[indices[k]];
+            }
+            out[major] = sum;
+        }
+        return out;
+    }
+
+    /**
+     * Compute the product of a vector indexed along the major dimension by
+     * the matrix seen as slices.
+     * <p>
+     * The result is the linear combination of the slices, weighted by the
+     * vector components. This corresponds to {@code preMultiply} for
+     * compressed row storage and to {@code operate} for compressed column
+     * storage.
+     * </p>
+     *
+     * @param v Vector (length must be the major dimension).
+     * @param minorDimension Length of the result.
+     * @return a new vector of length the minor dimension
+     */
+    double[] scatter(final double[] v, final int minorDimension) {
+        final int nMajor = pointers.length - 1;
+        final double[] out = new double[minorDimension];
+        for (int major = 0; major < nMajor; ++major) {
+            final double vMajor = v[major];
+            if (vMajor != 0) {
+                final int end = pointers[major + 1];
+                for (int k = pointers[major]; k < end; ++k) {
+                    out[indices[k]] += values[k] * vMajor;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compute the slices of the product of two matrices seen as slices.
+     * <p>
+     * If {@code left} and {@code right} hold the rows of A and B, the
+     * arrays built hold the rows of A&times;B. This is Gustavson's
+     * algorithm, using a dense accumulator along the minor dimension.
+     * </p>
+     *
+     * @param left Left operand.
+     * @param right Right operand (its slices are indexed by the minor
+     * indices of {@code left}).
+     * @param minorDimension Minor dimension of {@code right}.
+     * @param nRows Number of rows of the result.
+     * @param nColumns Number of columns of the result.
+     * @return product, with the same orientation as {@code left}
+     */
+    static AbstractCompressedRealMatrix product(final AbstractCompressedRealMatrix left,
+                                                final AbstractCompressedRealMatrix right,
+                                                final int minorDimension,
+                                                final int nRows, final int nColumns) {
+        final int nMajor = left.pointers.length - 1;
+        final double[] accumulator = new double[minorDimension];
+        final int[] marker = new int[minorDimension];
+        Arrays.fill(marker, -1);
+        final int[] p = new int[nMajor + 1];
+        int[] i = new int[FastMath.max(16, left.getNonZeroCount() + right.getNonZeroCount())];
+        double[] v = new double[i.length];
+        int n = 0;
+        for (int major = 0; major < nMajor; ++major) {
+            final int sliceStart = n;
+            for (int k = left.pointers[major]; k < left.pointers[major + 1]; ++k) {
+                final int middle = left.indices[k];
+                final double lValue = left.values[k];
+                for (int l = right.pointers[middle]; l < right.pointers[middle + 1]; ++l) {
+                    final int minor = right.indices[l];
+                    if (marker[minor] != major) {
+                        // first contribution to this entry
+                        marker[minor] = major;
+                        accumulator[minor] = 0;
+                        if (n == i.length) {
+                            i = copyOf(i, 2 * n);
+                            v = copyOf(v, 2 * n);
+                        }
+                        i[n++] = minor;
+                    }
+                    accumulator[minor] += lValue * right.values[l];
+                }
+            }
+            // sort the minor indices of the new slice and gather the values
+            Arrays.sort(i, sliceStart, n);
+            for (int k = sliceStart; k < n; ++k) {
+                v[k] = accumulator[i[k]];
+            }
+            p[major + 1] = n;
+        }
+        return left.create(nRows, nColumns, p, copyOf(i, n), copyOf(v, n));
+    }
+
+    /**
+     * Get a matrix with the same entries but the other storage orientation.
+     * <p>
+     * This conversion is a counting sort with O(nnz) complexity.
+     * </p>
+     *
+     * @return a matrix with the same entries, stored along the other dimension
+     */
+    AbstractCompressedRealMatrix swapOrientation() {
+        final int nMajor = pointers.length - 1;
+        final int nMinor = rows + columns - nMajor;
+        final int nnz = getNonZeroCount();
+        final int[] p = new int[nMinor + 1];
+        for (int k = 0; k < nnz; ++k) {
+            ++p[indices[k] + 1];
+        }
+        for (int k = 0; k < nMinor; ++k) {
+            p[k + 1] += p[k];
+        }
+        final int[] next = new int[nMinor];
+        System.arraycopy(p, 0, next, 0, nMinor);
+        final int[] i = new int[nnz];
+        final double[] v = new double[nnz];
+        for (int major = 0; major < nMajor; ++major) {
+            for (int k = pointers[major]; k < pointers[major + 1]; ++k) {
+                final int position = next[indices[k]]++;
+                i[position] = major;
+                v[position] = values[k];
+            }
+        }
+        return createSwapped(rows, columns, p, i, v);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The transposed matrix uses the other storage orientation, so this
+     * method only copies the storage arrays.
+     * </p>
+     */
+    @Override
+    public AbstractCompressedRealMatrix transpose() {
+        final int nnz = getNonZeroCount();
+        return createSwapped(columns, rows, pointers.clone(),
+                             copyOf(indices, nnz), copyOf(values, nnz));
+    }
+
+    /**
+     * Copy an array, truncating or padding it.
+     * @param source array to copy
+     * @param length length of the copy
+     * @return a copy of the array
+     */
+    static int[] copyOf(final int[] source, final int length) {
+        final int[] output = new int[length];
+        System.arraycopy(source, 0, output, 0, FastMath.min(length, source.length));
+        return output;
+    }
+
+    /**
+     * Copy an array, truncating or padding it.
+     * @param source array to copy
+     * @param length length of the copy
+     * @return a copy of the array
+     */
+    static double[] copyOf(final double[] source, final int length) {
+        final double[] output = new double[length];
+        System.arraycopy(source, 0, output, 0, FastMath.min(length, source.length));
+        return output;
+    }
+
+    /**
+     * Check the length of a vector.
+     * @param length actual length
+     * @param expected expected length
+     * @throws DimensionMismatchException if lengths differ
+     */
+    static void checkLength(final int length, final int expected)
+        throws DimensionMismatchException {
+        if (length != expected) {
+            throw new DimensionMismatchException(length, expected);
+        }
+    }
+
+}
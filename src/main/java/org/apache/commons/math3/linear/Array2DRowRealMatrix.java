@@ -18,6 +18,7 @@
 package org.apache.commons.math3.linear;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.MathIllegalStateException;
@@ -179,6 +180,41 @@ public class Array2DRowRealMatrix extends AbstractRealMatrix implements Serializ
         return new Array2DRowRealMatrix(outData, false);
     }
 
+    /**
+     * Compute the sum of {@code this} and {@code m} into a destination matrix.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code m}.
+     * </p>
+     *
+     * @param m Matrix to be added.
+     * @param out Destination matrix, with the same size as {@code this}.
+     * @return {@code out}, which now holds {@code this + m}.
+     * @throws MatrixDimensionMismatchException if {@code m} or {@code out}
+     * is not the same size as {@code this}.
+     * @since 3.3
+     */
+    public Array2DRowRealMatrix add(final Array2DRowRealMatrix m,
+                                    final Array2DRowRealMatrix out)
+        throws MatrixDimensionMismatchException {
+        // Safety check.
+        MatrixUtils.checkAdditionCompatible(this, m);
+        MatrixUtils.checkAdditionCompatible(this, out);
+
+        final int rowCount    = getRowDimension();
+        final int columnCount = getColumnDimension();
+        for (int row = 0; row < rowCount; row++) {
+            final double[] dataRow    = data[row];
+            final double[] mRow       = m.data[row];
+            final double[] outDataRow = out.data[row];
+            for (int col = 0; col < columnCount; col++) {
+                outDataRow[col] = dataRow[col] + mRow[col];
+            }
+        }
+
+        return out;
+    }
+
     /**
      * Returns {@code this} minus {@code m}.
      *
@@ -206,6 +242,40 @@ public class Array2DRowRealMatrix extends AbstractRealMatrix implements Serializ
         return new Array2DRowRealMatrix(outData, false);
     }
 
+    /**
+     * Compute {@code this} minus {@code m} into a destination matrix.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code m}.
+     * </p>
+     *
+     * @param m Matrix to be subtracted.
+     * @param out Destination matrix, with the same size as {@code this}.
+     * @return {@code out}, which now holds {@code this - m}.
+     * @throws MatrixDimensionMismatchException if {@code m} or {@code out}
+     * is not the same size as {@code this}.
+     * @since 3.3
+     */
+    public Array2DRowRealMatrix subtract(final Array2DRowRealMatrix m,
+                                         final Array2DRowRealMatrix out)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        MatrixUtils.checkSubtractionCompatible(this, out);
+
+        final int rowCount    = getRowDimension();
+        final int columnCount = getColumnDimension();
+        for (int row = 0; row < rowCount; row++) {
+            final double[] dataRow    = data[row];
+            final double[] mRow       = m.data[row];
+            final double[] outDataRow = out.data[row];
+            for (int col = 0; col < columnCount; col++) {
+                outDataRow[col] = dataRow[col] - mRow[col];
+            }
+        }
+
+        return out;
+    }
+
     /**
      * Returns the result of postmultiplying {@code this} by {@code m}.
      *
@@ -248,6 +318,80 @@ public class Array2DRowRealMatrix extends AbstractRealMatrix implements Serializ
         return new Array2DRowRealMatrix(outData, false);
     }
 
+    /**
+     * Postmultiplies {@code this} by {@code m} into a destination matrix.
+     * <p>
+     * The destination may be {@code this} (if {@code m} is square) or
+     * {@code m} (if {@code this} is square). Apart from a buffer holding one
+     * row or one column, no memory is allocated, except when {@code this},
+     * {@code m} and {@code out} are all the same matrix, in which case a
+     * temporary copy is made.
+     * </p>
+     *
+     * @param m matrix to postmultiply by
+     * @param out destination matrix, with {@code rowDimension(this)} rows
+     * and {@code columnDimension(m)} columns
+     * @return {@code out}, which now holds {@code this * m}
+     * @throws DimensionMismatchException if
+     * {@code columnDimension(this) != rowDimension(m)}
+     * @throws MatrixDimensionMismatchException if {@code out} does not
+     * have the dimensions of the product
+     * @since 3.3
+     */
+    public Array2DRowRealMatrix multiply(final Array2DRowRealMatrix m,
+                                         final Array2DRowRealMatrix out)
+        throws DimensionMismatchException, MatrixDimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+
+        final int nRows = this.getRowDimension();
+        final int nCols = m.getColumnDimension();
+        final int nSum = this.getColumnDimension();
+        if (out.getRowDimension() != nRows || out.getColumnDimension() != nCols) {
+            throw new MatrixDimensionMismatchException(out.getRowDimension(),
+                                                       out.getColumnDimension(),
+                                                       nRows, nCols);
+        }
+
+        final double[][] outData = out.data;
+        if (outData != data) {
+            // Column oriented product: each column of "m" is copied before
+            // the same column of "out" is written, which is safe if out == m.
+            final double[] mCol = new double[nSum];
+            final double[][] mData = m.data;
+            for (int col = 0; col < nCols; col++) {
+                for (int mRow = 0; mRow < nSum; mRow++) {
+                    mCol[mRow] = mData[mRow][col];
+                }
+                for (int row = 0; row < nRows; row++) {
+                    final double[] dataRow = data[row];
+                    double sum = 0;
+                    for (int i = 0; i < nSum; i++) {
+                        sum += dataRow[i] * mCol[i];
+                    }
+                    outData[row][col] = sum;
+                }
+            }
+        } else {
+            // Row oriented product: each row of "this" is copied before
+            // the same row of "out" is written.
+            final double[][] mData = (m.data == data) ? copyOut() : m.data;
+            final double[] dataRow = new double[nSum];
+            for (int row = 0; row < nRows; row++) {
+                System.arraycopy(data[row], 0, dataRow, 0, nSum);
+                final double[] outDataRow = outData[row];
+                for (int col = 0; col < nCols; col++) {
+                    double sum = 0;
+                    for (int i = 0; i < nSum; i++) {
+                        sum += dataRow[i] * mData[i][col];
+                    }
+                    outDataRow[col] = sum;
+                }
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double[][] getData() {
@@ -366,6 +510,44 @@ public class Array2DRowRealMatrix extends AbstractRealMatrix implements Serializ
         return out;
     }
 
+    /**
+     * Returns the result of multiplying this by the vector {@code v}, into a
+     * destination array.
+     * <p>
+     * No memory is allocated, except when {@code out} and {@code v} are the
+     * same array, in which case a temporary copy of {@code v} is made.
+     * </p>
+     *
+     * @param v the vector to operate on
+     * @param out destination array, of length {@code rowDimension(this)}
+     * @return {@code out}, which now holds {@code this * v}
+     * @throws DimensionMismatchException if the length of {@code v} does not
+     * match the column dimension of {@code this}, or if the length of
+     * {@code out} does not match its row dimension.
+     * @since 3.3
+     */
+    public double[] operate(final double[] v, final double[] out)
+        throws DimensionMismatchException {
+        final int nRows = this.getRowDimension();
+        final int nCols = this.getColumnDimension();
+        if (v.length != nCols) {
+            throw new DimensionMismatchException(v.length, nCols);
+        }
+        if (out.length != nRows) {
+            throw new DimensionMismatchException(out.length, nRows);
+        }
+        final double[] in = (v == out) ? v.clone() : v;
+        for (int row = 0; row < nRows; row++) {
+            final double[] dataRow = data[row];
+            double sum = 0;
+            for (int i = 0; i < nCols; i++) {
+                sum += dataRow[i] * in[i];
+            }
+            out[row] = sum;
+        }
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double[] preMultiply(final double[] v)
@@ -389,6 +571,46 @@ public class Array2DRowRealMatrix extends AbstractRealMatrix implements Serializ
 
     }
 
+    /**
+     * Returns the (row) vector result of premultiplying this by the vector
+     * {@code v}, into a destination array.
+     * <p>
+     * No memory is allocated, except when {@code out} and {@code v} are the
+     * same array, in which case a temporary copy of {@code v} is made.
+     * </p>
+     *
+     * @param v the row vector to premultiply by
+     * @param out destination array, of length {@code columnDimension(this)}
+     * @return {@code out}, which now holds {@code v * this}
+     * @throws DimensionMismatchException if the length of {@code v} does not
+     * match the row dimension of {@code this}, or if the length of
+     * {@code out} does not match its column dimension.
+     * @since 3.3
+     */
+    public double[] preMultiply(final double[] v, final double[] out)
+        throws DimensionMismatchException {
+        final int nRows = getRowDimension();
+        final int nCols = getColumnDimension();
+        if (v.length != nRows) {
+            throw new DimensionMismatchException(v.length, nRows);
+        }
+        if (out.length != nCols) {
+            throw new DimensionMismatchException(out.length, nCols);
+        }
+
+        final double[] in = (v == out) ? v.clone() : v;
+        Arrays.fill(out, 0.0);
+        for (int i = 0; i < nRows; ++i) {
+            final double[] dataRow = data[i];
+            final double vI = in[i];
+            for (int col = 0; col < nCols; ++col) {
+                out[col] += vI * dataRow[col];
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double walkInRowOrder(final RealMatrixChangingVisitor visitor) {
@@ -17,8 +17,12 @@
 package org.apache.commons.math3.linear;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math3.analysis.UnivariateFunction;
 import org.apache.commons.math3.exception.NotPositiveException;
@@ -28,6 +32,7 @@ import org.apache.commons.math3.exception.NumberIsTooLargeException;
 import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.ConcurrencyUtils;
 import org.apache.commons.math3.util.MathUtils;
 import org.apache.commons.math3.util.FastMath;
 
@@ -41,6 +46,8 @@ public class ArrayRealVector extends RealVector implements Serializable {
     private static final long serialVersionUID = -1097961340710804027L;
     /** Default format. */
     private static final RealVectorFormat DEFAULT_FORMAT = RealVectorFormat.getInstance();
+    /** Number of entries per task for parallel walks. */
+    private static final int WALK_ENTRIES_PER_TASK = 1 << 16;
 
     /** Entries of the vector. */
     private double data[];
@@ -315,6 +322,43 @@ public class ArrayRealVector extends RealVector implements Serializable {
         }
     }
 
+    /**
+     * Compute the sum of this vector and {@code v} into a destination vector.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code v}.
+     * </p>
+     *
+     * @param v Vector to be added.
+     * @param out Destination vector, with the same dimension as this vector.
+     * @return {@code out}, which now holds {@code this + v}.
+     * @throws DimensionMismatchException if {@code v} or {@code out} does
+     * not have the same dimension as this vector.
+     * @since 3.3
+     */
+    public ArrayRealVector add(RealVector v, ArrayRealVector out)
+        throws DimensionMismatchException {
+        final double[] outData = out.data;
+        checkVectorDimensions(outData.length);
+        if (v instanceof ArrayRealVector) {
+            final double[] vData = ((ArrayRealVector) v).data;
+            final int dim = vData.length;
+            checkVectorDimensions(dim);
+            for (int i = 0; i < dim; i++) {
+                outData[i] = data[i] + vData[i];
+            }
+        } else {
+            checkVectorDimensions(v);
+            System.arraycopy(data, 0, outData, 0, data.length);
+            Iterator<Entry> it = v.iterator();
+            while (it.hasNext()) {
+                final Entry e = it.next();
+                outData[e.getIndex()] += e.getValue();
+            }
+        }
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ArrayRealVector subtract(RealVector v)
@@ -341,6 +385,43 @@ public class ArrayRealVector extends RealVector implements Serializable {
         }
     }
 
+    /**
+     * Subtract {@code v} from this vector into a destination vector.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code v}.
+     * </p>
+     *
+     * @param v Vector to be subtracted.
+     * @param out Destination vector, with the same dimension as this vector.
+     * @return {@code out}, which now holds {@code this - v}.
+     * @throws DimensionMismatchException if {@code v} or {@code out} does
+     * not have the same dimension as this vector.
+     * @since 3.3
+     */
+    public ArrayRealVector subtract(RealVector v, ArrayRealVector out)
+        throws DimensionMismatchException {
+        final double[] outData = out.data;
+        checkVectorDimensions(outData.length);
+        if (v instanceof ArrayRealVector) {
+            final double[] vData = ((ArrayRealVector) v).data;
+            final int dim = vData.length;
+            checkVectorDimensions(dim);
+            for (int i = 0; i < dim; i++) {
+                outData[i] = data[i] - vData[i];
+            }
+        } else {
+            checkVectorDimensions(v);
+            System.arraycopy(data, 0, outData, 0, data.length);
+            Iterator<Entry> it = v.iterator();
+            while (it.hasNext()) {
+                final Entry e = it.next();
+                outData[e.getIndex()] -= e.getValue();
+            }
+        }
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ArrayRealVector map(UnivariateFunction function) {
@@ -416,6 +497,40 @@ public class ArrayRealVector extends RealVector implements Serializable {
         }
     }
 
+    /**
+     * Compute the element-by-element product of this vector and {@code v} into a destination vector.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code v}.
+     * </p>
+     *
+     * @param v Vector to be multiplied by.
+     * @param out Destination vector, with the same dimension as this vector.
+     * @return {@code out}, which now holds {@code this .* v}.
+     * @throws DimensionMismatchException if {@code v} or {@code out} does
+     * not have the same dimension as this vector.
+     * @since 3.3
+     */
+    public ArrayRealVector ebeMultiply(RealVector v, ArrayRealVector out)
+        throws DimensionMismatchException {
+        final double[] outData = out.data;
+        checkVectorDimensions(outData.length);
+        if (v instanceof ArrayRealVector) {
+            final double[] vData = ((ArrayRealVector) v).data;
+            final int dim = vData.length;
+            checkVectorDimensions(dim);
+            for (int i = 0; i < dim; i++) {
+                outData[i] = data[i] * vData[i];
+            }
+        } else {
+            checkVectorDimensions(v);
+            for (int i = 0; i < data.length; i++) {
+                outData[i] = data[i] * v.getEntry(i);
+            }
+        }
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ArrayRealVector ebeDivide(RealVector v)
@@ -440,6 +555,40 @@ public class ArrayRealVector extends RealVector implements Serializable {
         }
     }
 
+    /**
+     * Compute the element-by-element quotient of this vector by {@code v} into a destination vector.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code v}.
+     * </p>
+     *
+     * @param v Vector to be divided by.
+     * @param out Destination vector, with the same dimension as this vector.
+     * @return {@code out}, which now holds {@code this ./ v}.
+     * @throws DimensionMismatchException if {@code v} or {@code out} does
+     * not have the same dimension as this vector.
+     * @since 3.3
+     */
+    public ArrayRealVector ebeDivide(RealVector v, ArrayRealVector out)
+        throws DimensionMismatchException {
+        final double[] outData = out.data;
+        checkVectorDimensions(outData.length);
+        if (v instanceof ArrayRealVector) {
+            final double[] vData = ((ArrayRealVector) v).data;
+            final int dim = vData.length;
+            checkVectorDimensions(dim);
+            for (int i = 0; i < dim; i++) {
+                outData[i] = data[i] / vData[i];
+            }
+        } else {
+            checkVectorDimensions(v);
+            for (int i = 0; i < data.length; i++) {
+                outData[i] = data[i] / v.getEntry(i);
+            }
+        }
+        return out;
+    }
+
     /**
      * Get a reference to the underlying data array.
      * This method does not make a fresh copy of the underlying data.
@@ -844,6 +993,42 @@ public class ArrayRealVector extends RealVector implements Serializable {
         return copy().combineToSelf(a, b, y);
     }
 
+    /**
+     * Computes a linear combination of this vector and {@code y} into a
+     * destination vector.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code y}.
+     * </p>
+     *
+     * @param a Coefficient of {@code this}.
+     * @param b Coefficient of {@code y}.
+     * @param y Vector with which {@code this} is linearly combined.
+     * @param out Destination vector, with the same dimension as this vector.
+     * @return {@code out}, which now holds {@code a * this + b * y}.
+     * @throws DimensionMismatchException if {@code y} or {@code out} does
+     * not have the same dimension as this vector.
+     * @since 3.3
+     */
+    public ArrayRealVector combine(double a, double b, RealVector y, ArrayRealVector out)
+        throws DimensionMismatchException {
+        final double[] outData = out.data;
+        checkVectorDimensions(outData.length);
+        if (y instanceof ArrayRealVector) {
+            final double[] yData = ((ArrayRealVector) y).data;
+            checkVectorDimensions(yData.length);
+            for (int i = 0; i < this.data.length; i++) {
+                outData[i] = a * data[i] + b * yData[i];
+            }
+        } else {
+            checkVectorDimensions(y);
+            for (int i = 0; i < this.data.length; i++) {
+                outData[i] = a * data[i] + b * y.getEntry(i);
+            }
+        }
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ArrayRealVector combineToSelf(double a, double b, RealVector y)
@@ -952,4 +1137,106 @@ public class ArrayRealVector extends RealVector implements Serializable {
         OutOfRangeException {
         return walkInDefaultOrder(visitor, start, end);
     }
+
+    /**
+     * Visits (and possibly changes) all entries of this vector, spreading
+     * the work across the threads of an executor.
+     * <p>
+     * The vector is split in contiguous ranges, each range being visited by
+     * its own {@link CombinableRealVectorChangingVisitor#split() partial
+     * visitor}, in increasing index order. The partial visitors are combined
+     * in the order of the ranges, so the result does not depend on the
+     * executor.
+     * </p>
+     *
+     * @param visitor the visitor to be used to process and modify the entries
+     * of this vector
+     * @param executor Executor in charge of running the tasks.
+     * @return the value returned by {@link RealVectorChangingVisitor#end()}
+     * at the end of the walk
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public double walkInOptimizedOrder(final CombinableRealVectorChangingVisitor visitor,
+                                       final ExecutorService executor)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(executor);
+        visitor.start(data.length, 0, data.length - 1);
+
+        final List<CombinableRealVectorChangingVisitor> partials =
+            new ArrayList<CombinableRealVectorChangingVisitor>();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < data.length; start += WALK_ENTRIES_PER_TASK) {
+            final CombinableRealVectorChangingVisitor partial = visitor.split();
+            final int first = start;
+            final int last  = FastMath.min(start + WALK_ENTRIES_PER_TASK, data.length);
+            partials.add(partial);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int i = first; i < last; i++) {
+                        data[i] = partial.visit(i, data[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, tasks);
+
+        for (final CombinableRealVectorChangingVisitor partial : partials) {
+            visitor.combine(partial);
+        }
+        return visitor.end();
+    }
+
+    /**
+     * Visits (but does not alter) all entries of this vector, spreading
+     * the work across the threads of an executor.
+     * <p>
+     * The vector is split in contiguous ranges, each range being visited by
+     * its own {@link CombinableRealVectorPreservingVisitor#split() partial
+     * visitor}, in increasing index order. The partial visitors are combined
+     * in the order of the ranges, so the result does not depend on the
+     * executor.
+     * </p>
+     *
+     * @param visitor the visitor to be used to process the entries of this
+     * vector
+     * @param executor Executor in charge of running the tasks.
+     * @return the value returned by {@link RealVectorPreservingVisitor#end()}
+     * at the end of the walk
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public double walkInOptimizedOrder(final CombinableRealVectorPreservingVisitor visitor,
+                                       final ExecutorService executor)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(executor);
+        visitor.start(data.length, 0, data.length - 1);
+
+        final List<CombinableRealVectorPreservingVisitor> partials =
+            new ArrayList<CombinableRealVectorPreservingVisitor>();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < data.length; start += WALK_ENTRIES_PER_TASK) {
+            final CombinableRealVectorPreservingVisitor partial = visitor.split();
+            final int first = start;
+            final int last  = FastMath.min(start + WALK_ENTRIES_PER_TASK, data.length);
+            partials.add(partial);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int i = first; i < last; i++) {
+                        partial.visit(i, data[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, tasks);
+
+        for (final CombinableRealVectorPreservingVisitor partial : partials) {
+            visitor.combine(partial);
+        }
+        return visitor.end();
+    }
 }
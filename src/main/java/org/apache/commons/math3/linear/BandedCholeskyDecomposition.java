@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the Cholesky decomposition of a symmetric positive-definite
+ * banded matrix.
+ * <p>
+ * The Cholesky factor L of a matrix with bandwidth k has the same lower
+ * bandwidth k, so for a matrix of dimension n the decomposition needs
+ * O(n k) storage and O(n k<sup>2</sup>) operations, and each solve needs
+ * O(n k) operations. Only the lower band of the matrix is used for the
+ * computation, the upper band is only used to check symmetry.
+ * </p>
+ *
+ * @see BandedRealMatrix
+ * @see CholeskyDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class BandedCholeskyDecomposition {
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Bandwidth of the matrix. */
+    private final int bandwidth;
+
+    /**
+     * Rows of L, stored as in {@link BandedRealMatrix}: element j of row i
+     * is stored at index (i + 1) k + j, with k the bandwidth.
+     */
+    private final double[] lData;
+
+    /** Cached value of L. */
+    private BandedRealMatrix cachedL;
+
+    /** Cached value of LT. */
+    private BandedRealMatrix cachedLT;
+
+    /**
+     * Calculates the Cholesky decomposition of the given matrix.
+     * <p>
+     * Calling this constructor is equivalent to call {@link
+     * #BandedCholeskyDecomposition(BandedRealMatrix, double, double)} with the
+     * thresholds set to the default values {@link
+     * CholeskyDecomposition#DEFAULT_RELATIVE_SYMMETRY_THRESHOLD} and {@link
+     * CholeskyDecomposition#DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD}
+     * </p>
+     * @param matrix the matrix to decompose
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @throws NonSymmetricMatrixException if the matrix is not symmetric.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * strictly positive definite.
+     */
+    public BandedCholeskyDecomposition(final BandedRealMatrix matrix) {
+        this(matrix, CholeskyDecomposition.DEFAULT_RELATIVE_SYMMETRY_THRESHOLD,
+             CholeskyDecomposition.DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD);
+    }
+
+    /**
+     * Calculates the Cholesky decomposition of the given matrix.
+     * @param matrix the matrix to decompose
+     * @param relativeSymmetryThreshold threshold above which off-diagonal
+     * elements are considered too different and matrix not symmetric
+     * @param absolutePositivityThreshold threshold below which diagonal
+     * elements are considered null and matrix not positive definite
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @throws NonSymmetricMatrixException if the matrix is not symmetric.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * strictly positive definite.
+     */
+    public BandedCholeskyDecomposition(final BandedRealMatrix matrix,
+                                       final double relativeSymmetryThreshold,
+                                       final double absolutePositivityThreshold) {
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                               matrix.getColumnDimension());
+        }
+
+        n         = matrix.getRowDimension();
+        bandwidth = matrix.getLowerBandwidth();
+        cachedL   = null;
+        cachedLT  = null;
+
+        // check the matrix before transformation
+        final int checked = FastMath.max(matrix.getLowerBandwidth(), matrix.getUpperBandwidth());
+        for (int i = 0; i < n; ++i) {
+            final int end = FastMath.min(n - 1, i + checked);
+            for (int j = i + 1; j <= end; ++j) {
+                final double aIJ = matrix.getEntry(i, j);
+                final double aJI = matrix.getEntry(j, i);
+                final double maxDelta =
+                    relativeSymmetryThreshold * FastMath.max(FastMath.abs(aIJ), FastMath.abs(aJI));
+                if (FastMath.abs(aIJ - aJI) > maxDelta) {
+                    throw new NonSymmetricMatrixException(i, j, relativeSymmetryThreshold);
+                }
+            }
+        }
+
+        // copy the lower band
+        final int width = bandwidth + 1;
+        final double[] data = matrix.getDataRef();
+        lData = new double[n * width];
+        for (int i = 0; i < n; ++i) {
+            final int start = FastMath.max(0, i - bandwidth);
+            System.arraycopy(data, matrix.offset(i) + start,
+                             lData, offset(i) + start, i - start + 1);
+        }
+
+        // transform the matrix
+        for (int i = 0; i < n; ++i) {
+            final int start = FastMath.max(0, i - bandwidth);
+            final int iBase = offset(i);
+            for (int j = start; j <= i; ++j) {
+                final int jBase = offset(j);
+                double sum = lData[iBase + j];
+                for (int p = start; p < j; ++p) {
+                    sum -= lData[iBase + p] * lData[jBase + p];
+                }
+                if (j < i) {
+                    lData[iBase + j] = sum / lData[jBase + j];
+                } else {
+                    // check diagonal element
+                    if (sum <= absolutePositivityThreshold) {
+                        throw new NonPositiveDefiniteMatrixException(sum, i, absolutePositivityThreshold);
+                    }
+                    lData[iBase + i] = FastMath.sqrt(sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the offset of a row of L in the data array.
+     *
+     * @param row Row index.
+     * @return offset of the row.
+     */
+    private int offset(final int row) {
+        return row * bandwidth + bandwidth;
+    }
+
+    /**
+     * Returns the matrix L of the decomposition.
+     * <p>L is an lower-triangular banded matrix</p>
+     * @return the L matrix
+     */
+    public BandedRealMatrix getL() {
+        if (cachedL == null) {
+            cachedL = new BandedRealMatrix(n, n, bandwidth, 0);
+            System.arraycopy(lData, 0, cachedL.getDataRef(), 0, lData.length);
+        }
+        return cachedL;
+    }
+
+    /**
+     * Returns the transpose of the matrix L of the decomposition.
+     * <p>L<sup>T</sup> is an upper-triangular banded matrix</p>
+     * @return the transpose of the matrix L of the decomposition
+     */
+    public BandedRealMatrix getLT() {
+        if (cachedLT == null) {
+            cachedLT = getL().transpose();
+        }
+        return cachedLT;
+    }
+
+    /**
+     * Return the determinant of the matrix
+     * @return determinant of the matrix
+     */
+    public double getDeterminant() {
+        double determinant = 1.0;
+        for (int i = 0; i < n; ++i) {
+            final double lII = lData[offset(i) + i];
+            determinant *= lII * lII;
+        }
+        return determinant;
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in least square sense.
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver();
+    }
+
+    /** Specialized solver. */
+    private class Solver implements DecompositionSolver {
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            // if we get this far, the matrix was positive definite, hence non-singular
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(final RealVector b) {
+            if (b.getDimension() != n) {
+                throw new DimensionMismatchException(b.getDimension(), n);
+            }
+
+            final double[] x = b.toArray();
+
+            // Solve LY = b
+            for (int i = 0; i < n; ++i) {
+                final int base = offset(i);
+                double sum = x[i];
+                for (int p = FastMath.max(0, i - bandwidth); p < i; ++p) {
+                    sum -= lData[base + p] * x[p];
+                }
+                x[i] = sum / lData[base + i];
+            }
+
+            // Solve LTX = Y
+            for (int i = n - 1; i >= 0; --i) {
+                final int base = offset(i);
+                final double xI = x[i] / lData[base + i];
+                x[i] = xI;
+                for (int p = FastMath.max(0, i - bandwidth); p < i; ++p) {
+                    x[p] -= lData[base + p] * xI;
+                }
+            }
+
+            return new ArrayRealVector(x, false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(final RealMatrix b) {
+            if (b.getRowDimension() != n) {
+                throw new DimensionMismatchException(b.getRowDimension(), n);
+            }
+
+            final int nColB = b.getColumnDimension();
+            final double[][] x = b.getData();
+
+            // Solve LY = B
+            for (int i = 0; i < n; ++i) {
+                final int base = offset(i);
+                final double[] xI = x[i];
+                for (int p = FastMath.max(0, i - bandwidth); p < i; ++p) {
+                    final double lIP = lData[base + p];
+                    final double[] xP = x[p];
+                    for (int k = 0; k < nColB; ++k) {
+                        xI[k] -= lIP * xP[k];
+                    }
+                }
+                final double lII = lData[base + i];
+                for (int k = 0; k < nColB; ++k) {
+                    xI[k] /= lII;
+                }
+            }
+
+            // Solve LTX = Y
+            for (int i = n - 1; i >= 0; --i) {
+                final int base = offset(i);
+                final double[] xI = x[i];
+                final double lII = lData[base + i];
+                for (int k = 0; k < nColB; ++k) {
+                    xI[k] /= lII;
+                }
+                for (int p = FastMath.max(0, i - bandwidth); p < i; ++p) {
+                    final double lIP = lData[base + p];
+                    final double[] xP = x[p];
+                    for (int k = 0; k < nColB; ++k) {
+                        xP[k] -= lIP * xI[k];
+                    }
+                }
+            }
+
+            return new Array2DRowRealMatrix(x, false);
+        }
+
+        /**
+         * Get the inverse of the decomposed matrix.
+         *
+         * @return the inverse matrix.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(n));
+        }
+    }
+}
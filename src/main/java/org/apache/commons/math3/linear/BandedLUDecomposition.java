@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the LU-decomposition of a square banded matrix.
+ * <p>
+ * This is Gaussian elimination with partial pivoting, restricted to the band.
+ * For a matrix of dimension n with lower bandwidth k<sub>l</sub> and upper
+ * bandwidth k<sub>u</sub>, row interchanges increase the upper bandwidth of
+ * U to k<sub>l</sub> + k<sub>u</sub>, so the decomposition needs
+ * O(n (2 k<sub>l</sub> + k<sub>u</sub>)) storage and
+ * O(n k<sub>l</sub> (k<sub>l</sub> + k<sub>u</sub>)) operations, and each
+ * solve needs O(n (2 k<sub>l</sub> + k<sub>u</sub>)) operations. For a
+ * tridiagonal matrix, this is the Thomas algorithm with partial pivoting,
+ * which remains stable for matrices that are not diagonally dominant.
+ * </p>
+ * <p>
+ * As in {@link LUDecomposition}, a singular matrix does not prevent the
+ * decomposition from being built, but the {@link DecompositionSolver solver}
+ * will throw a {@link SingularMatrixException}.
+ * </p>
+ *
+ * @see BandedRealMatrix
+ * @see LUDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class BandedLUDecomposition {
+
+    /** Default bound to determine effective singularity in LU decomposition. */
+    private static final double DEFAULT_TOO_SMALL = 1e-11;
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Lower bandwidth. */
+    private final int lower;
+
+    /** Number of elements stored for each row of U. */
+    private final int width;
+
+    /**
+     * Rows of U, stored starting from the diagonal: element t of row k
+     * is U(k, k + t).
+     */
+    private final double[] u;
+
+    /** Multipliers of each elimination step, stored row by row. */
+    private final double[] multipliers;
+
+    /** Row interchanged with each row at each elimination step. */
+    private final int[] interchanges;
+
+    /** Parity of the permutation. */
+    private boolean even;
+
+    /** Singularity indicator. */
+    private boolean singular;
+
+    /** Cached value of U. */
+    private BandedRealMatrix cachedU;
+
+    /**
+     * Calculates the LU-decomposition of the given matrix.
+     * <p>
+     * This constructor uses 1e-11 as default value for the singularity
+     * threshold.
+     * </p>
+     *
+     * @param matrix Matrix to decompose.
+     * @throws NonSquareMatrixException if matrix is not square.
+     */
+    public BandedLUDecomposition(final BandedRealMatrix matrix) {
+        this(matrix, DEFAULT_TOO_SMALL);
+    }
+
+    /**
+     * Calculates the LU-decomposition of the given matrix.
+     *
+     * @param matrix Matrix to decompose.
+     * @param singularityThreshold threshold (based on partial row norm)
+     * under which a matrix is considered singular
+     * @throws NonSquareMatrixException if matrix is not square
+     */
+    public BandedLUDecomposition(final BandedRealMatrix matrix,
+                                 final double singularityThreshold) {
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                               matrix.getColumnDimension());
+        }
+
+        n            = matrix.getRowDimension();
+        lower        = matrix.getLowerBandwidth();
+        width        = lower + matrix.getUpperBandwidth() + 1;
+        u            = new double[n * width];
+        multipliers  = new double[n * lower];
+        interchanges = new int[n];
+        even         = true;
+        singular     = false;
+        cachedU      = null;
+
+        // copy the band, shifting each row so that its first
+        // non-zero element is at the beginning of the row
+        final double[] data = matrix.getDataRef();
+        final int upper = matrix.getUpperBandwidth();
+        for (int i = 0; i < n; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(n - 1, i + upper);
+            System.arraycopy(data, matrix.offset(i) + start, u, i * width, end - start + 1);
+        }
+
+        // elimination: at step k, the first element of rows k to l - 1
+        // corresponds to column k
+        int l = lower;
+        for (int k = 0; k < n; ++k) {
+            if (l < n) {
+                ++l;
+            }
+
+            // search for the pivot
+            int max = k;
+            double largest = FastMath.abs(u[k * width]);
+            for (int i = k + 1; i < l; ++i) {
+                final double abs = FastMath.abs(u[i * width]);
+                if (abs > largest) {
+                    largest = abs;
+                    max     = i;
+                }
+            }
+            interchanges[k] = max;
+            if (largest < singularityThreshold) {
+                singular = true;
+                return;
+            }
+
+            // pivot if necessary
+            if (max != k) {
+                final int kBase   = k * width;
+                final int maxBase = max * width;
+                for (int t = 0; t < width; ++t) {
+                    final double tmp = u[kBase + t];
+                    u[kBase + t]     = u[maxBase + t];
+                    u[maxBase + t]   = tmp;
+                }
+                even = !even;
+            }
+
+            // eliminate, shifting the updated rows by one position
+            final int kBase = k * width;
+            final double pivot = u[kBase];
+            for (int i = k + 1; i < l; ++i) {
+                final int iBase = i * width;
+                final double factor = u[iBase] / pivot;
+                multipliers[k * lower + i - k - 1] = factor;
+                for (int t = 1; t < width; ++t) {
+                    u[iBase + t - 1] = u[iBase + t] - factor * u[kBase + t];
+                }
+                u[iBase + width - 1] = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the matrix U of the decomposition.
+     * <p>U is an upper-triangular banded matrix, with upper bandwidth
+     * k<sub>l</sub> + k<sub>u</sub> (capped by the dimension).</p>
+     * @return the U matrix (or null if decomposed matrix is singular)
+     */
+    public BandedRealMatrix getU() {
+        if ((cachedU == null) && !singular) {
+            cachedU = new BandedRealMatrix(n, n, 0, FastMath.min(n - 1, width - 1));
+            for (int k = 0; k < n; ++k) {
+                final int end = FastMath.min(n - 1, k + width - 1);
+                for (int j = k; j <= end; ++j) {
+                    cachedU.setEntry(k, j, u[k * width + j - k]);
+                }
+            }
+        }
+        return cachedU;
+    }
+
+    /**
+     * Return the determinant of the matrix
+     * @return determinant of the matrix
+     */
+    public double getDeterminant() {
+        if (singular) {
+            return 0;
+        } else {
+            double determinant = even ? 1 : -1;
+            for (int k = 0; k < n; ++k) {
+                determinant *= u[k * width];
+            }
+            return determinant;
+        }
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in exact linear
+     * sense.
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver(n, lower, width, u, multipliers, interchanges, singular);
+    }
+
+    /** Specialized solver. */
+    private static class Solver implements DecompositionSolver {
+
+        /** Dimension of the matrix. */
+        private final int n;
+
+        /** Lower bandwidth. */
+        private final int lower;
+
+        /** Number of elements stored for each row of U. */
+        private final int width;
+
+        /** Rows of U, stored starting from the diagonal. */
+        private final double[] u;
+
+        /** Multipliers of each elimination step. */
+        private final double[] multipliers;
+
+        /** Row interchanged with each row at each elimination step. */
+        private final int[] interchanges;
+
+        /** Singularity indicator. */
+        private final boolean singular;
+
+        /**
+         * Build a solver from decomposed matrix.
+         * @param n dimension of the matrix
+         * @param lower lower bandwidth
+         * @param width number of elements stored for each row of U
+         * @param u rows of U
+         * @param multipliers multipliers of each elimination step
+         * @param interchanges row interchanges
+         * @param singular singularity indicator
+         */
+        private Solver(final int n, final int lower, final int width,
+                       final double[] u, final double[] multipliers,
+                       final int[] interchanges, final boolean singular) {
+            this.n            = n;
+            this.lower        = lower;
+            this.width        = width;
+            this.u            = u;
+            this.multipliers  = multipliers;
+            this.interchanges = interchanges;
+            this.singular     = singular;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            return !singular;
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(final RealVector b) {
+            if (b.getDimension() != n) {
+                throw new DimensionMismatchException(b.getDimension(), n);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+
+            final double[] x = b.toArray();
+
+            // apply the row interchanges and solve LY = Pb
+            int l = lower;
+            for (int k = 0; k < n; ++k) {
+                final int p = interchanges[k];
+                if (p != k) {
+                    final double tmp = x[k];
+                    x[k] = x[p];
+                    x[p] = tmp;
+                }
+                if (l < n) {
+                    ++l;
+                }
+                final double xK = x[k];
+                for (int i = k + 1; i < l; ++i) {
+                    x[i] -= multipliers[k * lower + i - k - 1] * xK;
+                }
+            }
+
+            // solve UX = Y
+            for (int i = n - 1; i >= 0; --i) {
+                final int base = i * width;
+                final int end  = FastMath.min(width, n - i);
+                double sum = x[i];
+                for (int t = 1; t < end; ++t) {
+                    sum -= u[base + t] * x[i + t];
+                }
+                x[i] = sum / u[base];
+            }
+
+            return new ArrayRealVector(x, false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(final RealMatrix b) {
+            if (b.getRowDimension() != n) {
+                throw new DimensionMismatchException(b.getRowDimension(), n);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+
+            final int nColB = b.getColumnDimension();
+            final double[][] x = b.getData();
+
+            // apply the row interchanges and solve LY = PB
+            int l = lower;
+            for (int k = 0; k < n; ++k) {
+                final int p = interchanges[k];
+                if (p != k) {
+                    final double[] tmp = x[k];
+                    x[k] = x[p];
+                    x[p] = tmp;
+                }
+                if (l < n) {
+                    ++l;
+                }
+                final double[] xK = x[k];
+                for (int i = k + 1; i < l; ++i) {
+                    final double factor = multipliers[k * lower + i - k - 1];
+                    final double[] xI = x[i];
+                    for (int j = 0; j < nColB; ++j) {
+                        xI[j] -= factor * xK[j];
+                    }
+                }
+            }
+
+            // solve UX = Y
+            for (int i = n - 1; i >= 0; --i) {
+                final int base = i * width;
+                final int end  = FastMath.min(width, n - i);
+                final double[] xI = x[i];
+                for (int t = 1; t < end; ++t) {
+                    final double uIT = u[base + t];
+                    final double[] xIT = x[i + t];
+                    for (int j = 0; j < nColB; ++j) {
+                        xI[j] -= uIT * xIT[j];
+                    }
+                }
+                final double uII = u[base];
+                for (int j = 0; j < nColB; ++j) {
+                    xI[j] /= uII;
+                }
+            }
+
+            return new Array2DRowRealMatrix(x, false);
+        }
+
+        /**
+         * Get the inverse of the decomposed matrix.
+         *
+         * @return the inverse matrix.
+         * @throws SingularMatrixException if the decomposed matrix is singular.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(n));
+        }
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.Precision;
+
+/**
+ * Implementation of a banded matrix.
+ * <p>
+ * A banded matrix with lower bandwidth k<sub>l</sub> and upper bandwidth
+ * k<sub>u</sub> has non-zero entries a<sub>ij</sub> only for
+ * i - k<sub>l</sub> &le; j &le; i + k<sub>u</sub>. Tridiagonal matrices have
+ * k<sub>l</sub> = k<sub>u</sub> = 1, pentadiagonal matrices have
+ * k<sub>l</sub> = k<sub>u</sub> = 2. Only the band is stored, so memory and
+ * the cost of {@link #operate(double[]) matrix-vector products} are linear in
+ * the number of rows. Linear systems can be solved in linear time using
+ * {@link BandedLUDecomposition} or, for symmetric positive definite
+ * matrices, {@link BandedCholeskyDecomposition}.
+ * </p>
+ * <p>
+ * The band is stored row by row, each row holding k<sub>l</sub> +
+ * k<sub>u</sub> + 1 elements: entry a<sub>ij</sub> is stored at index
+ * i (k<sub>l</sub> + k<sub>u</sub> + 1) + j - i + k<sub>l</sub> of the
+ * {@link #getDataRef() data array}. Storage elements which lie outside of
+ * the matrix (in the first and last rows) are always zero.
+ * </p>
+ * <p>
+ * Setting a non-zero value outside of the band triggers a
+ * {@link NumberIsTooLargeException}. Operations that do not preserve the band
+ * structure, like {@link #multiply(RealMatrix) multiplication} by a general
+ * matrix, return a dense matrix.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class BandedRealMatrix extends AbstractRealMatrix
+    implements Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140302L;
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Lower bandwidth. */
+    private final int lower;
+
+    /** Upper bandwidth. */
+    private final int upper;
+
+    /** Number of elements stored for each row. */
+    private final int width;
+
+    /** Entries of the band, row by row. */
+    private final double[] data;
+
+    /**
+     * Creates a matrix with the supplied dimensions and bandwidths.
+     *
+     * @param rowDimension Number of rows in the new matrix.
+     * @param columnDimension Number of columns in the new matrix.
+     * @param lowerBandwidth Number of sub-diagonals.
+     * @param upperBandwidth Number of super-diagonals.
+     * @throws NotStrictlyPositiveException if the row or column dimension
+     * is not positive.
+     * @throws NotPositiveException if a bandwidth is negative.
+     * @throws NumberIsTooLargeException if the lower bandwidth is larger
+     * than {@code rowDimension - 1} or the upper bandwidth is larger than
+     * {@code columnDimension - 1}.
+     */
+    public BandedRealMatrix(final int rowDimension, final int columnDimension,
+                            final int lowerBandwidth, final int upperBandwidth)
+        throws NotStrictlyPositiveException, NotPositiveException,
+               NumberIsTooLargeException {
+        super(rowDimension, columnDimension);
+        if (lowerBandwidth < 0) {
+            throw new NotPositiveException(lowerBandwidth);
+        }
+        if (upperBandwidth < 0) {
+            throw new NotPositiveException(upperBandwidth);
+        }
+        if (lowerBandwidth > rowDimension - 1) {
+            throw new NumberIsTooLargeException(lowerBandwidth, rowDimension - 1, true);
+        }
+        if (upperBandwidth > columnDimension - 1) {
+            throw new NumberIsTooLargeException(upperBandwidth, columnDimension - 1, true);
+        }
+        this.rows    = rowDimension;
+        this.columns = columnDimension;
+        this.lower   = lowerBandwidth;
+        this.upper   = upperBandwidth;
+        this.width   = lowerBandwidth + upperBandwidth + 1;
+        this.data    = new double[rowDimension * width];
+    }
+
+    /**
+     * Creates a banded matrix from the entries of a dense array.
+     * <p>
+     * The input array is copied, not referenced.
+     * </p>
+     *
+     * @param d Data for the new matrix.
+     * @param lowerBandwidth Number of sub-diagonals.
+     * @param upperBandwidth Number of super-diagonals.
+     * @throws DimensionMismatchException if {@code d} is not rectangular.
+     * @throws NotStrictlyPositiveException if {@code d} is empty.
+     * @throws NotPositiveException if a bandwidth is negative.
+     * @throws NumberIsTooLargeException if a bandwidth is too large, or
+     * if a non-zero entry of {@code d} lies outside of the band.
+     */
+    public BandedRealMatrix(final double[][] d,
+                            final int lowerBandwidth, final int upperBandwidth)
+        throws DimensionMismatchException, NotStrictlyPositiveException,
+               NotPositiveException, NumberIsTooLargeException {
+        this(d.length, (d.length == 0) ? 0 : d[0].length, lowerBandwidth, upperBandwidth);
+        for (int i = 0; i < rows; ++i) {
+            if (d[i].length != columns) {
+                throw new DimensionMismatchException(d[i].length, columns);
+            }
+            for (int j = 0; j < columns; ++j) {
+                setEntry(i, j, d[i][j]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The new matrix has full bandwidths, so that it can hold any entry.
+     * </p>
+     */
+    @Override
+    public BandedRealMatrix createMatrix(final int rowDimension,
+                                         final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new BandedRealMatrix(rowDimension, columnDimension,
+                                    rowDimension - 1, columnDimension - 1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BandedRealMatrix copy() {
+        final BandedRealMatrix copy = new BandedRealMatrix(rows, columns, lower, upper);
+        System.arraycopy(data, 0, copy.data, 0, data.length);
+        return copy;
+    }
+
+    /**
+     * Get the lower bandwidth.
+     *
+     * @return number of sub-diagonals of the band.
+     */
+    public int getLowerBandwidth() {
+        return lower;
+    }
+
+    /**
+     * Get the upper bandwidth.
+     *
+     * @return number of super-diagonals of the band.
+     */
+    public int getUpperBandwidth() {
+        return upper;
+    }
+
+    /**
+     * Gets a reference to the underlying data array.
+     * <p>
+     * The layout of the array is described in the class documentation.
+     * </p>
+     *
+     * @return 1-dimensional array of the band entries.
+     */
+    public double[] getDataRef() {
+        return data;
+    }
+
+    /**
+     * Compute the sum of {@code this} and {@code m}.
+     *
+     * @param m Matrix to be added.
+     * @return {@code this + m}, with the widest bandwidths of both matrices.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public BandedRealMatrix add(final BandedRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        return combine(1, m);
+    }
+
+    /**
+     * Returns {@code this} minus {@code m}.
+     *
+     * @param m Matrix to be subtracted.
+     * @return {@code this - m}, with the widest bandwidths of both matrices.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public BandedRealMatrix subtract(final BandedRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        return combine(-1, m);
+    }
+
+    /**
+     * Compute {@code this + factor * m}.
+     *
+     * @param factor Factor applied to {@code m}.
+     * @param m Matrix to be combined.
+     * @return {@code this + factor * m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    private BandedRealMatrix combine(final double factor, final BandedRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkAdditionCompatible(this, m);
+        final BandedRealMatrix out =
+            new BandedRealMatrix(rows, columns,
+                                 FastMath.max(lower, m.lower), FastMath.max(upper, m.upper));
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(columns - 1, i + upper);
+            final int base  = offset(i);
+            final int outBase = out.offset(i);
+            for (int j = start; j <= end; ++j) {
+                out.data[outBase + j] = data[base + j];
+            }
+        }
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - m.lower);
+            final int end   = FastMath.min(columns - 1, i + m.upper);
+            final int mBase = m.offset(i);
+            final int outBase = out.offset(i);
+            for (int j = start; j <= end; ++j) {
+                out.data[outBase + j] += factor * m.data[mBase + j];
+            }
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix add(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof BandedRealMatrix) {
+            return add((BandedRealMatrix) m);
+        }
+        MatrixUtils.checkAdditionCompatible(this, m);
+        final double[][] out = m.getData();
+        addBandTo(1, out);
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix subtract(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof BandedRealMatrix) {
+            return subtract((BandedRealMatrix) m);
+        }
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        final double[][] out = m.getData();
+        for (final double[] row : out) {
+            for (int j = 0; j < row.length; ++j) {
+                row[j] = -row[j];
+            }
+        }
+        addBandTo(1, out);
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /**
+     * Add the band entries to a dense array.
+     *
+     * @param factor Factor applied to the band entries.
+     * @param out Dense array.
+     */
+    private void addBandTo(final double factor, final double[][] out) {
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(columns - 1, i + upper);
+            final int base  = offset(i);
+            final double[] outI = out[i];
+            for (int j = start; j <= end; ++j) {
+                outI[j] += factor * data[base + j];
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BandedRealMatrix scalarMultiply(final double d) {
+        final BandedRealMatrix out = new BandedRealMatrix(rows, columns, lower, upper);
+        for (int k = 0; k < data.length; ++k) {
+            out.data[k] = d * data[k];
+        }
+        return out;
+    }
+
+    /**
+     * Returns the result of postmultiplying {@code this} by {@code m}.
+     * <p>
+     * The bandwidths of the product are the sums of the bandwidths of the
+     * operands (capped by the dimensions of the product).
+     * </p>
+     *
+     * @param m matrix to postmultiply by
+     * @return {@code this * m}
+     * @throws DimensionMismatchException if
+     * {@code columnDimension(this) != rowDimension(m)}
+     */
+    public BandedRealMatrix multiply(final BandedRealMatrix m)
+        throws DimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final BandedRealMatrix out =
+            new BandedRealMatrix(rows, m.columns,
+                                 FastMath.min(rows - 1, lower + m.lower),
+                                 FastMath.min(m.columns - 1, upper + m.upper));
+        for (int i = 0; i < rows; ++i) {
+            final int kStart = FastMath.max(0, i - lower);
+            final int kEnd   = FastMath.min(columns - 1, i + upper);
+            final int base   = offset(i);
+            final int outBase = out.offset(i);
+            for (int k = kStart; k <= kEnd; ++k) {
+                final double aIK = data[base + k];
+                final int jStart = FastMath.max(0, k - m.lower);
+                final int jEnd   = FastMath.min(m.columns - 1, k + m.upper);
+                final int mBase  = m.offset(k);
+                for (int j = jStart; j <= jEnd; ++j) {
+                    out.data[outBase + j] += aIK * m.data[mBase + j];
+                }
+            }
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m instanceof BandedRealMatrix) {
+            return multiply((BandedRealMatrix) m);
+        }
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final int nCols = m.getColumnDimension();
+        final double[][] mData = m.getData();
+        final double[][] out = new double[rows][nCols];
+        for (int i = 0; i < rows; ++i) {
+            final int kStart = FastMath.max(0, i - lower);
+            final int kEnd   = FastMath.min(columns - 1, i + upper);
+            final int base   = offset(i);
+            final double[] outI = out[i];
+            for (int k = kStart; k <= kEnd; ++k) {
+                final double aIK = data[base + k];
+                final double[] mK = mData[k];
+                for (int j = 0; j < nCols; ++j) {
+                    outI[j] += aIK * mK[j];
+                }
+            }
+        }
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BandedRealMatrix transpose() {
+        final BandedRealMatrix out = new BandedRealMatrix(columns, rows, upper, lower);
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(columns - 1, i + upper);
+            final int base  = offset(i);
+            for (int j = start; j <= end; ++j) {
+                out.data[out.offset(j) + i] = data[base + j];
+            }
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        return isInBand(row, column) ? data[offset(row) + column] : 0;
+    }
+
+    /** {@inheritDoc}
+     * @throws NumberIsTooLargeException if the entry is outside of the band
+     * and value is non-zero.
+     */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException, NumberIsTooLargeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        if (isInBand(row, column)) {
+            data[offset(row) + column] = value;
+        } else {
+            ensureZero(value);
+        }
+    }
+
+    /** {@inheritDoc}
+     * @throws NumberIsTooLargeException if the entry is outside of the band
+     * and increment is non-zero.
+     */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment)
+        throws OutOfRangeException, NumberIsTooLargeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        if (isInBand(row, column)) {
+            data[offset(row) + column] += increment;
+        } else {
+            ensureZero(increment);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column, final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        // entries outside of the band are zero and remain zero
+        if (isInBand(row, column)) {
+            data[offset(row) + column] *= factor;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+        final double[] out = new double[rows];
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(columns - 1, i + upper);
+            final int base  = offset(i);
+            double sum = 0;
+            for (int j = start; j <= end; ++j) {
+                sum += data[base + j] * v[j];
+            }
+            out[i] = sum;
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != rows) {
+            throw new DimensionMismatchException(v.length, rows);
+        }
+        final double[] out = new double[columns];
+        for (int i = 0; i < rows; ++i) {
+            final int start = FastMath.max(0, i - lower);
+            final int end   = FastMath.min(columns - 1, i + upper);
+            final int base  = offset(i);
+            final double vI = v[i];
+            for (int j = start; j <= end; ++j) {
+                out[j] += vI * data[base + j];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Check if an entry lies within the band.
+     *
+     * @param row Row index of the entry.
+     * @param column Column index of the entry.
+     * @return true if the entry is stored.
+     */
+    private boolean isInBand(final int row, final int column) {
+        return column >= row - lower && column <= row + upper;
+    }
+
+    /**
+     * Get the offset of a row in the data array.
+     * <p>
+     * Entry (i, j) of the band is stored at index {@code offset(i) + j}.
+     * </p>
+     *
+     * @param row Row index.
+     * @return offset of the row.
+     */
+    int offset(final int row) {
+        return row * width - row + lower;
+    }
+
+    /** Ensure a value is zero.
+     * @param value value to check
+     * @exception NumberIsTooLargeException if value is not zero
+     */
+    private void ensureZero(final double value) throws NumberIsTooLargeException {
+        if (!Precision.equals(0.0, value, 1)) {
+            throw new NumberIsTooLargeException(FastMath.abs(value), 0, true);
+        }
+    }
+
+}
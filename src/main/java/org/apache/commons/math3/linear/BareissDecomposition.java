@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.math.BigInteger;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.apache.commons.math3.fraction.BigFractionField;
+
+/**
+ * Calculates the fraction-free (Bareiss) decomposition of an exact square matrix.
+ * <p>
+ * {@link FieldLUDecomposition} applied to {@link BigFraction} matrices performs
+ * ordinary Gaussian elimination, so numerators and denominators of the
+ * intermediate fractions grow explosively. This class first scales each row
+ * of the matrix by the least common multiple of its denominators, and then
+ * performs Bareiss elimination on the resulting integer matrix: at step k,
+ * the entries are updated as
+ * a<sub>ij</sub> &larr; (a<sub>kk</sub> a<sub>ij</sub> - a<sub>ik</sub> a<sub>kj</sub>) / p,
+ * where p is the pivot of the previous step. The division is always exact and
+ * each intermediate entry is a minor of the scaled matrix, so by Hadamard's
+ * bound its size only grows linearly with the step number.
+ * </p>
+ * <p>
+ * The factors a<sub>ik</sub> are kept in the lower part of the decomposed
+ * matrix (this is the fraction-free LU decomposition), so that right-hand
+ * sides can be reduced later in O(n<sup>2</sup>) integer operations. The
+ * solutions are then computed by fraction-free back substitution: the
+ * products of the determinant by the solution are integers, and only the
+ * final division creates fractions.
+ * </p>
+ * <p>As in {@link FieldLUDecomposition}, rows are permuted only in order to
+ * avoid a zero pivot.</p>
+ *
+ * @see <a href="http://www.ams.org/journals/mcom/1968-22-103/S0025-5718-1968-0226829-0/">
+ * Bareiss, Sylvester's identity and multistep integer-preserving Gaussian elimination</a>
+ * @version $Id$
+ * @since 3.3
+ */
+public class BareissDecomposition {
+
+    /** Entries of the fraction-free decomposition. */
+    private final BigInteger[][] lu;
+
+    /** Factors by which the rows of the original matrix have been scaled. */
+    private final BigInteger[] scale;
+
+    /** Pivot permutation associated with the decomposition. */
+    private final int[] pivot;
+
+    /** Parity of the permutation associated with the decomposition. */
+    private boolean even;
+
+    /** Singularity indicator. */
+    private boolean singular;
+
+    /**
+     * Calculates the decomposition of the given rational matrix.
+     *
+     * @param matrix The matrix to decompose.
+     * @throws NonSquareMatrixException if matrix is not square.
+     */
+    public BareissDecomposition(final FieldMatrix<BigFraction> matrix)
+        throws NonSquareMatrixException {
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                               matrix.getColumnDimension());
+        }
+
+        final int m = matrix.getRowDimension();
+        lu    = new BigInteger[m][m];
+        scale = new BigInteger[m];
+        for (int i = 0; i < m; ++i) {
+            // clear the denominators of the row
+            BigInteger lcm = BigInteger.ONE;
+            for (int j = 0; j < m; ++j) {
+                lcm = lcm(lcm, matrix.getEntry(i, j).getDenominator());
+            }
+            scale[i] = lcm;
+            for (int j = 0; j < m; ++j) {
+                final BigFraction aij = matrix.getEntry(i, j);
+                lu[i][j] = aij.getNumerator().multiply(lcm.divide(aij.getDenominator()));
+            }
+        }
+
+        pivot = new int[m];
+        decompose();
+    }
+
+    /**
+     * Calculates the decomposition of the given integer matrix.
+     *
+     * @param matrix The matrix to decompose (it is not modified).
+     * @throws NonSquareMatrixException if matrix is not square.
+     */
+    public BareissDecomposition(final BigInteger[][] matrix)
+        throws NonSquareMatrixException {
+        final int m = matrix.length;
+        lu    = new BigInteger[m][];
+        scale = new BigInteger[m];
+        for (int i = 0; i < m; ++i) {
+            if (matrix[i].length != m) {
+                throw new NonSquareMatrixException(m, matrix[i].length);
+            }
+            lu[i]    = matrix[i].clone();
+            scale[i] = BigInteger.ONE;
+        }
+
+        pivot = new int[m];
+        decompose();
+    }
+
+    /**
+     * Perform the fraction-free elimination in place.
+     */
+    private void decompose() {
+
+        final int m = lu.length;
+        for (int row = 0; row < m; row++) {
+            pivot[row] = row;
+        }
+        even     = true;
+        singular = false;
+
+        BigInteger previous = BigInteger.ONE;
+        for (int k = 0; k < m; ++k) {
+
+            // find a non-zero pivot
+            int nonZero = k;
+            while (nonZero < m && lu[nonZero][k].signum() == 0) {
+                ++nonZero;
+            }
+            if (nonZero >= m) {
+                singular = true;
+                return;
+            }
+            if (nonZero != k) {
+                final BigInteger[] tmp = lu[nonZero];
+                lu[nonZero] = lu[k];
+                lu[k] = tmp;
+                final int temp = pivot[nonZero];
+                pivot[nonZero] = pivot[k];
+                pivot[k] = temp;
+                even = !even;
+            }
+
+            // eliminate, keeping the factors in the lower part
+            final BigInteger[] luK = lu[k];
+            final BigInteger pivotK = luK[k];
+            for (int i = k + 1; i < m; ++i) {
+                final BigInteger[] luI = lu[i];
+                final BigInteger factor = luI[k];
+                if (factor.signum() == 0) {
+                    for (int j = k + 1; j < m; ++j) {
+                        luI[j] = pivotK.multiply(luI[j]).divide(previous);
+                    }
+                } else {
+                    for (int j = k + 1; j < m; ++j) {
+                        luI[j] = pivotK.multiply(luI[j]).subtract(factor.multiply(luK[j])).divide(previous);
+                    }
+                }
+            }
+            previous = pivotK;
+
+        }
+
+    }
+
+    /**
+     * Returns the pivot permutation vector.
+     *
+     * @return the pivot permutation vector
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * Return the determinant of the matrix.
+     *
+     * @return determinant of the matrix
+     */
+    public BigFraction getDeterminant() {
+        if (singular) {
+            return BigFraction.ZERO;
+        }
+        final int m = lu.length;
+        BigInteger scaleProduct = BigInteger.ONE;
+        for (final BigInteger s : scale) {
+            scaleProduct = scaleProduct.multiply(s);
+        }
+        final BigInteger det = (m == 0) ? BigInteger.ONE : lu[m - 1][m - 1];
+        return new BigFraction(even ? det : det.negate(), scaleProduct);
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in exact linear
+     * sense.
+     *
+     * @return a solver
+     */
+    public FieldDecompositionSolver<BigFraction> getSolver() {
+        return new Solver(lu, scale, pivot, singular);
+    }
+
+    /**
+     * Compute the least common multiple of two positive integers.
+     *
+     * @param a first integer
+     * @param b second integer
+     * @return least common multiple of a and b
+     */
+    private static BigInteger lcm(final BigInteger a, final BigInteger b) {
+        return a.divide(a.gcd(b)).multiply(b);
+    }
+
+    /** Specialized solver. */
+    private static class Solver implements FieldDecompositionSolver<BigFraction> {
+
+        /** Entries of the fraction-free decomposition. */
+        private final BigInteger[][] lu;
+
+        /** Factors by which the rows of the original matrix have been scaled. */
+        private final BigInteger[] scale;
+
+        /** Pivot permutation associated with the decomposition. */
+        private final int[] pivot;
+
+        /** Singularity indicator. */
+        private final boolean singular;
+
+        /**
+         * Build a solver from decomposed matrix.
+         * @param lu entries of the fraction-free decomposition
+         * @param scale factors by which the rows of the original matrix have been scaled
+         * @param pivot pivot permutation associated with the decomposition
+         * @param singular singularity indicator
+         */
+        private Solver(final BigInteger[][] lu, final BigInteger[] scale,
+                       final int[] pivot, final boolean singular) {
+            this.lu       = lu;
+            this.scale    = scale;
+            this.pivot    = pivot;
+            this.singular = singular;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            return !singular;
+        }
+
+        /** {@inheritDoc} */
+        public FieldVector<BigFraction> solve(final FieldVector<BigFraction> b) {
+            final int m = pivot.length;
+            if (b.getDimension() != m) {
+                throw new DimensionMismatchException(b.getDimension(), m);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+            final BigFraction[] bp = new BigFraction[m];
+            for (int row = 0; row < m; ++row) {
+                bp[row] = b.getEntry(row);
+            }
+            return new ArrayFieldVector<BigFraction>(BigFractionField.getInstance(), solve(bp), false);
+        }
+
+        /** {@inheritDoc} */
+        public FieldMatrix<BigFraction> solve(final FieldMatrix<BigFraction> b) {
+            final int m = pivot.length;
+            if (b.getRowDimension() != m) {
+                throw new DimensionMismatchException(b.getRowDimension(), m);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+
+            final int nColB = b.getColumnDimension();
+            final BigFraction[][] x = new BigFraction[m][nColB];
+            final BigFraction[] bp = new BigFraction[m];
+            for (int col = 0; col < nColB; ++col) {
+                for (int row = 0; row < m; ++row) {
+                    bp[row] = b.getEntry(row, col);
+                }
+                final BigFraction[] xCol = solve(bp);
+                for (int row = 0; row < m; ++row) {
+                    x[row][col] = xCol[row];
+                }
+            }
+
+            return new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), x, false);
+        }
+
+        /**
+         * Solve one right-hand side.
+         * @param b right-hand side, in the original row order
+         * @return solution
+         */
+        private BigFraction[] solve(final BigFraction[] b) {
+
+            final int m = pivot.length;
+
+            // apply permutation and row scaling, then clear the denominators
+            final BigFraction[] scaled = new BigFraction[m];
+            BigInteger common = BigInteger.ONE;
+            for (int row = 0; row < m; ++row) {
+                scaled[row] = b[pivot[row]].multiply(scale[pivot[row]]);
+                common = lcm(common, scaled[row].getDenominator());
+            }
+            final BigInteger[] y = new BigInteger[m];
+            for (int row = 0; row < m; ++row) {
+                y[row] = scaled[row].getNumerator().multiply(common.divide(scaled[row].getDenominator()));
+            }
+
+            // reduce the right-hand side as the matrix has been reduced
+            BigInteger previous = BigInteger.ONE;
+            for (int k = 0; k < m; ++k) {
+                final BigInteger pivotK = lu[k][k];
+                for (int i = k + 1; i < m; ++i) {
+                    y[i] = pivotK.multiply(y[i]).subtract(lu[i][k].multiply(y[k])).divide(previous);
+                }
+                previous = pivotK;
+            }
+
+            // fraction-free back substitution: z = det * x is an integer vector
+            final BigInteger det = (m == 0) ? BigInteger.ONE : lu[m - 1][m - 1];
+            final BigInteger[] z = new BigInteger[m];
+            for (int i = m - 1; i >= 0; --i) {
+                final BigInteger[] luI = lu[i];
+                BigInteger sum = det.multiply(y[i]);
+                for (int j = i + 1; j < m; ++j) {
+                    sum = sum.subtract(luI[j].multiply(z[j]));
+                }
+                z[i] = sum.divide(luI[i]);
+            }
+
+            final BigInteger denominator = det.multiply(common);
+            final BigFraction[] x = new BigFraction[m];
+            for (int i = 0; i < m; ++i) {
+                x[i] = new BigFraction(z[i], denominator);
+            }
+            return x;
+
+        }
+
+        /** {@inheritDoc} */
+        public FieldMatrix<BigFraction> getInverse() {
+            final int m = pivot.length;
+            final BigFraction[][] identity = new BigFraction[m][m];
+            for (int i = 0; i < m; ++i) {
+                for (int j = 0; j < m; ++j) {
+                    identity[i][j] = (i == j) ? BigFraction.ONE : BigFraction.ZERO;
+                }
+            }
+            return solve(new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), identity, false));
+        }
+
+    }
+
+}
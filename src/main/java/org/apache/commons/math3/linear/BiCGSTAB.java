@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.util.IterationManager;
+
+/**
+ * <p>
+ * This is an implementation of the BiConjugate Gradient STABilized method
+ * (BiCGSTAB) for general (non-symmetric) {@link RealLinearOperator}. It
+ * follows closely the template by <a href="#BARR1994">Barrett et al. (1994)</a>
+ * (figure 2.10). The linear system at hand is A &middot; x = b, and the
+ * residual is r = b - A &middot; x.
+ * </p>
+ * <p>
+ * Contrary to {@link GMRES}, the memory requirements of this method do not
+ * grow with the number of iterations, but its convergence is not monotonic.
+ * The method may break down if the shadow residual becomes orthogonal to the
+ * residual or to A &middot; p, or if the stabilizing parameter &omega;
+ * vanishes. In all these cases, this implementation restarts the iteration
+ * from the current residual, without updating the current solution. If the
+ * breakdown persists after the restart (for example with x<sup>T</sup>
+ * A x = 0 for all x, as for a skew-symmetric operator without
+ * preconditioner), the iterations go on until the maximal number of
+ * iterations is reached.
+ * </p>
+ * <h3><a id="stopcrit">Default stopping criterion</a></h3>
+ * <p>
+ * The iterations stop when || r || &le; &delta; || b ||, where b is the
+ * right-hand side vector, r the current estimate of the residual, and &delta;
+ * a user-specified tolerance. It should be noted that r is the so-called
+ * <em>updated</em> residual, which might differ from the true residual due to
+ * rounding-off errors.
+ * </p>
+ * <h3>Iteration count</h3>
+ * <p>
+ * In the present context, an iteration is one pass of the main loop, which
+ * requires two evaluations of the matrix-vector product A &middot; x (and two
+ * applications of the preconditioner, if any). The initialization phase
+ * counts as one iteration.
+ * </p>
+ * <h3>References</h3>
+ * <dl>
+ * <dt><a id="BARR1994">Barret et al. (1994)</a></dt>
+ * <dd>R. Barrett, M. Berry, T. F. Chan, J. Demmel, J. M. Donato, J. Dongarra,
+ * V. Eijkhout, R. Pozo, C. Romine and H. Van der Vorst,
+ * <a href="http://www.netlib.org/linalg/html_templates/Templates.html"><em>
+ * Templates for the Solution of Linear Systems: Building Blocks for Iterative
+ * Methods</em></a>, SIAM</dd>
+ * <dt><a id="VORS1992">van der Vorst (1992)</a></dt>
+ * <dd>H. A. van der Vorst, <em>Bi-CGSTAB: A fast and smoothly converging
+ * variant of Bi-CG for the solution of nonsymmetric linear systems</em>,
+ * SIAM Journal on Scientific and Statistical Computing 13 (2): 631-644, 1992</dd>
+ * </dl>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class BiCGSTAB extends PreconditionedIterativeLinearSolver {
+
+    /** The value of &delta;, for the default stopping criterion. */
+    private final double delta;
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a>.
+     *
+     * @param maxIterations the maximum number of iterations
+     * @param delta the &delta; parameter for the default stopping criterion
+     */
+    public BiCGSTAB(final int maxIterations, final double delta) {
+        super(maxIterations);
+        this.delta = delta;
+    }
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a> and custom iteration manager.
+     *
+     * @param manager the custom iteration manager
+     * @param delta the &delta; parameter for the default stopping criterion
+     * @throws NullArgumentException if {@code manager} is {@code null}
+     */
+    public BiCGSTAB(final IterationManager manager, final double delta)
+        throws NullArgumentException {
+        super(manager);
+        this.delta = delta;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector solveInPlace(final RealLinearOperator a,
+                                   final RealLinearOperator m,
+                                   final RealVector b,
+                                   final RealVector x0)
+        throws NullArgumentException, NonSquareOperatorException,
+        DimensionMismatchException, MaxCountExceededException {
+        checkParameters(a, m, b, x0);
+        final IterationManager manager = getIterationManager();
+        // Initialization of default stopping criterion
+        manager.resetIterationCount();
+        final double rmax = delta * b.getNorm();
+        final RealVector bro = RealVector.unmodifiableRealVector(b);
+
+        // Initialization phase counts as one iteration.
+        manager.incrementIterationCount();
+        final RealVector x = x0;
+        final RealVector xro = RealVector.unmodifiableRealVector(x);
+        final RealVector r = b.combine(1, -1, a.operate(x));
+        final RealVector rro = RealVector.unmodifiableRealVector(r);
+        double rnorm = r.getNorm();
+        IterativeLinearSolverEvent evt;
+        evt = new DefaultIterativeLinearSolverEvent(this,
+            manager.getIterations(), xro, bro, rro, rnorm);
+        manager.fireInitializationEvent(evt);
+        if (rnorm <= rmax) {
+            manager.fireTerminationEvent(evt);
+            return x;
+        }
+
+        // workspace, reused across iterations
+        final RealVector rHat = r.copy();
+        final RealVector p    = r.copy();
+        RealVector v          = null;
+        double rhoPrev        = 1;
+        double alpha          = 1;
+        double omega          = 1;
+        boolean restart       = true;
+        while (true) {
+            manager.incrementIterationCount();
+            evt = new DefaultIterativeLinearSolverEvent(this,
+                manager.getIterations(), xro, bro, rro, rnorm);
+            manager.fireIterationStartedEvent(evt);
+
+            double rho = rHat.dotProduct(r);
+            if (rho == 0) {
+                // the shadow residual is orthogonal to the residual
+                restart = true;
+            }
+            if (restart) {
+                rHat.setSubVector(0, r);
+                p.setSubVector(0, r);
+                rho     = r.dotProduct(r);
+                restart = false;
+            } else {
+                // p = r + beta (p - omega v)
+                final double beta = (rho / rhoPrev) * (alpha / omega);
+                p.combineToSelf(beta, 1, r);
+                p.combineToSelf(1, -beta * omega, v);
+            }
+
+            final RealVector pHat = (m == null) ? p : m.operate(p);
+            v = a.operate(pHat);
+            final double sigma = rHat.dotProduct(v);
+            if (sigma == 0) {
+                // Lanczos breakdown, alpha would not be finite
+                restart = true;
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rro, rnorm);
+                manager.fireIterationPerformedEvent(evt);
+                continue;
+            }
+            alpha = rho / sigma;
+
+            // r now holds s = r - alpha v
+            x.combineToSelf(1, alpha, pHat);
+            r.combineToSelf(1, -alpha, v);
+            rnorm = r.getNorm();
+            if (rnorm <= rmax) {
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rro, rnorm);
+                manager.fireIterationPerformedEvent(evt);
+                manager.fireTerminationEvent(evt);
+                return x;
+            }
+
+            final RealVector sHat = (m == null) ? r : m.operate(r);
+            final RealVector t = a.operate(sHat);
+            final double tt = t.dotProduct(t);
+            omega = (tt == 0) ? 0 : t.dotProduct(r) / tt;
+            if (omega == 0) {
+                // stabilization step failed
+                restart = true;
+            } else {
+                x.combineToSelf(1, omega, sHat);
+                r.combineToSelf(1, -omega, t);
+            }
+            rhoPrev = rho;
+            rnorm = r.getNorm();
+
+            evt = new DefaultIterativeLinearSolverEvent(this,
+                manager.getIterations(), xro, bro, rro, rnorm);
+            manager.fireIterationPerformedEvent(evt);
+            if (rnorm <= rmax) {
+                manager.fireTerminationEvent(evt);
+                return x;
+            }
+        }
+    }
+}
@@ -0,0 +1,692 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.ConcurrencyUtils;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the LUP-decomposition of a square matrix using a blocked algorithm.
+ * <p>This class computes the same decomposition as {@link LUDecomposition}:
+ * P&times;A = L&times;U where L is lower triangular with unit diagonal terms,
+ * U is upper triangular and P is a permutation matrix, using partial pivoting
+ * and the same pivot selection rule. It differs by its memory access pattern,
+ * which makes it much faster for large matrices (several hundreds rows and
+ * above).</p>
+ * <p>The matrix is stored in the same square blocks layout as {@link
+ * BlockRealMatrix}. The decomposition is computed in a right-looking fashion,
+ * one block column (the <em>panel</em>) at a time:</p>
+ * <ol>
+ *   <li>the panel is decomposed using partial pivoting,</li>
+ *   <li>the row interchanges are applied to the other block columns,</li>
+ *   <li>the block row at the right of the panel is updated by a triangular solve,</li>
+ *   <li>the trailing blocks are updated by a block matrix product.</li>
+ * </ol>
+ * <p>Almost all operations occur in the last step, which works on independent
+ * blocks that fit in cache. If an {@link ExecutorService executor} is provided
+ * at construction, the blocks of steps 3 and 4 are updated concurrently. The
+ * result does not depend on the use of an executor.</p>
+ *
+ * @see LUDecomposition
+ * @see BlockRealMatrix
+ * @version $Id$
+ * @since 3.3
+ */
+public class BlockLUDecomposition {
+
+    /** Default bound to determine effective singularity in LU decomposition. */
+    private static final double DEFAULT_TOO_SMALL = 1e-11;
+
+    /** Block size. */
+    private static final int BLOCK_SIZE = BlockRealMatrix.BLOCK_SIZE;
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Number of block rows (and block columns) of the matrix. */
+    private final int nb;
+
+    /** Entries of LU decomposition, in blocks layout. */
+    private final double[][] blocks;
+
+    /** Pivot permutation associated with LU decomposition. */
+    private final int[] pivot;
+
+    /** Rows exchanged with each row during decomposition. */
+    private final int[] swaps;
+
+    /** Parity of the permutation associated with the LU decomposition. */
+    private boolean even;
+
+    /** Singularity indicator. */
+    private boolean singular;
+
+    /** Cached value of L. */
+    private RealMatrix cachedL;
+
+    /** Cached value of U. */
+    private RealMatrix cachedU;
+
+    /** Cached value of P. */
+    private RealMatrix cachedP;
+
+    /**
+     * Calculates the LU-decomposition of the given matrix.
+     * This constructor uses 1e-11 as default value for the singularity
+     * threshold.
+     *
+     * @param matrix Matrix to decompose.
+     * @throws NonSquareMatrixException if matrix is not square.
+     */
+    public BlockLUDecomposition(RealMatrix matrix) {
+        this(matrix, DEFAULT_TOO_SMALL, null);
+    }
+
+    /**
+     * Calculates the LU-decomposition of the given matrix.
+     *
+     * @param matrix The matrix to decompose.
+     * @param singularityThreshold threshold (based on partial row norm)
+     * under which a matrix is considered singular
+     * @throws NonSquareMatrixException if matrix is not square
+     */
+    public BlockLUDecomposition(RealMatrix matrix, double singularityThreshold) {
+        this(matrix, singularityThreshold, null);
+    }
+
+    /**
+     * Calculates the LU-decomposition of the given matrix.
+     *
+     * @param matrix The matrix to decompose.
+     * @param singularityThreshold threshold (based on partial row norm)
+     * under which a matrix is considered singular
+     * @param executor executor in charge of updating the blocks at the right
+     * and below the panel (if null, all computation is done in the calling thread)
+     * @throws NonSquareMatrixException if matrix is not square
+     */
+    public BlockLUDecomposition(final RealMatrix matrix, final double singularityThreshold,
+                                final ExecutorService executor) {
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                               matrix.getColumnDimension());
+        }
+
+        n       = matrix.getRowDimension();
+        nb      = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blocks  = BlockRealMatrix.createBlocksLayout(n, n);
+        pivot   = new int[n];
+        swaps   = new int[n];
+        cachedL = null;
+        cachedU = null;
+        cachedP = null;
+
+        // copy the matrix, without intermediate raw array
+        matrix.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+            /** {@inheritDoc} */
+            @Override
+            public void visit(final int row, final int column, final double value) {
+                final int iBlock = row / BLOCK_SIZE;
+                final int jBlock = column / BLOCK_SIZE;
+                blocks[iBlock * nb + jBlock][(row - iBlock * BLOCK_SIZE) * blockSize(jBlock) +
+                                             column - jBlock * BLOCK_SIZE] = value;
+            }
+        });
+
+        // Initialize permutation array and parity
+        for (int row = 0; row < n; row++) {
+            pivot[row] = row;
+        }
+        even     = true;
+        singular = false;
+
+        // Loop over block columns
+        for (int kBlock = 0; kBlock < nb; ++kBlock) {
+
+            if (!decomposePanel(kBlock, singularityThreshold)) {
+                singular = true;
+                return;
+            }
+
+            applySwaps(kBlock);
+
+            if (executor == null) {
+                for (int jBlock = kBlock + 1; jBlock < nb; ++jBlock) {
+                    solveUpper(kBlock, jBlock);
+                }
+                for (int iBlock = kBlock + 1; iBlock < nb; ++iBlock) {
+                    for (int jBlock = kBlock + 1; jBlock < nb; ++jBlock) {
+                        updateTrailing(kBlock, iBlock, jBlock);
+                    }
+                }
+            } else {
+                updateInParallel(kBlock, executor);
+            }
+
+        }
+    }
+
+    /**
+     * Get the size of a block row or column.
+     * @param block block index
+     * @return number of rows (or columns) in the block
+     */
+    private int blockSize(final int block) {
+        return (block == nb - 1) ? n - block * BLOCK_SIZE : BLOCK_SIZE;
+    }
+
+    /**
+     * Decompose one panel (i.e. one block column) using partial pivoting.
+     * @param kBlock index of the panel
+     * @param singularityThreshold singularity threshold
+     * @return true if the panel is non singular
+     */
+    private boolean decomposePanel(final int kBlock, final double singularityThreshold) {
+
+        final int k0     = kBlock * BLOCK_SIZE;
+        final int kWidth = blockSize(kBlock);
+        final double[] diagBlock = blocks[kBlock * nb + kBlock];
+
+        for (int c = 0; c < kWidth; ++c) {
+            final int col = k0 + c;
+
+            // find the largest element in the column
+            int max = col;
+            double largest = Double.NEGATIVE_INFINITY;
+            for (int iBlock = kBlock; iBlock < nb; ++iBlock) {
+                final double[] block = blocks[iBlock * nb + kBlock];
+                final int i0 = iBlock * BLOCK_SIZE;
+                for (int p = FastMath.max(col - i0, 0); p < blockSize(iBlock); ++p) {
+                    final double abs = FastMath.abs(block[p * kWidth + c]);
+                    if (abs > largest) {
+                        largest = abs;
+                        max = i0 + p;
+                    }
+                }
+            }
+
+            // Singularity check
+            final int maxBlock = max / BLOCK_SIZE;
+            final double[] pivotBlock = blocks[maxBlock * nb + kBlock];
+            final int maxOffset = (max - maxBlock * BLOCK_SIZE) * kWidth;
+            if (FastMath.abs(pivotBlock[maxOffset + c]) < singularityThreshold) {
+                return false;
+            }
+
+            // Pivot if necessary (only within the panel, other columns are handled later)
+            swaps[col] = max;
+            if (max != col) {
+                final int colOffset = c * kWidth;
+                for (int q = 0; q < kWidth; ++q) {
+                    final double tmp = pivotBlock[maxOffset + q];
+                    pivotBlock[maxOffset + q] = diagBlock[colOffset + q];
+                    diagBlock[colOffset + q] = tmp;
+                }
+                final int temp = pivot[max];
+                pivot[max] = pivot[col];
+                pivot[col] = temp;
+                even = !even;
+            }
+
+            // Divide the lower elements by the "winning" diagonal element
+            // and update the remaining columns of the panel
+            final int colOffset = c * kWidth;
+            final double luDiag = diagBlock[colOffset + c];
+            for (int iBlock = kBlock; iBlock < nb; ++iBlock) {
+                final double[] block = blocks[iBlock * nb + kBlock];
+                final int i0 = iBlock * BLOCK_SIZE;
+                for (int p = FastMath.max(col + 1 - i0, 0); p < blockSize(iBlock); ++p) {
+                    final int pOffset = p * kWidth;
+                    final double l = block[pOffset + c] / luDiag;
+                    block[pOffset + c] = l;
+                    for (int q = c + 1; q < kWidth; ++q) {
+                        block[pOffset + q] -= l * diagBlock[colOffset + q];
+                    }
+                }
+            }
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Apply the row interchanges of one panel to all other block columns.
+     * @param kBlock index of the panel
+     */
+    private void applySwaps(final int kBlock) {
+        final int k0 = kBlock * BLOCK_SIZE;
+        for (int col = k0; col < k0 + blockSize(kBlock); ++col) {
+            final int max = swaps[col];
+            if (max != col) {
+                final int maxBlock  = max / BLOCK_SIZE;
+                final int maxRow    = max - maxBlock * BLOCK_SIZE;
+                final int colRow    = col - k0;
+                for (int jBlock = 0; jBlock < nb; ++jBlock) {
+                    if (jBlock != kBlock) {
+                        final int jWidth = blockSize(jBlock);
+                        final double[] colBlock = blocks[kBlock   * nb + jBlock];
+                        final double[] maxBlockData = blocks[maxBlock * nb + jBlock];
+                        for (int q = 0; q < jWidth; ++q) {
+                            final double tmp = maxBlockData[maxRow * jWidth + q];
+                            maxBlockData[maxRow * jWidth + q] = colBlock[colRow * jWidth + q];
+                            colBlock[colRow * jWidth + q] = tmp;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Update one block at the right of the panel by solving the unit lower
+     * triangular system formed by the diagonal block of the panel.
+     * @param kBlock index of the panel
+     * @param jBlock block column index of the block to update
+     */
+    private void solveUpper(final int kBlock, final int jBlock) {
+        final int kWidth = blockSize(kBlock);
+        final int jWidth = blockSize(jBlock);
+        final double[] lBlock = blocks[kBlock * nb + kBlock];
+        final double[] uBlock = blocks[kBlock * nb + jBlock];
+        for (int p = 0; p < kWidth; ++p) {
+            final int pOffset = p * jWidth;
+            for (int r = p + 1; r < kWidth; ++r) {
+                final double l = lBlock[r * kWidth + p];
+                final int rOffset = r * jWidth;
+                for (int q = 0; q < jWidth; ++q) {
+                    uBlock[rOffset + q] -= l * uBlock[pOffset + q];
+                }
+            }
+        }
+    }
+
+    /**
+     * Update one trailing block, i.e. a block below and at the right of
+     * the panel.
+     * @param kBlock index of the panel
+     * @param iBlock block row index of the block to update
+     * @param jBlock block column index of the block to update
+     */
+    private void updateTrailing(final int kBlock, final int iBlock, final int jBlock) {
+        final int iHeight = blockSize(iBlock);
+        final int kWidth  = blockSize(kBlock);
+        final int jWidth  = blockSize(jBlock);
+        final double[] lBlock   = blocks[iBlock * nb + kBlock];
+        final double[] uBlock   = blocks[kBlock * nb + jBlock];
+        final double[] outBlock = blocks[iBlock * nb + jBlock];
+        for (int p = 0; p < iHeight; ++p) {
+            final int pOffset = p * jWidth;
+            for (int l = 0; l < kWidth; ++l) {
+                final double lpl = lBlock[p * kWidth + l];
+                if (lpl != 0) {
+                    final int lOffset = l * jWidth;
+                    for (int q = 0; q < jWidth; ++q) {
+                        outBlock[pOffset + q] -= lpl * uBlock[lOffset + q];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Update all blocks at the right of and below the panel using an executor.
+     * @param kBlock index of the panel
+     * @param executor executor in charge of running the tasks
+     */
+    private void updateInParallel(final int kBlock, final ExecutorService executor) {
+
+        final List<Callable<Void>> solveTasks = new ArrayList<Callable<Void>>();
+        for (int jBlock = kBlock + 1; jBlock < nb; ++jBlock) {
+            final int j = jBlock;
+            solveTasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    solveUpper(kBlock, j);
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, solveTasks);
+
+        final List<Callable<Void>> updateTasks = new ArrayList<Callable<Void>>();
+        for (int iBlock = kBlock + 1; iBlock < nb; ++iBlock) {
+            for (int jBlock = kBlock + 1; jBlock < nb; ++jBlock) {
+                final int i = iBlock;
+                final int j = jBlock;
+                updateTasks.add(new Callable<Void>() {
+                    /** {@inheritDoc} */
+                    public Void call() {
+                        updateTrailing(kBlock, i, j);
+                        return null;
+                    }
+                });
+            }
+        }
+        ConcurrencyUtils.invokeAll(executor, updateTasks);
+
+    }
+
+    /**
+     * Returns the matrix L of the decomposition.
+     * <p>L is a lower-triangular matrix</p>
+     * @return the L matrix (or null if decomposed matrix is singular)
+     */
+    public RealMatrix getL() {
+        if ((cachedL == null) && !singular) {
+            final double[][] lBlocks = BlockRealMatrix.createBlocksLayout(n, n);
+            for (int iBlock = 0; iBlock < nb; ++iBlock) {
+                for (int jBlock = 0; jBlock < iBlock; ++jBlock) {
+                    final int index = iBlock * nb + jBlock;
+                    System.arraycopy(blocks[index], 0, lBlocks[index], 0, lBlocks[index].length);
+                }
+                final int size = blockSize(iBlock);
+                final double[] diag  = blocks[iBlock * nb + iBlock];
+                final double[] lDiag = lBlocks[iBlock * nb + iBlock];
+                for (int p = 0; p < size; ++p) {
+                    System.arraycopy(diag, p * size, lDiag, p * size, p);
+                    lDiag[p * size + p] = 1.0;
+                }
+            }
+            cachedL = new BlockRealMatrix(n, n, lBlocks, false);
+        }
+        return cachedL;
+    }
+
+    /**
+     * Returns the matrix U of the decomposition.
+     * <p>U is an upper-triangular matrix</p>
+     * @return the U matrix (or null if decomposed matrix is singular)
+     */
+    public RealMatrix getU() {
+        if ((cachedU == null) && !singular) {
+            final double[][] uBlocks = BlockRealMatrix.createBlocksLayout(n, n);
+            for (int iBlock = 0; iBlock < nb; ++iBlock) {
+                for (int jBlock = iBlock + 1; jBlock < nb; ++jBlock) {
+                    final int index = iBlock * nb + jBlock;
+                    System.arraycopy(blocks[index], 0, uBlocks[index], 0, uBlocks[index].length);
+                }
+                final int size = blockSize(iBlock);
+                final double[] diag  = blocks[iBlock * nb + iBlock];
+                final double[] uDiag = uBlocks[iBlock * nb + iBlock];
+                for (int p = 0; p < size; ++p) {
+                    System.arraycopy(diag, p * size + p, uDiag, p * size + p, size - p);
+                }
+            }
+            cachedU = new BlockRealMatrix(n, n, uBlocks, false);
+        }
+        return cachedU;
+    }
+
+    /**
+     * Returns the P rows permutation matrix.
+     * <p>P is a sparse matrix with exactly one element set to 1.0 in
+     * each row and each column, all other elements being set to 0.0.</p>
+     * <p>The positions of the 1 elements are given by the {@link #getPivot()
+     * pivot permutation vector}.</p>
+     * @return the P rows permutation matrix (or null if decomposed matrix is singular)
+     * @see #getPivot()
+     */
+    public RealMatrix getP() {
+        if ((cachedP == null) && !singular) {
+            cachedP = MatrixUtils.createRealMatrix(n, n);
+            for (int i = 0; i < n; ++i) {
+                cachedP.setEntry(i, pivot[i], 1.0);
+            }
+        }
+        return cachedP;
+    }
+
+    /**
+     * Returns the pivot permutation vector.
+     * @return the pivot permutation vector
+     * @see #getP()
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * Return the determinant of the matrix
+     * @return determinant of the matrix
+     */
+    public double getDeterminant() {
+        if (singular) {
+            return 0;
+        } else {
+            double determinant = even ? 1 : -1;
+            for (int iBlock = 0; iBlock < nb; ++iBlock) {
+                final int size = blockSize(iBlock);
+                final double[] diag = blocks[iBlock * nb + iBlock];
+                for (int p = 0; p < size; ++p) {
+                    determinant *= diag[p * size + p];
+                }
+            }
+            return determinant;
+        }
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in exact linear
+     * sense.
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver(n, nb, blocks, pivot, singular);
+    }
+
+    /** Specialized solver. */
+    private static class Solver implements DecompositionSolver {
+
+        /** Dimension of the matrix. */
+        private final int n;
+
+        /** Number of block rows (and block columns) of the matrix. */
+        private final int nb;
+
+        /** Entries of LU decomposition, in blocks layout. */
+        private final double[][] blocks;
+
+        /** Pivot permutation associated with LU decomposition. */
+        private final int[] pivot;
+
+        /** Singularity indicator. */
+        private final boolean singular;
+
+        /**
+         * Build a solver from decomposed matrix.
+         * @param n dimension of the matrix
+         * @param nb number of block rows of the matrix
+         * @param blocks entries of LU decomposition, in blocks layout
+         * @param pivot pivot permutation associated with LU decomposition
+         * @param singular singularity indicator
+         */
+        private Solver(final int n, final int nb, final double[][] blocks,
+                       final int[] pivot, final boolean singular) {
+            this.n        = n;
+            this.nb       = nb;
+            this.blocks   = blocks;
+            this.pivot    = pivot;
+            this.singular = singular;
+        }
+
+        /**
+         * Get the size of a block row or column.
+         * @param block block index
+         * @return number of rows (or columns) in the block
+         */
+        private int blockSize(final int block) {
+            return (block == nb - 1) ? n - block * BLOCK_SIZE : BLOCK_SIZE;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            return !singular;
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(RealVector b) {
+            if (b.getDimension() != n) {
+                throw new DimensionMismatchException(b.getDimension(), n);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+
+            // Apply permutations to b
+            final double[] bp = new double[n];
+            for (int row = 0; row < n; row++) {
+                bp[row] = b.getEntry(pivot[row]);
+            }
+
+            // Solve LY = b
+            for (int iBlock = 0; iBlock < nb; ++iBlock) {
+                final int i0 = iBlock * BLOCK_SIZE;
+                final int iHeight = blockSize(iBlock);
+                for (int jBlock = 0; jBlock <= iBlock; ++jBlock) {
+                    final int j0 = jBlock * BLOCK_SIZE;
+                    final int jWidth = blockSize(jBlock);
+                    final double[] block = blocks[iBlock * nb + jBlock];
+                    for (int p = 0; p < iHeight; ++p) {
+                        final int lEnd = (jBlock == iBlock) ? p : jWidth;
+                        double sum = 0;
+                        for (int l = 0; l < lEnd; ++l) {
+                            sum += block[p * jWidth + l] * bp[j0 + l];
+                        }
+                        bp[i0 + p] -= sum;
+                    }
+                }
+            }
+
+            // Solve UX = Y
+            for (int iBlock = nb - 1; iBlock >= 0; --iBlock) {
+                final int i0 = iBlock * BLOCK_SIZE;
+                final int iHeight = blockSize(iBlock);
+                for (int jBlock = nb - 1; jBlock >= iBlock; --jBlock) {
+                    final int j0 = jBlock * BLOCK_SIZE;
+                    final int jWidth = blockSize(jBlock);
+                    final double[] block = blocks[iBlock * nb + jBlock];
+                    for (int p = iHeight - 1; p >= 0; --p) {
+                        final int lStart = (jBlock == iBlock) ? p + 1 : 0;
+                        double sum = 0;
+                        for (int l = lStart; l < jWidth; ++l) {
+                            sum += block[p * jWidth + l] * bp[j0 + l];
+                        }
+                        bp[i0 + p] -= sum;
+                        if (jBlock == iBlock) {
+                            bp[i0 + p] /= block[p * jWidth + p];
+                        }
+                    }
+                }
+            }
+
+            return new ArrayRealVector(bp, false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(RealMatrix b) {
+
+            if (b.getRowDimension() != n) {
+                throw new DimensionMismatchException(b.getRowDimension(), n);
+            }
+            if (singular) {
+                throw new SingularMatrixException();
+            }
+
+            final int nColB = b.getColumnDimension();
+
+            // Apply permutations to b
+            final double[][] bp = new double[n][nColB];
+            for (int row = 0; row < n; row++) {
+                final double[] bpRow = bp[row];
+                final int pRow = pivot[row];
+                for (int col = 0; col < nColB; col++) {
+                    bpRow[col] = b.getEntry(pRow, col);
+                }
+            }
+
+            // Solve LY = b
+            for (int iBlock = 0; iBlock < nb; ++iBlock) {
+                final int i0 = iBlock * BLOCK_SIZE;
+                final int iHeight = blockSize(iBlock);
+                for (int jBlock = 0; jBlock <= iBlock; ++jBlock) {
+                    final int j0 = jBlock * BLOCK_SIZE;
+                    final int jWidth = blockSize(jBlock);
+                    final double[] block = blocks[iBlock * nb + jBlock];
+                    for (int p = 0; p < iHeight; ++p) {
+                        final double[] bpP = bp[i0 + p];
+                        final int lEnd = (jBlock == iBlock) ? p : jWidth;
+                        for (int l = 0; l < lEnd; ++l) {
+                            final double lpl = block[p * jWidth + l];
+                            final double[] bpL = bp[j0 + l];
+                            for (int j = 0; j < nColB; ++j) {
+                                bpP[j] -= lpl * bpL[j];
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Solve UX = Y
+            for (int iBlock = nb - 1; iBlock >= 0; --iBlock) {
+                final int i0 = iBlock * BLOCK_SIZE;
+                final int iHeight = blockSize(iBlock);
+                for (int jBlock = nb - 1; jBlock >= iBlock; --jBlock) {
+                    final int j0 = jBlock * BLOCK_SIZE;
+                    final int jWidth = blockSize(jBlock);
+                    final double[] block = blocks[iBlock * nb + jBlock];
+                    for (int p = iHeight - 1; p >= 0; --p) {
+                        final double[] bpP = bp[i0 + p];
+                        final int lStart = (jBlock == iBlock) ? p + 1 : 0;
+                        for (int l = lStart; l < jWidth; ++l) {
+                            final double upl = block[p * jWidth + l];
+                            final double[] bpL = bp[j0 + l];
+                            for (int j = 0; j < nColB; ++j) {
+                                bpP[j] -= upl * bpL[j];
+                            }
+                        }
+                        if (jBlock == iBlock) {
+                            final double diag = block[p * jWidth + p];
+                            for (int j = 0; j < nColB; ++j) {
+                                bpP[j] /= diag;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return new Array2DRowRealMatrix(bp, false);
+        }
+
+        /**
+         * Get the inverse of the decomposed matrix.
+         *
+         * @return the inverse matrix.
+         * @throws SingularMatrixException if the decomposed matrix is singular.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(pivot.length));
+        }
+    }
+}
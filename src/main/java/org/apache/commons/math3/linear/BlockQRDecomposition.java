@@ -0,0 +1,594 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the QR-decomposition of a matrix using blocked Householder reflections.
+ * <p>This class computes the same decomposition as {@link QRDecomposition}:
+ * A = QR where Q is orthogonal and R is upper triangular, with the same sign
+ * conventions for the diagonal elements of R. It differs by the way the
+ * Householder reflections are applied.</p>
+ * <p>Columns are processed by panels of a few dozens columns. Once a panel has
+ * been decomposed, its reflections H<sub>1</sub>H<sub>2</sub>...H<sub>b</sub>
+ * are aggregated in the compact WY form I - VTV<sup>T</sup>, where V holds the
+ * Householder vectors and T is a small upper triangular matrix. The remaining
+ * columns are then updated all at once, by slices of rows that fit in cache.
+ * The panels themselves are decomposed recursively in the same way. For tall
+ * matrices (many more rows than columns) this reduces the number of passes over
+ * the data by a factor equal to the panel width, which is the limiting factor
+ * of the column by column algorithm.</p>
+ * <p>The matrix is copied only once, in columns order, whatever its type.</p>
+ *
+ * @see QRDecomposition
+ * @see TSQRDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class BlockQRDecomposition {
+
+    /** Width of the panels. */
+    private static final int PANEL_WIDTH = 32;
+
+    /** Width under which panels are decomposed column by column. */
+    private static final int RECURSION_THRESHOLD = 4;
+
+    /** Number of rows in the slices used for blocked updates. */
+    private static final int ROWS_SLICE = 256;
+
+    /** Number of rows. */
+    private final int m;
+
+    /** Number of columns. */
+    private final int n;
+
+    /**
+     * Packed representation of the decomposition, one array per column.
+     * <p>The elements above the diagonal are the elements of the upper
+     * triangular matrix R, the elements on and below the diagonal are the
+     * Householder vectors, normalized so that their first element is 1.</p>
+     */
+    private final double[][] columns;
+
+    /** The diagonal elements of R. */
+    private final double[] rDiag;
+
+    /** Scaling factors of the Householder reflections I - &tau;vv<sup>T</sup>. */
+    private final double[] tau;
+
+    /** Triangular factors of the compact WY form of each panel. */
+    private final double[][][] tFactors;
+
+    /** Singularity threshold. */
+    private final double threshold;
+
+    /** Cached value of Q. */
+    private RealMatrix cachedQ;
+
+    /** Cached value of QT. */
+    private RealMatrix cachedQT;
+
+    /** Cached value of R. */
+    private RealMatrix cachedR;
+
+    /** Cached value of H. */
+    private RealMatrix cachedH;
+
+    /**
+     * Calculates the QR-decomposition of the given matrix.
+     * The singularity threshold defaults to zero.
+     *
+     * @param matrix The matrix to decompose.
+     *
+     * @see #BlockQRDecomposition(RealMatrix,double)
+     */
+    public BlockQRDecomposition(RealMatrix matrix) {
+        this(matrix, 0d);
+    }
+
+    /**
+     * Calculates the QR-decomposition of the given matrix.
+     *
+     * @param matrix The matrix to decompose.
+     * @param threshold Singularity threshold.
+     */
+    public BlockQRDecomposition(RealMatrix matrix, double threshold) {
+        this(toColumns(matrix), matrix.getRowDimension(), threshold);
+    }
+
+    /**
+     * Calculates the QR-decomposition of a matrix given by columns.
+     * <p>The array is used directly and will be overwritten.</p>
+     *
+     * @param columns Columns of the matrix to decompose.
+     * @param m Number of rows of the matrix.
+     * @param threshold Singularity threshold.
+     */
+    BlockQRDecomposition(final double[][] columns, final int m, final double threshold) {
+
+        this.m         = m;
+        this.n         = columns.length;
+        this.columns   = columns;
+        this.threshold = threshold;
+
+        final int k = FastMath.min(m, n);
+        rDiag       = new double[k];
+        tau         = new double[k];
+        tFactors    = new double[(k + PANEL_WIDTH - 1) / PANEL_WIDTH][][];
+
+        for (int p = 0; p < tFactors.length; ++p) {
+            final int k0 = p * PANEL_WIDTH;
+            final int k1 = FastMath.min(k0 + PANEL_WIDTH, k);
+            decomposePanel(k0, k1);
+            tFactors[p] = buildT(k0, k1);
+            applyBlock(k0, k1, tFactors[p], true, columns, k1, n);
+        }
+
+    }
+
+    /**
+     * Copy a matrix in columns order.
+     * @param matrix matrix to copy
+     * @return columns of the matrix
+     */
+    private static double[][] toColumns(final RealMatrix matrix) {
+        final double[][] columns = new double[matrix.getColumnDimension()][matrix.getRowDimension()];
+        matrix.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+            /** {@inheritDoc} */
+            @Override
+            public void visit(final int row, final int column, final double value) {
+                columns[column][row] = value;
+            }
+        });
+        return columns;
+    }
+
+    /**
+     * Decompose a range of columns.
+     * <p>Only the columns within the range are updated.</p>
+     * @param k0 index of the first column of the range
+     * @param k1 index of the column after the last one of the range
+     */
+    private void decomposePanel(final int k0, final int k1) {
+        if (k1 - k0 <= RECURSION_THRESHOLD) {
+            for (int j = k0; j < k1; ++j) {
+                computeReflection(j);
+                for (int col = j + 1; col < k1; ++col) {
+                    applyReflection(j, columns[col]);
+                }
+            }
+        } else {
+            // decompose left half, update right half using WY form, decompose right half
+            final int mid = (k0 + k1) / 2;
+            decomposePanel(k0, mid);
+            applyBlock(k0, mid, buildT(k0, mid), true, columns, mid, k1);
+            decomposePanel(mid, k1);
+        }
+    }
+
+    /**
+     * Compute the Householder reflection annihilating the sub-diagonal part of a column.
+     * @param minor index of the column
+     */
+    private void computeReflection(final int minor) {
+
+        final double[] v = columns[minor];
+
+        /*
+         * Let x be the sub-column starting at the diagonal and a^2 = |x|^2.
+         * As in QRDecomposition, the sign of a is chosen to be opposite to
+         * the sign of the first component of x. The reflection vector is
+         * v = x - ae, scaled so that its first component is 1, and the
+         * reflection is H = I - tau vv' with tau = (a - x0) / a.
+         */
+        double xNormSqr = 0;
+        for (int row = minor; row < m; ++row) {
+            final double c = v[row];
+            xNormSqr += c * c;
+        }
+        final double x0 = v[minor];
+        final double a  = (x0 > 0) ? -FastMath.sqrt(xNormSqr) : FastMath.sqrt(xNormSqr);
+        rDiag[minor] = a;
+
+        if (a != 0.0) {
+            final double scale = 1.0 / (x0 - a);
+            for (int row = minor + 1; row < m; ++row) {
+                v[row] *= scale;
+            }
+            tau[minor] = (a - x0) / a;
+        } else {
+            // the column is already null, the reflection is identity
+            tau[minor] = 0.0;
+        }
+        v[minor] = 1.0;
+
+    }
+
+    /**
+     * Apply one Householder reflection to a vector.
+     * @param minor index of the reflection
+     * @param x vector to update in place
+     */
+    private void applyReflection(final int minor, final double[] x) {
+        final double[] v = columns[minor];
+        double dot = 0;
+        for (int row = minor; row < m; ++row) {
+            dot += v[row] * x[row];
+        }
+        final double alpha = tau[minor] * dot;
+        if (alpha != 0.0) {
+            for (int row = minor; row < m; ++row) {
+                x[row] -= alpha * v[row];
+            }
+        }
+    }
+
+    /**
+     * Build the triangular factor of the compact WY form of a range of reflections.
+     * <p>The triangular factor T is such that H<sub>k0</sub>...H<sub>k1-1</sub> =
+     * I - VTV<sup>T</sup>.</p>
+     * @param k0 index of the first reflection of the range
+     * @param k1 index of the reflection after the last one of the range
+     * @return upper triangular factor T
+     */
+    private double[][] buildT(final int k0, final int k1) {
+
+        final int w = k1 - k0;
+
+        // Gram matrix of the reflection vectors, computed by slices of rows
+        final double[][] gram = new double[w][w];
+        for (int r0 = k0; r0 < m; r0 += ROWS_SLICE) {
+            final int r1 = FastMath.min(r0 + ROWS_SLICE, m);
+            for (int l = 1; l < w; ++l) {
+                final double[] vL = columns[k0 + l];
+                final int start = FastMath.max(r0, k0 + l);
+                for (int i = 0; i < l; ++i) {
+                    final double[] vI = columns[k0 + i];
+                    double dot = 0;
+                    for (int row = start; row < r1; ++row) {
+                        dot += vI[row] * vL[row];
+                    }
+                    gram[i][l] += dot;
+                }
+            }
+        }
+
+        // T(0:i, i) = -tau_i T(0:i, 0:i) V(:, 0:i)' v_i
+        final double[][] t = new double[w][w];
+        for (int i = 0; i < w; ++i) {
+            final double tauI = tau[k0 + i];
+            t[i][i] = tauI;
+            for (int r = 0; r < i; ++r) {
+                final double[] tR = t[r];
+                double sum = 0;
+                for (int s = r; s < i; ++s) {
+                    sum += tR[s] * gram[s][i];
+                }
+                tR[i] = -tauI * sum;
+            }
+        }
+
+        return t;
+
+    }
+
+    /**
+     * Apply a range of reflections in compact WY form to a set of vectors.
+     * @param k0 index of the first reflection of the range
+     * @param k1 index of the reflection after the last one of the range
+     * @param t triangular factor of the compact WY form
+     * @param transposed if true, apply (I - VTV<sup>T</sup>)<sup>T</sup>,
+     * otherwise apply I - VTV<sup>T</sup>
+     * @param y vectors to update in place (each one with {@code m} elements)
+     * @param start index of the first vector to update
+     * @param end index of the vector after the last one to update
+     */
+    private void applyBlock(final int k0, final int k1, final double[][] t,
+                            final boolean transposed,
+                            final double[][] y, final int start, final int end) {
+
+        final int w  = k1 - k0;
+        final int nY = end - start;
+        if (nY <= 0) {
+            return;
+        }
+
+        // W = V' Y, computed by slices of rows
+        final double[][] work = new double[w][nY];
+        for (int r0 = k0; r0 < m; r0 += ROWS_SLICE) {
+            final int r1 = FastMath.min(r0 + ROWS_SLICE, m);
+            for (int c = 0; c < nY; ++c) {
+                final double[] yC = y[start + c];
+                for (int j = 0; j < w; ++j) {
+                    final double[] vJ = columns[k0 + j];
+                    double dot = 0;
+                    for (int row = FastMath.max(r0, k0 + j); row < r1; ++row) {
+                        dot += vJ[row] * yC[row];
+                    }
+                    work[j][c] += dot;
+                }
+            }
+        }
+
+        // W = T' W or W = T W, in place
+        final double[] column = new double[w];
+        for (int c = 0; c < nY; ++c) {
+            for (int i = 0; i < w; ++i) {
+                column[i] = work[i][c];
+            }
+            for (int i = 0; i < w; ++i) {
+                double sum = 0;
+                if (transposed) {
+                    for (int l = 0; l <= i; ++l) {
+                        sum += t[l][i] * column[l];
+                    }
+                } else {
+                    final double[] tI = t[i];
+                    for (int l = i; l < w; ++l) {
+                        sum += tI[l] * column[l];
+                    }
+                }
+                work[i][c] = sum;
+            }
+        }
+
+        // Y = Y - V W, computed by slices of rows
+        for (int r0 = k0; r0 < m; r0 += ROWS_SLICE) {
+            final int r1 = FastMath.min(r0 + ROWS_SLICE, m);
+            for (int c = 0; c < nY; ++c) {
+                final double[] yC = y[start + c];
+                for (int j = 0; j < w; ++j) {
+                    final double[] vJ = columns[k0 + j];
+                    final double wJC  = work[j][c];
+                    if (wJC != 0.0) {
+                        for (int row = FastMath.max(r0, k0 + j); row < r1; ++row) {
+                            yC[row] -= wJC * vJ[row];
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Apply Q<sup>T</sup> to a set of vectors.
+     * @param y vectors to update in place (each one with {@code m} elements)
+     */
+    void applyQT(final double[][] y) {
+        for (int p = 0; p < tFactors.length; ++p) {
+            final int k0 = p * PANEL_WIDTH;
+            applyBlock(k0, k0 + tFactors[p].length, tFactors[p], true, y, 0, y.length);
+        }
+    }
+
+    /**
+     * Apply Q to a set of vectors.
+     * @param y vectors to update in place (each one with {@code m} elements)
+     */
+    void applyQ(final double[][] y) {
+        for (int p = tFactors.length - 1; p >= 0; --p) {
+            final int k0 = p * PANEL_WIDTH;
+            applyBlock(k0, k0 + tFactors[p].length, tFactors[p], false, y, 0, y.length);
+        }
+    }
+
+    /**
+     * Solve the upper triangular system R.x = y.
+     * <p>Only the first min(m, n) elements of y are used. If n &gt; m,
+     * the last n - m elements of x are set to 0.</p>
+     * @param y right hand side (will be overwritten)
+     * @return solution x, with {@code n} elements
+     */
+    double[] solveR(final double[] y) {
+        final double[] x = new double[n];
+        for (int row = rDiag.length - 1; row >= 0; --row) {
+            final double xRow = y[row] / rDiag[row];
+            final double[] rCol = columns[row];
+            x[row] = xRow;
+            for (int i = 0; i < row; ++i) {
+                y[i] -= xRow * rCol[i];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Copy the non-zero rows of R into a set of columns.
+     * @param dest destination columns (one array for each column of R)
+     * @param offset index of the first row in destination columns
+     */
+    void copyR(final double[][] dest, final int offset) {
+        for (int col = 0; col < n; ++col) {
+            final double[] rCol = columns[col];
+            final double[] dCol = dest[col];
+            final int last = FastMath.min(col, rDiag.length);
+            System.arraycopy(rCol, 0, dCol, offset, last);
+            if (col < rDiag.length) {
+                dCol[offset + col] = rDiag[col];
+            }
+        }
+    }
+
+    /**
+     * Check if the decomposed matrix has full rank.
+     * @return true if no diagonal element of R is below singularity threshold
+     */
+    boolean isFullRank() {
+        for (double diag : rDiag) {
+            if (FastMath.abs(diag) <= threshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the matrix R of the decomposition.
+     * <p>R is an upper-triangular matrix</p>
+     * @return the R matrix
+     */
+    public RealMatrix getR() {
+
+        if (cachedR == null) {
+            // R is supposed to be m x n
+            final double[][] ra = new double[m][n];
+            for (int row = rDiag.length - 1; row >= 0; row--) {
+                ra[row][row] = rDiag[row];
+                for (int col = row + 1; col < n; col++) {
+                    ra[row][col] = columns[col][row];
+                }
+            }
+            cachedR = MatrixUtils.createRealMatrix(ra);
+        }
+
+        // return the cached matrix
+        return cachedR;
+    }
+
+    /**
+     * Returns the matrix Q of the decomposition.
+     * <p>Q is an orthogonal matrix</p>
+     * @return the Q matrix
+     */
+    public RealMatrix getQ() {
+        if (cachedQ == null) {
+            // Q is supposed to be m x m, it is built by applying the reflections to identity
+            final double[][] q = new double[m][m];
+            for (int i = 0; i < m; ++i) {
+                q[i][i] = 1.0;
+            }
+            applyQ(q);
+
+            // q now contains the columns of Q, i.e. the rows of QT
+            cachedQT = MatrixUtils.createRealMatrix(q);
+            cachedQ  = cachedQT.transpose();
+        }
+        return cachedQ;
+    }
+
+    /**
+     * Returns the transpose of the matrix Q of the decomposition.
+     * <p>Q is an orthogonal matrix</p>
+     * @return the transpose of the Q matrix, Q<sup>T</sup>
+     */
+    public RealMatrix getQT() {
+        if (cachedQT == null) {
+            getQ();
+        }
+        return cachedQT;
+    }
+
+    /**
+     * Returns the Householder reflector vectors.
+     * <p>H is a lower trapezoidal matrix whose columns represent
+     * each successive Householder reflector vector, with the same
+     * normalization as {@link QRDecomposition#getH()}.</p>
+     * @return a matrix containing the Householder reflector vectors
+     */
+    public RealMatrix getH() {
+        if (cachedH == null) {
+            final double[][] ha = new double[m][n];
+            for (int j = 0; j < rDiag.length; ++j) {
+                final double[] v = columns[j];
+                for (int i = j; i < m; ++i) {
+                    ha[i][j] = tau[j] * v[i];
+                }
+            }
+            cachedH = MatrixUtils.createRealMatrix(ha);
+        }
+
+        // return the cached matrix
+        return cachedH;
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in least square sense.
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver(this);
+    }
+
+    /** Specialized solver. */
+    private static class Solver implements DecompositionSolver {
+
+        /** Underlying decomposition. */
+        private final BlockQRDecomposition qr;
+
+        /**
+         * Build a solver from decomposed matrix.
+         * @param qr Underlying decomposition.
+         */
+        private Solver(final BlockQRDecomposition qr) {
+            this.qr = qr;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            return qr.isFullRank();
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(RealVector b) {
+            if (b.getDimension() != qr.m) {
+                throw new DimensionMismatchException(b.getDimension(), qr.m);
+            }
+            if (!isNonSingular()) {
+                throw new SingularMatrixException();
+            }
+
+            final double[][] y = new double[][] { b.toArray() };
+            qr.applyQT(y);
+            return new ArrayRealVector(qr.solveR(y[0]), false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(RealMatrix b) {
+            if (b.getRowDimension() != qr.m) {
+                throw new DimensionMismatchException(b.getRowDimension(), qr.m);
+            }
+            if (!isNonSingular()) {
+                throw new SingularMatrixException();
+            }
+
+            final int columns = b.getColumnDimension();
+            final double[][] y = toColumns(b);
+            qr.applyQT(y);
+
+            final double[][] x = new double[qr.n][columns];
+            for (int k = 0; k < columns; ++k) {
+                final double[] xK = qr.solveR(y[k]);
+                for (int i = 0; i < qr.n; ++i) {
+                    x[i][k] = xK[i];
+                }
+            }
+            return MatrixUtils.createRealMatrix(x);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @throws SingularMatrixException if the decomposed matrix is singular.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(qr.m));
+        }
+    }
+}
@@ -18,7 +18,11 @@
 package org.apache.commons.math3.linear;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.NoDataException;
@@ -27,6 +31,7 @@ import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.ConcurrencyUtils;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.commons.math3.util.MathUtils;
 
@@ -66,12 +71,27 @@ import org.apache.commons.math3.util.MathUtils;
  * arrays is negligible for small matrices (about 1%). The gain from cache efficiency leads
  * to up to 3-fold improvements for matrices of moderate to large size.
  * </p>
+ * <p>
+ * As blocks are independent from each other, some operations like {@link
+ * #multiply(BlockRealMatrix, ExecutorService) multiplication}, {@link
+ * #add(BlockRealMatrix, ExecutorService) addition}, {@link
+ * #subtract(BlockRealMatrix, ExecutorService) subtraction} and {@link
+ * #transpose(ExecutorService) transposition} can also spread the work on
+ * the threads of a user-supplied executor. These methods return exactly
+ * the same entries as their single-threaded counterparts.
+ * </p>
  * @version $Id$
  * @since 2.0
  */
 public class BlockRealMatrix extends AbstractRealMatrix implements Serializable {
     /** Block size. */
     public static final int BLOCK_SIZE = 52;
+    /** Number of blocks per task for parallel element-wise operations. */
+    private static final int ELEMENTWISE_BLOCKS_PER_TASK = 64;
+    /** Number of blocks per task for parallel transposition. */
+    private static final int TRANSPOSE_BLOCKS_PER_TASK = 16;
+    /** Number of blocks per task for parallel walks. */
+    private static final int WALK_BLOCKS_PER_TASK = 16;
     /** Serializable version identifier */
     private static final long serialVersionUID = 4991895511313664478L;
     /** Blocks of matrix entries. */
@@ -276,6 +296,15 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return blocks;
     }
 
+    /**
+     * Get a reference to the blocks of the matrix.
+     *
+     * @return blocks of the matrix, in the layout of {@link #createBlocksLayout(int, int)}.
+     */
+    double[][] getBlocksRef() {
+        return blocks;
+    }
+
     /** {@inheritDoc} */
     @Override
     public BlockRealMatrix createMatrix(final int rowDimension,
@@ -366,6 +395,79 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return out;
     }
 
+    /**
+     * Compute the sum of this matrix and {@code m}, spreading the work across the threads of an executor.
+     * <p>
+     * This method returns exactly the same entries as {@link #add(BlockRealMatrix)}.
+     * </p>
+     *
+     * @param m Matrix to be added.
+     * @param executor Executor in charge of running the block tasks.
+     * @return {@code this} + m.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as this matrix.
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public BlockRealMatrix add(final BlockRealMatrix m,
+                               final ExecutorService executor)
+        throws MatrixDimensionMismatchException, NullArgumentException {
+        // safety check
+        MatrixUtils.checkAdditionCompatible(this, m);
+        MathUtils.checkNotNull(executor);
+
+        final BlockRealMatrix out = new BlockRealMatrix(rows, columns);
+        runBlockTasks(executor, out.blocks.length, ELEMENTWISE_BLOCKS_PER_TASK,
+                      new BlockOperation() {
+            /** {@inheritDoc} */
+            public void apply(final int blockIndex) {
+                final double[] outBlock = out.blocks[blockIndex];
+                final double[] tBlock = blocks[blockIndex];
+                final double[] mBlock = m.blocks[blockIndex];
+                for (int k = 0; k < outBlock.length; ++k) {
+                    outBlock[k] = tBlock[k] + mBlock[k];
+                }
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Compute the sum of this matrix and {@code m} into a destination matrix.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code m}. As this method overloads {@link #add(BlockRealMatrix,
+     * ExecutorService)}, a literal {@code null} second argument must be
+     * cast to select one of them.
+     * </p>
+     *
+     * @param m Matrix to be added.
+     * @param out Destination matrix, with the same size as this matrix.
+     * @return {@code out}, which now holds {@code this} + m.
+     * @throws MatrixDimensionMismatchException if {@code m} or {@code out}
+     * is not the same size as this matrix.
+     * @since 3.3
+     */
+    public BlockRealMatrix add(final BlockRealMatrix m, final BlockRealMatrix out)
+        throws MatrixDimensionMismatchException {
+        // safety check
+        MatrixUtils.checkAdditionCompatible(this, m);
+        MatrixUtils.checkAdditionCompatible(this, out);
+
+        // perform addition block-wise, to ensure good cache behavior
+        for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+            final double[] outBlock = out.blocks[blockIndex];
+            final double[] tBlock = blocks[blockIndex];
+            final double[] mBlock = m.blocks[blockIndex];
+            for (int k = 0; k < outBlock.length; ++k) {
+                outBlock[k] = tBlock[k] + mBlock[k];
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public BlockRealMatrix subtract(final RealMatrix m)
@@ -434,6 +536,79 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return out;
     }
 
+    /**
+     * Subtract {@code m} from this matrix, spreading the work across the threads of an executor.
+     * <p>
+     * This method returns exactly the same entries as {@link #subtract(BlockRealMatrix)}.
+     * </p>
+     *
+     * @param m Matrix to be subtracted.
+     * @param executor Executor in charge of running the block tasks.
+     * @return {@code this} - m.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as this matrix.
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public BlockRealMatrix subtract(final BlockRealMatrix m,
+                                    final ExecutorService executor)
+        throws MatrixDimensionMismatchException, NullArgumentException {
+        // safety check
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        MathUtils.checkNotNull(executor);
+
+        final BlockRealMatrix out = new BlockRealMatrix(rows, columns);
+        runBlockTasks(executor, out.blocks.length, ELEMENTWISE_BLOCKS_PER_TASK,
+                      new BlockOperation() {
+            /** {@inheritDoc} */
+            public void apply(final int blockIndex) {
+                final double[] outBlock = out.blocks[blockIndex];
+                final double[] tBlock = blocks[blockIndex];
+                final double[] mBlock = m.blocks[blockIndex];
+                for (int k = 0; k < outBlock.length; ++k) {
+                    outBlock[k] = tBlock[k] - mBlock[k];
+                }
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Subtract {@code m} from this matrix into a destination matrix.
+     * <p>
+     * No memory is allocated. The destination may be {@code this} or
+     * {@code m}. As this method overloads {@link #subtract(BlockRealMatrix,
+     * ExecutorService)}, a literal {@code null} second argument must be
+     * cast to select one of them.
+     * </p>
+     *
+     * @param m Matrix to be subtracted.
+     * @param out Destination matrix, with the same size as this matrix.
+     * @return {@code out}, which now holds {@code this} - m.
+     * @throws MatrixDimensionMismatchException if {@code m} or {@code out}
+     * is not the same size as this matrix.
+     * @since 3.3
+     */
+    public BlockRealMatrix subtract(final BlockRealMatrix m, final BlockRealMatrix out)
+        throws MatrixDimensionMismatchException {
+        // safety check
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        MatrixUtils.checkSubtractionCompatible(this, out);
+
+        // perform subtraction block-wise, to ensure good cache behavior
+        for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+            final double[] outBlock = out.blocks[blockIndex];
+            final double[] tBlock = blocks[blockIndex];
+            final double[] mBlock = m.blocks[blockIndex];
+            for (int k = 0; k < outBlock.length; ++k) {
+                outBlock[k] = tBlock[k] - mBlock[k];
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public BlockRealMatrix scalarAdd(final double d) {
@@ -539,57 +714,215 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         final BlockRealMatrix out = new BlockRealMatrix(rows, m.columns);
 
         // perform multiplication block-wise, to ensure good cache behavior
-        int blockIndex = 0;
-        for (int iBlock = 0; iBlock < out.blockRows; ++iBlock) {
+        for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+            multiplyBlock(m, out, blockIndex);
+        }
 
-            final int pStart = iBlock * BLOCK_SIZE;
-            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+        return out;
+    }
 
+    /**
+     * Returns the result of postmultiplying this by {@code m}, spreading
+     * the computation of the output blocks across the threads of an executor.
+     * <p>
+     * Each block of the result is computed by exactly one task, using the same
+     * arithmetic as {@link #multiply(BlockRealMatrix)}, so both methods return
+     * exactly the same entries.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @param executor Executor in charge of running the block tasks.
+     * @return {@code this} * m.
+     * @throws DimensionMismatchException if the matrices are not compatible.
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public BlockRealMatrix multiply(final BlockRealMatrix m,
+                                    final ExecutorService executor)
+        throws DimensionMismatchException, NullArgumentException {
+        // safety check
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        MathUtils.checkNotNull(executor);
+
+        final BlockRealMatrix out = new BlockRealMatrix(rows, m.columns);
+        runBlockTasks(executor, out.blocks.length, 1, new BlockOperation() {
+            /** {@inheritDoc} */
+            public void apply(final int blockIndex) {
+                multiplyBlock(m, out, blockIndex);
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Returns the result of postmultiplying this by {@code m}, into a
+     * destination matrix.
+     * <p>
+     * This method returns exactly the same entries as {@link #multiply(BlockRealMatrix)}.
+     * The destination may be {@code this} (if {@code m} is square) or
+     * {@code m} (if this matrix is square). Apart from a buffer holding one
+     * row or one column of blocks in these cases, no memory is allocated,
+     * except when {@code this}, {@code m} and {@code out} are all the same
+     * matrix, in which case a temporary product is computed. As this method
+     * overloads {@link #multiply(BlockRealMatrix, ExecutorService)}, a
+     * literal {@code null} second argument must be cast to select one of them.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @param out Destination matrix, with the row dimension of this matrix
+     * and the column dimension of {@code m}.
+     * @return {@code out}, which now holds {@code this} * m.
+     * @throws DimensionMismatchException if the matrices are not compatible.
+     * @throws MatrixDimensionMismatchException if {@code out} does not
+     * have the dimensions of the product.
+     * @since 3.3
+     */
+    public BlockRealMatrix multiply(final BlockRealMatrix m, final BlockRealMatrix out)
+        throws DimensionMismatchException, MatrixDimensionMismatchException {
+        // safety check
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        if (out.rows != rows || out.columns != m.columns) {
+            throw new MatrixDimensionMismatchException(out.rows, out.columns,
+                                                       rows, m.columns);
+        }
+
+        if (out.blocks != blocks && out.blocks != m.blocks) {
+            // no aliasing, compute the blocks in place
+            for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+                Arrays.fill(out.blocks[blockIndex], 0.0);
+                multiplyBlock(m, out, blockIndex);
+            }
+        } else if (out.blocks != blocks) {
+            // out == m: a column of blocks of the product only depends
+            // on the same column of blocks of m
+            final double[][] buffer = new double[blockRows][BLOCK_SIZE * BLOCK_SIZE];
             for (int jBlock = 0; jBlock < out.blockColumns; ++jBlock) {
-                final int jWidth = out.blockWidth(jBlock);
-                final int jWidth2 = jWidth  + jWidth;
-                final int jWidth3 = jWidth2 + jWidth;
-                final int jWidth4 = jWidth3 + jWidth;
+                for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                    Arrays.fill(buffer[iBlock], 0.0);
+                    multiplyBlock(m, buffer[iBlock], iBlock, jBlock);
+                }
+                for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                    final double[] outBlock = out.blocks[iBlock * out.blockColumns + jBlock];
+                    System.arraycopy(buffer[iBlock], 0, outBlock, 0, outBlock.length);
+                }
+            }
+        } else if (m.blocks != blocks) {
+            // out == this: a row of blocks of the product only depends
+            // on the same row of blocks of this matrix
+            final double[][] buffer = new double[out.blockColumns][BLOCK_SIZE * BLOCK_SIZE];
+            for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                for (int jBlock = 0; jBlock < out.blockColumns; ++jBlock) {
+                    Arrays.fill(buffer[jBlock], 0.0);
+                    multiplyBlock(m, buffer[jBlock], iBlock, jBlock);
+                }
+                for (int jBlock = 0; jBlock < out.blockColumns; ++jBlock) {
+                    final double[] outBlock = out.blocks[iBlock * out.blockColumns + jBlock];
+                    System.arraycopy(buffer[jBlock], 0, outBlock, 0, outBlock.length);
+                }
+            }
+        } else {
+            // out == this == m: a full temporary product is needed
+            final BlockRealMatrix product = multiply(m);
+            for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+                System.arraycopy(product.blocks[blockIndex], 0, out.blocks[blockIndex], 0,
+                                 out.blocks[blockIndex].length);
+            }
+        }
 
-                // select current block
-                final double[] outBlock = out.blocks[blockIndex];
+        return out;
+    }
 
-                // perform multiplication on current block
-                for (int kBlock = 0; kBlock < blockColumns; ++kBlock) {
-                    final int kWidth = blockWidth(kBlock);
-                    final double[] tBlock = blocks[iBlock * blockColumns + kBlock];
-                    final double[] mBlock = m.blocks[kBlock * m.blockColumns + jBlock];
-                    int k = 0;
-                    for (int p = pStart; p < pEnd; ++p) {
-                        final int lStart = (p - pStart) * kWidth;
-                        final int lEnd = lStart + kWidth;
-                        for (int nStart = 0; nStart < jWidth; ++nStart) {
-                            double sum = 0;
-                            int l = lStart;
-                            int n = nStart;
-                            while (l < lEnd - 3) {
-                                sum += tBlock[l] * mBlock[n] +
-                                       tBlock[l + 1] * mBlock[n + jWidth] +
-                                       tBlock[l + 2] * mBlock[n + jWidth2] +
-                                       tBlock[l + 3] * mBlock[n + jWidth3];
-                                l += 4;
-                                n += jWidth4;
-                            }
-                            while (l < lEnd) {
-                                sum += tBlock[l++] * mBlock[n];
-                                n += jWidth;
-                            }
-                            outBlock[k] += sum;
-                            ++k;
-                        }
+    /**
+     * Compute one block of the product of this matrix by {@code m}.
+     *
+     * @param m Matrix to postmultiply by.
+     * @param out Product matrix (the block is accumulated into it).
+     * @param blockIndex Index of the output block to compute.
+     */
+    private void multiplyBlock(final BlockRealMatrix m, final BlockRealMatrix out,
+                               final int blockIndex) {
+        final int iBlock = blockIndex / out.blockColumns;
+        final int jBlock = blockIndex - iBlock * out.blockColumns;
+        multiplyBlock(m, out.blocks[blockIndex], iBlock, jBlock);
+    }
+
+    /**
+     * Compute one block of the product of this matrix by {@code m}.
+     *
+     * @param m Matrix to postmultiply by.
+     * @param outBlock Array into which the block is accumulated.
+     * @param iBlock Row index (in block sense) of the block.
+     * @param jBlock Column index (in block sense) of the block.
+     */
+    private void multiplyBlock(final BlockRealMatrix m, final double[] outBlock,
+                               final int iBlock, final int jBlock) {
+        multiplyBlock(m, 1.0, outBlock, iBlock, jBlock);
+    }
+
+    /**
+     * Compute one block of the product of this matrix by {@code m}, scaled.
+     *
+     * @param m Matrix to postmultiply by.
+     * @param scale Factor applied to the product.
+     * @param outBlock Array into which the scaled block is accumulated.
+     * @param iBlock Row index (in block sense) of the block.
+     * @param jBlock Column index (in block sense) of the block.
+     */
+    void multiplyBlock(final BlockRealMatrix m, final double scale, final double[] outBlock,
+                       final int iBlock, final int jBlock) {
+        final int pStart = iBlock * BLOCK_SIZE;
+        final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+
+        final int jWidth = m.blockWidth(jBlock);
+        final int jWidth2 = jWidth  + jWidth;
+        final int jWidth3 = jWidth2 + jWidth;
+        final int jWidth4 = jWidth3 + jWidth;
+
+        // perform multiplication on current block
+        for (int kBlock = 0; kBlock < blockColumns; ++kBlock) {
+            final int kWidth = blockWidth(kBlock);
+            final double[] tBlock = blocks[iBlock * blockColumns + kBlock];
+            final double[] mBlock = m.blocks[kBlock * m.blockColumns + jBlock];
+            int k = 0;
+            for (int p = pStart; p < pEnd; ++p) {
+                final int lStart = (p - pStart) * kWidth;
+                final int lEnd = lStart + kWidth;
+                for (int nStart = 0; nStart < jWidth; ++nStart) {
+                    double sum = 0;
+                    int l = lStart;
+                    int n = nStart;
+                    while (l < lEnd - 3) {
+                        sum += tBlock[l] * mBlock[n] +
+                               tBlock[l + 1] * mBlock[n + jWidth] +
+                               tBlock[l + 2] * mBlock[n + jWidth2] +
+                               tBlock[l + 3] * mBlock[n + jWidth3];
+                        l += 4;
+                        n += jWidth4;
+                    }
+                    while (l < lEnd) {
+                        sum += tBlock[l++] * mBlock[n];
+                        n += jWidth;
                     }
+                    outBlock[k] += scale * sum;
+                    ++k;
                 }
-                // go to next block
-                ++blockIndex;
             }
         }
+    }
 
-        return out;
+    /**
+     * Add one scaled block of this matrix to a block with the same layout.
+     *
+     * @param scale Factor applied to the block.
+     * @param outBlock Array into which the scaled block is accumulated.
+     * @param blockIndex Index of the block.
+     */
+    void addScaledBlock(final double scale, final double[] outBlock, final int blockIndex) {
+        final double[] block = blocks[blockIndex];
+        for (int k = 0; k < block.length; ++k) {
+            outBlock[k] += scale * block[k];
+        }
     }
 
     /** {@inheritDoc} */
@@ -1217,34 +1550,65 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         final BlockRealMatrix out = new BlockRealMatrix(nCols, nRows);
 
         // perform transpose block-wise, to ensure good cache behavior
-        int blockIndex = 0;
-        for (int iBlock = 0; iBlock < blockColumns; ++iBlock) {
-            for (int jBlock = 0; jBlock < blockRows; ++jBlock) {
-                // transpose current block
-                final double[] outBlock = out.blocks[blockIndex];
-                final double[] tBlock = blocks[jBlock * blockColumns + iBlock];
-                final int pStart = iBlock * BLOCK_SIZE;
-                final int pEnd = FastMath.min(pStart + BLOCK_SIZE, columns);
-                final int qStart = jBlock * BLOCK_SIZE;
-                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, rows);
-                int k = 0;
-                for (int p = pStart; p < pEnd; ++p) {
-                    final int lInc = pEnd - pStart;
-                    int l = p - pStart;
-                    for (int q = qStart; q < qEnd; ++q) {
-                        outBlock[k] = tBlock[l];
-                        ++k;
-                        l+= lInc;
-                    }
-                }
-                // go to next block
-                ++blockIndex;
-            }
+        for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+            transposeBlock(out, blockIndex);
         }
 
         return out;
     }
 
+    /**
+     * Returns the transpose of this matrix, spreading the work across the
+     * threads of an executor.
+     *
+     * @param executor Executor in charge of running the block tasks.
+     * @return the transpose of this matrix.
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public BlockRealMatrix transpose(final ExecutorService executor)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(executor);
+
+        final BlockRealMatrix out = new BlockRealMatrix(columns, rows);
+        runBlockTasks(executor, out.blocks.length, TRANSPOSE_BLOCKS_PER_TASK,
+                      new BlockOperation() {
+            /** {@inheritDoc} */
+            public void apply(final int blockIndex) {
+                transposeBlock(out, blockIndex);
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Transpose one block of this matrix.
+     *
+     * @param out Transposed matrix.
+     * @param blockIndex Index of the output block to fill.
+     */
+    private void transposeBlock(final BlockRealMatrix out, final int blockIndex) {
+        final int iBlock = blockIndex / out.blockColumns;
+        final int jBlock = blockIndex - iBlock * out.blockColumns;
+        final double[] outBlock = out.blocks[blockIndex];
+        final double[] tBlock = blocks[jBlock * blockColumns + iBlock];
+        final int pStart = iBlock * BLOCK_SIZE;
+        final int pEnd = FastMath.min(pStart + BLOCK_SIZE, columns);
+        final int qStart = jBlock * BLOCK_SIZE;
+        final int qEnd = FastMath.min(qStart + BLOCK_SIZE, rows);
+        int k = 0;
+        for (int p = pStart; p < pEnd; ++p) {
+            final int lInc = pEnd - pStart;
+            int l = p - pStart;
+            for (int q = qStart; q < qEnd; ++q) {
+                outBlock[k] = tBlock[l];
+                ++k;
+                l+= lInc;
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public int getRowDimension() {
@@ -1297,6 +1661,65 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return out;
     }
 
+    /**
+     * Returns the result of multiplying this by the vector {@code v}, into a
+     * destination array.
+     * <p>
+     * This method returns exactly the same entries as {@link #operate(double[])}.
+     * No memory is allocated, except when {@code out} and {@code v} are the
+     * same array, in which case a temporary copy of {@code v} is made.
+     * </p>
+     *
+     * @param v the vector to operate on
+     * @param out destination array, of length {@code rowDimension(this)}
+     * @return {@code out}, which now holds {@code this * v}
+     * @throws DimensionMismatchException if the length of {@code v} does not
+     * match the column dimension of this matrix, or if the length of
+     * {@code out} does not match its row dimension.
+     * @since 3.3
+     */
+    public double[] operate(final double[] v, final double[] out)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+        if (out.length != rows) {
+            throw new DimensionMismatchException(out.length, rows);
+        }
+        final double[] in = (v == out) ? v.clone() : v;
+        Arrays.fill(out, 0.0);
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final double[] block  = blocks[iBlock * blockColumns + jBlock];
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    double sum = 0;
+                    int q = qStart;
+                    while (q < qEnd - 3) {
+                        sum += block[k]     * in[q]     +
+                               block[k + 1] * in[q + 1] +
+                               block[k + 2] * in[q + 2] +
+                               block[k + 3] * in[q + 3];
+                        k += 4;
+                        q += 4;
+                    }
+                    while (q < qEnd) {
+                        sum += block[k++] * in[q++];
+                    }
+                    out[p] += sum;
+                }
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double[] preMultiply(final double[] v)
@@ -1342,6 +1765,70 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return out;
     }
 
+    /**
+     * Returns the (row) vector result of premultiplying this by the vector
+     * {@code v}, into a destination array.
+     * <p>
+     * This method returns exactly the same entries as {@link #preMultiply(double[])}.
+     * No memory is allocated, except when {@code out} and {@code v} are the
+     * same array, in which case a temporary copy of {@code v} is made.
+     * </p>
+     *
+     * @param v the row vector to premultiply by
+     * @param out destination array, of length {@code columnDimension(this)}
+     * @return {@code out}, which now holds {@code v * this}
+     * @throws DimensionMismatchException if the length of {@code v} does not
+     * match the row dimension of this matrix, or if the length of
+     * {@code out} does not match its column dimension.
+     * @since 3.3
+     */
+    public double[] preMultiply(final double[] v, final double[] out)
+        throws DimensionMismatchException {
+        if (v.length != rows) {
+            throw new DimensionMismatchException(v.length, rows);
+        }
+        if (out.length != columns) {
+            throw new DimensionMismatchException(out.length, columns);
+        }
+        final double[] in = (v == out) ? v.clone() : v;
+        Arrays.fill(out, 0.0);
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+            final int jWidth  = blockWidth(jBlock);
+            final int jWidth2 = jWidth  + jWidth;
+            final int jWidth3 = jWidth2 + jWidth;
+            final int jWidth4 = jWidth3 + jWidth;
+            final int qStart = jBlock * BLOCK_SIZE;
+            final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+            for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                final double[] block  = blocks[iBlock * blockColumns + jBlock];
+                final int pStart = iBlock * BLOCK_SIZE;
+                final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+                for (int q = qStart; q < qEnd; ++q) {
+                    int k = q - qStart;
+                    double sum = 0;
+                    int p = pStart;
+                    while (p < pEnd - 3) {
+                        sum += block[k]           * in[p]     +
+                               block[k + jWidth]  * in[p + 1] +
+                               block[k + jWidth2] * in[p + 2] +
+                               block[k + jWidth3] * in[p + 3];
+                        k += jWidth4;
+                        p += 4;
+                    }
+                    while (p < pEnd) {
+                        sum += block[k] * in[p++];
+                        k += jWidth;
+                    }
+                    out[q] += sum;
+                }
+            }
+        }
+
+        return out;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double walkInRowOrder(final RealMatrixChangingVisitor visitor) {
@@ -1562,6 +2049,134 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         return visitor.end();
     }
 
+    /**
+     * Visit (and possibly change) all matrix entries, spreading the work
+     * across the threads of an executor.
+     * <p>
+     * The blocks are split in contiguous groups, each group being visited
+     * by its own {@link CombinableRealMatrixChangingVisitor#split() partial
+     * visitor}, in the same order as {@link
+     * #walkInOptimizedOrder(RealMatrixChangingVisitor)}. The partial visitors
+     * are combined in the order of the groups, so the result does not depend
+     * on the executor.
+     * </p>
+     *
+     * @param visitor visitor used to process all matrix entries
+     * @param executor Executor in charge of running the block tasks.
+     * @return the value returned by {@link RealMatrixChangingVisitor#end()}
+     * at the end of the walk
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public double walkInOptimizedOrder(final CombinableRealMatrixChangingVisitor visitor,
+                                       final ExecutorService executor)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(executor);
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+
+        final List<CombinableRealMatrixChangingVisitor> partials =
+            new ArrayList<CombinableRealMatrixChangingVisitor>();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < blocks.length; start += WALK_BLOCKS_PER_TASK) {
+            final CombinableRealMatrixChangingVisitor partial = visitor.split();
+            final int first = start;
+            final int last  = FastMath.min(start + WALK_BLOCKS_PER_TASK, blocks.length);
+            partials.add(partial);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int blockIndex = first; blockIndex < last; ++blockIndex) {
+                        final int iBlock = blockIndex / blockColumns;
+                        final int jBlock = blockIndex - iBlock * blockColumns;
+                        final int pStart = iBlock * BLOCK_SIZE;
+                        final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+                        final int qStart = jBlock * BLOCK_SIZE;
+                        final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                        final double[] block = blocks[blockIndex];
+                        int k = 0;
+                        for (int p = pStart; p < pEnd; ++p) {
+                            for (int q = qStart; q < qEnd; ++q) {
+                                block[k] = partial.visit(p, q, block[k]);
+                                ++k;
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, tasks);
+
+        for (final CombinableRealMatrixChangingVisitor partial : partials) {
+            visitor.combine(partial);
+        }
+        return visitor.end();
+    }
+
+    /**
+     * Visit (but don't change) all matrix entries, spreading the work
+     * across the threads of an executor.
+     * <p>
+     * The blocks are split in contiguous groups, each group being visited
+     * by its own {@link CombinableRealMatrixPreservingVisitor#split() partial
+     * visitor}, in the same order as {@link
+     * #walkInOptimizedOrder(RealMatrixPreservingVisitor)}. The partial visitors
+     * are combined in the order of the groups, so the result does not depend
+     * on the executor.
+     * </p>
+     *
+     * @param visitor visitor used to process all matrix entries
+     * @param executor Executor in charge of running the block tasks.
+     * @return the value returned by {@link RealMatrixPreservingVisitor#end()}
+     * at the end of the walk
+     * @throws NullArgumentException if {@code executor} is {@code null}.
+     * @since 3.3
+     */
+    public double walkInOptimizedOrder(final CombinableRealMatrixPreservingVisitor visitor,
+                                       final ExecutorService executor)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(executor);
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+
+        final List<CombinableRealMatrixPreservingVisitor> partials =
+            new ArrayList<CombinableRealMatrixPreservingVisitor>();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < blocks.length; start += WALK_BLOCKS_PER_TASK) {
+            final CombinableRealMatrixPreservingVisitor partial = visitor.split();
+            final int first = start;
+            final int last  = FastMath.min(start + WALK_BLOCKS_PER_TASK, blocks.length);
+            partials.add(partial);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int blockIndex = first; blockIndex < last; ++blockIndex) {
+                        final int iBlock = blockIndex / blockColumns;
+                        final int jBlock = blockIndex - iBlock * blockColumns;
+                        final int pStart = iBlock * BLOCK_SIZE;
+                        final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+                        final int qStart = jBlock * BLOCK_SIZE;
+                        final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                        final double[] block = blocks[blockIndex];
+                        int k = 0;
+                        for (int p = pStart; p < pEnd; ++p) {
+                            for (int q = qStart; q < qEnd; ++q) {
+                                partial.visit(p, q, block[k]);
+                                ++k;
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, tasks);
+
+        for (final CombinableRealMatrixPreservingVisitor partial : partials) {
+            visitor.combine(partial);
+        }
+        return visitor.end();
+    }
+
     /**
      * Get the height of a block.
      * @param blockRow row index (in block sense) of the block
@@ -1579,4 +2194,44 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
     private int blockWidth(final int blockColumn) {
         return (blockColumn == blockColumns - 1) ? columns - blockColumn * BLOCK_SIZE : BLOCK_SIZE;
     }
+
+    /**
+     * Apply an operation to a range of blocks, using an executor.
+     * <p>
+     * The blocks are split in contiguous groups, each group being handled
+     * by one task. Operations on different blocks must be independent.
+     * </p>
+     * @param executor Executor in charge of running the tasks.
+     * @param nBlocks Number of blocks to process.
+     * @param blocksPerTask Number of blocks handled by each task.
+     * @param operation Operation to apply to each block.
+     */
+    private static void runBlockTasks(final ExecutorService executor,
+                                      final int nBlocks, final int blocksPerTask,
+                                      final BlockOperation operation) {
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < nBlocks; start += blocksPerTask) {
+            final int first = start;
+            final int last  = FastMath.min(start + blocksPerTask, nBlocks);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int blockIndex = first; blockIndex < last; ++blockIndex) {
+                        operation.apply(blockIndex);
+                    }
+                    return null;
+                }
+            });
+        }
+        ConcurrencyUtils.invokeAll(executor, tasks);
+    }
+
+    /** Operation on one block, used for parallel computation. */
+    private interface BlockOperation {
+        /**
+         * Apply the operation to one block.
+         * @param blockIndex index of the block
+         */
+        void apply(int blockIndex);
+    }
 }
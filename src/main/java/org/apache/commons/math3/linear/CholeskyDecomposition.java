@@ -39,6 +39,13 @@ import org.apache.commons.math3.util.FastMath;
  *   getSolver} method and the equivalent method provided by the returned
  *   {@link DecompositionSolver}.</li>
  * </ul>
+ * <p>The factor L<sup>T</sup> is computed in place in packed storage, with
+ * the same layout as {@link SymmetricRealMatrix} (upper triangular part
+ * stored column by column), as the LAPACK {@code dpptrf} routine does. The
+ * decomposition therefore keeps n (n + 1) / 2 elements instead of
+ * n<sup>2</sup>. Instances of {@link SymmetricRealMatrix} are symmetric by
+ * construction, so their symmetry is not checked and their packed data is
+ * copied directly, without ever being expanded into a dense array.</p>
  *
  * @see <a href="http://mathworld.wolfram.com/CholeskyDecomposition.html">MathWorld</a>
  * @see <a href="http://en.wikipedia.org/wiki/Cholesky_decomposition">Wikipedia</a>
@@ -56,8 +63,10 @@ public class CholeskyDecomposition {
      * and matrix not positive definite.
      */
     public static final double DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD = 1.0e-10;
-    /** Row-oriented storage for L<sup>T</sup> matrix data. */
-    private double[][] lTData;
+    /** Order of the decomposed matrix. */
+    private final int order;
+    /** Packed storage for L<sup>T</sup> matrix data, column by column. */
+    private final double[] lTData;
     /** Cached value of L. */
     private RealMatrix cachedL;
     /** Cached value of LT. */
@@ -109,49 +118,63 @@ public class CholeskyDecomposition {
                                                matrix.getColumnDimension());
         }
 
-        final int order = matrix.getRowDimension();
-        lTData   = matrix.getData();
+        order    = matrix.getRowDimension();
         cachedL  = null;
         cachedLT = null;
 
-        // check the matrix before transformation
-        for (int i = 0; i < order; ++i) {
-            final double[] lI = lTData[i];
-
-            // check off-diagonal elements (and reset them to 0)
-            for (int j = i + 1; j < order; ++j) {
-                final double[] lJ = lTData[j];
-                final double lIJ = lI[j];
-                final double lJI = lJ[i];
-                final double maxDelta =
-                    relativeSymmetryThreshold * FastMath.max(FastMath.abs(lIJ), FastMath.abs(lJI));
-                if (FastMath.abs(lIJ - lJI) > maxDelta) {
-                    throw new NonSymmetricMatrixException(i, j, relativeSymmetryThreshold);
+        if (matrix instanceof SymmetricRealMatrix) {
+            // symmetric by construction, the packed upper triangular part is used as is
+            lTData = ((SymmetricRealMatrix) matrix).getDataRef().clone();
+        } else {
+            final double[][] a = matrix.getData();
+
+            // check the matrix before transformation
+            for (int i = 0; i < order; ++i) {
+                final double[] aI = a[i];
+
+                // check off-diagonal elements
+                for (int j = i + 1; j < order; ++j) {
+                    final double aIJ = aI[j];
+                    final double aJI = a[j][i];
+                    final double maxDelta =
+                        relativeSymmetryThreshold * FastMath.max(FastMath.abs(aIJ), FastMath.abs(aJI));
+                    if (FastMath.abs(aIJ - aJI) > maxDelta) {
+                        throw new NonSymmetricMatrixException(i, j, relativeSymmetryThreshold);
+                    }
+                }
+            }
+
+            // pack the upper triangular part
+            lTData = new double[order * (order + 1) / 2];
+            int index = 0;
+            for (int j = 0; j < order; ++j) {
+                for (int i = 0; i <= j; ++i) {
+                    lTData[index++] = a[i][j];
                 }
-                lJ[i] = 0;
-           }
+            }
         }
 
-        // transform the matrix
-        for (int i = 0; i < order; ++i) {
+        // transform the matrix, one column of L^T at a time
+        for (int j = 0, cJ = 0; j < order; cJ += ++j) {
 
-            final double[] ltI = lTData[i];
+            // solve L(0..j-1, 0..j-1) . lt(0..j-1, j) = a(0..j-1, j)
+            double diagonal = lTData[cJ + j];
+            for (int i = 0, cI = 0; i < j; cI += ++i) {
+                double sum = lTData[cJ + i];
+                for (int k = 0; k < i; ++k) {
+                    sum -= lTData[cI + k] * lTData[cJ + k];
+                }
+                final double ltIJ = sum / lTData[cI + i];
+                lTData[cJ + i] = ltIJ;
+                diagonal -= ltIJ * ltIJ;
+            }
 
             // check diagonal element
-            if (ltI[i] <= absolutePositivityThreshold) {
-                throw new NonPositiveDefiniteMatrixException(ltI[i], i, absolutePositivityThreshold);
+            if (diagonal <= absolutePositivityThreshold) {
+                throw new NonPositiveDefiniteMatrixException(diagonal, j, absolutePositivityThreshold);
             }
+            lTData[cJ + j] = FastMath.sqrt(diagonal);
 
-            ltI[i] = FastMath.sqrt(ltI[i]);
-            final double inverse = 1.0 / ltI[i];
-
-            for (int q = order - 1; q > i; --q) {
-                ltI[q] *= inverse;
-                final double[] ltQ = lTData[q];
-                for (int p = q; p < order; ++p) {
-                    ltQ[p] -= ltI[q] * ltI[p];
-                }
-            }
         }
     }
 
@@ -175,7 +198,13 @@ public class CholeskyDecomposition {
     public RealMatrix getLT() {
 
         if (cachedLT == null) {
-            cachedLT = MatrixUtils.createRealMatrix(lTData);
+            final double[][] lT = new double[order][order];
+            for (int j = 0, index = 0; j < order; ++j) {
+                for (int i = 0; i <= j; ++i) {
+                    lT[i][j] = lTData[index++];
+                }
+            }
+            cachedLT = MatrixUtils.createRealMatrix(lT);
         }
 
         // return the cached matrix
@@ -188,31 +217,148 @@ public class CholeskyDecomposition {
      */
     public double getDeterminant() {
         double determinant = 1.0;
-        for (int i = 0; i < lTData.length; ++i) {
-            double lTii = lTData[i][i];
+        for (int i = 0, cI = 0; i < order; cI += ++i) {
+            double lTii = lTData[cI + i];
             determinant *= lTii * lTii;
         }
         return determinant;
     }
 
+    /**
+     * Updates the decomposition after a rank-one modification
+     * A &larr; A + v v<sup>T</sup> of the decomposed matrix.
+     * <p>
+     * The factor is updated in place by a sequence of Givens rotations, in
+     * O(n<sup>2</sup>) operations instead of the O(n<sup>3</sup>) operations
+     * of a new decomposition. Solvers previously returned by {@link
+     * #getSolver()} use the updated factor.
+     * </p>
+     *
+     * @param v vector defining the rank-one modification
+     * @throws DimensionMismatchException if the dimension of {@code v} does
+     * not match the dimension of the decomposed matrix
+     * @since 3.3
+     */
+    public void update(final double[] v) throws DimensionMismatchException {
+        if (v.length != order) {
+            throw new DimensionMismatchException(v.length, order);
+        }
+        final double[] x = v.clone();
+
+        // rotate each row of L^T with x, so as to zero the entries of x
+        for (int i = 0, cI = 0; i < order; cI += ++i) {
+            final double ltII = lTData[cI + i];
+            final double r = FastMath.hypot(ltII, x[i]);
+            final double c = ltII / r;
+            final double s = x[i] / r;
+            lTData[cI + i] = r;
+            // lt(i, j) is stored at j (j + 1) / 2 + i
+            for (int j = i + 1, index = cI + 2 * i + 1; j < order; index += ++j) {
+                final double ltIJ = lTData[index];
+                final double t = c * ltIJ + s * x[j];
+                x[j]   = c * x[j] - s * ltIJ;
+                lTData[index] = t;
+            }
+        }
+
+        cachedL  = null;
+        cachedLT = null;
+    }
+
+    /**
+     * Updates the decomposition after a rank-one modification
+     * A &larr; A - v v<sup>T</sup> of the decomposed matrix.
+     * <p>
+     * This is the LINPACK {@code dchdd} algorithm: the modification is
+     * first checked to preserve positive definiteness, then the factor is
+     * updated in place by a sequence of Givens rotations, in
+     * O(n<sup>2</sup>) operations. If the check fails, the decomposition is
+     * left unchanged. Solvers previously returned by {@link #getSolver()}
+     * use the updated factor.
+     * </p>
+     *
+     * @param v vector defining the rank-one modification
+     * @throws DimensionMismatchException if the dimension of {@code v} does
+     * not match the dimension of the decomposed matrix
+     * @throws NonPositiveDefiniteMatrixException if the modified matrix is
+     * not strictly positive definite (the reported value is the ratio of
+     * the determinants of the modified and original matrices)
+     * @since 3.3
+     */
+    public void downdate(final double[] v)
+        throws DimensionMismatchException, NonPositiveDefiniteMatrixException {
+        if (v.length != order) {
+            throw new DimensionMismatchException(v.length, order);
+        }
+
+        // solve L.p = v
+        final double[] p = new double[order];
+        double norm2 = 0;
+        for (int j = 0, cJ = 0; j < order; cJ += ++j) {
+            double sum = v[j];
+            for (int i = 0; i < j; ++i) {
+                sum -= lTData[cJ + i] * p[i];
+            }
+            p[j] = sum / lTData[cJ + j];
+            norm2 += p[j] * p[j];
+        }
+
+        // A - v.v^T = L (I - p.p^T) L^T is positive definite iff |p| < 1
+        final double ratio = 1 - norm2;
+        if (!(ratio > 0)) {
+            throw new NonPositiveDefiniteMatrixException(ratio, order - 1, 0);
+        }
+
+        // determine the rotations, stored in place of p
+        final double[] c = new double[order];
+        double alpha = FastMath.sqrt(ratio);
+        for (int i = order - 1; i >= 0; --i) {
+            final double scale = alpha + FastMath.abs(p[i]);
+            final double a     = alpha / scale;
+            final double b     = p[i]  / scale;
+            final double norm  = FastMath.sqrt(a * a + b * b);
+            c[i]  = a / norm;
+            p[i]  = b / norm;
+            alpha = scale * norm;
+        }
+
+        // apply the rotations to the columns of L^T
+        for (int j = 0, cJ = 0; j < order; cJ += ++j) {
+            double xx = 0;
+            for (int i = j; i >= 0; --i) {
+                final double ltIJ = lTData[cJ + i];
+                final double t = c[i] * xx + p[i] * ltIJ;
+                lTData[cJ + i] = c[i] * ltIJ - p[i] * xx;
+                xx = t;
+            }
+        }
+
+        cachedL  = null;
+        cachedLT = null;
+    }
+
     /**
      * Get a solver for finding the A &times; X = B solution in least square sense.
      * @return a solver
      */
     public DecompositionSolver getSolver() {
-        return new Solver(lTData);
+        return new Solver(order, lTData);
     }
 
     /** Specialized solver. */
     private static class Solver implements DecompositionSolver {
-        /** Row-oriented storage for L<sup>T</sup> matrix data. */
-        private final double[][] lTData;
+        /** Order of the decomposed matrix. */
+        private final int order;
+        /** Packed storage for L<sup>T</sup> matrix data, column by column. */
+        private final double[] lTData;
 
         /**
          * Build a solver from decomposed matrix.
-         * @param lTData row-oriented storage for L<sup>T</sup> matrix data
+         * @param order order of the decomposed matrix
+         * @param lTData packed storage for L<sup>T</sup> matrix data
          */
-        private Solver(final double[][] lTData) {
+        private Solver(final int order, final double[] lTData) {
+            this.order  = order;
             this.lTData = lTData;
         }
 
@@ -224,29 +370,28 @@ public class CholeskyDecomposition {
 
         /** {@inheritDoc} */
         public RealVector solve(final RealVector b) {
-            final int m = lTData.length;
+            final int m = order;
             if (b.getDimension() != m) {
                 throw new DimensionMismatchException(b.getDimension(), m);
             }
 
             final double[] x = b.toArray();
 
-            // Solve LY = b
-            for (int j = 0; j < m; j++) {
-                final double[] lJ = lTData[j];
-                x[j] /= lJ[j];
-                final double xJ = x[j];
-                for (int i = j + 1; i < m; i++) {
-                    x[i] -= xJ * lJ[i];
+            // Solve LY = b, using the columns of L^T
+            for (int j = 0, cJ = 0; j < m; cJ += ++j) {
+                double sum = x[j];
+                for (int i = 0; i < j; i++) {
+                    sum -= lTData[cJ + i] * x[i];
                 }
+                x[j] = sum / lTData[cJ + j];
             }
 
             // Solve LTX = Y
-            for (int j = m - 1; j >= 0; j--) {
-                x[j] /= lTData[j][j];
+            for (int j = m - 1, cJ = m * (m - 1) / 2; j >= 0; cJ -= j--) {
+                x[j] /= lTData[cJ + j];
                 final double xJ = x[j];
                 for (int i = 0; i < j; i++) {
-                    x[i] -= xJ * lTData[i][j];
+                    x[i] -= xJ * lTData[cJ + i];
                 }
             }
 
@@ -255,7 +400,7 @@ public class CholeskyDecomposition {
 
         /** {@inheritDoc} */
         public RealMatrix solve(RealMatrix b) {
-            final int m = lTData.length;
+            final int m = order;
             if (b.getRowDimension() != m) {
                 throw new DimensionMismatchException(b.getRowDimension(), m);
             }
@@ -263,33 +408,32 @@ public class CholeskyDecomposition {
             final int nColB = b.getColumnDimension();
             final double[][] x = b.getData();
 
-            // Solve LY = b
-            for (int j = 0; j < m; j++) {
-                final double[] lJ = lTData[j];
-                final double lJJ = lJ[j];
+            // Solve LY = b, using the columns of L^T
+            for (int j = 0, cJ = 0; j < m; cJ += ++j) {
                 final double[] xJ = x[j];
-                for (int k = 0; k < nColB; ++k) {
-                    xJ[k] /= lJJ;
-                }
-                for (int i = j + 1; i < m; i++) {
+                for (int i = 0; i < j; i++) {
                     final double[] xI = x[i];
-                    final double lJI = lJ[i];
+                    final double lIJ = lTData[cJ + i];
                     for (int k = 0; k < nColB; ++k) {
-                        xI[k] -= xJ[k] * lJI;
+                        xJ[k] -= xI[k] * lIJ;
                     }
                 }
+                final double lJJ = lTData[cJ + j];
+                for (int k = 0; k < nColB; ++k) {
+                    xJ[k] /= lJJ;
+                }
             }
 
             // Solve LTX = Y
-            for (int j = m - 1; j >= 0; j--) {
-                final double lJJ = lTData[j][j];
+            for (int j = m - 1, cJ = m * (m - 1) / 2; j >= 0; cJ -= j--) {
+                final double lJJ = lTData[cJ + j];
                 final double[] xJ = x[j];
                 for (int k = 0; k < nColB; ++k) {
                     xJ[k] /= lJJ;
                 }
                 for (int i = 0; i < j; i++) {
                     final double[] xI = x[i];
-                    final double lIJ = lTData[i][j];
+                    final double lIJ = lTData[cJ + i];
                     for (int k = 0; k < nColB; ++k) {
                         xI[k] -= xJ[k] * lIJ;
                     }
@@ -305,7 +449,7 @@ public class CholeskyDecomposition {
          * @return the inverse matrix.
          */
         public RealMatrix getInverse() {
-            return solve(MatrixUtils.createRealIdentityMatrix(lTData.length));
+            return solve(MatrixUtils.createRealIdentityMatrix(order));
         }
     }
 }
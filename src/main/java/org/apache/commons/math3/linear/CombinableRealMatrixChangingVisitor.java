@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+/**
+ * Interface defining a visitor for matrix entries which can be split in
+ * several visitors working in parallel.
+ * <p>
+ * This interface is used by the {@link
+ * BlockRealMatrix#walkInOptimizedOrder(CombinableRealMatrixChangingVisitor, java.util.concurrent.ExecutorService)
+ * parallel walk}. The walk calls {@link #start(int, int, int, int, int, int) start}
+ * on this visitor, then asks it to
+ * {@link #split() split} itself once for each part of the matrix to be
+ * visited concurrently. Each partial visitor only receives the {@code visit}
+ * calls for the entries of its part, from a single thread, and neither its
+ * {@code start} nor its {@code end} method is called. Once all parts have
+ * been visited, the partial visitors are
+ * {@link #combine(CombinableRealMatrixChangingVisitor)
+ * combined} into this visitor, in the order of the parts, and the walk
+ * returns the value of {@link #end() end}. As the parts and the order of
+ * the combinations do not depend on the executor, the result of the walk
+ * is reproducible.
+ * </p>
+ * <p>
+ * The values returned by the {@code visit} method of the partial visitors
+ * replace the visited entries, as in a sequential walk.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public interface CombinableRealMatrixChangingVisitor extends RealMatrixChangingVisitor {
+
+    /**
+     * Create a new visitor for one part of the walk.
+     * <p>
+     * This method is called in the thread that started the walk. The
+     * returned visitor must be independent of this visitor, as it is used
+     * concurrently with the other partial visitors.
+     * </p>
+     * @return a new visitor, in the state where no entries have been visited
+     */
+    CombinableRealMatrixChangingVisitor split();
+
+    /**
+     * Combine the results of a partial visitor into this visitor.
+     * <p>
+     * This method is called in the thread that started the walk, after all
+     * parts have been visited.
+     * </p>
+     * @param partial visitor created by {@link #split()} which has visited
+     * one part of the matrix
+     */
+    void combine(CombinableRealMatrixChangingVisitor partial);
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+
+/**
+ * Sparse matrix using compressed sparse column (CSC) storage.
+ * <p>
+ * Columns are stored one after the other, each column holding only its
+ * non-zero entries sorted by row index. This layout is well suited for
+ * {@link #preMultiply(double[]) vector-matrix products} and for column-oriented
+ * algorithms like sparse factorizations. See {@link AbstractCompressedRealMatrix}
+ * for a description of the storage.
+ * </p>
+ *
+ * @see CompressedRowRealMatrix
+ * @see CompressedRealMatrixBuilder
+ * @version $Id$
+ * @since 3.3
+ */
+public class CompressedColumnRealMatrix extends AbstractCompressedRealMatrix {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140127L;
+
+    /**
+     * Build an empty sparse matrix with the supplied row and column dimensions.
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    public CompressedColumnRealMatrix(final int rowDimension, final int columnDimension)
+        throws NotStrictlyPositiveException {
+        super(rowDimension, columnDimension, columnDimension);
+    }
+
+    /**
+     * Build a sparse matrix by copying the non-zero entries of another matrix.
+     *
+     * @param matrix Matrix to copy.
+     */
+    public CompressedColumnRealMatrix(final RealMatrix matrix) {
+        super(matrix, false);
+    }
+
+    /**
+     * Build a matrix from its compressed storage arrays.
+     * <p>The arrays are referenced, not copied.</p>
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @param columnPointers Index of the first entry of each column.
+     * @param rowIndices Row indices of the stored entries.
+     * @param values Values of the stored entries.
+     */
+    CompressedColumnRealMatrix(final int rowDimension, final int columnDimension,
+                               final int[] columnPointers, final int[] rowIndices,
+                               final double[] values) {
+        super(rowDimension, columnDimension, columnPointers, rowIndices, values);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    CompressedColumnRealMatrix create(final int nRows, final int nColumns,
+                                      final int[] p, final int[] i, final double[] v) {
+        return new CompressedColumnRealMatrix(nRows, nColumns, p, i, v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    CompressedRowRealMatrix createSwapped(final int nRows, final int nColumns,
+                                          final int[] p, final int[] i, final double[] v) {
+        return new CompressedRowRealMatrix(nRows, nColumns, p, i, v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int majorIndex(final int row, final int column) {
+        return column;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int minorIndex(final int row, final int column) {
+        return row;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedColumnRealMatrix createMatrix(final int rowDimension,
+                                                   final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new CompressedColumnRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedColumnRealMatrix copy() {
+        return (CompressedColumnRealMatrix) super.copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The transpose of a compressed column matrix is a compressed row
+     * matrix sharing the same storage layout, so this method only copies
+     * the storage arrays.
+     * </p>
+     */
+    @Override
+    public CompressedRowRealMatrix transpose() {
+        return (CompressedRowRealMatrix) super.transpose();
+    }
+
+    /**
+     * Convert the instance to compressed row storage.
+     *
+     * @return a matrix with the same entries, stored row by row
+     */
+    public CompressedRowRealMatrix toCompressedRow() {
+        return (CompressedRowRealMatrix) swapOrientation();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        checkLength(v.length, getColumnDimension());
+        return scatter(v, getRowDimension());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        checkLength(v.length, getRowDimension());
+        return gather(v);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@code m} is also a compressed matrix, the product is sparse and
+     * is returned as a {@link CompressedColumnRealMatrix}, otherwise it is
+     * dense.
+     * </p>
+     */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m instanceof CompressedColumnRealMatrix) {
+            return multiply((CompressedColumnRealMatrix) m);
+        } else if (m instanceof CompressedRowRealMatrix) {
+            return multiply(((CompressedRowRealMatrix) m).toCompressedColumn());
+        }
+
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final int nRows = getRowDimension();
+        final int nSum  = getColumnDimension();
+        final int nCols = m.getColumnDimension();
+        final int[] p = getPointersRef();
+        final int[] i = getIndicesRef();
+        final double[] v = getValuesRef();
+        final double[][] out = new double[nRows][nCols];
+        for (int col = 0; col < nCols; ++col) {
+            for (int k = 0; k < nSum; ++k) {
+                final double mKCol = m.getEntry(k, col);
+                if (mKCol != 0) {
+                    for (int l = p[k]; l < p[k + 1]; ++l) {
+                        out[i[l]][col] += v[l] * mKCol;
+                    }
+                }
+            }
+        }
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /**
+     * Postmultiply this matrix by another compressed column matrix.
+     * <p>
+     * The product is computed column by column (Gustavson's algorithm), its
+     * complexity is proportional to the number of elementary multiplications.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this} * {@code m}.
+     * @throws DimensionMismatchException if the number of rows of {@code m}
+     * differ from the number of columns of {@code this} matrix.
+     */
+    public CompressedColumnRealMatrix multiply(final CompressedColumnRealMatrix m)
+        throws DimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        // the columns of this * m are the combinations of the columns of this
+        // weighted by the columns of m, i.e. the rows of m^T * this^T
+        return (CompressedColumnRealMatrix) product(m, this, getRowDimension(),
+                                                    getRowDimension(), m.getColumnDimension());
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+
+/**
+ * Builder for compressed sparse matrices, from (row, column, value) triplets.
+ * <p>
+ * Triplets can be added in any order. Several triplets can refer to the same
+ * entry, in which case their values are summed, as is customary when
+ * assembling finite elements systems. Entries whose sum is exactly zero are
+ * not stored.
+ * </p>
+ * <p>
+ * Building the matrix is done by two stable counting sorts, so it has
+ * O(nnz + rows + columns) complexity and does not involve any hashing.
+ * The builder can be reused to build several matrices, for example one
+ * in {@link CompressedRowRealMatrix compressed row} format and one in
+ * {@link CompressedColumnRealMatrix compressed column} format.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class CompressedRealMatrixBuilder {
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Row indices of the triplets. */
+    private int[] tripletRows;
+
+    /** Column indices of the triplets. */
+    private int[] tripletColumns;
+
+    /** Values of the triplets. */
+    private double[] tripletValues;
+
+    /** Number of triplets. */
+    private int size;
+
+    /**
+     * Create a builder for a matrix with the supplied dimensions.
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    public CompressedRealMatrixBuilder(final int rowDimension, final int columnDimension)
+        throws NotStrictlyPositiveException {
+        if (rowDimension < 1) {
+            throw new NotStrictlyPositiveException(rowDimension);
+        }
+        if (columnDimension < 1) {
+            throw new NotStrictlyPositiveException(columnDimension);
+        }
+        this.rows           = rowDimension;
+        this.columns        = columnDimension;
+        this.tripletRows    = new int[16];
+        this.tripletColumns = new int[16];
+        this.tripletValues  = new double[16];
+        this.size           = 0;
+    }
+
+    /**
+     * Add one triplet.
+     *
+     * @param row Row index of the entry.
+     * @param column Column index of the entry.
+     * @param value Value to add to the entry.
+     * @return the instance
+     * @throws OutOfRangeException if the indices are not valid.
+     */
+    public CompressedRealMatrixBuilder add(final int row, final int column,
+                                           final double value)
+        throws OutOfRangeException {
+        if (row < 0 || row >= rows) {
+            throw new OutOfRangeException(LocalizedFormats.ROW_INDEX, row, 0, rows - 1);
+        }
+        if (column < 0 || column >= columns) {
+            throw new OutOfRangeException(LocalizedFormats.COLUMN_INDEX, column, 0, columns - 1);
+        }
+        if (size == tripletValues.length) {
+            final int capacity = size + (size >> 1);
+            tripletRows    = AbstractCompressedRealMatrix.copyOf(tripletRows, capacity);
+            tripletColumns = AbstractCompressedRealMatrix.copyOf(tripletColumns, capacity);
+            tripletValues  = AbstractCompressedRealMatrix.copyOf(tripletValues, capacity);
+        }
+        tripletRows[size]    = row;
+        tripletColumns[size] = column;
+        tripletValues[size]  = value;
+        ++size;
+        return this;
+    }
+
+    /**
+     * Add several triplets.
+     *
+     * @param rowIndices Row indices of the entries.
+     * @param columnIndices Column indices of the entries.
+     * @param values Values to add to the entries.
+     * @return the instance
+     * @throws DimensionMismatchException if arrays lengths differ.
+     * @throws OutOfRangeException if some indices are not valid.
+     */
+    public CompressedRealMatrixBuilder add(final int[] rowIndices,
+                                           final int[] columnIndices,
+                                           final double[] values)
+        throws DimensionMismatchException, OutOfRangeException {
+        if (columnIndices.length != rowIndices.length) {
+            throw new DimensionMismatchException(columnIndices.length, rowIndices.length);
+        }
+        if (values.length != rowIndices.length) {
+            throw new DimensionMismatchException(values.length, rowIndices.length);
+        }
+        for (int k = 0; k < values.length; ++k) {
+            add(rowIndices[k], columnIndices[k], values[k]);
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of triplets added so far.
+     * @return number of triplets
+     */
+    public int getTripletsCount() {
+        return size;
+    }
+
+    /**
+     * Remove all triplets.
+     * @return the instance
+     */
+    public CompressedRealMatrixBuilder clear() {
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Build a matrix in compressed row format.
+     * @return a new matrix containing the sum of all triplets
+     */
+    public CompressedRowRealMatrix buildCompressedRow() {
+        return (CompressedRowRealMatrix) compress(true);
+    }
+
+    /**
+     * Build a matrix in compressed column format.
+     * @return a new matrix containing the sum of all triplets
+     */
+    public CompressedColumnRealMatrix buildCompressedColumn() {
+        return (CompressedColumnRealMatrix) compress(false);
+    }
+
+    /**
+     * Compress the triplets.
+     *
+     * @param rowMajor If {@code true}, slices are rows, otherwise they are columns.
+     * @return a new matrix containing the sum of all triplets
+     */
+    private AbstractCompressedRealMatrix compress(final boolean rowMajor) {
+
+        final int[] major  = rowMajor ? tripletRows : tripletColumns;
+        final int   nMajor = rowMajor ? rows : columns;
+        final int[] minor  = rowMajor ? tripletColumns : tripletRows;
+        final int   nMinor = rowMajor ? columns : rows;
+
+        // sort triplets by minor index, then (stable) by major index
+        final int[] byMinor = countingSort(identity(size), minor, nMinor);
+        final int[] order   = countingSort(byMinor, major, nMajor);
+
+        // merge duplicates and drop zeros
+        final int[] p = new int[nMajor + 1];
+        final int[] i = new int[size];
+        final double[] v = new double[size];
+        int n = 0;
+        int k = 0;
+        for (int slice = 0; slice < nMajor; ++slice) {
+            while (k < size && major[order[k]] == slice) {
+                final int index = minor[order[k]];
+                double sum = 0;
+                while (k < size && major[order[k]] == slice && minor[order[k]] == index) {
+                    sum += tripletValues[order[k++]];
+                }
+                if (sum != 0.0) {
+                    i[n] = index;
+                    v[n] = sum;
+                    ++n;
+                }
+            }
+            p[slice + 1] = n;
+        }
+
+        final int[] indices   = AbstractCompressedRealMatrix.copyOf(i, n);
+        final double[] values = AbstractCompressedRealMatrix.copyOf(v, n);
+        return rowMajor ?
+               new CompressedRowRealMatrix(rows, columns, p, indices, values) :
+               new CompressedColumnRealMatrix(rows, columns, p, indices, values);
+
+    }
+
+    /**
+     * Create the identity permutation.
+     * @param n size of the permutation
+     * @return identity permutation
+     */
+    private static int[] identity(final int n) {
+        final int[] permutation = new int[n];
+        for (int k = 0; k < n; ++k) {
+            permutation[k] = k;
+        }
+        return permutation;
+    }
+
+    /**
+     * Stable counting sort of a permutation according to keys.
+     *
+     * @param permutation Permutation to sort.
+     * @param keys Keys associated with the elements.
+     * @param nKeys Number of distinct keys.
+     * @return sorted permutation
+     */
+    private static int[] countingSort(final int[] permutation, final int[] keys,
+                                      final int nKeys) {
+        final int[] start = new int[nKeys + 1];
+        for (final int element : permutation) {
+            ++start[keys[element] + 1];
+        }
+        for (int key = 0; key < nKeys; ++key) {
+            start[key + 1] += start[key];
+        }
+        final int[] sorted = new int[permutation.length];
+        for (final int element : permutation) {
+            sorted[start[keys[element]]++] = element;
+        }
+        return sorted;
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+
+/**
+ * Sparse matrix using compressed sparse row (CSR) storage.
+ * <p>
+ * Rows are stored one after the other, each row holding only its non-zero
+ * entries sorted by column index. This layout is well suited for {@link
+ * #operate(double[]) matrix-vector products} and for row-oriented algorithms.
+ * See {@link AbstractCompressedRealMatrix} for a description of the storage.
+ * </p>
+ *
+ * @see CompressedColumnRealMatrix
+ * @see CompressedRealMatrixBuilder
+ * @version $Id$
+ * @since 3.3
+ */
+public class CompressedRowRealMatrix extends AbstractCompressedRealMatrix {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140127L;
+
+    /**
+     * Build an empty sparse matrix with the supplied row and column dimensions.
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    public CompressedRowRealMatrix(final int rowDimension, final int columnDimension)
+        throws NotStrictlyPositiveException {
+        super(rowDimension, columnDimension, rowDimension);
+    }
+
+    /**
+     * Build a sparse matrix by copying the non-zero entries of another matrix.
+     *
+     * @param matrix Matrix to copy.
+     */
+    public CompressedRowRealMatrix(final RealMatrix matrix) {
+        super(matrix, true);
+    }
+
+    /**
+     * Build a matrix from its compressed storage arrays.
+     * <p>The arrays are referenced, not copied.</p>
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @param rowPointers Index of the first entry of each row.
+     * @param columnIndices Column indices of the stored entries.
+     * @param values Values of the stored entries.
+     */
+    CompressedRowRealMatrix(final int rowDimension, final int columnDimension,
+                            final int[] rowPointers, final int[] columnIndices,
+                            final double[] values) {
+        super(rowDimension, columnDimension, rowPointers, columnIndices, values);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    CompressedRowRealMatrix create(final int nRows, final int nColumns,
+                                   final int[] p, final int[] i, final double[] v) {
+        return new CompressedRowRealMatrix(nRows, nColumns, p, i, v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    CompressedColumnRealMatrix createSwapped(final int nRows, final int nColumns,
+                                             final int[] p, final int[] i, final double[] v) {
+        return new CompressedColumnRealMatrix(nRows, nColumns, p, i, v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int majorIndex(final int row, final int column) {
+        return row;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int minorIndex(final int row, final int column) {
+        return column;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedRowRealMatrix createMatrix(final int rowDimension,
+                                                final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new CompressedRowRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedRowRealMatrix copy() {
+        return (CompressedRowRealMatrix) super.copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The transpose of a compressed row matrix is a compressed column
+     * matrix sharing the same storage layout, so this method only copies
+     * the storage arrays.
+     * </p>
+     */
+    @Override
+    public CompressedColumnRealMatrix transpose() {
+        return (CompressedColumnRealMatrix) super.transpose();
+    }
+
+    /**
+     * Convert the instance to compressed column storage.
+     *
+     * @return a matrix with the same entries, stored column by column
+     */
+    public CompressedColumnRealMatrix toCompressedColumn() {
+        return (CompressedColumnRealMatrix) swapOrientation();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        checkLength(v.length, getColumnDimension());
+        return gather(v);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        checkLength(v.length, getRowDimension());
+        return scatter(v, getColumnDimension());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@code m} is also a compressed matrix, the product is sparse and
+     * is returned as a {@link CompressedRowRealMatrix}, otherwise it is dense.
+     * </p>
+     */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m instanceof CompressedRowRealMatrix) {
+            return multiply((CompressedRowRealMatrix) m);
+        } else if (m instanceof CompressedColumnRealMatrix) {
+            return multiply(((CompressedColumnRealMatrix) m).toCompressedRow());
+        }
+
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final int nRows = getRowDimension();
+        final int nCols = m.getColumnDimension();
+        final double[][] mData = (m instanceof Array2DRowRealMatrix) ?
+                                 ((Array2DRowRealMatrix) m).getDataRef() :
+                                 m.getData();
+        final int[] p = getPointersRef();
+        final int[] i = getIndicesRef();
+        final double[] v = getValuesRef();
+        final double[][] out = new double[nRows][nCols];
+        for (int row = 0; row < nRows; ++row) {
+            final double[] outRow = out[row];
+            for (int k = p[row]; k < p[row + 1]; ++k) {
+                final double value = v[k];
+                final double[] mRow = mData[i[k]];
+                for (int col = 0; col < nCols; ++col) {
+                    outRow[col] += value * mRow[col];
+                }
+            }
+        }
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /**
+     * Postmultiply this matrix by another compressed row matrix.
+     * <p>
+     * The product is computed row by row (Gustavson's algorithm), its
+     * complexity is proportional to the number of elementary multiplications.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this} * {@code m}.
+     * @throws DimensionMismatchException if the number of rows of {@code m}
+     * differ from the number of columns of {@code this} matrix.
+     */
+    public CompressedRowRealMatrix multiply(final CompressedRowRealMatrix m)
+        throws DimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        return (CompressedRowRealMatrix) product(this, m, m.getColumnDimension(),
+                                                 getRowDimension(), m.getColumnDimension());
+    }
+
+}
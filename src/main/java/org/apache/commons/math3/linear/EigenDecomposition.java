@@ -64,6 +64,12 @@ import org.apache.commons.math3.util.FastMath;
  * A = V*D*inverse(V) depends upon the condition of V.
  * </p>
  * <p>
+ * Instances of {@link SymmetricRealMatrix} are known to be symmetric, so their
+ * entries are not checked before choosing the symmetric algorithm. Their packed
+ * data is still expanded for the reduction to tridiagonal form: the matrix of
+ * eigenvectors built from it is dense anyway.
+ * </p>
+ * <p>
  * This implementation is based on the paper by A. Drubrulle, R.S. Martin and
  * J.H. Wilkinson "The Implicit QL Algorithm" in Wilksinson and Reinsch (1971)
  * Handbook for automatic computation, vol. 2, Linear algebra, Springer-Verlag,
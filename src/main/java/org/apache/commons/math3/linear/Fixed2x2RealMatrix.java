@@ -0,0 +1,589 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+
+/**
+ * Implementation of a 2&times;2 real matrix with fully unrolled kernels.
+ * <p>
+ * The 4 entries are stored in a single flat array in row-major order, so
+ * the small matrices used for geometric transforms or filters avoid the
+ * {@code double[][]} indirection and the generic loops of {@link
+ * Array2DRowRealMatrix}. Products, determinant, inverse and solve are
+ * written out explicitly (the inverse and the solution use the adjugate
+ * matrix, i.e. Cramer's rule). This is much faster than a decomposition and
+ * accurate for well-conditioned matrices. A matrix whose determinant is at
+ * most 10<sup>-11</sup> times the product of the Euclidean norms of its rows
+ * in absolute value is considered singular. This test does not depend on the
+ * scales of the rows. Ill-conditioned matrices which pass it should rather
+ * be handled by {@link QRDecomposition}.
+ * </p>
+ * <p>
+ * The static methods of this class apply the same kernels to batches of
+ * matrices packed one after the other (4 doubles each, row-major order)
+ * in plain arrays, without allocating any object. The output array may be
+ * one of the input arrays, provided the output and input ranges either
+ * coincide or do not overlap.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class Fixed2x2RealMatrix extends AbstractRealMatrix implements Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140317L;
+
+    /** Number of rows and columns. */
+    private static final int DIMENSION = 2;
+
+    /** Number of entries. */
+    private static final int SIZE = 4;
+
+    /** Entries of the matrix, in row-major order. */
+    private final double[] data;
+
+    /**
+     * Create a 2&times;2 matrix with all entries set to zero.
+     */
+    public Fixed2x2RealMatrix() {
+        data = new double[SIZE];
+    }
+
+    /**
+     * Create a 2&times;2 matrix from its entries.
+     *
+     * @param m00 entry at row 0 and column 0
+     * @param m01 entry at row 0 and column 1
+     * @param m10 entry at row 1 and column 0
+     * @param m11 entry at row 1 and column 1
+     */
+    public Fixed2x2RealMatrix(final double m00, final double m01,
+                              final double m10, final double m11) {
+        data = new double[] {
+            m00, m01,
+            m10, m11
+        };
+    }
+
+    /**
+     * Create a 2&times;2 matrix from a two-dimensional array.
+     *
+     * @param d Entries of the matrix, copied into the new instance.
+     * @throws DimensionMismatchException if {@code d} is not 2&times;2.
+     */
+    public Fixed2x2RealMatrix(final double[][] d) throws DimensionMismatchException {
+        if (d.length != DIMENSION) {
+            throw new DimensionMismatchException(d.length, DIMENSION);
+        }
+        data = new double[SIZE];
+        for (int i = 0; i < DIMENSION; ++i) {
+            if (d[i].length != DIMENSION) {
+                throw new DimensionMismatchException(d[i].length, DIMENSION);
+            }
+            System.arraycopy(d[i], 0, data, i * DIMENSION, DIMENSION);
+        }
+    }
+
+    /**
+     * Create a 2&times;2 matrix using the input array as the underlying
+     * data.
+     *
+     * @param d Entries of the matrix, in row-major order.
+     * @param copyArray if {@code true}, the input array will be copied,
+     * otherwise it will be referenced.
+     * @throws DimensionMismatchException if {@code d} does not have 4 entries.
+     */
+    public Fixed2x2RealMatrix(final double[] d, final boolean copyArray)
+        throws DimensionMismatchException {
+        if (d.length != SIZE) {
+            throw new DimensionMismatchException(d.length, SIZE);
+        }
+        data = copyArray ? d.clone() : d;
+    }
+
+    /**
+     * Get a reference to the underlying data array.
+     *
+     * @return the 4 entries of the matrix, in row-major order.
+     */
+    public double[] getDataRef() {
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>A 2&times;2 request returns a {@link Fixed2x2RealMatrix}, other
+     * dimensions return an {@link Array2DRowRealMatrix}.</p>
+     */
+    @Override
+    public RealMatrix createMatrix(final int rowDimension, final int columnDimension) {
+        if (rowDimension == DIMENSION && columnDimension == DIMENSION) {
+            return new Fixed2x2RealMatrix();
+        }
+        return new Array2DRowRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Fixed2x2RealMatrix copy() {
+        return new Fixed2x2RealMatrix(data, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return DIMENSION;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return DIMENSION;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column) throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        return data[row * DIMENSION + column];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[row * DIMENSION + column] = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[row * DIMENSION + column] += increment;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column, final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[row * DIMENSION + column] *= factor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix multiply(final RealMatrix m) throws DimensionMismatchException {
+        if (m instanceof Fixed2x2RealMatrix) {
+            return multiply((Fixed2x2RealMatrix) m);
+        }
+        return super.multiply(m);
+    }
+
+    /**
+     * Returns the result of postmultiplying {@code this} by {@code m}.
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this * m}.
+     */
+    public Fixed2x2RealMatrix multiply(final Fixed2x2RealMatrix m) {
+        final Fixed2x2RealMatrix out = new Fixed2x2RealMatrix();
+        multiply(data, 0, m.data, 0, out.data, 0);
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Fixed2x2RealMatrix transpose() {
+        return new Fixed2x2RealMatrix(data[0], data[2],
+                                      data[1], data[3]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getTrace() {
+        return data[0] + data[3];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v) throws DimensionMismatchException {
+        if (v.length != DIMENSION) {
+            throw new DimensionMismatchException(v.length, DIMENSION);
+        }
+        final double[] out = new double[DIMENSION];
+        operate(data, 0, v, 0, out, 0);
+        return out;
+    }
+
+    /**
+     * Compute the determinant of the matrix.
+     *
+     * @return the determinant.
+     */
+    public double getDeterminant() {
+        return determinant(data, 0);
+    }
+
+    /**
+     * Compute the inverse of the matrix.
+     *
+     * @return the inverse matrix.
+     * @throws SingularMatrixException if the matrix is singular.
+     */
+    public Fixed2x2RealMatrix inverse() throws SingularMatrixException {
+        final Fixed2x2RealMatrix out = new Fixed2x2RealMatrix();
+        inverse(data, 0, out.data, 0);
+        return out;
+    }
+
+    /**
+     * Solve the linear system {@code A x = b} where {@code A} is this matrix.
+     *
+     * @param b Right-hand side of the system.
+     * @return the solution {@code x}.
+     * @throws DimensionMismatchException if {@code b} does not have 2 entries.
+     * @throws SingularMatrixException if the matrix is singular.
+     */
+    public double[] solve(final double[] b)
+        throws DimensionMismatchException, SingularMatrixException {
+        if (b.length != DIMENSION) {
+            throw new DimensionMismatchException(b.length, DIMENSION);
+        }
+        final double[] x = new double[DIMENSION];
+        solve(data, 0, b, 0, x, 0);
+        return x;
+    }
+
+    /**
+     * Multiply a batch of matrices: {@code out[k] = a[k] * b[k]}.
+     *
+     * @param a Left factors, 4 entries per matrix.
+     * @param aOffset Index of the first entry of the first left factor.
+     * @param b Right factors, 4 entries per matrix.
+     * @param bOffset Index of the first entry of the first right factor.
+     * @param out Products, 4 entries per matrix.
+     * @param outOffset Index of the first entry of the first product.
+     * @param count Number of matrices in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} matrices at its offset.
+     */
+    public static void multiply(final double[] a, final int aOffset,
+                                final double[] b, final int bOffset,
+                                final double[] out, final int outOffset,
+                                final int count)
+        throws NotPositiveException, NumberIsTooSmallException {
+        MatrixUtils.checkBatchLength(a, aOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(b, bOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(out, outOffset, SIZE, count);
+        for (int k = 0; k < count; ++k) {
+            multiply(a, aOffset + k * SIZE, b, bOffset + k * SIZE, out, outOffset + k * SIZE);
+        }
+    }
+
+    /**
+     * Propagate a batch of covariance matrices: {@code out[k] = j[k] * p[k] * j[k]<sup>T</sup>}.
+     * <p>
+     * The covariance matrices {@code p[k]} must be symmetric. Only their
+     * upper triangular part is used and the results are exactly symmetric.
+     * </p>
+     *
+     * @param j Jacobians of the transforms, 4 entries per matrix.
+     * @param jOffset Index of the first entry of the first Jacobian.
+     * @param p Covariance matrices, 4 entries per matrix.
+     * @param pOffset Index of the first entry of the first covariance.
+     * @param out Propagated covariance matrices, 4 entries per matrix.
+     * @param outOffset Index of the first entry of the first result.
+     * @param count Number of matrices in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} matrices at its offset.
+     */
+    public static void propagate(final double[] j, final int jOffset,
+                                 final double[] p, final int pOffset,
+                                 final double[] out, final int outOffset,
+                                 final int count)
+        throws NotPositiveException, NumberIsTooSmallException {
+        MatrixUtils.checkBatchLength(j, jOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(p, pOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(out, outOffset, SIZE, count);
+        for (int k = 0; k < count; ++k) {
+            propagate(j, jOffset + k * SIZE, p, pOffset + k * SIZE, out, outOffset + k * SIZE);
+        }
+    }
+
+    /**
+     * Multiply a batch of vectors by a batch of matrices: {@code out[k] = m[k] * v[k]}.
+     *
+     * @param m Matrices, 4 entries per matrix.
+     * @param mOffset Index of the first entry of the first matrix.
+     * @param v Vectors, 2 entries per vector.
+     * @param vOffset Index of the first entry of the first vector.
+     * @param out Products, 2 entries per vector.
+     * @param outOffset Index of the first entry of the first product.
+     * @param count Number of matrices and vectors in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} matrices or vectors at its offset.
+     */
+    public static void operate(final double[] m, final int mOffset,
+                               final double[] v, final int vOffset,
+                               final double[] out, final int outOffset,
+                               final int count)
+        throws NotPositiveException, NumberIsTooSmallException {
+        MatrixUtils.checkBatchLength(m, mOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(v, vOffset, DIMENSION, count);
+        MatrixUtils.checkBatchLength(out, outOffset, DIMENSION, count);
+        for (int k = 0; k < count; ++k) {
+            operate(m, mOffset + k * SIZE, v, vOffset + k * DIMENSION, out, outOffset + k * DIMENSION);
+        }
+    }
+
+    /**
+     * Compute the determinants of a batch of matrices.
+     *
+     * @param m Matrices, 4 entries per matrix.
+     * @param mOffset Index of the first entry of the first matrix.
+     * @param out Determinants, one entry per matrix.
+     * @param outOffset Index of the first determinant.
+     * @param count Number of matrices in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} elements at its offset.
+     */
+    public static void determinant(final double[] m, final int mOffset,
+                                   final double[] out, final int outOffset,
+                                   final int count)
+        throws NotPositiveException, NumberIsTooSmallException {
+        MatrixUtils.checkBatchLength(m, mOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(out, outOffset, 1, count);
+        for (int k = 0; k < count; ++k) {
+            out[outOffset + k] = determinant(m, mOffset + k * SIZE);
+        }
+    }
+
+    /**
+     * Invert a batch of matrices.
+     * <p>
+     * If a singular matrix is encountered, the inverses of the matrices
+     * preceding it in the batch have already been stored when the exception
+     * is thrown.
+     * </p>
+     *
+     * @param m Matrices, 4 entries per matrix.
+     * @param mOffset Index of the first entry of the first matrix.
+     * @param out Inverses, 4 entries per matrix.
+     * @param outOffset Index of the first entry of the first inverse.
+     * @param count Number of matrices in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} matrices at its offset.
+     * @throws SingularMatrixException if one of the matrices is singular.
+     */
+    public static void inverse(final double[] m, final int mOffset,
+                               final double[] out, final int outOffset,
+                               final int count)
+        throws NotPositiveException, NumberIsTooSmallException, SingularMatrixException {
+        MatrixUtils.checkBatchLength(m, mOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(out, outOffset, SIZE, count);
+        for (int k = 0; k < count; ++k) {
+            inverse(m, mOffset + k * SIZE, out, outOffset + k * SIZE);
+        }
+    }
+
+    /**
+     * Solve a batch of linear systems {@code m[k] * x[k] = b[k]}.
+     * <p>
+     * If a singular matrix is encountered, the solutions of the systems
+     * preceding it in the batch have already been stored when the exception
+     * is thrown.
+     * </p>
+     *
+     * @param m Matrices, 4 entries per matrix.
+     * @param mOffset Index of the first entry of the first matrix.
+     * @param b Right-hand sides, 2 entries per vector.
+     * @param bOffset Index of the first entry of the first right-hand side.
+     * @param out Solutions, 2 entries per vector.
+     * @param outOffset Index of the first entry of the first solution.
+     * @param count Number of systems in the batch.
+     * @throws NotPositiveException if {@code count} or an offset is negative.
+     * @throws NumberIsTooSmallException if one of the arrays is too short
+     * to hold {@code count} matrices or vectors at its offset.
+     * @throws SingularMatrixException if one of the matrices is singular.
+     */
+    public static void solve(final double[] m, final int mOffset,
+                             final double[] b, final int bOffset,
+                             final double[] out, final int outOffset,
+                             final int count)
+        throws NotPositiveException, NumberIsTooSmallException, SingularMatrixException {
+        MatrixUtils.checkBatchLength(m, mOffset, SIZE, count);
+        MatrixUtils.checkBatchLength(b, bOffset, DIMENSION, count);
+        MatrixUtils.checkBatchLength(out, outOffset, DIMENSION, count);
+        for (int k = 0; k < count; ++k) {
+            solve(m, mOffset + k * SIZE, b, bOffset + k * DIMENSION, out, outOffset + k * DIMENSION);
+        }
+    }
+
+    /** Multiply one pair of matrices.
+     * @param a array holding the left factor
+     * @param aOffset index of the first entry of the left factor
+     * @param b array holding the right factor
+     * @param bOffset index of the first entry of the right factor
+     * @param out array where to store the product
+     * @param outOffset index of the first entry of the product
+     */
+    private static void multiply(final double[] a, final int aOffset,
+                                 final double[] b, final int bOffset,
+                                 final double[] out, final int outOffset) {
+        final double a00 = a[aOffset];
+        final double a01 = a[aOffset + 1];
+        final double a10 = a[aOffset + 2];
+        final double a11 = a[aOffset + 3];
+        final double b00 = b[bOffset];
+        final double b01 = b[bOffset + 1];
+        final double b10 = b[bOffset + 2];
+        final double b11 = b[bOffset + 3];
+        out[outOffset] = a00 * b00 + a01 * b10;
+        out[outOffset + 1] = a00 * b01 + a01 * b11;
+        out[outOffset + 2] = a10 * b00 + a11 * b10;
+        out[outOffset + 3] = a10 * b01 + a11 * b11;
+    }
+
+    /** Propagate one covariance matrix.
+     * @param j array holding the Jacobian
+     * @param jOffset index of the first entry of the Jacobian
+     * @param p array holding the symmetric covariance
+     * @param pOffset index of the first entry of the covariance
+     * @param out array where to store the propagated covariance
+     * @param outOffset index of the first entry of the propagated covariance
+     */
+    private static void propagate(final double[] j, final int jOffset,
+                                  final double[] p, final int pOffset,
+                                  final double[] out, final int outOffset) {
+        final double j00 = j[jOffset];
+        final double j01 = j[jOffset + 1];
+        final double j10 = j[jOffset + 2];
+        final double j11 = j[jOffset + 3];
+        final double p00 = p[pOffset];
+        final double p01 = p[pOffset + 1];
+        final double p11 = p[pOffset + 3];
+        // t = j p
+        final double t00 = j00 * p00 + j01 * p01;
+        final double t01 = j00 * p01 + j01 * p11;
+        final double t10 = j10 * p00 + j11 * p01;
+        final double t11 = j10 * p01 + j11 * p11;
+        // out = t j^T, which is symmetric
+        out[outOffset] = t00 * j00 + t01 * j01;
+        final double o01 = t00 * j10 + t01 * j11;
+        out[outOffset + 1] = o01;
+        out[outOffset + 2] = o01;
+        out[outOffset + 3] = t10 * j10 + t11 * j11;
+    }
+
+    /** Multiply one vector by one matrix.
+     * @param m array holding the matrix
+     * @param mOffset index of the first entry of the matrix
+     * @param v array holding the vector
+     * @param vOffset index of the first entry of the vector
+     * @param out array where to store the product
+     * @param outOffset index of the first entry of the product
+     */
+    private static void operate(final double[] m, final int mOffset,
+                                final double[] v, final int vOffset,
+                                final double[] out, final int outOffset) {
+        final double m00 = m[mOffset];
+        final double m01 = m[mOffset + 1];
+        final double m10 = m[mOffset + 2];
+        final double m11 = m[mOffset + 3];
+        final double v0 = v[vOffset];
+        final double v1 = v[vOffset + 1];
+        out[outOffset] = m00 * v0 + m01 * v1;
+        out[outOffset + 1] = m10 * v0 + m11 * v1;
+    }
+
+    /** Compute the determinant of one matrix.
+     * @param m array holding the matrix
+     * @param mOffset index of the first entry of the matrix
+     * @return determinant of the matrix
+     */
+    private static double determinant(final double[] m, final int mOffset) {
+        final double a00 = m[mOffset];
+        final double a01 = m[mOffset + 1];
+        final double a10 = m[mOffset + 2];
+        final double a11 = m[mOffset + 3];
+        return a00 * a11 - a01 * a10;
+    }
+
+    /** Invert one matrix.
+     * @param m array holding the matrix
+     * @param mOffset index of the first entry of the matrix
+     * @param out array where to store the inverse
+     * @param outOffset index of the first entry of the inverse
+     * @exception SingularMatrixException if the matrix is singular
+     */
+    private static void inverse(final double[] m, final int mOffset,
+                                final double[] out, final int outOffset)
+        throws SingularMatrixException {
+        final double a00 = m[mOffset];
+        final double a01 = m[mOffset + 1];
+        final double a10 = m[mOffset + 2];
+        final double a11 = m[mOffset + 3];
+        final double det = a00 * a11 - a01 * a10;
+        MatrixUtils.checkNonSingular(m, mOffset, DIMENSION, det);
+        final double inv = 1.0 / det;
+        out[outOffset] = a11 * inv;
+        out[outOffset + 1] = -a01 * inv;
+        out[outOffset + 2] = -a10 * inv;
+        out[outOffset + 3] = a00 * inv;
+    }
+
+    /** Solve one linear system.
+     * @param m array holding the matrix
+     * @param mOffset index of the first entry of the matrix
+     * @param b array holding the right-hand side
+     * @param bOffset index of the first entry of the right-hand side
+     * @param out array where to store the solution
+     * @param outOffset index of the first entry of the solution
+     * @exception SingularMatrixException if the matrix is singular
+     */
+    private static void solve(final double[] m, final int mOffset,
+                              final double[] b, final int bOffset,
+                              final double[] out, final int outOffset)
+        throws SingularMatrixException {
+        final double a00 = m[mOffset];
+        final double a01 = m[mOffset + 1];
+        final double a10 = m[mOffset + 2];
+        final double a11 = m[mOffset + 3];
+        final double b0 = b[bOffset];
+        final double b1 = b[bOffset + 1];
+        final double det = a00 * a11 - a01 * a10;
+        MatrixUtils.checkNonSingular(m, mOffset, DIMENSION, det);
+        final double inv = 1.0 / det;
+        out[outOffset] = (a11 * b0 + (-a01) * b1) * inv;
+        out[outOffset + 1] = ((-a10) * b0 + a00 * b1) * inv;
+    }
+
+}
@@ -0,0 +1,424 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.MathUtils;
+
+/**
+ * This class implements the {@link RealVector} interface with a float array.
+ * <p>
+ * Entries are stored in single precision, which halves the memory footprint
+ * and the memory bandwidth needed to read the vector with respect to {@link
+ * ArrayRealVector}. Values are rounded to the nearest float when they are
+ * stored, but all computations (dot products, norms, matrix products with
+ * {@link FloatBlockRealMatrix}) accumulate in double precision, the result
+ * being rounded only once when it is stored in single precision.
+ * </p>
+ *
+ * @see FloatBlockRealMatrix
+ * @version $Id$
+ * @since 3.3
+ */
+public class FloatArrayRealVector extends RealVector implements Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140316L;
+
+    /** Entries of the vector. */
+    private final float[] data;
+
+    /**
+     * Construct a vector of zeroes.
+     *
+     * @param size Size of the vector.
+     */
+    public FloatArrayRealVector(final int size) {
+        data = new float[size];
+    }
+
+    /**
+     * Construct a vector from an array, copying the input array.
+     *
+     * @param d Array.
+     */
+    public FloatArrayRealVector(final float[] d) {
+        data = d.clone();
+    }
+
+    /**
+     * Create a new FloatArrayRealVector using the input array as the
+     * underlying data array.
+     * If an array is built specially in order to be embedded in a
+     * FloatArrayRealVector and not used directly, the {@code copyArray} may be
+     * set to {@code false}. This will prevent the copying and improve
+     * performance as no new array will be built and no data will be copied.
+     *
+     * @param d Data for the new vector.
+     * @param copyArray if {@code true}, the input array will be copied,
+     * otherwise it will be referenced.
+     */
+    public FloatArrayRealVector(final float[] d, final boolean copyArray) {
+        data = copyArray ? d.clone() : d;
+    }
+
+    /**
+     * Construct a vector from an array, rounding the entries to single precision.
+     *
+     * @param d Array.
+     */
+    public FloatArrayRealVector(final double[] d) {
+        data = new float[d.length];
+        for (int i = 0; i < d.length; ++i) {
+            data[i] = (float) d[i];
+        }
+    }
+
+    /**
+     * Construct a vector from another vector, rounding the entries to single
+     * precision.
+     *
+     * @param v Vector to convert.
+     */
+    public FloatArrayRealVector(final RealVector v) {
+        if (v instanceof FloatArrayRealVector) {
+            data = ((FloatArrayRealVector) v).data.clone();
+        } else {
+            data = new float[v.getDimension()];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = (float) v.getEntry(i);
+            }
+        }
+    }
+
+    /**
+     * Get a reference to the underlying data array.
+     * This method does not make a fresh copy of the underlying data.
+     *
+     * @return the array of entries.
+     */
+    public float[] getDataRef() {
+        return data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FloatArrayRealVector copy() {
+        return new FloatArrayRealVector(data, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getDimension() {
+        return data.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int index) throws OutOfRangeException {
+        try {
+            return data[index];
+        } catch (IndexOutOfBoundsException e) {
+            throw new OutOfRangeException(LocalizedFormats.INDEX, index, 0,
+                                          getDimension() - 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The value is rounded to single precision.</p>
+     */
+    @Override
+    public void setEntry(final int index, final double value) throws OutOfRangeException {
+        try {
+            data[index] = (float) value;
+        } catch (IndexOutOfBoundsException e) {
+            checkIndex(index);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int index, final double increment)
+        throws OutOfRangeException {
+        try {
+            data[index] = (float) (data[index] + increment);
+        } catch (IndexOutOfBoundsException e) {
+            checkIndex(index);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector append(final RealVector v) {
+        final float[] out = new float[data.length + v.getDimension()];
+        System.arraycopy(data, 0, out, 0, data.length);
+        for (int i = 0; i < v.getDimension(); ++i) {
+            out[data.length + i] = (float) v.getEntry(i);
+        }
+        return new FloatArrayRealVector(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector append(final double d) {
+        final float[] out = new float[data.length + 1];
+        System.arraycopy(data, 0, out, 0, data.length);
+        out[data.length] = (float) d;
+        return new FloatArrayRealVector(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector getSubVector(final int index, final int n)
+        throws OutOfRangeException, NotPositiveException {
+        if (n < 0) {
+            throw new NotPositiveException(LocalizedFormats.NUMBER_OF_ELEMENTS_SHOULD_BE_POSITIVE, n);
+        }
+        final FloatArrayRealVector out = new FloatArrayRealVector(n);
+        try {
+            System.arraycopy(data, index, out.data, 0, n);
+        } catch (IndexOutOfBoundsException e) {
+            checkIndex(index);
+            checkIndex(index + n - 1);
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setSubVector(final int index, final RealVector v)
+        throws OutOfRangeException {
+        try {
+            if (v instanceof FloatArrayRealVector) {
+                final float[] vData = ((FloatArrayRealVector) v).data;
+                System.arraycopy(vData, 0, data, index, vData.length);
+            } else {
+                for (int i = index; i < index + v.getDimension(); ++i) {
+                    data[i] = (float) v.getEntry(i - index);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            checkIndex(index);
+            checkIndex(index + v.getDimension() - 1);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(final double value) {
+        Arrays.fill(data, (float) value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] toArray() {
+        final double[] out = new double[data.length];
+        for (int i = 0; i < data.length; ++i) {
+            out[i] = data[i];
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FloatArrayRealVector ebeMultiply(final RealVector v)
+        throws DimensionMismatchException {
+        checkVectorDimensions(v);
+        final float[] out = new float[data.length];
+        for (int i = 0; i < data.length; ++i) {
+            out[i] = (float) (data[i] * v.getEntry(i));
+        }
+        return new FloatArrayRealVector(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FloatArrayRealVector ebeDivide(final RealVector v)
+        throws DimensionMismatchException {
+        checkVectorDimensions(v);
+        final float[] out = new float[data.length];
+        for (int i = 0; i < data.length; ++i) {
+            out[i] = (float) (data[i] / v.getEntry(i));
+        }
+        return new FloatArrayRealVector(out, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The dot product is accumulated in double precision.</p>
+     */
+    @Override
+    public double dotProduct(final RealVector v) throws DimensionMismatchException {
+        checkVectorDimensions(v);
+        double dot = 0;
+        if (v instanceof FloatArrayRealVector) {
+            final float[] vData = ((FloatArrayRealVector) v).data;
+            for (int i = 0; i < data.length; i++) {
+                dot += (double) data[i] * vData[i];
+            }
+        } else if (v instanceof ArrayRealVector) {
+            final double[] vData = ((ArrayRealVector) v).getDataRef();
+            for (int i = 0; i < data.length; i++) {
+                dot += data[i] * vData[i];
+            }
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                dot += data[i] * v.getEntry(i);
+            }
+        }
+        return dot;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getNorm() {
+        double sum = 0;
+        for (final float a : data) {
+            sum += (double) a * a;
+        }
+        return FastMath.sqrt(sum);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getL1Norm() {
+        double sum = 0;
+        for (final float a : data) {
+            sum += FastMath.abs(a);
+        }
+        return sum;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getLInfNorm() {
+        double max = 0;
+        for (final float a : data) {
+            max = FastMath.max(max, FastMath.abs(a));
+        }
+        return max;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector mapAddToSelf(final double d) {
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (float) (data[i] + d);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector mapMultiplyToSelf(final double d) {
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (float) (data[i] * d);
+        }
+        return this;
+    }
+
+    /**
+     * Check if any coordinate of this vector is {@code NaN}.
+     *
+     * @return {@code true} if any coordinate of this vector is {@code NaN},
+     * {@code false} otherwise.
+     */
+    @Override
+    public boolean isNaN() {
+        for (final float v : data) {
+            if (Float.isNaN(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether any coordinate of this vector is infinite and none
+     * are {@code NaN}.
+     *
+     * @return {@code true} if any coordinate of this vector is infinite and
+     * none are {@code NaN}, {@code false} otherwise.
+     */
+    @Override
+    public boolean isInfinite() {
+        if (isNaN()) {
+            return false;
+        }
+        for (final float v : data) {
+            if (Float.isInfinite(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A float vector is equal to any vector with the same entries, including
+     * an {@link ArrayRealVector}.
+     * </p>
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof RealVector)) {
+            return false;
+        }
+
+        final RealVector rhs = (RealVector) other;
+        if (data.length != rhs.getDimension()) {
+            return false;
+        }
+
+        if (rhs.isNaN()) {
+            return this.isNaN();
+        }
+
+        for (int i = 0; i < data.length; ++i) {
+            if (data[i] != rhs.getEntry(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} All {@code NaN} values have the same hash code, and the
+     * hash code is consistent with the one of {@link ArrayRealVector}.
+     */
+    @Override
+    public int hashCode() {
+        if (isNaN()) {
+            return 9;
+        }
+        return MathUtils.hash(toArray());
+    }
+
+}
@@ -0,0 +1,504 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Implementation of RealMatrix storing its entries in single precision,
+ * using the same blocks layout as {@link BlockRealMatrix}.
+ * <p>
+ * Entries are stored as floats, which halves the memory footprint and the
+ * memory bandwidth needed to read the matrix with respect to {@link
+ * BlockRealMatrix}, at the expense of accuracy. Values are rounded to the
+ * nearest float when they are stored, but products ({@link #operate(double[])
+ * operate}, {@link #preMultiply(double[]) preMultiply}, {@link
+ * #multiply(RealMatrix) multiply}) are accumulated in double precision and
+ * each entry of the result is rounded only once.
+ * </p>
+ * <p>
+ * The matrices created by the arithmetic operations are also float matrices.
+ * {@link #toBlockRealMatrix()} converts a float matrix into a double one (this
+ * conversion is exact) and {@link #FloatBlockRealMatrix(RealMatrix)} converts
+ * any matrix into a float one.
+ * </p>
+ *
+ * @see BlockRealMatrix
+ * @see FloatArrayRealVector
+ * @version $Id$
+ * @since 3.3
+ */
+public class FloatBlockRealMatrix extends AbstractRealMatrix implements Serializable {
+
+    /** Serializable version identifier */
+    private static final long serialVersionUID = 20140316L;
+
+    /** Block size. */
+    private static final int BLOCK_SIZE = BlockRealMatrix.BLOCK_SIZE;
+
+    /** Blocks of matrix entries. */
+    private final float[][] blocks;
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Number of block rows of the matrix. */
+    private final int blockRows;
+
+    /** Number of block columns of the matrix. */
+    private final int blockColumns;
+
+    /**
+     * Create a new matrix with the supplied row and column dimensions.
+     *
+     * @param rows  the number of rows in the new matrix
+     * @param columns  the number of columns in the new matrix
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    public FloatBlockRealMatrix(final int rows, final int columns)
+        throws NotStrictlyPositiveException {
+        super(rows, columns);
+        this.rows    = rows;
+        this.columns = columns;
+
+        blockRows    = (rows    + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blockColumns = (columns + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        blocks = new float[blockRows * blockColumns][];
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int iHeight = blockHeight(iBlock);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                blocks[blockIndex++] = new float[iHeight * blockWidth(jBlock)];
+            }
+        }
+    }
+
+    /**
+     * Create a new matrix by converting another matrix.
+     * <p>The entries are rounded to single precision.</p>
+     *
+     * @param matrix matrix to convert
+     */
+    public FloatBlockRealMatrix(final RealMatrix matrix) {
+        this(matrix.getRowDimension(), matrix.getColumnDimension());
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                final float[] block = blocks[blockIndex++];
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        block[k++] = (float) matrix.getEntry(p, q);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert this matrix to a double precision matrix.
+     * <p>The conversion is exact.</p>
+     *
+     * @return a new matrix with the same entries as this one
+     */
+    public BlockRealMatrix toBlockRealMatrix() {
+        final double[][] converted = BlockRealMatrix.createBlocksLayout(rows, columns);
+        for (int blockIndex = 0; blockIndex < blocks.length; ++blockIndex) {
+            final float[] block = blocks[blockIndex];
+            final double[] convertedBlock = converted[blockIndex];
+            for (int k = 0; k < block.length; ++k) {
+                convertedBlock[k] = block[k];
+            }
+        }
+        return new BlockRealMatrix(rows, columns, converted, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FloatBlockRealMatrix createMatrix(final int rowDimension,
+                                             final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new FloatBlockRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FloatBlockRealMatrix copy() {
+        final FloatBlockRealMatrix copied = new FloatBlockRealMatrix(rows, columns);
+        for (int i = 0; i < blocks.length; ++i) {
+            System.arraycopy(blocks[i], 0, copied.blocks[i], 0, blocks[i].length);
+        }
+        return copied;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m instanceof FloatBlockRealMatrix) {
+            return multiply((FloatBlockRealMatrix) m);
+        }
+        return super.multiply(m);
+    }
+
+    /**
+     * Returns the result of postmultiplying this by {@code m}.
+     * <p>
+     * Each entry of the result is accumulated in double precision and
+     * rounded to single precision once.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this} * m.
+     * @throws DimensionMismatchException if the matrices dimensions are not
+     * compatible.
+     */
+    public FloatBlockRealMatrix multiply(final FloatBlockRealMatrix m)
+        throws DimensionMismatchException {
+        // safety check
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+
+        final FloatBlockRealMatrix out = new FloatBlockRealMatrix(rows, m.columns);
+        final double[] sums = new double[BLOCK_SIZE * BLOCK_SIZE];
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < out.blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < out.blockColumns; ++jBlock) {
+                final int jWidth = out.blockWidth(jBlock);
+                final int jWidth2 = jWidth  + jWidth;
+                final int jWidth3 = jWidth2 + jWidth;
+                final int jWidth4 = jWidth3 + jWidth;
+                final float[] outBlock = out.blocks[blockIndex++];
+                Arrays.fill(sums, 0, outBlock.length, 0.0);
+
+                for (int kBlock = 0; kBlock < blockColumns; ++kBlock) {
+                    final int kWidth = blockWidth(kBlock);
+                    final float[] tBlock = blocks[iBlock * blockColumns + kBlock];
+                    final float[] mBlock = m.blocks[kBlock * m.blockColumns + jBlock];
+                    int k = 0;
+                    for (int p = pStart; p < pEnd; ++p) {
+                        final int lStart = (p - pStart) * kWidth;
+                        final int lEnd = lStart + kWidth;
+                        for (int nStart = 0; nStart < jWidth; ++nStart) {
+                            double sum = 0;
+                            int l = lStart;
+                            int n = nStart;
+                            while (l < lEnd - 3) {
+                                sum += (double) tBlock[l]     * mBlock[n] +
+                                       (double) tBlock[l + 1] * mBlock[n + jWidth] +
+                                       (double) tBlock[l + 2] * mBlock[n + jWidth2] +
+                                       (double) tBlock[l + 3] * mBlock[n + jWidth3];
+                                l += 4;
+                                n += jWidth4;
+                            }
+                            while (l < lEnd) {
+                                sum += (double) tBlock[l++] * mBlock[n];
+                                n += jWidth;
+                            }
+                            sums[k++] += sum;
+                        }
+                    }
+                }
+
+                for (int k = 0; k < outBlock.length; ++k) {
+                    outBlock[k] = (float) sums[k];
+                }
+            }
+        }
+
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int iBlock = row / BLOCK_SIZE;
+        final int jBlock = column / BLOCK_SIZE;
+        final int k = (row - iBlock * BLOCK_SIZE) * blockWidth(jBlock) +
+            (column - jBlock * BLOCK_SIZE);
+        return blocks[iBlock * blockColumns + jBlock][k];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The value is rounded to single precision.</p>
+     */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int iBlock = row / BLOCK_SIZE;
+        final int jBlock = column / BLOCK_SIZE;
+        final int k = (row - iBlock * BLOCK_SIZE) * blockWidth(jBlock) +
+            (column - jBlock * BLOCK_SIZE);
+        blocks[iBlock * blockColumns + jBlock][k] = (float) value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column,
+                           final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int iBlock = row    / BLOCK_SIZE;
+        final int jBlock = column / BLOCK_SIZE;
+        final int k = (row    - iBlock * BLOCK_SIZE) * blockWidth(jBlock) +
+            (column - jBlock * BLOCK_SIZE);
+        final float[] block = blocks[iBlock * blockColumns + jBlock];
+        block[k] = (float) (block[k] + increment);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column,
+                              final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final int iBlock = row / BLOCK_SIZE;
+        final int jBlock = column / BLOCK_SIZE;
+        final int k = (row - iBlock * BLOCK_SIZE) * blockWidth(jBlock) +
+            (column - jBlock * BLOCK_SIZE);
+        final float[] block = blocks[iBlock * blockColumns + jBlock];
+        block[k] = (float) (block[k] * factor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+        final double[] out = new double[rows];
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final float[] block  = blocks[iBlock * blockColumns + jBlock];
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    double sum = 0;
+                    int q = qStart;
+                    while (q < qEnd - 3) {
+                        sum += block[k]     * v[q]     +
+                               block[k + 1] * v[q + 1] +
+                               block[k + 2] * v[q + 2] +
+                               block[k + 3] * v[q + 3];
+                        k += 4;
+                        q += 4;
+                    }
+                    while (q < qEnd) {
+                        sum += block[k++] * v[q++];
+                    }
+                    out[p] += sum;
+                }
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@code v} is a {@link FloatArrayRealVector}, the result is also a
+     * {@link FloatArrayRealVector}, each entry being accumulated in double
+     * precision and rounded once.
+     * </p>
+     */
+    @Override
+    public RealVector operate(final RealVector v)
+        throws DimensionMismatchException {
+        if (!(v instanceof FloatArrayRealVector)) {
+            return super.operate(v);
+        }
+        final float[] vData = ((FloatArrayRealVector) v).getDataRef();
+        if (vData.length != columns) {
+            throw new DimensionMismatchException(vData.length, columns);
+        }
+        final double[] sums = new double[rows];
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final float[] block  = blocks[iBlock * blockColumns + jBlock];
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    double sum = 0;
+                    int q = qStart;
+                    while (q < qEnd - 3) {
+                        sum += (double) block[k]     * vData[q]     +
+                               (double) block[k + 1] * vData[q + 1] +
+                               (double) block[k + 2] * vData[q + 2] +
+                               (double) block[k + 3] * vData[q + 3];
+                        k += 4;
+                        q += 4;
+                    }
+                    while (q < qEnd) {
+                        sum += (double) block[k++] * vData[q++];
+                    }
+                    sums[p] += sum;
+                }
+            }
+        }
+
+        final float[] out = new float[rows];
+        for (int p = 0; p < rows; ++p) {
+            out[p] = (float) sums[p];
+        }
+        return new FloatArrayRealVector(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != rows) {
+            throw new DimensionMismatchException(v.length, rows);
+        }
+        final double[] out = new double[columns];
+
+        // perform multiplication block-wise, to ensure good cache behavior
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final float[] block  = blocks[iBlock * blockColumns + jBlock];
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    final double vP = v[p];
+                    for (int q = qStart; q < qEnd; ++q) {
+                        out[q] += block[k++] * vP;
+                    }
+                }
+            }
+        }
+
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixChangingVisitor visitor) {
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                final float[] block = blocks[blockIndex];
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        block[k] = (float) visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+                ++blockIndex;
+            }
+        }
+        return visitor.end();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixPreservingVisitor visitor) {
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                final float[] block = blocks[blockIndex];
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+                ++blockIndex;
+            }
+        }
+        return visitor.end();
+    }
+
+    /**
+     * Get the height of a block.
+     * @param blockRow row index (in block sense) of the block
+     * @return height (number of rows) of the block
+     */
+    private int blockHeight(final int blockRow) {
+        return (blockRow == blockRows - 1) ? rows - blockRow * BLOCK_SIZE : BLOCK_SIZE;
+    }
+
+    /**
+     * Get the width of a block.
+     * @param blockColumn column index (in block sense) of the block
+     * @return width (number of columns) of the block
+     */
+    private int blockWidth(final int blockColumn) {
+        return (blockColumn == blockColumns - 1) ? columns - blockColumn * BLOCK_SIZE : BLOCK_SIZE;
+    }
+
+}
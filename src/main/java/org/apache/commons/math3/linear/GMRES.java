@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.IterationManager;
+
+/**
+ * <p>
+ * This is an implementation of the restarted Generalized Minimal RESidual
+ * method, GMRES(m), for general (non-symmetric) {@link RealLinearOperator}.
+ * It follows the template by <a href="#BARR1994">Barrett et al. (1994)</a>
+ * (figure 2.6), with modified Gram-Schmidt orthogonalization and Givens
+ * rotations. The linear system at hand is A &middot; x = b, and the residual
+ * is r = b - A &middot; x.
+ * </p>
+ * <p>
+ * Preconditioning is applied on the right: the Krylov subspace is built for
+ * A &middot; M, so that the residual minimized by the method is the true
+ * residual of the original system. The Krylov basis (m + 1 vectors) is
+ * allocated once per call to {@code solve}, and reused across restarts.
+ * </p>
+ * <h3><a id="stopcrit">Default stopping criterion</a></h3>
+ * <p>
+ * The iterations stop when || r || &le; &delta; || b ||, where b is the
+ * right-hand side vector, r the residual, and &delta; a user-specified
+ * tolerance. Within a restart cycle, the norm of the residual is available
+ * at no cost from the Givens rotations, but neither the residual nor the
+ * solution estimate are formed. These are only updated at the end of each
+ * cycle, where the residual is recomputed explicitly before termination
+ * is decided.
+ * </p>
+ * <h3>Iteration count</h3>
+ * <p>
+ * An iteration is one Arnoldi step, i.e. one evaluation of the matrix-vector
+ * product A &middot; M &middot; v. The initialization phase counts as one
+ * iteration. The explicit computation of the residual at the end of each cycle
+ * is not counted.
+ * </p>
+ * <h3>Events</h3>
+ * <p>
+ * The events fired within a cycle provide the solution estimate at the
+ * beginning of the cycle, and do not {@link IterativeLinearSolverEvent#providesResidual()
+ * provide the residual}. The events fired at initialization and at termination
+ * provide the residual.
+ * </p>
+ * <h3>References</h3>
+ * <dl>
+ * <dt><a id="BARR1994">Barret et al. (1994)</a></dt>
+ * <dd>R. Barrett, M. Berry, T. F. Chan, J. Demmel, J. M. Donato, J. Dongarra,
+ * V. Eijkhout, R. Pozo, C. Romine and H. Van der Vorst,
+ * <a href="http://www.netlib.org/linalg/html_templates/Templates.html"><em>
+ * Templates for the Solution of Linear Systems: Building Blocks for Iterative
+ * Methods</em></a>, SIAM</dd>
+ * <dt><a id="SAAD1986">Saad and Schultz (1986)</a></dt>
+ * <dd>Y. Saad and M. H. Schultz, <em>GMRES: A generalized minimal residual
+ * algorithm for solving nonsymmetric linear systems</em>, SIAM Journal on
+ * Scientific and Statistical Computing 7 (3): 856-869, 1986</dd>
+ * </dl>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class GMRES extends PreconditionedIterativeLinearSolver {
+
+    /** Number of iterations between restarts. */
+    private final int restart;
+
+    /** The value of &delta;, for the default stopping criterion. */
+    private final double delta;
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a>.
+     *
+     * @param maxIterations the maximum number of iterations
+     * @param delta the &delta; parameter for the default stopping criterion
+     * @param restart number of iterations between restarts (the dimension
+     * of the Krylov subspace)
+     * @throws NotStrictlyPositiveException if {@code restart} is not positive
+     */
+    public GMRES(final int maxIterations, final double delta, final int restart)
+        throws NotStrictlyPositiveException {
+        super(maxIterations);
+        if (restart <= 0) {
+            throw new NotStrictlyPositiveException(restart);
+        }
+        this.delta   = delta;
+        this.restart = restart;
+    }
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a> and custom iteration manager.
+     *
+     * @param manager the custom iteration manager
+     * @param delta the &delta; parameter for the default stopping criterion
+     * @param restart number of iterations between restarts (the dimension
+     * of the Krylov subspace)
+     * @throws NullArgumentException if {@code manager} is {@code null}
+     * @throws NotStrictlyPositiveException if {@code restart} is not positive
+     */
+    public GMRES(final IterationManager manager, final double delta, final int restart)
+        throws NullArgumentException, NotStrictlyPositiveException {
+        super(manager);
+        if (restart <= 0) {
+            throw new NotStrictlyPositiveException(restart);
+        }
+        this.delta   = delta;
+        this.restart = restart;
+    }
+
+    /**
+     * Returns the number of iterations between restarts.
+     *
+     * @return the dimension of the Krylov subspace
+     */
+    public int getRestart() {
+        return restart;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector solveInPlace(final RealLinearOperator a,
+                                   final RealLinearOperator m,
+                                   final RealVector b,
+                                   final RealVector x0)
+        throws NullArgumentException, NonSquareOperatorException,
+        DimensionMismatchException, MaxCountExceededException {
+        checkParameters(a, m, b, x0);
+        final IterationManager manager = getIterationManager();
+        // Initialization of default stopping criterion
+        manager.resetIterationCount();
+        final double rmax = delta * b.getNorm();
+        final RealVector bro = RealVector.unmodifiableRealVector(b);
+
+        // Initialization phase counts as one iteration.
+        manager.incrementIterationCount();
+        final RealVector x = x0;
+        final RealVector xro = RealVector.unmodifiableRealVector(x);
+        RealVector r = b.subtract(a.operate(x));
+        double rnorm = r.getNorm();
+        IterativeLinearSolverEvent evt;
+        evt = new DefaultIterativeLinearSolverEvent(this,
+            manager.getIterations(), xro, bro, RealVector.unmodifiableRealVector(r), rnorm);
+        manager.fireInitializationEvent(evt);
+        if (rnorm <= rmax) {
+            manager.fireTerminationEvent(evt);
+            return x;
+        }
+
+        // workspace, reused across restarts
+        final int n = x.getDimension();
+        final RealVector[] v = new RealVector[restart + 1];
+        for (int i = 0; i <= restart; ++i) {
+            v[i] = new ArrayRealVector(n);
+        }
+        final double[][] h = new double[restart + 1][restart];
+        final double[] cs  = new double[restart];
+        final double[] sn  = new double[restart];
+        final double[] g   = new double[restart + 1];
+        final double[] y   = new double[restart];
+        final RealVector u = new ArrayRealVector(n);
+
+        while (true) {
+
+            // start a new cycle from the current residual
+            v[0].setSubVector(0, r);
+            v[0].mapDivideToSelf(rnorm);
+            Arrays.fill(g, 0.0);
+            g[0] = rnorm;
+
+            int k = 0;
+            while (k < restart) {
+                manager.incrementIterationCount();
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rnorm);
+                manager.fireIterationStartedEvent(evt);
+
+                // Arnoldi step with modified Gram-Schmidt
+                final RealVector z = (m == null) ? v[k] : m.operate(v[k]);
+                final RealVector w = v[k + 1];
+                w.setSubVector(0, a.operate(z));
+                for (int i = 0; i <= k; ++i) {
+                    final double hik = w.dotProduct(v[i]);
+                    h[i][k] = hik;
+                    w.combineToSelf(1, -hik, v[i]);
+                }
+                final double hNext = w.getNorm();
+                h[k + 1][k] = hNext;
+                if (hNext != 0) {
+                    w.mapDivideToSelf(hNext);
+                }
+
+                // apply previous rotations to the new column of H
+                for (int i = 0; i < k; ++i) {
+                    final double tmp = cs[i] * h[i][k] + sn[i] * h[i + 1][k];
+                    h[i + 1][k] = -sn[i] * h[i][k] + cs[i] * h[i + 1][k];
+                    h[i][k]     = tmp;
+                }
+
+                // compute and apply the new rotation
+                final double rho = FastMath.hypot(h[k][k], hNext);
+                if (rho == 0) {
+                    cs[k] = 1;
+                    sn[k] = 0;
+                } else {
+                    cs[k] = h[k][k] / rho;
+                    sn[k] = hNext / rho;
+                }
+                h[k][k]     = rho;
+                h[k + 1][k] = 0;
+                g[k + 1]    = -sn[k] * g[k];
+                g[k]        =  cs[k] * g[k];
+                rnorm       = FastMath.abs(g[k + 1]);
+                ++k;
+
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rnorm);
+                manager.fireIterationPerformedEvent(evt);
+                if (rnorm <= rmax || hNext == 0) {
+                    // converged or invariant subspace found
+                    break;
+                }
+            }
+
+            // solve the triangular least squares problem and update solution
+            for (int i = k - 1; i >= 0; --i) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; ++j) {
+                    sum -= h[i][j] * y[j];
+                }
+                y[i] = (h[i][i] == 0) ? 0 : sum / h[i][i];
+            }
+            u.set(0);
+            for (int i = 0; i < k; ++i) {
+                u.combineToSelf(1, y[i], v[i]);
+            }
+            x.combineToSelf(1, 1, (m == null) ? u : m.operate(u));
+
+            // explicit residual
+            r = b.subtract(a.operate(x));
+            rnorm = r.getNorm();
+            if (rnorm <= rmax) {
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, RealVector.unmodifiableRealVector(r), rnorm);
+                manager.fireTerminationEvent(evt);
+                return x;
+            }
+
+        }
+    }
+}
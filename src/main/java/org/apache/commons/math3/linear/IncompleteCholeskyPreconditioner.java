@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * This class implements the incomplete Cholesky preconditioner without
+ * fill-in, IC(0).
+ * <p>
+ * For a symmetric positive definite sparse matrix A, the incomplete factor L
+ * is a lower triangular matrix with the same sparsity pattern as the lower
+ * triangular part of A, such that L &middot; L<sup>T</sup> matches A on this
+ * pattern. The preconditioner is M = (L &middot; L<sup>T</sup>)<sup>-1</sup>,
+ * which is applied by one forward and one backward substitution, in O(nnz)
+ * operations. It is well suited to {@link ConjugateGradient}.
+ * </p>
+ * <p>
+ * Only the lower triangular part of A is used. The factorization may break
+ * down even for positive definite matrices (it is guaranteed to exist for
+ * M-matrices and diagonally dominant matrices). In this case, a
+ * {@link NonPositiveDefiniteMatrixException} is thrown, and a diagonal
+ * shift (A + &alpha; diag(A)) can be used instead.
+ * </p>
+ * <p>
+ * The {@link #operate(double[], double[])} method applies the preconditioner
+ * without allocating any memory.
+ * </p>
+ *
+ * @see IncompleteLUPreconditioner
+ * @version $Id$
+ * @since 3.3
+ */
+public class IncompleteCholeskyPreconditioner extends RealLinearOperator {
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Index of the first element of each row of L, plus the number of elements. */
+    private final int[] pointers;
+
+    /** Column indices of the elements of L, sorted in each row, diagonal last. */
+    private final int[] indices;
+
+    /** Values of the elements of L. */
+    private final double[] values;
+
+    /**
+     * Computes the incomplete Cholesky factorization of a matrix.
+     *
+     * @param a symmetric positive definite matrix (only its lower
+     * triangular part is used), preferably a {@link CompressedRowRealMatrix}
+     * @throws NonSquareMatrixException if the matrix is not square
+     * @throws NonPositiveDefiniteMatrixException if the factorization
+     * breaks down
+     */
+    public IncompleteCholeskyPreconditioner(final RealMatrix a)
+        throws NonSquareMatrixException, NonPositiveDefiniteMatrixException {
+
+        if (!a.isSquare()) {
+            throw new NonSquareMatrixException(a.getRowDimension(), a.getColumnDimension());
+        }
+        final CompressedRowRealMatrix csr = (a instanceof CompressedRowRealMatrix) ?
+                                            (CompressedRowRealMatrix) a :
+                                            new CompressedRowRealMatrix(a);
+        n = a.getRowDimension();
+        final int[]    aPointers = csr.getPointersRef();
+        final int[]    aIndices  = csr.getIndicesRef();
+        final double[] aValues   = csr.getValuesRef();
+
+        // extract the lower triangular pattern, with an explicit diagonal
+        pointers = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            int count = 1;
+            for (int k = aPointers[i]; k < aPointers[i + 1] && aIndices[k] < i; ++k) {
+                ++count;
+            }
+            pointers[i + 1] = pointers[i] + count;
+        }
+        indices = new int[pointers[n]];
+        values  = new double[pointers[n]];
+        for (int i = 0; i < n; ++i) {
+            int p = pointers[i];
+            for (int k = aPointers[i]; k < aPointers[i + 1] && aIndices[k] <= i; ++k) {
+                if (aIndices[k] < i) {
+                    indices[p]  = aIndices[k];
+                    values[p++] = aValues[k];
+                } else {
+                    values[pointers[i + 1] - 1] = aValues[k];
+                }
+            }
+            indices[pointers[i + 1] - 1] = i;
+        }
+
+        // row-oriented factorization, restricted to the pattern
+        for (int i = 0; i < n; ++i) {
+            final int diag = pointers[i + 1] - 1;
+            for (int p = pointers[i]; p < diag; ++p) {
+                // L(i,k) = (A(i,k) - sum_{j<k} L(i,j) L(k,j)) / L(k,k)
+                final int k = indices[p];
+                double sum = values[p];
+                int q = pointers[i];
+                int r = pointers[k];
+                final int rEnd = pointers[k + 1] - 1;
+                while (q < p && r < rEnd) {
+                    if (indices[q] == indices[r]) {
+                        sum -= values[q++] * values[r++];
+                    } else if (indices[q] < indices[r]) {
+                        ++q;
+                    } else {
+                        ++r;
+                    }
+                }
+                values[p] = sum / values[rEnd];
+            }
+
+            double pivot = values[diag];
+            for (int p = pointers[i]; p < diag; ++p) {
+                pivot -= values[p] * values[p];
+            }
+            if (!(pivot > 0)) {
+                throw new NonPositiveDefiniteMatrixException(pivot, i, 0);
+            }
+            values[diag] = FastMath.sqrt(pivot);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return n;
+    }
+
+    /**
+     * Returns the number of non-zero elements of the incomplete factor L.
+     *
+     * @return number of elements of L
+     */
+    public int getNonZeroCount() {
+        return pointers[n];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x) throws DimensionMismatchException {
+        final double[] y = x.toArray();
+        operate(y, y);
+        return new ArrayRealVector(y, false);
+    }
+
+    /**
+     * Applies the preconditioner without allocating memory.
+     * <p>
+     * This method computes y = (L &middot; L<sup>T</sup>)<sup>-1</sup> &middot; x.
+     * The arrays {@code x} and {@code y} may be the same array.
+     * </p>
+     *
+     * @param x vector to which the preconditioner is applied
+     * @param y placeholder for the result
+     * @throws DimensionMismatchException if the arrays dimensions do not
+     * match the preconditioner dimension
+     */
+    public void operate(final double[] x, final double[] y) throws DimensionMismatchException {
+        if (x.length != n) {
+            throw new DimensionMismatchException(x.length, n);
+        }
+        if (y.length != n) {
+            throw new DimensionMismatchException(y.length, n);
+        }
+
+        // forward substitution L.z = x
+        for (int i = 0; i < n; ++i) {
+            final int diag = pointers[i + 1] - 1;
+            double sum = x[i];
+            for (int p = pointers[i]; p < diag; ++p) {
+                sum -= values[p] * y[indices[p]];
+            }
+            y[i] = sum / values[diag];
+        }
+
+        // backward substitution L^T.y = z, column-oriented on the rows of L
+        for (int i = n - 1; i >= 0; --i) {
+            final int diag = pointers[i + 1] - 1;
+            final double yI = y[i] / values[diag];
+            y[i] = yI;
+            for (int p = pointers[i]; p < diag; ++p) {
+                y[indices[p]] -= values[p] * yI;
+            }
+        }
+    }
+
+}
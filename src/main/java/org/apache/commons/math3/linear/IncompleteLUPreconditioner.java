@@ -0,0 +1,495 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * This class implements incomplete LU preconditioners for general sparse
+ * matrices.
+ * <p>
+ * Two variants are available:
+ * </p>
+ * <ul>
+ *   <li>ILU(0), where the factors L and U have the same sparsity pattern as
+ *   the strictly lower and upper triangular parts of A (plus the diagonal),
+ *   and L &middot; U matches A on this pattern,</li>
+ *   <li>ILUT(p, &tau;), the dual threshold variant of
+ *   <a href="#SAAD1994">Saad (1994)</a>, where fill-in is allowed, entries
+ *   smaller than &tau; times the norm of their row are dropped, and only the
+ *   p largest entries of each row of L and U are kept.</li>
+ * </ul>
+ * <p>
+ * The preconditioner is M = (L &middot; U)<sup>-1</sup>, where L has a unit
+ * diagonal. It is applied by one forward and one backward substitution, in
+ * O(nnz) operations. It is well suited to {@link GMRES} and {@link BiCGSTAB}.
+ * No pivoting is performed. The {@link #operate(double[], double[])} method
+ * applies the preconditioner without allocating any memory.
+ * </p>
+ * <h3>References</h3>
+ * <dl>
+ * <dt><a id="SAAD1994">Saad (1994)</a></dt>
+ * <dd>Y. Saad, <em>ILUT: a dual threshold incomplete LU factorization</em>,
+ * Numerical Linear Algebra with Applications 1 (4): 387-402, 1994</dd>
+ * </dl>
+ *
+ * @see IncompleteCholeskyPreconditioner
+ * @version $Id$
+ * @since 3.3
+ */
+public class IncompleteLUPreconditioner extends RealLinearOperator {
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Index of the first element of each row of L and U, plus the number of elements. */
+    private final int[] pointers;
+
+    /** Column indices of the elements of L and U, sorted in each row. */
+    private int[] indices;
+
+    /** Values of the elements of L (unit diagonal not stored) and U. */
+    private double[] values;
+
+    /** Position of the diagonal element of each row. */
+    private final int[] diagonal;
+
+    /**
+     * Computes the ILU(0) factorization of a matrix.
+     *
+     * @param a square matrix, preferably a {@link CompressedRowRealMatrix}
+     * @throws NonSquareMatrixException if the matrix is not square
+     * @throws SingularMatrixException if a zero pivot is encountered
+     */
+    public IncompleteLUPreconditioner(final RealMatrix a)
+        throws NonSquareMatrixException, SingularMatrixException {
+
+        if (!a.isSquare()) {
+            throw new NonSquareMatrixException(a.getRowDimension(), a.getColumnDimension());
+        }
+        final CompressedRowRealMatrix csr = toCompressedRow(a);
+        n        = a.getRowDimension();
+        diagonal = new int[n];
+        final int[]    aPointers = csr.getPointersRef();
+        final int[]    aIndices  = csr.getIndicesRef();
+        final double[] aValues   = csr.getValuesRef();
+
+        // copy the pattern of A, with an explicit diagonal
+        pointers = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            boolean hasDiagonal = false;
+            for (int k = aPointers[i]; k < aPointers[i + 1]; ++k) {
+                hasDiagonal |= aIndices[k] == i;
+            }
+            pointers[i + 1] = pointers[i] + aPointers[i + 1] - aPointers[i] + (hasDiagonal ? 0 : 1);
+        }
+        indices = new int[pointers[n]];
+        values  = new double[pointers[n]];
+        for (int i = 0; i < n; ++i) {
+            int p = pointers[i];
+            int k = aPointers[i];
+            while (k < aPointers[i + 1] && aIndices[k] < i) {
+                indices[p]  = aIndices[k];
+                values[p++] = aValues[k++];
+            }
+            diagonal[i] = p;
+            indices[p]  = i;
+            if (k < aPointers[i + 1] && aIndices[k] == i) {
+                values[p] = aValues[k++];
+            }
+            ++p;
+            while (k < aPointers[i + 1]) {
+                indices[p]  = aIndices[k];
+                values[p++] = aValues[k++];
+            }
+        }
+
+        // IKJ variant of Gaussian elimination, restricted to the pattern
+        final int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < n; ++i) {
+            for (int p = pointers[i]; p < pointers[i + 1]; ++p) {
+                position[indices[p]] = p;
+            }
+            for (int p = pointers[i]; p < diagonal[i]; ++p) {
+                final int k = indices[p];
+                final double lik = values[p] / values[diagonal[k]];
+                values[p] = lik;
+                for (int q = diagonal[k] + 1; q < pointers[k + 1]; ++q) {
+                    final int target = position[indices[q]];
+                    if (target >= 0) {
+                        values[target] -= lik * values[q];
+                    }
+                }
+            }
+            for (int p = pointers[i]; p < pointers[i + 1]; ++p) {
+                position[indices[p]] = -1;
+            }
+            if (values[diagonal[i]] == 0) {
+                throw new SingularMatrixException();
+            }
+        }
+
+    }
+
+    /**
+     * Computes the ILUT factorization of a matrix.
+     *
+     * @param a square matrix, preferably a {@link CompressedRowRealMatrix}
+     * @param fill maximum number of elements kept in each row of L and in
+     * each row of U (in addition to the diagonal)
+     * @param dropTolerance relative drop tolerance &tau;: elements smaller
+     * than &tau; times the 2-norm of their row in A are dropped
+     * @throws NonSquareMatrixException if the matrix is not square
+     * @throws NotPositiveException if {@code fill} or {@code dropTolerance}
+     * is negative
+     * @throws SingularMatrixException if a row of A is zero
+     */
+    public IncompleteLUPreconditioner(final RealMatrix a, final int fill, final double dropTolerance)
+        throws NonSquareMatrixException, NotPositiveException, SingularMatrixException {
+
+        if (!a.isSquare()) {
+            throw new NonSquareMatrixException(a.getRowDimension(), a.getColumnDimension());
+        }
+        if (fill < 0) {
+            throw new NotPositiveException(fill);
+        }
+        if (dropTolerance < 0) {
+            throw new NotPositiveException(dropTolerance);
+        }
+        final CompressedRowRealMatrix csr = toCompressedRow(a);
+        n        = a.getRowDimension();
+        diagonal = new int[n];
+        final int[]    aPointers = csr.getPointersRef();
+        final int[]    aIndices  = csr.getIndicesRef();
+        final double[] aValues   = csr.getValuesRef();
+
+        pointers = new int[n + 1];
+        indices  = new int[aPointers[n] + n];
+        values   = new double[indices.length];
+
+        // dense work row, with the list of its non-zero columns and
+        // a binary min-heap of the columns of L still to be eliminated
+        final double[]  w        = new double[n];
+        final boolean[] used     = new boolean[n];
+        final int[]     columns  = new int[n];
+        final int[]     pending  = new int[n];
+        final int[]     selected = new int[n];
+
+        for (int i = 0; i < n; ++i) {
+
+            // scatter row i of A
+            int count = 0;
+            int heapSize = 0;
+            double norm2 = 0;
+            for (int k = aPointers[i]; k < aPointers[i + 1]; ++k) {
+                final int j = aIndices[k];
+                w[j] = aValues[k];
+                used[j] = true;
+                columns[count++] = j;
+                if (j < i) {
+                    pushColumn(pending, heapSize++, j);
+                }
+                norm2 += aValues[k] * aValues[k];
+            }
+            if (!used[i]) {
+                used[i] = true;
+                columns[count++] = i;
+            }
+            final double tau = dropTolerance * FastMath.sqrt(norm2);
+            if (norm2 == 0) {
+                throw new SingularMatrixException();
+            }
+
+            // eliminate the lower part, in increasing column order
+            while (heapSize > 0) {
+                final int k = popColumn(pending, heapSize--);
+                final double lik = w[k] / values[diagonal[k]];
+                if (FastMath.abs(lik) < tau) {
+                    w[k] = 0;
+                    continue;
+                }
+                w[k] = lik;
+                for (int q = diagonal[k] + 1; q < pointers[k + 1]; ++q) {
+                    final int j = indices[q];
+                    if (!used[j]) {
+                        used[j] = true;
+                        columns[count++] = j;
+                        if (j < i) {
+                            pushColumn(pending, heapSize++, j);
+                        }
+                    }
+                    w[j] -= lik * values[q];
+                }
+            }
+
+            // apply the dropping rules to L and U
+            int nL = 0;
+            for (int c = 0; c < count; ++c) {
+                final int j = columns[c];
+                if (j < i && w[j] != 0 && FastMath.abs(w[j]) >= tau) {
+                    selected[nL++] = j;
+                }
+            }
+            nL = selectLargest(selected, 0, nL, fill, w);
+            int nU = nL;
+            for (int c = 0; c < count; ++c) {
+                final int j = columns[c];
+                if (j > i && w[j] != 0 && FastMath.abs(w[j]) >= tau) {
+                    selected[nU++] = j;
+                }
+            }
+            nU = nL + selectLargest(selected, nL, nU - nL, fill, w);
+            Arrays.sort(selected, 0, nL);
+            Arrays.sort(selected, nL, nU);
+
+            // gather row i of L and U
+            ensureCapacity(pointers[i] + nU + 1);
+            int p = pointers[i];
+            for (int c = 0; c < nL; ++c) {
+                indices[p]  = selected[c];
+                values[p++] = w[selected[c]];
+            }
+            diagonal[i] = p;
+            indices[p]  = i;
+            values[p++] = (w[i] == 0) ? tau : w[i];
+            if (values[diagonal[i]] == 0) {
+                throw new SingularMatrixException();
+            }
+            for (int c = nL; c < nU; ++c) {
+                indices[p]  = selected[c];
+                values[p++] = w[selected[c]];
+            }
+            pointers[i + 1] = p;
+
+            // reset the work row
+            for (int c = 0; c < count; ++c) {
+                final int j = columns[c];
+                w[j]    = 0;
+                used[j] = false;
+            }
+
+        }
+
+    }
+
+    /**
+     * Adds a column to a binary min-heap.
+     *
+     * @param heap heap storage
+     * @param size number of columns in the heap before insertion
+     * @param j column to add
+     */
+    private static void pushColumn(final int[] heap, final int size, final int j) {
+        int child = size;
+        while (child > 0) {
+            final int parent = (child - 1) >> 1;
+            if (heap[parent] <= j) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = j;
+    }
+
+    /**
+     * Removes the smallest column from a binary min-heap.
+     *
+     * @param heap heap storage
+     * @param size number of columns in the heap before removal
+     * @return smallest column
+     */
+    private static int popColumn(final int[] heap, final int size) {
+        final int smallest = heap[0];
+        final int last = heap[size - 1];
+        final int remaining = size - 1;
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= remaining) {
+                break;
+            }
+            if (child + 1 < remaining && heap[child + 1] < heap[child]) {
+                ++child;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = last;
+        return smallest;
+    }
+
+    /**
+     * Converts a matrix to compressed row storage if needed.
+     *
+     * @param a matrix to convert
+     * @return matrix in compressed row storage
+     */
+    private static CompressedRowRealMatrix toCompressedRow(final RealMatrix a) {
+        return (a instanceof CompressedRowRealMatrix) ?
+               (CompressedRowRealMatrix) a :
+               new CompressedRowRealMatrix(a);
+    }
+
+    /**
+     * Ensures the storage arrays can hold a given number of elements.
+     *
+     * @param capacity required capacity
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > indices.length) {
+            final int newCapacity = FastMath.max(capacity, indices.length + indices.length / 2);
+            final int[] newIndices = new int[newCapacity];
+            System.arraycopy(indices, 0, newIndices, 0, indices.length);
+            indices = newIndices;
+            final double[] newValues = new double[newCapacity];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            values = newValues;
+        }
+    }
+
+    /**
+     * Moves the largest elements (in absolute value) of a work row to the
+     * beginning of a range of column indices.
+     * <p>
+     * This is a partial quickselect, the order of the selected elements is
+     * unspecified.
+     * </p>
+     *
+     * @param cols column indices
+     * @param begin index of the first column in the range
+     * @param length number of columns in the range
+     * @param max maximum number of columns to select
+     * @param w work row
+     * @return number of selected columns
+     */
+    private static int selectLargest(final int[] cols, final int begin, final int length,
+                                     final int max, final double[] w) {
+        if (length <= max) {
+            return length;
+        }
+        int left  = begin;
+        int right = begin + length - 1;
+        final int target = begin + max;
+        while (left < right) {
+            final double pivot = FastMath.abs(w[cols[(left + right) >>> 1]]);
+            int l = left;
+            int r = right;
+            while (l <= r) {
+                while (FastMath.abs(w[cols[l]]) > pivot) {
+                    ++l;
+                }
+                while (FastMath.abs(w[cols[r]]) < pivot) {
+                    --r;
+                }
+                if (l <= r) {
+                    final int tmp = cols[l];
+                    cols[l++] = cols[r];
+                    cols[r--] = tmp;
+                }
+            }
+            if (target <= r) {
+                right = r;
+            } else if (target > l) {
+                left = l;
+            } else {
+                break;
+            }
+        }
+        return max;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return n;
+    }
+
+    /**
+     * Returns the number of non-zero elements of the factors L and U.
+     * <p>
+     * The unit diagonal of L is not counted.
+     * </p>
+     *
+     * @return number of elements of L and U
+     */
+    public int getNonZeroCount() {
+        return pointers[n];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x) throws DimensionMismatchException {
+        final double[] y = x.toArray();
+        operate(y, y);
+        return new ArrayRealVector(y, false);
+    }
+
+    /**
+     * Applies the preconditioner without allocating memory.
+     * <p>
+     * This method computes y = (L &middot; U)<sup>-1</sup> &middot; x.
+     * The arrays {@code x} and {@code y} may be the same array.
+     * </p>
+     *
+     * @param x vector to which the preconditioner is applied
+     * @param y placeholder for the result
+     * @throws DimensionMismatchException if the arrays dimensions do not
+     * match the preconditioner dimension
+     */
+    public void operate(final double[] x, final double[] y) throws DimensionMismatchException {
+        if (x.length != n) {
+            throw new DimensionMismatchException(x.length, n);
+        }
+        if (y.length != n) {
+            throw new DimensionMismatchException(y.length, n);
+        }
+
+        // forward substitution with unit lower triangular L
+        for (int i = 0; i < n; ++i) {
+            double sum = x[i];
+            for (int p = pointers[i]; p < diagonal[i]; ++p) {
+                sum -= values[p] * y[indices[p]];
+            }
+            y[i] = sum;
+        }
+
+        // backward substitution with upper triangular U
+        for (int i = n - 1; i >= 0; --i) {
+            double sum = y[i];
+            for (int p = diagonal[i] + 1; p < pointers[i + 1]; ++p) {
+                sum -= values[p] * y[indices[p]];
+            }
+            y[i] = sum / values[diagonal[i]];
+        }
+    }
+
+}
@@ -0,0 +1,450 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.Precision;
+
+/**
+ * Computes a few eigenpairs of a large symmetric linear operator using the
+ * thick-restart Lanczos algorithm.
+ * <p>Contrary to {@link EigenDecomposition}, which computes the full spectrum
+ * of a dense matrix at O(n<sup>3</sup>) cost, this class only computes the
+ * k algebraically largest or smallest eigenvalues and their eigenvectors. The
+ * operator is only accessed through {@link RealLinearOperator#operate(RealVector)
+ * matrix-vector products}, so it can be a sparse matrix or a matrix-free operator.
+ * The operator is assumed to be symmetric, this is not checked.</p>
+ * <p>The algorithm builds an orthonormal Krylov basis of at most {@code ncv}
+ * vectors, with full reorthogonalization. The eigenpairs of the projected
+ * operator (the Ritz pairs) approximate eigenpairs of the operator. When the
+ * basis is full and the wanted Ritz pairs have not converged yet, the algorithm
+ * is restarted from the best Ritz vectors found so far and the residual vector.
+ * This thick restart is mathematically equivalent to the implicit restart of
+ * the ARPACK implicitly restarted Lanczos method with exact shifts, but is
+ * simpler and more stable.</p>
+ * <p>A Ritz pair (&theta;, y) is considered converged when the norm of its
+ * residual Ay - &theta;y is below the relative tolerance multiplied by the
+ * largest Ritz value magnitude, which is an estimate of the operator norm.</p>
+ *
+ * @see <a href="http://dx.doi.org/10.1137/S0895479898334605">Wu and Simon,
+ * Thick-restart Lanczos method for large symmetric eigenvalue problems,
+ * SIAM J. Matrix Anal. Appl. 22 (2000)</a>
+ * @see EigenDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class LanczosEigenDecomposition {
+
+    /** Default relative tolerance on residuals. */
+    public static final double DEFAULT_TOLERANCE = 1.0e-10;
+
+    /** Default maximal number of restarts. */
+    public static final int DEFAULT_MAX_RESTARTS = 1000;
+
+    /** Seed of the generator used for default start vector and breakdowns. */
+    private static final long SEED = 0x3a2f7c5e91d4b086l;
+
+    /** Operator dimension. */
+    private final int n;
+
+    /** Converged eigenvalues. */
+    private final double[] eigenvalues;
+
+    /** Converged eigenvectors. */
+    private final double[][] eigenvectors;
+
+    /** Number of restarts performed. */
+    private int restarts;
+
+    /** Number of operator applications performed. */
+    private int operations;
+
+    /**
+     * Computes a few eigenpairs of a symmetric operator, with default settings.
+     * <p>The Krylov basis size is set to {@code min(n, max(2 nev + 1, 20))}, the
+     * relative tolerance to {@link #DEFAULT_TOLERANCE}, the maximal number of
+     * restarts to {@link #DEFAULT_MAX_RESTARTS} and the start vector is a fixed
+     * pseudo-random vector.</p>
+     *
+     * @param operator symmetric operator
+     * @param nev number of eigenpairs to compute
+     * @param largest if true, the algebraically largest eigenvalues are
+     * computed, otherwise the algebraically smallest ones are computed
+     * @throws NonSquareOperatorException if the operator is not square
+     * @throws NotStrictlyPositiveException if {@code nev} is not positive
+     * @throws NumberIsTooLargeException if {@code nev} is larger than
+     * the operator dimension
+     * @throws MaxCountExceededException if the eigenpairs did not
+     * converge after the maximal number of restarts
+     */
+    public LanczosEigenDecomposition(final RealLinearOperator operator,
+                                     final int nev, final boolean largest)
+        throws NonSquareOperatorException, NotStrictlyPositiveException,
+               NumberIsTooLargeException, MaxCountExceededException {
+        this(operator, nev, largest,
+             FastMath.min(operator.getRowDimension(), FastMath.max(2 * nev + 1, 20)),
+             DEFAULT_TOLERANCE, DEFAULT_MAX_RESTARTS, null);
+    }
+
+    /**
+     * Computes a few eigenpairs of a symmetric operator.
+     *
+     * @param operator symmetric operator
+     * @param nev number of eigenpairs to compute
+     * @param largest if true, the algebraically largest eigenvalues are
+     * computed, otherwise the algebraically smallest ones are computed
+     * @param ncv maximal size of the Krylov basis, must be larger than
+     * {@code nev} (unless both are equal to the operator dimension),
+     * {@code 2 nev} or more is recommended
+     * @param tolerance relative tolerance on residuals
+     * @param maxRestarts maximal number of restarts
+     * @param start start vector (if null, a fixed pseudo-random vector is used)
+     * @throws NonSquareOperatorException if the operator is not square
+     * @throws NotStrictlyPositiveException if {@code nev} is not positive
+     * @throws NumberIsTooLargeException if {@code nev} or {@code ncv} are
+     * larger than the operator dimension
+     * @throws NumberIsTooSmallException if {@code ncv} is not larger than
+     * {@code nev} while being smaller than the operator dimension
+     * @throws DimensionMismatchException if the start vector dimension does
+     * not match the operator dimension
+     * @throws MaxCountExceededException if the eigenpairs did not
+     * converge after the maximal number of restarts
+     */
+    public LanczosEigenDecomposition(final RealLinearOperator operator,
+                                     final int nev, final boolean largest,
+                                     final int ncv, final double tolerance,
+                                     final int maxRestarts, final RealVector start)
+        throws NonSquareOperatorException, NotStrictlyPositiveException,
+               NumberIsTooLargeException, NumberIsTooSmallException,
+               DimensionMismatchException, MaxCountExceededException {
+
+        n = operator.getRowDimension();
+        if (operator.getColumnDimension() != n) {
+            throw new NonSquareOperatorException(n, operator.getColumnDimension());
+        }
+        if (nev <= 0) {
+            throw new NotStrictlyPositiveException(nev);
+        }
+        if (nev > n) {
+            throw new NumberIsTooLargeException(nev, n, true);
+        }
+        if (ncv > n) {
+            throw new NumberIsTooLargeException(ncv, n, true);
+        }
+        if (ncv <= nev && ncv < n) {
+            throw new NumberIsTooSmallException(ncv, nev, false);
+        }
+        if (start != null && start.getDimension() != n) {
+            throw new DimensionMismatchException(start.getDimension(), n);
+        }
+
+        final RandomGenerator random = new Well19937c(SEED);
+
+        // Krylov basis and projected operator
+        final double[][] v = new double[ncv + 1][];
+        final double[][] t = new double[ncv][ncv];
+        v[0] = (start == null) ? randomVector(random) : start.toArray();
+        if (!normalize(v[0])) {
+            // null start vector
+            v[0] = randomVector(random);
+            normalize(v[0]);
+        }
+
+        final int nKept = FastMath.min(nev + (ncv - nev) / 2, ncv - 1);
+        int kept        = 0;
+        double scale    = 0;
+        double[] values = null;
+        double[][] vectors = null;
+        restarts        = 0;
+        operations      = 0;
+        while (values == null) {
+
+            // extend the Lanczos factorization up to ncv vectors
+            double beta = 0;
+            for (int j = kept; j < ncv; ++j) {
+                final double[] w = operator.operate(new ArrayRealVector(v[j], false)).toArray();
+                ++operations;
+
+                // full reorthogonalization, two passes of classical Gram-Schmidt
+                double alpha = 0;
+                for (int pass = 0; pass < 2; ++pass) {
+                    for (int i = 0; i <= j; ++i) {
+                        final double h = dot(v[i], w);
+                        axpy(-h, v[i], w);
+                        if (i == j) {
+                            alpha += h;
+                        }
+                    }
+                }
+                t[j][j] = alpha;
+
+                beta  = FastMath.sqrt(dot(w, w));
+                scale = FastMath.max(scale, FastMath.max(FastMath.abs(alpha), beta));
+                if (beta <= Precision.EPSILON * scale || beta < Precision.SAFE_MIN) {
+                    // invariant subspace found, continue with an orthogonal random vector
+                    beta = 0;
+                    if (j + 1 < ncv) {
+                        do {
+                            final double[] r = randomVector(random);
+                            for (int pass = 0; pass < 2; ++pass) {
+                                for (int i = 0; i <= j; ++i) {
+                                    axpy(-dot(v[i], r), v[i], r);
+                                }
+                            }
+                            System.arraycopy(r, 0, w, 0, n);
+                        } while (!normalize(w));
+                    }
+                } else {
+                    for (int i = 0; i < n; ++i) {
+                        w[i] /= beta;
+                    }
+                }
+                v[j + 1] = w;
+                if (j + 1 < ncv) {
+                    t[j][j + 1] = beta;
+                    t[j + 1][j] = beta;
+                }
+            }
+
+            // Ritz pairs, sorted in wanted order
+            final EigenDecomposition projected = new EigenDecomposition(new Array2DRowRealMatrix(t, false));
+            final double[] theta = projected.getRealEigenvalues();
+            final int[] order = sortedIndices(theta, largest);
+            double normEstimate = 0;
+            for (final double th : theta) {
+                normEstimate = FastMath.max(normEstimate, FastMath.abs(th));
+            }
+
+            // check convergence of the wanted Ritz pairs
+            final double[][] y = new double[ncv][];
+            boolean converged = true;
+            for (int i = 0; i < ncv; ++i) {
+                y[i] = projected.getEigenvector(order[i]).toArray();
+                if (i < nev &&
+                    FastMath.abs(beta * y[i][ncv - 1]) > tolerance * normEstimate) {
+                    converged = false;
+                }
+            }
+
+            if (converged || ncv == n) {
+                values  = new double[nev];
+                vectors = new double[nev][];
+                for (int i = 0; i < nev; ++i) {
+                    values[i]  = theta[order[i]];
+                    vectors[i] = combine(v, y[i], ncv);
+                }
+                break;
+            }
+
+            if (++restarts > maxRestarts) {
+                throw new MaxCountExceededException(maxRestarts);
+            }
+
+            // thick restart: keep the best Ritz vectors and the residual direction
+            final double[][] kept0 = new double[nKept][];
+            for (int i = 0; i < nKept; ++i) {
+                kept0[i] = combine(v, y[i], ncv);
+            }
+            final double[] residual = v[ncv];
+            for (final double[] row : t) {
+                Arrays.fill(row, 0.0);
+            }
+            for (int i = 0; i < nKept; ++i) {
+                v[i]          = kept0[i];
+                t[i][i]       = theta[order[i]];
+                t[i][nKept]   = beta * y[i][ncv - 1];
+                t[nKept][i]   = t[i][nKept];
+            }
+            v[nKept] = residual;
+            kept     = nKept;
+
+        }
+
+        eigenvalues  = values;
+        eigenvectors = vectors;
+
+    }
+
+    /**
+     * Create a pseudo-random vector.
+     * @param random generator to use
+     * @return a new vector with elements uniformly distributed in [-1, 1]
+     */
+    private double[] randomVector(final RandomGenerator random) {
+        final double[] r = new double[n];
+        for (int i = 0; i < n; ++i) {
+            r[i] = 2 * random.nextDouble() - 1;
+        }
+        return r;
+    }
+
+    /**
+     * Normalize a vector in place.
+     * @param x vector to normalize
+     * @return false if the vector was too small to be normalized
+     */
+    private static boolean normalize(final double[] x) {
+        final double norm = FastMath.sqrt(dot(x, x));
+        if (norm < Precision.SAFE_MIN) {
+            return false;
+        }
+        for (int i = 0; i < x.length; ++i) {
+            x[i] /= norm;
+        }
+        return true;
+    }
+
+    /**
+     * Compute a dot product.
+     * @param x first vector
+     * @param y second vector
+     * @return x<sup>T</sup>y
+     */
+    private static double dot(final double[] x, final double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; ++i) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Compute y &larr; y + a x.
+     * @param a scalar factor
+     * @param x vector to add
+     * @param y vector to update in place
+     */
+    private static void axpy(final double a, final double[] x, final double[] y) {
+        for (int i = 0; i < x.length; ++i) {
+            y[i] += a * x[i];
+        }
+    }
+
+    /**
+     * Compute a linear combination of basis vectors.
+     * @param v basis vectors
+     * @param c coefficients
+     * @param count number of basis vectors to use
+     * @return &sum; c<sub>i</sub> v<sub>i</sub>
+     */
+    private double[] combine(final double[][] v, final double[] c, final int count) {
+        final double[] x = new double[n];
+        for (int i = 0; i < count; ++i) {
+            axpy(c[i], v[i], x);
+        }
+        return x;
+    }
+
+    /**
+     * Sort eigenvalues indices.
+     * @param theta eigenvalues
+     * @param decreasing if true, sort in decreasing order
+     * @return indices of eigenvalues, in sorted order
+     */
+    private static int[] sortedIndices(final double[] theta, final boolean decreasing) {
+        final int[] order = new int[theta.length];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        // insertion sort, the projected problem is small
+        for (int i = 1; i < order.length; ++i) {
+            final int current = order[i];
+            int j = i - 1;
+            while (j >= 0 && (decreasing ? theta[order[j]] < theta[current]
+                                         : theta[order[j]] > theta[current])) {
+                order[j + 1] = order[j];
+                --j;
+            }
+            order[j + 1] = current;
+        }
+        return order;
+    }
+
+    /**
+     * Gets a copy of the computed eigenvalues.
+     * <p>The eigenvalues are sorted in decreasing order if the largest
+     * eigenvalues were requested, and in increasing order otherwise.</p>
+     * @return a copy of the computed eigenvalues
+     */
+    public double[] getRealEigenvalues() {
+        return eigenvalues.clone();
+    }
+
+    /**
+     * Returns the i<sup>th</sup> computed eigenvalue.
+     * @param i index of the eigenvalue (counting from 0)
+     * @return the i<sup>th</sup> computed eigenvalue
+     * @throws OutOfRangeException if the index is out of range
+     * @see #getRealEigenvalues()
+     */
+    public double getRealEigenvalue(final int i) throws OutOfRangeException {
+        checkIndex(i);
+        return eigenvalues[i];
+    }
+
+    /**
+     * Gets the i<sup>th</sup> computed eigenvector.
+     * <p>The eigenvector has unit norm.</p>
+     * @param i index of the eigenvector (counting from 0)
+     * @return a copy of the i<sup>th</sup> eigenvector
+     * @throws OutOfRangeException if the index is out of range
+     * @see #getRealEigenvalue(int)
+     */
+    public RealVector getEigenvector(final int i) throws OutOfRangeException {
+        checkIndex(i);
+        return new ArrayRealVector(eigenvectors[i], true);
+    }
+
+    /**
+     * Returns the number of restarts performed.
+     * @return number of restarts
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Returns the number of applications of the operator performed.
+     * @return number of operator applications
+     */
+    public int getOperatorApplications() {
+        return operations;
+    }
+
+    /**
+     * Check an eigenpair index.
+     * @param i index to check
+     * @throws OutOfRangeException if the index is out of range
+     */
+    private void checkIndex(final int i) throws OutOfRangeException {
+        if (i < 0 || i >= eigenvalues.length) {
+            throw new OutOfRangeException(i, 0, eigenvalues.length - 1);
+        }
+    }
+
+}
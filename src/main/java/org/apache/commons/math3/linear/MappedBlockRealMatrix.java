@@ -0,0 +1,614 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Implementation of RealMatrix storing its entries in a memory-mapped file.
+ * <p>
+ * This implementation allows to handle matrices larger than the Java heap,
+ * or even larger than the physical memory, as the operating system pages
+ * the file in and out as needed. The entries are stored in the same blocks
+ * layout as {@link BlockRealMatrix} (see {@link BlockRealMatrix#toBlocksLayout(double[][])}),
+ * with {@link BlockRealMatrix#BLOCK_SIZE} x {@link BlockRealMatrix#BLOCK_SIZE}
+ * blocks stored one after the other in row major order, as little-endian
+ * doubles. Each row of blocks is mapped separately, so the number of entries
+ * is not limited by the size of Java arrays, but the number of columns is
+ * limited to {@link #MAX_COLUMNS}.
+ * </p>
+ * <p>
+ * The operations which can run on data larger than memory read the file
+ * sequentially, one block at a time: {@link #operate(double[]) operate},
+ * {@link #preMultiply(double[]) preMultiply}, {@link
+ * #transposeMultiply(RealMatrix) transposeMultiply} and the {@link
+ * #walkInOptimizedOrder(RealMatrixChangingVisitor) optimized order walks}.
+ * A least squares problem A x = b with too many rows to fit in memory can
+ * therefore be solved using the normal equations, as A<sup>T</sup>A (computed
+ * by {@link #transposeMultiply(RealMatrix) transposeMultiply(this)}) and
+ * A<sup>T</sup>b only have as many rows as A has columns.
+ * </p>
+ * <p>
+ * The matrices created by the other operations (including {@link #copy()})
+ * are regular {@link BlockRealMatrix} instances on the heap.
+ * </p>
+ * <p>
+ * Changes are written back to the file by the operating system at its own
+ * pace, {@link #force()} must be called to ensure they are actually stored.
+ * The file itself is closed as soon as it has been mapped, the mapping
+ * remaining valid until the matrix is garbage collected.
+ * </p>
+ *
+ * @see BlockRealMatrix
+ * @version $Id$
+ * @since 3.3
+ */
+public class MappedBlockRealMatrix extends AbstractRealMatrix {
+
+    /** Maximal number of columns (each row of blocks being mapped separately). */
+    public static final int MAX_COLUMNS = Integer.MAX_VALUE / (8 * BlockRealMatrix.BLOCK_SIZE);
+
+    /** Block size. */
+    private static final int BLOCK_SIZE = BlockRealMatrix.BLOCK_SIZE;
+
+    /** Mapped rows of blocks. */
+    private final MappedByteBuffer[] mapped;
+
+    /** Entries of the rows of blocks. */
+    private final DoubleBuffer[] blockRowsData;
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Number of block rows of the matrix. */
+    private final int blockRows;
+
+    /** Number of block columns of the matrix. */
+    private final int blockColumns;
+
+    /**
+     * Map a matrix to a file.
+     * <p>
+     * In {@link FileChannel.MapMode#READ_ONLY READ_ONLY} mode, the file must
+     * already contain the matrix and the mutators will throw {@code
+     * java.nio.ReadOnlyBufferException}. In {@link FileChannel.MapMode#READ_WRITE
+     * READ_WRITE} mode, the file is created or extended as needed (new entries
+     * being set to 0). In {@link FileChannel.MapMode#PRIVATE PRIVATE} mode,
+     * the file must already contain the matrix, and changes are not written
+     * back to it.
+     * </p>
+     *
+     * @param file file containing the matrix entries
+     * @param rows number of rows of the matrix
+     * @param columns number of columns of the matrix
+     * @param mode mapping mode
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     * @throws NumberIsTooLargeException if the number of columns is larger
+     * than {@link #MAX_COLUMNS}.
+     * @throws NumberIsTooSmallException if the file is too small to hold the
+     * matrix and the mode is not {@link FileChannel.MapMode#READ_WRITE READ_WRITE}.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public MappedBlockRealMatrix(final File file, final int rows, final int columns,
+                                 final FileChannel.MapMode mode)
+        throws NotStrictlyPositiveException, NumberIsTooLargeException,
+               NumberIsTooSmallException, IOException {
+        this(file, 0l, rows, columns, mode);
+    }
+
+    /**
+     * Map a matrix to a part of a file.
+     * <p>
+     * This constructor is similar to {@link #MappedBlockRealMatrix(File, int,
+     * int, FileChannel.MapMode)}, except that the entries start at the given
+     * position in the file instead of at its beginning. This allows for
+     * example to map the payload of a file written by {@link
+     * RealMatrixBinaryFormat} without copying it.
+     * </p>
+     *
+     * @param file file containing the matrix entries
+     * @param offset position of the first entry in the file, in bytes
+     * @param rows number of rows of the matrix
+     * @param columns number of columns of the matrix
+     * @param mode mapping mode
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     * @throws NumberIsTooLargeException if the number of columns is larger
+     * than {@link #MAX_COLUMNS}.
+     * @throws NumberIsTooSmallException if the file is too small to hold the
+     * matrix and the mode is not {@link FileChannel.MapMode#READ_WRITE READ_WRITE}.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public MappedBlockRealMatrix(final File file, final long offset,
+                                 final int rows, final int columns,
+                                 final FileChannel.MapMode mode)
+        throws NotStrictlyPositiveException, NumberIsTooLargeException,
+               NumberIsTooSmallException, IOException {
+        super(rows, columns);
+        if (columns > MAX_COLUMNS) {
+            throw new NumberIsTooLargeException(columns, MAX_COLUMNS, true);
+        }
+        this.rows    = rows;
+        this.columns = columns;
+
+        blockRows    = (rows    + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blockColumns = (columns + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        final long size = offset + 8l * rows * columns;
+        final RandomAccessFile raf =
+            new RandomAccessFile(file, (mode == FileChannel.MapMode.READ_ONLY) ? "r" : "rw");
+        try {
+            final FileChannel channel = raf.getChannel();
+            if (channel.size() < size) {
+                if (mode != FileChannel.MapMode.READ_WRITE) {
+                    throw new NumberIsTooSmallException(channel.size(), size, true);
+                }
+                raf.setLength(size);
+            }
+
+            mapped        = new MappedByteBuffer[blockRows];
+            blockRowsData = new DoubleBuffer[blockRows];
+            for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                final long start = offset + 8l * iBlock * BLOCK_SIZE * columns;
+                mapped[iBlock] = channel.map(mode, start, 8l * blockHeight(iBlock) * columns);
+                mapped[iBlock].order(ByteOrder.LITTLE_ENDIAN);
+                blockRowsData[iBlock] = mapped[iBlock].asDoubleBuffer();
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Force the changes to be written to the storage device.
+     * <p>
+     * This method does nothing in {@link FileChannel.MapMode#READ_ONLY
+     * READ_ONLY} and {@link FileChannel.MapMode#PRIVATE PRIVATE} modes.
+     * </p>
+     */
+    public void force() {
+        for (final MappedByteBuffer buffer : mapped) {
+            if (!buffer.isReadOnly()) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The created matrix is a {@link BlockRealMatrix} on the heap.</p>
+     */
+    @Override
+    public BlockRealMatrix createMatrix(final int rowDimension,
+                                        final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new BlockRealMatrix(rowDimension, columnDimension);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The copy is a {@link BlockRealMatrix} on the heap.</p>
+     */
+    @Override
+    public BlockRealMatrix copy() {
+        final double[][] blocks = BlockRealMatrix.createBlocksLayout(rows, columns);
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                readBlock(iBlock, jBlock, blocks[blockIndex++]);
+            }
+        }
+        return new BlockRealMatrix(rows, columns, blocks, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        return blockRowsData[row / BLOCK_SIZE].get(index(row, column));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        blockRowsData[row / BLOCK_SIZE].put(index(row, column), value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column,
+                           final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final DoubleBuffer data = blockRowsData[row / BLOCK_SIZE];
+        final int k = index(row, column);
+        data.put(k, data.get(k) + increment);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column,
+                              final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        final DoubleBuffer data = blockRowsData[row / BLOCK_SIZE];
+        final int k = index(row, column);
+        data.put(k, data.get(k) * factor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+        final double[] out = new double[rows];
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+
+        // read the file sequentially, one block at a time
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                readBlock(iBlock, jBlock, block);
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    double sum = 0;
+                    int q = qStart;
+                    while (q < qEnd - 3) {
+                        sum += block[k]     * v[q]     +
+                               block[k + 1] * v[q + 1] +
+                               block[k + 2] * v[q + 2] +
+                               block[k + 3] * v[q + 3];
+                        k += 4;
+                        q += 4;
+                    }
+                    while (q < qEnd) {
+                        sum += block[k++] * v[q++];
+                    }
+                    out[p] += sum;
+                }
+            }
+        }
+
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != rows) {
+            throw new DimensionMismatchException(v.length, rows);
+        }
+        final double[] out = new double[columns];
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+
+        // read the file sequentially, one block at a time
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                readBlock(iBlock, jBlock, block);
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    final double vP = v[p];
+                    for (int q = qStart; q < qEnd; ++q) {
+                        out[q] += block[k++] * vP;
+                    }
+                }
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Returns the result of postmultiplying the transpose of this by {@code m}.
+     * <p>
+     * The file is read sequentially, one row of blocks at a time, and only
+     * the rows of {@code m} corresponding to the current row of blocks are
+     * retrieved. If {@code m} is this matrix, the symmetric product
+     * A<sup>T</sup>A is computed and returned as a {@link SymmetricRealMatrix}.
+     * </p>
+     *
+     * @param m matrix to postmultiply by
+     * @return this<sup>T</sup> * m
+     * @throws DimensionMismatchException if the row dimension of {@code m}
+     * does not match the row dimension of this matrix.
+     */
+    public RealMatrix transposeMultiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m.getRowDimension() != rows) {
+            throw new DimensionMismatchException(m.getRowDimension(), rows);
+        }
+
+        final double[] rowsData = new double[BLOCK_SIZE * columns];
+        if (m == this) {
+            final SymmetricRealMatrix out = new SymmetricRealMatrix(columns);
+            final double[] packed = out.getDataRef();
+            for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+                final int height = readBlockRow(iBlock, rowsData);
+                for (int p = 0; p < height; ++p) {
+                    final int offset = p * columns;
+                    int k = 0;
+                    for (int j = 0; j < columns; ++j) {
+                        final double aPJ = rowsData[offset + j];
+                        if (aPJ == 0) {
+                            k += j + 1;
+                        } else {
+                            for (int i = 0; i <= j; ++i) {
+                                packed[k++] += rowsData[offset + i] * aPJ;
+                            }
+                        }
+                    }
+                }
+            }
+            return out;
+        }
+
+        final int nCols = m.getColumnDimension();
+        final double[][] out = new double[columns][nCols];
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int height = readBlockRow(iBlock, rowsData);
+            for (int p = 0; p < height; ++p) {
+                final double[] mRow = m.getRow(iBlock * BLOCK_SIZE + p);
+                final int offset = p * columns;
+                for (int j = 0; j < columns; ++j) {
+                    final double aPJ = rowsData[offset + j];
+                    if (aPJ != 0) {
+                        final double[] outJ = out[j];
+                        for (int c = 0; c < nCols; ++c) {
+                            outJ[c] += aPJ * mRow[c];
+                        }
+                    }
+                }
+            }
+        }
+        return new BlockRealMatrix(out);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixChangingVisitor visitor) {
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                readBlock(iBlock, jBlock, block);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        block[k] = visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+                writeBlock(iBlock, jBlock, block);
+            }
+        }
+        return visitor.end();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixPreservingVisitor visitor) {
+        visitor.start(rows, columns, 0, rows - 1, 0, columns - 1);
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            final int pStart = iBlock * BLOCK_SIZE;
+            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final int qStart = jBlock * BLOCK_SIZE;
+                final int qEnd = FastMath.min(qStart + BLOCK_SIZE, columns);
+                readBlock(iBlock, jBlock, block);
+                int k = 0;
+                for (int p = pStart; p < pEnd; ++p) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+            }
+        }
+        return visitor.end();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixChangingVisitor visitor,
+                                       final int startRow, final int endRow,
+                                       final int startColumn,
+                                       final int endColumn)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        MatrixUtils.checkSubMatrixIndex(this, startRow, endRow, startColumn, endColumn);
+        visitor.start(rows, columns, startRow, endRow, startColumn, endColumn);
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+        for (int iBlock = startRow / BLOCK_SIZE; iBlock < 1 + endRow / BLOCK_SIZE; ++iBlock) {
+            final int p0 = iBlock * BLOCK_SIZE;
+            final int pStart = FastMath.max(startRow, p0);
+            final int pEnd = FastMath.min((iBlock + 1) * BLOCK_SIZE, 1 + endRow);
+            for (int jBlock = startColumn / BLOCK_SIZE; jBlock < 1 + endColumn / BLOCK_SIZE; ++jBlock) {
+                final int jWidth = blockWidth(jBlock);
+                final int q0 = jBlock * BLOCK_SIZE;
+                final int qStart = FastMath.max(startColumn, q0);
+                final int qEnd = FastMath.min((jBlock + 1) * BLOCK_SIZE, 1 + endColumn);
+                readBlock(iBlock, jBlock, block);
+                for (int p = pStart; p < pEnd; ++p) {
+                    int k = (p - p0) * jWidth + qStart - q0;
+                    for (int q = qStart; q < qEnd; ++q) {
+                        block[k] = visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+                writeBlock(iBlock, jBlock, block);
+            }
+        }
+        return visitor.end();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixPreservingVisitor visitor,
+                                       final int startRow, final int endRow,
+                                       final int startColumn,
+                                       final int endColumn)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        MatrixUtils.checkSubMatrixIndex(this, startRow, endRow, startColumn, endColumn);
+        visitor.start(rows, columns, startRow, endRow, startColumn, endColumn);
+        final double[] block = new double[BLOCK_SIZE * BLOCK_SIZE];
+        for (int iBlock = startRow / BLOCK_SIZE; iBlock < 1 + endRow / BLOCK_SIZE; ++iBlock) {
+            final int p0 = iBlock * BLOCK_SIZE;
+            final int pStart = FastMath.max(startRow, p0);
+            final int pEnd = FastMath.min((iBlock + 1) * BLOCK_SIZE, 1 + endRow);
+            for (int jBlock = startColumn / BLOCK_SIZE; jBlock < 1 + endColumn / BLOCK_SIZE; ++jBlock) {
+                final int jWidth = blockWidth(jBlock);
+                final int q0 = jBlock * BLOCK_SIZE;
+                final int qStart = FastMath.max(startColumn, q0);
+                final int qEnd = FastMath.min((jBlock + 1) * BLOCK_SIZE, 1 + endColumn);
+                readBlock(iBlock, jBlock, block);
+                for (int p = pStart; p < pEnd; ++p) {
+                    int k = (p - p0) * jWidth + qStart - q0;
+                    for (int q = qStart; q < qEnd; ++q) {
+                        visitor.visit(p, q, block[k]);
+                        ++k;
+                    }
+                }
+            }
+        }
+        return visitor.end();
+    }
+
+    /**
+     * Get the index of an entry in the buffer of its row of blocks.
+     * @param row row index of the entry
+     * @param column column index of the entry
+     * @return index of the entry
+     */
+    private int index(final int row, final int column) {
+        final int iBlock = row / BLOCK_SIZE;
+        final int jBlock = column / BLOCK_SIZE;
+        return blockHeight(iBlock) * jBlock * BLOCK_SIZE +
+               (row - iBlock * BLOCK_SIZE) * blockWidth(jBlock) +
+               (column - jBlock * BLOCK_SIZE);
+    }
+
+    /**
+     * Read one block.
+     * @param iBlock row index (in block sense) of the block
+     * @param jBlock column index (in block sense) of the block
+     * @param block placeholder for the block entries, in row major order
+     */
+    private void readBlock(final int iBlock, final int jBlock, final double[] block) {
+        final int height = blockHeight(iBlock);
+        final DoubleBuffer data = blockRowsData[iBlock].duplicate();
+        data.position(height * jBlock * BLOCK_SIZE);
+        data.get(block, 0, height * blockWidth(jBlock));
+    }
+
+    /**
+     * Write one block.
+     * @param iBlock row index (in block sense) of the block
+     * @param jBlock column index (in block sense) of the block
+     * @param block block entries, in row major order
+     */
+    private void writeBlock(final int iBlock, final int jBlock, final double[] block) {
+        final int height = blockHeight(iBlock);
+        final DoubleBuffer data = blockRowsData[iBlock].duplicate();
+        data.position(height * jBlock * BLOCK_SIZE);
+        data.put(block, 0, height * blockWidth(jBlock));
+    }
+
+    /**
+     * Read one row of blocks, in raw layout.
+     * @param iBlock row index (in block sense) of the row of blocks
+     * @param rowsData placeholder for the rows, each one being
+     * {@code columns} long
+     * @return number of rows read
+     */
+    private int readBlockRow(final int iBlock, final double[] rowsData) {
+        final int height = blockHeight(iBlock);
+        final DoubleBuffer data = blockRowsData[iBlock].duplicate();
+        data.rewind();
+        for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+            final int width = blockWidth(jBlock);
+            for (int p = 0; p < height; ++p) {
+                data.get(rowsData, p * columns + jBlock * BLOCK_SIZE, width);
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Get the height of a block.
+     * @param blockRow row index (in block sense) of the block
+     * @return height (number of rows) of the block
+     */
+    private int blockHeight(final int blockRow) {
+        return (blockRow == blockRows - 1) ? rows - blockRow * BLOCK_SIZE : BLOCK_SIZE;
+    }
+
+    /**
+     * Get the width of a block.
+     * @param blockColumn column index (in block sense) of the block
+     * @return width (number of columns) of the block
+     */
+    private int blockWidth(final int blockColumn) {
+        return (blockColumn == blockColumns - 1) ? columns - blockColumn * BLOCK_SIZE : BLOCK_SIZE;
+    }
+
+}
@@ -27,6 +27,7 @@ import org.apache.commons.math3.FieldElement;
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.MathArithmeticException;
 import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.NotPositiveException;
 import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.commons.math3.exception.OutOfRangeException;
@@ -58,6 +59,9 @@ public class MatrixUtils {
      */
     public static final RealMatrixFormat OCTAVE_FORMAT = new RealMatrixFormat("[", "]", "", "", "; ", ", ");
 
+    /** Relative singularity threshold for the fixed-size matrices. */
+    private static final double SMALL_MATRIX_SINGULARITY_THRESHOLD = 1e-11;
+
     /**
      * Private constructor.
      */
@@ -396,6 +400,10 @@ public class MatrixUtils {
                 return false;
             }
         }
+        if (matrix instanceof SymmetricRealMatrix) {
+            // symmetric by construction
+            return true;
+        }
         for (int i = 0; i < rows; i++) {
             for (int j = i + 1; j < rows; j++) {
                 final double mij = matrix.getEntry(i, j);
@@ -610,6 +618,68 @@ public class MatrixUtils {
         }
     }
 
+    /**
+     * Check that a flat array can hold a batch of packed elements.
+     *
+     * @param array Array holding the batch.
+     * @param offset Index of the first entry of the first element.
+     * @param stride Number of entries per element.
+     * @param count Number of elements in the batch.
+     * @throws NotPositiveException if {@code offset} or {@code count} is negative.
+     * @throws NumberIsTooSmallException if the array is too short.
+     */
+    static void checkBatchLength(final double[] array, final int offset,
+                                 final int stride, final int count)
+        throws NotPositiveException, NumberIsTooSmallException {
+        if (offset < 0) {
+            throw new NotPositiveException(LocalizedFormats.INDEX, offset);
+        }
+        if (count < 0) {
+            throw new NotPositiveException(LocalizedFormats.NUMBER_OF_ELEMENTS_SHOULD_BE_POSITIVE, count);
+        }
+        final long required = offset + ((long) stride) * count;
+        if (array.length < required) {
+            throw new NumberIsTooSmallException(array.length, required, true);
+        }
+    }
+
+    /**
+     * Check that a small square matrix packed in a flat array is not singular.
+     * <p>
+     * The matrix is considered singular if the absolute value of its
+     * determinant is at most 10<sup>-11</sup> times the product of the
+     * Euclidean norms of its rows. By Hadamard's inequality this product is
+     * an upper bound of the determinant, so the ratio lies between 0 and 1,
+     * and as scaling a row scales both the determinant and the bound, the
+     * test does not depend on the scales of the rows.
+     * </p>
+     *
+     * @param m Array holding the matrix, in row-major order.
+     * @param offset Index of the first entry of the matrix.
+     * @param dimension Number of rows and columns of the matrix.
+     * @param det Determinant of the matrix.
+     * @throws SingularMatrixException if the matrix is singular.
+     */
+    static void checkNonSingular(final double[] m, final int offset,
+                                 final int dimension, final double det)
+        throws SingularMatrixException {
+        // divide by one row norm at a time to avoid overflow and underflow
+        double ratio = FastMath.abs(det);
+        for (int i = offset; i < offset + dimension * dimension; i += dimension) {
+            double norm2 = 0;
+            for (int j = 0; j < dimension; ++j) {
+                norm2 += m[i + j] * m[i + j];
+            }
+            if (norm2 == 0) {
+                throw new SingularMatrixException();
+            }
+            ratio /= FastMath.sqrt(norm2);
+        }
+        if (!(ratio > SMALL_MATRIX_SINGULARITY_THRESHOLD)) {
+            throw new SingularMatrixException();
+        }
+    }
+
     /**
      * Convert a {@link FieldMatrix}/{@link Fraction} matrix to a {@link RealMatrix}.
      * @param m Matrix to convert.
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Approximate minimum degree ordering of a symmetric sparsity pattern.
+ * <p>
+ * This is the elimination on the quotient graph described by P. R. Amestoy,
+ * T. A. Davis and I. S. Duff in "An Approximate Minimum Degree Ordering
+ * Algorithm" (SIAM Journal on Matrix Analysis and Applications, 17(4), 1996).
+ * Eliminated variables become <em>elements</em>, which represent the cliques
+ * created by the elimination without storing them explicitly, so the graph
+ * never grows beyond its initial size. The degree of each variable is
+ * replaced by the approximate external degree bound of the paper, which can
+ * be computed in time proportional to the size of the quotient graph.
+ * Elements included in the new element are absorbed (including the aggressive
+ * absorption of elements that became subsets of it). Supervariable detection
+ * and mass elimination are not implemented.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+final class MinimumDegreeOrdering {
+
+    /** Status of a node that has not been eliminated yet. */
+    private static final byte VARIABLE = 0;
+
+    /** Status of an eliminated node representing a clique. */
+    private static final byte ELEMENT = 1;
+
+    /** Status of an element included in another element. */
+    private static final byte ABSORBED = 2;
+
+    /** Private constructor for utility class. */
+    private MinimumDegreeOrdering() {
+    }
+
+    /**
+     * Compute a fill-reducing ordering.
+     * <p>
+     * The pattern must be symmetric, given in compressed form (either row or
+     * column oriented). Diagonal entries are ignored.
+     * </p>
+     *
+     * @param n dimension of the matrix
+     * @param pointers index of the first entry of each slice
+     * @param indices minor indices of the entries
+     * @return elimination order: order[k] is the index of the k<sup>th</sup>
+     * eliminated variable
+     */
+    static int[] computeOrdering(final int n, final int[] pointers, final int[] indices) {
+
+        // quotient graph
+        final int[][] adjacent   = new int[n][];
+        final int[]   adjLength  = new int[n];
+        final int[][] elements   = new int[n][];
+        final int[]   elemLength = new int[n];
+        final int[][] members    = new int[n][];
+        final byte[]  status     = new byte[n];
+        for (int j = 0; j < n; ++j) {
+            int count = 0;
+            for (int q = pointers[j]; q < pointers[j + 1]; ++q) {
+                if (indices[q] != j) {
+                    ++count;
+                }
+            }
+            adjacent[j] = new int[count];
+            for (int q = pointers[j]; q < pointers[j + 1]; ++q) {
+                if (indices[q] != j) {
+                    adjacent[j][adjLength[j]++] = indices[q];
+                }
+            }
+            elements[j] = new int[4];
+        }
+
+        // degree lists
+        final int[] degree = new int[n];
+        final int[] head   = new int[n];
+        final int[] next   = new int[n];
+        final int[] prev   = new int[n];
+        for (int d = 0; d < n; ++d) {
+            head[d] = -1;
+        }
+        int minDegree = n;
+        for (int i = 0; i < n; ++i) {
+            degree[i] = adjLength[i];
+            insert(i, degree[i], head, next, prev);
+            minDegree = FastMath.min(minDegree, degree[i]);
+        }
+
+        final int[] order   = new int[n];
+        final int[] lp      = new int[n];
+        final int[] mark    = new int[n];
+        final int[] wMark   = new int[n];
+        final int[] w       = new int[n];
+        for (int k = 0; k < n; ++k) {
+
+            // select the pivot
+            while (head[minDegree] < 0) {
+                ++minDegree;
+            }
+            final int p = head[minDegree];
+            remove(p, degree[p], head, next, prev);
+            order[k]  = p;
+            status[p] = ELEMENT;
+
+            // build the new element from the variables adjacent to p,
+            // absorbing the elements adjacent to p
+            final int stamp = k + 1;
+            mark[p] = stamp;
+            int lpLength = 0;
+            final int[] adjP = adjacent[p];
+            for (int q = 0; q < adjLength[p]; ++q) {
+                final int v = adjP[q];
+                if (status[v] == VARIABLE && mark[v] != stamp) {
+                    mark[v] = stamp;
+                    lp[lpLength++] = v;
+                }
+            }
+            final int[] elemP = elements[p];
+            for (int q = 0; q < elemLength[p]; ++q) {
+                final int e = elemP[q];
+                if (status[e] == ELEMENT) {
+                    final int[] membersE = members[e];
+                    for (int r = 0; r < membersE.length; ++r) {
+                        final int v = membersE[r];
+                        if (status[v] == VARIABLE && mark[v] != stamp) {
+                            mark[v] = stamp;
+                            lp[lpLength++] = v;
+                        }
+                    }
+                    status[e]  = ABSORBED;
+                    members[e] = null;
+                }
+            }
+            members[p]  = new int[lpLength];
+            System.arraycopy(lp, 0, members[p], 0, lpLength);
+            adjacent[p] = null;
+            elements[p] = null;
+
+            // compute |Le \ Lp| for all elements e adjacent to the new element
+            for (int t = 0; t < lpLength; ++t) {
+                final int i = lp[t];
+                remove(i, degree[i], head, next, prev);
+                final int[] elemI = elements[i];
+                for (int q = 0; q < elemLength[i]; ++q) {
+                    final int e = elemI[q];
+                    if (status[e] == ELEMENT) {
+                        if (wMark[e] != stamp) {
+                            wMark[e] = stamp;
+                            w[e] = compact(e, members, status);
+                        }
+                        --w[e];
+                    }
+                }
+            }
+
+            // update the variables of the new element
+            final int remaining = n - k - 1;
+            for (int t = 0; t < lpLength; ++t) {
+                final int i = lp[t];
+
+                // prune the element list, using aggressive absorption
+                int[] elemI = elements[i];
+                int length = 0;
+                int external = 0;
+                for (int q = 0; q < elemLength[i]; ++q) {
+                    final int e = elemI[q];
+                    if (status[e] == ELEMENT) {
+                        if (w[e] == 0) {
+                            // Le is a subset of Lp
+                            status[e]  = ABSORBED;
+                            members[e] = null;
+                        } else {
+                            external += w[e];
+                            elemI[length++] = e;
+                        }
+                    }
+                }
+                if (length == elemI.length) {
+                    final int[] grown = new int[2 * length];
+                    System.arraycopy(elemI, 0, grown, 0, length);
+                    elements[i] = grown;
+                    elemI = grown;
+                }
+                elemI[length++] = p;
+                elemLength[i] = length;
+
+                // prune the variable list, as variables of Lp are now reached through p
+                final int[] adjI = adjacent[i];
+                length = 0;
+                for (int q = 0; q < adjLength[i]; ++q) {
+                    final int v = adjI[q];
+                    if (status[v] == VARIABLE && mark[v] != stamp) {
+                        adjI[length++] = v;
+                    }
+                }
+                adjLength[i] = length;
+
+                // approximate external degree
+                final int d = FastMath.min(remaining,
+                                           FastMath.min(degree[i] + lpLength - 1,
+                                                        length + lpLength - 1 + external));
+                degree[i] = d;
+                insert(i, d, head, next, prev);
+                minDegree = FastMath.min(minDegree, d);
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Remove eliminated variables from the members of an element.
+     *
+     * @param e element
+     * @param members members of all elements
+     * @param status status of all nodes
+     * @return number of remaining members
+     */
+    private static int compact(final int e, final int[][] members, final byte[] status) {
+        final int[] membersE = members[e];
+        int length = 0;
+        for (int r = 0; r < membersE.length; ++r) {
+            if (status[membersE[r]] == VARIABLE) {
+                membersE[length++] = membersE[r];
+            }
+        }
+        if (length < membersE.length) {
+            final int[] compacted = new int[length];
+            System.arraycopy(membersE, 0, compacted, 0, length);
+            members[e] = compacted;
+        }
+        return length;
+    }
+
+    /**
+     * Insert a variable in a degree list.
+     *
+     * @param i variable
+     * @param d degree of the variable
+     * @param head first variable of each degree list
+     * @param next next variable in the degree lists
+     * @param prev previous variable in the degree lists
+     */
+    private static void insert(final int i, final int d,
+                               final int[] head, final int[] next, final int[] prev) {
+        next[i] = head[d];
+        prev[i] = -1;
+        if (head[d] >= 0) {
+            prev[head[d]] = i;
+        }
+        head[d] = i;
+    }
+
+    /**
+     * Remove a variable from a degree list.
+     *
+     * @param i variable
+     * @param d degree of the variable
+     * @param head first variable of each degree list
+     * @param next next variable in the degree lists
+     * @param prev previous variable in the degree lists
+     */
+    private static void remove(final int i, final int d,
+                               final int[] head, final int[] next, final int[] prev) {
+        if (prev[i] >= 0) {
+            next[prev[i]] = next[i];
+        } else {
+            head[d] = next[i];
+        }
+        if (next[i] >= 0) {
+            prev[next[i]] = prev[i];
+        }
+    }
+
+}
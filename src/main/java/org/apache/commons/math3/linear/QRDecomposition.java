@@ -20,6 +20,9 @@ package org.apache.commons.math3.linear;
 import java.util.Arrays;
 
 import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.apache.commons.math3.util.FastMath;
 
 
@@ -41,6 +44,11 @@ import org.apache.commons.math3.util.FastMath;
  *   by a {@link #getSolver() getSolver} method and the equivalent methods
  *   provided by the returned {@link DecompositionSolver}.</li>
  * </ul>
+ * <p>The decomposition can be {@link #update(double[]) updated} when a row
+ * is appended to the decomposed matrix, and {@link #downdate(int) downdated}
+ * when a row is removed from it, using Givens rotations. As Q is then no
+ * longer a product of Householder reflectors, the first such modification
+ * forms Q explicitly.</p>
  *
  * @see <a href="http://mathworld.wolfram.com/QRDecomposition.html">MathWorld</a>
  * @see <a href="http://en.wikipedia.org/wiki/QR_decomposition">Wikipedia</a>
@@ -58,6 +66,12 @@ public class QRDecomposition {
     private double[][] qrt;
     /** The diagonal elements of R. */
     private double[] rDiag;
+    /**
+     * Explicit Q<sup>T</sup>, row by row, once the decomposition has been
+     * updated or downdated (null before). In this case the elements of
+     * {@link #qrt} on and below the diagonal are those of R<sup>T</sup>.
+     */
+    private double[][] qt;
     /** Cached value of Q. */
     private RealMatrix cachedQ;
     /** Cached value of QT. */
@@ -95,6 +109,7 @@ public class QRDecomposition {
         final int n = matrix.getColumnDimension();
         qrt = matrix.transpose().getData();
         rDiag = new double[FastMath.min(m, n)];
+        qt    = null;
         cachedQ  = null;
         cachedQT = null;
         cachedR  = null;
@@ -224,7 +239,9 @@ public class QRDecomposition {
      * @return the transpose of the Q matrix, Q<sup>T</sup>
      */
     public RealMatrix getQT() {
-        if (cachedQT == null) {
+        if (cachedQT == null && qt != null) {
+            cachedQT = MatrixUtils.createRealMatrix(qt);
+        } else if (cachedQT == null) {
 
             // QT is supposed to be m x m
             final int n = qrt.length;
@@ -269,10 +286,12 @@ public class QRDecomposition {
      * <p>H is a lower trapezoidal matrix whose columns represent
      * each successive Householder reflector vector. This matrix is used
      * to compute Q.</p>
-     * @return a matrix containing the Householder reflector vectors
+     * @return a matrix containing the Householder reflector vectors (or null
+     * if the decomposition has been updated or downdated, as Q is then
+     * stored explicitly)
      */
     public RealMatrix getH() {
-        if (cachedH == null) {
+        if (cachedH == null && qt == null) {
 
             final int n = qrt.length;
             final int m = qrt[0].length;
@@ -289,42 +308,192 @@ public class QRDecomposition {
         return cachedH;
     }
 
+    /**
+     * Updates the decomposition after a row has been appended to the
+     * decomposed matrix.
+     * <p>
+     * If the decomposed matrix A is m&times;n, the updated decomposition is
+     * the decomposition of the (m+1)&times;n matrix [A; v<sup>T</sup>]. R is
+     * updated by n Givens rotations, in O(n (m + n)) operations (plus
+     * O(m<sup>2</sup> n) operations for the first modification, which forms
+     * Q explicitly). Solvers previously returned by {@link #getSolver()} use
+     * the updated decomposition.
+     * </p>
+     *
+     * @param v row to append
+     * @throws DimensionMismatchException if the dimension of {@code v} does
+     * not match the column dimension of the decomposed matrix
+     * @since 3.3
+     */
+    public void update(final double[] v) throws DimensionMismatchException {
+        final int n = qrt.length;
+        final int m = qrt[0].length;
+        if (v.length != n) {
+            throw new DimensionMismatchException(v.length, n);
+        }
+        formExplicitQ();
+
+        // append the row to R^T and a unit row and column to Q^T
+        for (int col = 0; col < n; ++col) {
+            final double[] qrtCol = new double[m + 1];
+            System.arraycopy(qrt[col], 0, qrtCol, 0, m);
+            qrtCol[m] = v[col];
+            qrt[col]  = qrtCol;
+        }
+        final double[][] newQt = new double[m + 1][m + 1];
+        for (int i = 0; i < m; ++i) {
+            System.arraycopy(qt[i], 0, newQt[i], 0, m);
+        }
+        newQt[m][m] = 1;
+        qt = newQt;
+
+        // rotate rows k and m of R to zero the appended row
+        for (int k = 0; k < FastMath.min(m, n); ++k) {
+            applyGivens(k, m, qrt[k][k], qrt[k][m]);
+        }
+
+        resetDiagonal(m + 1, n);
+    }
+
+    /**
+     * Updates the decomposition after a row has been removed from the
+     * decomposed matrix.
+     * <p>
+     * If the decomposed matrix A is m&times;n, the downdated decomposition
+     * is the decomposition of the (m-1)&times;n matrix A with row {@code
+     * index} removed. Q and R are updated by m - 1 Givens rotations, in
+     * O(m (m + n)) operations (plus O(m<sup>2</sup> n) operations for the
+     * first modification, which forms Q explicitly). Solvers previously
+     * returned by {@link #getSolver()} use the downdated decomposition.
+     * </p>
+     *
+     * @param index index of the row to remove
+     * @throws OutOfRangeException if the index is not a valid row index
+     * @throws NoDataException if the decomposed matrix has only one row
+     * @since 3.3
+     */
+    public void downdate(final int index)
+        throws OutOfRangeException, NoDataException {
+        final int n = qrt.length;
+        final int m = qrt[0].length;
+        if (index < 0 || index >= m) {
+            throw new OutOfRangeException(LocalizedFormats.ROW_INDEX, index, 0, m - 1);
+        }
+        if (m < 2) {
+            throw new NoDataException(LocalizedFormats.AT_LEAST_ONE_ROW);
+        }
+        formExplicitQ();
+
+        // rotate rows of Q^T (from the bottom) to reduce row index of Q to e0
+        for (int i = m - 2; i >= 0; --i) {
+            applyGivens(i, i + 1, qt[i][index], qt[i + 1][index]);
+        }
+
+        // R is now upper Hessenberg, and its first row corresponds to
+        // the removed row: drop it, together with row index of Q
+        for (int col = 0; col < n; ++col) {
+            final double[] qrtCol = new double[m - 1];
+            System.arraycopy(qrt[col], 1, qrtCol, 0, m - 1);
+            qrt[col] = qrtCol;
+        }
+        final double[][] newQt = new double[m - 1][m - 1];
+        for (int i = 0; i < m - 1; ++i) {
+            final double[] qtI = qt[i + 1];
+            System.arraycopy(qtI, 0, newQt[i], 0, index);
+            System.arraycopy(qtI, index + 1, newQt[i], index, m - 1 - index);
+        }
+        qt = newQt;
+
+        resetDiagonal(m - 1, n);
+    }
+
+    /**
+     * Forms Q<sup>T</sup> explicitly and stores R<sup>T</sup> in place of
+     * the Householder vectors, if not already done.
+     */
+    private void formExplicitQ() {
+        if (qt == null) {
+            qt = getQT().getData();
+            for (int col = 0; col < qrt.length; ++col) {
+                final double[] qrtCol = qrt[col];
+                for (int row = col; row < qrtCol.length; ++row) {
+                    qrtCol[row] = (row == col) ? rDiag[col] : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a Givens rotation to two rows of R and the same two rows of
+     * Q<sup>T</sup>.
+     * <p>
+     * The rotation is chosen so that it maps (a, b) to (r, 0).
+     * </p>
+     *
+     * @param i index of the first row
+     * @param j index of the second row
+     * @param a first component of the vector defining the rotation
+     * @param b second component of the vector defining the rotation
+     */
+    private void applyGivens(final int i, final int j, final double a, final double b) {
+        if (b == 0) {
+            // nothing to do
+            return;
+        }
+        final double r = FastMath.hypot(a, b);
+        final double c = a / r;
+        final double s = b / r;
+
+        for (final double[] qrtCol : qrt) {
+            final double rI = qrtCol[i];
+            final double rJ = qrtCol[j];
+            qrtCol[i] = c * rI + s * rJ;
+            qrtCol[j] = c * rJ - s * rI;
+        }
+
+        final double[] qtI = qt[i];
+        final double[] qtJ = qt[j];
+        for (int k = 0; k < qtI.length; ++k) {
+            final double qI = qtI[k];
+            final double qJ = qtJ[k];
+            qtI[k] = c * qI + s * qJ;
+            qtJ[k] = c * qJ - s * qI;
+        }
+    }
+
+    /**
+     * Resets the diagonal of R and the cached matrices after a modification.
+     *
+     * @param m new row dimension
+     * @param n column dimension
+     */
+    private void resetDiagonal(final int m, final int n) {
+        rDiag = new double[FastMath.min(m, n)];
+        for (int k = 0; k < rDiag.length; ++k) {
+            rDiag[k] = qrt[k][k];
+        }
+        cachedQ  = null;
+        cachedQT = null;
+        cachedR  = null;
+        cachedH  = null;
+    }
+
     /**
      * Get a solver for finding the A &times; X = B solution in least square sense.
      * @return a solver
      */
     public DecompositionSolver getSolver() {
-        return new Solver(qrt, rDiag, threshold);
+        return new Solver();
     }
 
-    /** Specialized solver. */
-    private static class Solver implements DecompositionSolver {
-        /**
-         * A packed TRANSPOSED representation of the QR decomposition.
-         * <p>The elements BELOW the diagonal are the elements of the UPPER triangular
-         * matrix R, and the rows ABOVE the diagonal are the Householder reflector vectors
-         * from which an explicit form of Q can be recomputed if desired.</p>
-         */
-        private final double[][] qrt;
-        /** The diagonal elements of R. */
-        private final double[] rDiag;
-        /** Singularity threshold. */
-        private final double threshold;
-
-        /**
-         * Build a solver from decomposed matrix.
-         *
-         * @param qrt Packed TRANSPOSED representation of the QR decomposition.
-         * @param rDiag Diagonal elements of R.
-         * @param threshold Singularity threshold.
-         */
-        private Solver(final double[][] qrt,
-                       final double[] rDiag,
-                       final double threshold) {
-            this.qrt   = qrt;
-            this.rDiag = rDiag;
-            this.threshold = threshold;
-        }
+    /**
+     * Specialized solver.
+     * <p>
+     * The solver reads the current state of the decomposition, so that it
+     * remains usable after updates and downdates.
+     * </p>
+     */
+    private class Solver implements DecompositionSolver {
 
         /** {@inheritDoc} */
         public boolean isNonSingular() {
@@ -348,20 +517,36 @@ public class QRDecomposition {
             }
 
             final double[] x = new double[n];
-            final double[] y = b.toArray();
+            final double[] y;
+
+            if (qt != null) {
+                // y = Q^T.b
+                final double[] bArray = b.toArray();
+                y = new double[m];
+                for (int row = 0; row < m; row++) {
+                    final double[] qtRow = qt[row];
+                    double sum = 0;
+                    for (int k = 0; k < m; k++) {
+                        sum += qtRow[k] * bArray[k];
+                    }
+                    y[row] = sum;
+                }
+            } else {
+                y = b.toArray();
 
-            // apply Householder transforms to solve Q.y = b
-            for (int minor = 0; minor < FastMath.min(m, n); minor++) {
+                // apply Householder transforms to solve Q.y = b
+                for (int minor = 0; minor < FastMath.min(m, n); minor++) {
 
-                final double[] qrtMinor = qrt[minor];
-                double dotProduct = 0;
-                for (int row = minor; row < m; row++) {
-                    dotProduct += y[row] * qrtMinor[row];
-                }
-                dotProduct /= rDiag[minor] * qrtMinor[minor];
+                    final double[] qrtMinor = qrt[minor];
+                    double dotProduct = 0;
+                    for (int row = minor; row < m; row++) {
+                        dotProduct += y[row] * qrtMinor[row];
+                    }
+                    dotProduct /= rDiag[minor] * qrtMinor[minor];
 
-                for (int row = minor; row < m; row++) {
-                    y[row] += dotProduct * qrtMinor[row];
+                    for (int row = minor; row < m; row++) {
+                        y[row] += dotProduct * qrtMinor[row];
+                    }
                 }
             }
 
@@ -395,6 +580,7 @@ public class QRDecomposition {
             final int cBlocks        = (columns + blockSize - 1) / blockSize;
             final double[][] xBlocks = BlockRealMatrix.createBlocksLayout(n, columns);
             final double[][] y       = new double[b.getRowDimension()][blockSize];
+            final double[][] bBlock  = (qt == null) ? null : new double[m][blockSize];
             final double[]   alpha   = new double[blockSize];
 
             for (int kBlock = 0; kBlock < cBlocks; ++kBlock) {
@@ -403,30 +589,47 @@ public class QRDecomposition {
                 final int kWidth = kEnd - kStart;
 
                 // get the right hand side vector
-                b.copySubMatrix(0, m - 1, kStart, kEnd - 1, y);
-
-                // apply Householder transforms to solve Q.y = b
-                for (int minor = 0; minor < FastMath.min(m, n); minor++) {
-                    final double[] qrtMinor = qrt[minor];
-                    final double factor     = 1.0 / (rDiag[minor] * qrtMinor[minor]);
-
-                    Arrays.fill(alpha, 0, kWidth, 0.0);
-                    for (int row = minor; row < m; ++row) {
-                        final double   d    = qrtMinor[row];
-                        final double[] yRow = y[row];
-                        for (int k = 0; k < kWidth; ++k) {
-                            alpha[k] += d * yRow[k];
+                if (qt != null) {
+                    // y = Q^T.b
+                    b.copySubMatrix(0, m - 1, kStart, kEnd - 1, bBlock);
+                    for (int row = 0; row < m; ++row) {
+                        final double[] qtRow = qt[row];
+                        final double[] yRow  = y[row];
+                        Arrays.fill(yRow, 0, kWidth, 0.0);
+                        for (int l = 0; l < m; ++l) {
+                            final double   d    = qtRow[l];
+                            final double[] bRow = bBlock[l];
+                            for (int k = 0; k < kWidth; ++k) {
+                                yRow[k] += d * bRow[k];
+                            }
                         }
                     }
-                    for (int k = 0; k < kWidth; ++k) {
-                        alpha[k] *= factor;
-                    }
-
-                    for (int row = minor; row < m; ++row) {
-                        final double   d    = qrtMinor[row];
-                        final double[] yRow = y[row];
+                } else {
+                    b.copySubMatrix(0, m - 1, kStart, kEnd - 1, y);
+
+                    // apply Householder transforms to solve Q.y = b
+                    for (int minor = 0; minor < FastMath.min(m, n); minor++) {
+                        final double[] qrtMinor = qrt[minor];
+                        final double factor     = 1.0 / (rDiag[minor] * qrtMinor[minor]);
+
+                        Arrays.fill(alpha, 0, kWidth, 0.0);
+                        for (int row = minor; row < m; ++row) {
+                            final double   d    = qrtMinor[row];
+                            final double[] yRow = y[row];
+                            for (int k = 0; k < kWidth; ++k) {
+                                alpha[k] += d * yRow[k];
+                            }
+                        }
                         for (int k = 0; k < kWidth; ++k) {
-                            yRow[k] += alpha[k] * d;
+                            alpha[k] *= factor;
+                        }
+
+                        for (int row = minor; row < m; ++row) {
+                            final double   d    = qrtMinor[row];
+                            final double[] yRow = y[row];
+                            for (int k = 0; k < kWidth; ++k) {
+                                yRow[k] += alpha[k] * d;
+                            }
                         }
                     }
                 }
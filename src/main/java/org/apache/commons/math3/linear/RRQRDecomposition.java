@@ -17,6 +17,7 @@
 
 package org.apache.commons.math3.linear;
 
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.util.FastMath;
 
 
@@ -182,6 +183,26 @@ public class RRQRDecomposition extends QRDecomposition {
         return rank;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The pivoting is not changed: the row is permuted according to P
+     * before being appended to R.
+     * </p>
+     * @since 3.3
+     */
+    @Override
+    public void update(final double[] v) throws DimensionMismatchException {
+        if (v.length != p.length) {
+            throw new DimensionMismatchException(v.length, p.length);
+        }
+        final double[] permuted = new double[v.length];
+        for (int i = 0; i < permuted.length; i++) {
+            permuted[i] = v[p[i]];
+        }
+        super.update(permuted);
+    }
+
     /**
      * Get a solver for finding the A &times; X = B solution in least square sense.
      * @return a solver
@@ -0,0 +1,478 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.util.ConcurrencyUtils;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Computes a truncated singular value decomposition using random projections.
+ * <p>This class computes an approximation of the k largest singular triplets
+ * of an m&times;n operator A, without ever forming a dense copy of it, using
+ * the randomized range finder of Halko, Martinsson and Tropp:</p>
+ * <ol>
+ *   <li>draw an n&times;l Gaussian random matrix &Omega;, with l = k + p where
+ *   p is the oversampling,</li>
+ *   <li>compute an orthonormal basis Q of the range of A&Omega;, optionally
+ *   refined by q power iterations Q &larr; orth(A orth(A<sup>T</sup>Q)),</li>
+ *   <li>compute the singular value decomposition of the small l&times;n matrix
+ *   B = Q<sup>T</sup>A = &Ucirc;&Sigma;V<sup>T</sup>,</li>
+ *   <li>truncate to the first k triplets, with U = Q&Ucirc;.</li>
+ * </ol>
+ * <p>The operator is accessed only through products with tall and skinny
+ * matrices. If it is a dense {@link RealMatrix}, these products are computed
+ * by slices of rows. Otherwise they are computed column by column using
+ * {@link RealLinearOperator#operate(RealVector)} and either {@link
+ * RealMatrix#preMultiply(RealVector)} for compressed sparse matrices or
+ * {@link RealLinearOperator#operateTranspose(RealVector)}. If an {@link
+ * ExecutorService executor} is provided, the slices or columns are processed
+ * concurrently (the operator must then support concurrent calls). The result
+ * does not depend on the use of an executor.</p>
+ * <p>The approximation error is close to the (k+1)<sup>th</sup> singular value
+ * when the spectrum decays quickly. For slowly decaying spectra, a few power
+ * iterations improve accuracy significantly.</p>
+ *
+ * @see <a href="http://dx.doi.org/10.1137/090771806">Halko, Martinsson and Tropp,
+ * Finding structure with randomness: probabilistic algorithms for constructing
+ * approximate matrix decompositions, SIAM Review 53 (2011)</a>
+ * @see SingularValueDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class RandomizedSingularValueDecomposition {
+
+    /** Default oversampling. */
+    public static final int DEFAULT_OVERSAMPLING = 10;
+
+    /** Default number of power iterations. */
+    public static final int DEFAULT_POWER_ITERATIONS = 2;
+
+    /** Minimal number of rows in each slice of a dense matrix. */
+    private static final int MIN_SLICE_ROWS = 1024;
+
+    /** Maximal number of slices of a dense matrix. */
+    private static final int MAX_SLICES = 64;
+
+    /** Computed singular values, in decreasing order. */
+    private final double[] singularValues;
+
+    /** Left singular vectors (m&times;k). */
+    private final RealMatrix cachedU;
+
+    /** Right singular vectors (n&times;k). */
+    private final RealMatrix cachedV;
+
+    /**
+     * Computes a truncated singular value decomposition, using
+     * {@link #DEFAULT_OVERSAMPLING default oversampling}, {@link
+     * #DEFAULT_POWER_ITERATIONS default power iterations} and no executor.
+     *
+     * @param operator operator to decompose (for example any {@link AbstractRealMatrix})
+     * @param rank number of singular triplets to compute
+     * @param random generator for the random projection
+     * @throws NotStrictlyPositiveException if {@code rank} is not positive
+     * @throws NumberIsTooLargeException if {@code rank} is larger than
+     * one dimension of the operator
+     */
+    public RandomizedSingularValueDecomposition(final RealLinearOperator operator,
+                                                final int rank,
+                                                final RandomGenerator random)
+        throws NotStrictlyPositiveException, NumberIsTooLargeException {
+        this(operator, rank, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, random, null);
+    }
+
+    /**
+     * Computes a truncated singular value decomposition.
+     *
+     * @param operator operator to decompose (for example any {@link AbstractRealMatrix})
+     * @param rank number of singular triplets to compute
+     * @param oversampling number of additional random samples (the size of the
+     * random projection is reduced if it exceeds the operator dimensions)
+     * @param powerIterations number of power iterations
+     * @param random generator for the random projection
+     * @param executor executor in charge of the products with the operator
+     * (if null, all computation is done in the calling thread)
+     * @throws NotStrictlyPositiveException if {@code rank} is not positive
+     * @throws NotPositiveException if {@code oversampling} or {@code powerIterations}
+     * are negative
+     * @throws NumberIsTooLargeException if {@code rank} is larger than
+     * one dimension of the operator
+     * @throws UnsupportedOperationException if the operator is not a matrix and
+     * does not support {@link RealLinearOperator#operateTranspose(RealVector)
+     * transposed products}
+     */
+    public RandomizedSingularValueDecomposition(final RealLinearOperator operator,
+                                                final int rank,
+                                                final int oversampling,
+                                                final int powerIterations,
+                                                final RandomGenerator random,
+                                                final ExecutorService executor)
+        throws NotStrictlyPositiveException, NotPositiveException,
+               NumberIsTooLargeException, UnsupportedOperationException {
+
+        final int m = operator.getRowDimension();
+        final int n = operator.getColumnDimension();
+        if (rank <= 0) {
+            throw new NotStrictlyPositiveException(rank);
+        }
+        if (rank > FastMath.min(m, n)) {
+            throw new NumberIsTooLargeException(rank, FastMath.min(m, n), true);
+        }
+        if (oversampling < 0) {
+            throw new NotPositiveException(oversampling);
+        }
+        if (powerIterations < 0) {
+            throw new NotPositiveException(powerIterations);
+        }
+
+        final int l = FastMath.min(rank + oversampling, FastMath.min(m, n));
+        final Products products = createProducts(operator, executor);
+
+        // random projection
+        final double[][] omega = new double[n][l];
+        for (final double[] row : omega) {
+            for (int j = 0; j < l; ++j) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        double[][] q = orthonormalize(products.multiply(omega), l);
+
+        // power iterations
+        for (int i = 0; i < powerIterations; ++i) {
+            final double[][] z = orthonormalize(products.transposeMultiply(q), l);
+            q = orthonormalize(products.multiply(z), l);
+        }
+
+        // decompose the small matrix B = Q^T A, through its transpose
+        final SingularValueDecomposition svd =
+            new SingularValueDecomposition(new Array2DRowRealMatrix(products.transposeMultiply(q), false));
+        final double[] s     = svd.getSingularValues();
+        final RealMatrix uB  = svd.getV();
+        final RealMatrix vB  = svd.getU();
+
+        singularValues = new double[rank];
+        System.arraycopy(s, 0, singularValues, 0, rank);
+        cachedV = vB.getSubMatrix(0, n - 1, 0, rank - 1);
+
+        // U = Q Ub
+        final double[][] uB0 = uB.getSubMatrix(0, l - 1, 0, rank - 1).getData();
+        final double[][] u   = new double[m][rank];
+        for (int i = 0; i < m; ++i) {
+            final double[] qI = q[i];
+            final double[] uI = u[i];
+            for (int j = 0; j < l; ++j) {
+                final double qIJ = qI[j];
+                final double[] uBJ = uB0[j];
+                for (int c = 0; c < rank; ++c) {
+                    uI[c] += qIJ * uBJ[c];
+                }
+            }
+        }
+        cachedU = MatrixUtils.createRealMatrix(u);
+
+    }
+
+    /**
+     * Create the products handler adapted to an operator.
+     * @param operator operator to decompose
+     * @param executor executor (may be null)
+     * @return products handler
+     */
+    private static Products createProducts(final RealLinearOperator operator,
+                                           final ExecutorService executor) {
+        if (operator instanceof RealMatrix && !(operator instanceof AbstractCompressedRealMatrix)) {
+            return new DenseProducts((RealMatrix) operator, executor);
+        }
+        return new OperatorProducts(operator, executor);
+    }
+
+    /**
+     * Compute an orthonormal basis of the range of a tall matrix.
+     * @param rows matrix, by rows
+     * @param l number of columns
+     * @return orthonormal basis, by rows
+     */
+    private static double[][] orthonormalize(final double[][] rows, final int l) {
+
+        final int len = rows.length;
+        final double[][] columns = new double[l][len];
+        for (int i = 0; i < len; ++i) {
+            for (int j = 0; j < l; ++j) {
+                columns[j][i] = rows[i][j];
+            }
+        }
+
+        // apply the orthogonal factor to the first canonical vectors
+        final BlockQRDecomposition qr = new BlockQRDecomposition(columns, len, 0.0);
+        final double[][] basis = new double[l][len];
+        for (int j = 0; j < l; ++j) {
+            basis[j][j] = 1.0;
+        }
+        qr.applyQ(basis);
+
+        final double[][] q = new double[len][l];
+        for (int i = 0; i < len; ++i) {
+            for (int j = 0; j < l; ++j) {
+                q[i][j] = basis[j][i];
+            }
+        }
+        return q;
+
+    }
+
+    /**
+     * Returns the matrix U of the decomposition.
+     * <p>U is an m&times;k matrix with orthonormal columns, the left singular vectors.</p>
+     * @return the U matrix
+     */
+    public RealMatrix getU() {
+        return cachedU;
+    }
+
+    /**
+     * Returns the matrix S of the decomposition.
+     * <p>S is a k&times;k diagonal matrix of singular values.</p>
+     * @return the S matrix
+     */
+    public RealMatrix getS() {
+        return MatrixUtils.createRealDiagonalMatrix(singularValues);
+    }
+
+    /**
+     * Returns the computed singular values, in decreasing order.
+     * @return a copy of the singular values
+     */
+    public double[] getSingularValues() {
+        return singularValues.clone();
+    }
+
+    /**
+     * Returns the matrix V of the decomposition.
+     * <p>V is an n&times;k matrix with orthonormal columns, the right singular vectors.</p>
+     * @return the V matrix
+     */
+    public RealMatrix getV() {
+        return cachedV;
+    }
+
+    /** Products of the operator with tall and skinny matrices. */
+    private interface Products {
+
+        /**
+         * Compute A X.
+         * @param x n&times;l matrix, by rows
+         * @return m&times;l product, by rows
+         */
+        double[][] multiply(double[][] x);
+
+        /**
+         * Compute A<sup>T</sup> Y.
+         * @param y m&times;l matrix, by rows
+         * @return n&times;l product, by rows
+         */
+        double[][] transposeMultiply(double[][] y);
+
+    }
+
+    /** Products with a dense matrix, by slices of rows. */
+    private static class DenseProducts implements Products {
+
+        /** Underlying matrix. */
+        private final RealMatrix matrix;
+
+        /** Executor (may be null). */
+        private final ExecutorService executor;
+
+        /** Index of the first row of each slice, plus the number of rows. */
+        private final int[] sliceStarts;
+
+        /**
+         * Simple constructor.
+         * @param matrix underlying matrix
+         * @param executor executor (may be null)
+         */
+        DenseProducts(final RealMatrix matrix, final ExecutorService executor) {
+            this.matrix   = matrix;
+            this.executor = executor;
+
+            // slices depend only on the matrix, so results do not depend on the executor
+            final int m       = matrix.getRowDimension();
+            final int nSlices = FastMath.max(1, FastMath.min(MAX_SLICES, m / MIN_SLICE_ROWS));
+            sliceStarts = new int[nSlices + 1];
+            for (int i = 0; i <= nSlices; ++i) {
+                sliceStarts[i] = (int) ((long) i * m / nSlices);
+            }
+        }
+
+        /** {@inheritDoc} */
+        public double[][] multiply(final double[][] x) {
+            final int l = x[0].length;
+            final double[][] y = new double[matrix.getRowDimension()][l];
+            final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int s = 0; s + 1 < sliceStarts.length; ++s) {
+                final int start = sliceStarts[s];
+                final int end   = sliceStarts[s + 1];
+                tasks.add(new Callable<Void>() {
+                    /** {@inheritDoc} */
+                    public Void call() {
+                        matrix.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+                            /** {@inheritDoc} */
+                            @Override
+                            public void visit(final int row, final int column, final double value) {
+                                final double[] yRow = y[row];
+                                final double[] xRow = x[column];
+                                for (int j = 0; j < l; ++j) {
+                                    yRow[j] += value * xRow[j];
+                                }
+                            }
+                        }, start, end - 1, 0, matrix.getColumnDimension() - 1);
+                        return null;
+                    }
+                });
+            }
+            ConcurrencyUtils.invokeAllOrRun(executor, tasks);
+            return y;
+        }
+
+        /** {@inheritDoc} */
+        public double[][] transposeMultiply(final double[][] y) {
+            final int l = y[0].length;
+            final int n = matrix.getColumnDimension();
+            final List<Callable<double[][]>> tasks = new ArrayList<Callable<double[][]>>();
+            for (int s = 0; s + 1 < sliceStarts.length; ++s) {
+                final int start = sliceStarts[s];
+                final int end   = sliceStarts[s + 1];
+                tasks.add(new Callable<double[][]>() {
+                    /** {@inheritDoc} */
+                    public double[][] call() {
+                        final double[][] partial = new double[n][l];
+                        matrix.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+                            /** {@inheritDoc} */
+                            @Override
+                            public void visit(final int row, final int column, final double value) {
+                                final double[] pColumn = partial[column];
+                                final double[] yRow    = y[row];
+                                for (int j = 0; j < l; ++j) {
+                                    pColumn[j] += value * yRow[j];
+                                }
+                            }
+                        }, start, end - 1, 0, n - 1);
+                        return partial;
+                    }
+                });
+            }
+
+            // sum partial results in slices order
+            final List<double[][]> partials = ConcurrencyUtils.invokeAllOrRun(executor, tasks);
+            final double[][] x = partials.get(0);
+            for (int s = 1; s < partials.size(); ++s) {
+                final double[][] partial = partials.get(s);
+                for (int i = 0; i < n; ++i) {
+                    final double[] xI = x[i];
+                    final double[] pI = partial[i];
+                    for (int j = 0; j < l; ++j) {
+                        xI[j] += pI[j];
+                    }
+                }
+            }
+            return x;
+        }
+
+    }
+
+    /** Products with a general operator, column by column. */
+    private static class OperatorProducts implements Products {
+
+        /** Underlying operator. */
+        private final RealLinearOperator operator;
+
+        /** Executor (may be null). */
+        private final ExecutorService executor;
+
+        /**
+         * Simple constructor.
+         * @param operator underlying operator
+         * @param executor executor (may be null)
+         */
+        OperatorProducts(final RealLinearOperator operator, final ExecutorService executor) {
+            this.operator = operator;
+            this.executor = executor;
+        }
+
+        /** {@inheritDoc} */
+        public double[][] multiply(final double[][] x) {
+            return apply(x, operator.getRowDimension(), false);
+        }
+
+        /** {@inheritDoc} */
+        public double[][] transposeMultiply(final double[][] y) {
+            return apply(y, operator.getColumnDimension(), true);
+        }
+
+        /**
+         * Apply the operator or its transpose to all columns of a matrix.
+         * @param x matrix, by rows
+         * @param outDim dimension of the result columns
+         * @param transposed if true, apply the transpose of the operator
+         * @return product, by rows
+         */
+        private double[][] apply(final double[][] x, final int outDim, final boolean transposed) {
+            final int l = x[0].length;
+            final double[][] y = new double[outDim][l];
+            final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int c = 0; c < l; ++c) {
+                final int column = c;
+                tasks.add(new Callable<Void>() {
+                    /** {@inheritDoc} */
+                    public Void call() {
+                        final double[] xC = new double[x.length];
+                        for (int i = 0; i < xC.length; ++i) {
+                            xC[i] = x[i][column];
+                        }
+                        final RealVector in  = new ArrayRealVector(xC, false);
+                        final RealVector out;
+                        if (!transposed) {
+                            out = operator.operate(in);
+                        } else if (operator instanceof RealMatrix) {
+                            out = ((RealMatrix) operator).preMultiply(in);
+                        } else {
+                            out = operator.operateTranspose(in);
+                        }
+                        for (int i = 0; i < outDim; ++i) {
+                            y[i][column] = out.getEntry(i);
+                        }
+                        return null;
+                    }
+                });
+            }
+            ConcurrencyUtils.invokeAllOrRun(executor, tasks);
+            return y;
+        }
+
+    }
+
+}
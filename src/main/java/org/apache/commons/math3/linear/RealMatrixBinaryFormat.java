@@ -0,0 +1,919 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.commons.math3.exception.MathInternalError;
+import org.apache.commons.math3.exception.MathParseException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Compact little-endian binary format for real matrices and vectors.
+ * <p>
+ * The text formats {@link RealMatrixFormat} and {@link RealVectorFormat} are
+ * meant for humans, and Java serialization is slow for large matrices. This
+ * class writes and reads a documented binary layout, either in memory through
+ * {@link ByteBuffer} instances or on storage through NIO channels. All values
+ * are stored in little-endian byte order. Each object starts with a 16 bytes
+ * header:
+ * </p>
+ * <table border="1" align="center">
+ * <tr BGCOLOR="#CCCCFF"><td>offset</td><td>type</td><td>content</td></tr>
+ * <tr><td>0</td><td>int</td><td>{@link #MAGIC magic number}</td></tr>
+ * <tr><td>4</td><td>byte</td><td>{@link #VERSION format version}</td></tr>
+ * <tr><td>5</td><td>byte</td><td>kind of payload (see below)</td></tr>
+ * <tr><td>6</td><td>short</td><td>reserved, 0</td></tr>
+ * <tr><td>8</td><td>int</td><td>number of rows (dimension for vectors)</td></tr>
+ * <tr><td>12</td><td>int</td><td>number of columns (1 for vectors)</td></tr>
+ * </table>
+ * <p>
+ * The payload that follows depends on the kind:
+ * </p>
+ * <ul>
+ *   <li>{@link #DENSE}: rows &times; columns doubles in row-major order,</li>
+ *   <li>{@link #BLOCK}: the blocks of a {@link BlockRealMatrix}, one after
+ *   the other, each one in row-major order (this is also the layout used
+ *   by {@link MappedBlockRealMatrix}),</li>
+ *   <li>{@link #COMPRESSED_ROW} and {@link #COMPRESSED_COLUMN}: an int holding
+ *   the number of stored entries nnz, an int set to 0, the slice pointers
+ *   (rows + 1 or columns + 1 ints), the nnz minor indices (ints), an int set
+ *   to 0 if needed to align the next value on 8 bytes, and the nnz values
+ *   (doubles),</li>
+ *   <li>{@link #DENSE_VECTOR}: the entries of the vector (doubles),</li>
+ *   <li>{@link #SPARSE_VECTOR}: an int holding the number of stored entries
+ *   nnz, an int set to 0, the nnz indices in increasing order (ints), an int
+ *   set to 0 if needed to align the next value on 8 bytes and the nnz values
+ *   (doubles).</li>
+ * </ul>
+ * <p>
+ * {@link BlockRealMatrix} instances are written and read block by block,
+ * directly from and into their internal arrays, without converting the
+ * layout. Java arrays cannot share memory with a file, so reading always
+ * copies the data once; the {@link #map(File, FileChannel.MapMode) map}
+ * method on the other hand maps the payload of a {@link #BLOCK} file as a
+ * {@link MappedBlockRealMatrix}, without copying anything.
+ * </p>
+ * <p>
+ * When a channel is used, data is transferred through a small internal
+ * buffer, and exactly the bytes of one object are read, so several objects
+ * can be stored one after the other in the same file.
+ * </p>
+ * <p>
+ * The dimensions, pointers and indices read are checked for consistency
+ * before being used, and a {@link MathParseException} is thrown if they are
+ * invalid. When the number of bytes left in the input is known (for buffers
+ * and file channels), the size of the payload announced by the header is
+ * also checked against it before any array is allocated, so truncated data
+ * is detected early.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class RealMatrixBinaryFormat {
+
+    /** Magic number at the start of each object (bytes "CMLB"). */
+    public static final int MAGIC = 0x424c4d43;
+
+    /** Format version. */
+    public static final byte VERSION = 1;
+
+    /** Kind for dense matrices in row-major order. */
+    public static final byte DENSE = 0;
+
+    /** Kind for matrices in {@link BlockRealMatrix} layout. */
+    public static final byte BLOCK = 1;
+
+    /** Kind for {@link CompressedRowRealMatrix compressed sparse row} matrices. */
+    public static final byte COMPRESSED_ROW = 2;
+
+    /** Kind for {@link CompressedColumnRealMatrix compressed sparse column} matrices. */
+    public static final byte COMPRESSED_COLUMN = 3;
+
+    /** Kind for dense vectors. */
+    public static final byte DENSE_VECTOR = 4;
+
+    /** Kind for sparse vectors. */
+    public static final byte SPARSE_VECTOR = 5;
+
+    /** Size of the header, in bytes. */
+    public static final int HEADER_SIZE = 16;
+
+    /** Size of the buffer used for channels transfers. */
+    private static final int CHANNEL_BUFFER_SIZE = 1 << 16;
+
+    /** Private constructor for a utility class. */
+    private RealMatrixBinaryFormat() {
+    }
+
+    /**
+     * Get the number of bytes needed to write a matrix.
+     *
+     * @param m Matrix.
+     * @return number of bytes written by {@link #write(RealMatrix, ByteBuffer)}.
+     */
+    public static long getSize(final RealMatrix m) {
+        final long rows    = m.getRowDimension();
+        final long columns = m.getColumnDimension();
+        if (m instanceof AbstractCompressedRealMatrix) {
+            final long slices = (m instanceof CompressedRowRealMatrix) ? rows : columns;
+            return sparseSize(slices + 1, ((AbstractCompressedRealMatrix) m).getNonZeroCount());
+        }
+        return HEADER_SIZE + 8 * rows * columns;
+    }
+
+    /**
+     * Get the number of bytes needed to write a vector.
+     *
+     * @param v Vector.
+     * @return number of bytes written by {@link #write(RealVector, ByteBuffer)}.
+     */
+    public static long getSize(final RealVector v) {
+        if (isSparse(v)) {
+            return sparseSize(0, sparseIndices(v).length);
+        }
+        return HEADER_SIZE + 8l * v.getDimension();
+    }
+
+    /**
+     * Write a matrix into a buffer.
+     * <p>
+     * The buffer position is advanced past the written bytes, its byte
+     * order is not changed.
+     * </p>
+     *
+     * @param m Matrix to write.
+     * @param buffer Buffer into which the matrix is written.
+     * @throws java.nio.BufferOverflowException if the buffer is too small.
+     */
+    public static void write(final RealMatrix m, final ByteBuffer buffer) {
+        final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            write(m, new Output(le, null));
+        } catch (IOException ioe) {
+            // cannot happen without a channel
+            throw new MathInternalError(ioe);
+        }
+        buffer.position(le.position());
+    }
+
+    /**
+     * Write a matrix into a channel.
+     *
+     * @param m Matrix to write.
+     * @param channel Channel into which the matrix is written.
+     * @throws IOException if the channel cannot be written.
+     */
+    public static void write(final RealMatrix m, final WritableByteChannel channel)
+        throws IOException {
+        final Output output = new Output(newChannelBuffer(), channel);
+        write(m, output);
+        output.flush();
+    }
+
+    /**
+     * Read a matrix from a buffer.
+     * <p>
+     * The buffer position is advanced past the read bytes, its byte order
+     * is not changed.
+     * </p>
+     *
+     * @param buffer Buffer from which the matrix is read.
+     * @return matrix read (a {@link BlockRealMatrix}, {@link CompressedRowRealMatrix},
+     * {@link CompressedColumnRealMatrix} or {@link Array2DRowRealMatrix}
+     * depending on the kind of payload).
+     * @throws MathParseException if the header is not the header of a matrix,
+     * if the data is inconsistent or if the buffer is too short.
+     */
+    public static RealMatrix readMatrix(final ByteBuffer buffer)
+        throws MathParseException {
+        final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final RealMatrix m;
+        try {
+            m = readMatrix(new Input(le, null));
+        } catch (IOException ioe) {
+            // cannot happen without a channel
+            throw new MathInternalError(ioe);
+        }
+        buffer.position(le.position());
+        return m;
+    }
+
+    /**
+     * Read a matrix from a channel.
+     *
+     * @param channel Channel from which the matrix is read.
+     * @return matrix read (a {@link BlockRealMatrix}, {@link CompressedRowRealMatrix},
+     * {@link CompressedColumnRealMatrix} or {@link Array2DRowRealMatrix}
+     * depending on the kind of payload).
+     * @throws MathParseException if the header is not the header of a matrix,
+     * if the data is inconsistent or if the file behind the channel is too short.
+     * @throws EOFException if the channel ends before the matrix.
+     * @throws IOException if the channel cannot be read.
+     */
+    public static RealMatrix readMatrix(final ReadableByteChannel channel)
+        throws MathParseException, IOException {
+        return readMatrix(new Input(newChannelBuffer(), channel));
+    }
+
+    /**
+     * Write a vector into a buffer.
+     * <p>
+     * The buffer position is advanced past the written bytes, its byte
+     * order is not changed.
+     * </p>
+     *
+     * @param v Vector to write.
+     * @param buffer Buffer into which the vector is written.
+     * @throws java.nio.BufferOverflowException if the buffer is too small.
+     */
+    public static void write(final RealVector v, final ByteBuffer buffer) {
+        final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            write(v, new Output(le, null));
+        } catch (IOException ioe) {
+            // cannot happen without a channel
+            throw new MathInternalError(ioe);
+        }
+        buffer.position(le.position());
+    }
+
+    /**
+     * Write a vector into a channel.
+     *
+     * @param v Vector to write.
+     * @param channel Channel into which the vector is written.
+     * @throws IOException if the channel cannot be written.
+     */
+    public static void write(final RealVector v, final WritableByteChannel channel)
+        throws IOException {
+        final Output output = new Output(newChannelBuffer(), channel);
+        write(v, output);
+        output.flush();
+    }
+
+    /**
+     * Read a vector from a buffer.
+     * <p>
+     * The buffer position is advanced past the read bytes, its byte order
+     * is not changed.
+     * </p>
+     *
+     * @param buffer Buffer from which the vector is read.
+     * @return vector read (an {@link OpenMapRealVector} or an {@link
+     * ArrayRealVector} depending on the kind of payload).
+     * @throws MathParseException if the header is not the header of a vector,
+     * if the data is inconsistent or if the buffer is too short.
+     */
+    public static RealVector readVector(final ByteBuffer buffer)
+        throws MathParseException {
+        final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final RealVector v;
+        try {
+            v = readVector(new Input(le, null));
+        } catch (IOException ioe) {
+            // cannot happen without a channel
+            throw new MathInternalError(ioe);
+        }
+        buffer.position(le.position());
+        return v;
+    }
+
+    /**
+     * Read a vector from a channel.
+     *
+     * @param channel Channel from which the vector is read.
+     * @return vector read (an {@link OpenMapRealVector} or an {@link
+     * ArrayRealVector} depending on the kind of payload).
+     * @throws MathParseException if the header is not the header of a vector,
+     * if the data is inconsistent or if the file behind the channel is too short.
+     * @throws EOFException if the channel ends before the vector.
+     * @throws IOException if the channel cannot be read.
+     */
+    public static RealVector readVector(final ReadableByteChannel channel)
+        throws MathParseException, IOException {
+        return readVector(new Input(newChannelBuffer(), channel));
+    }
+
+    /**
+     * Map a file holding a single {@link #BLOCK} matrix without copying it.
+     *
+     * @param file File containing the matrix, as written by this class.
+     * @param mode Mapping mode.
+     * @return a matrix backed by the payload of the file.
+     * @throws MathParseException if the file does not start with the
+     * header of a {@link #BLOCK} matrix.
+     * @throws IOException if the file cannot be read or mapped.
+     * @see MappedBlockRealMatrix
+     */
+    public static MappedBlockRealMatrix map(final File file, final FileChannel.MapMode mode)
+        throws MathParseException, IOException {
+        final int[] header;
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header = new Input(buffer, raf.getChannel()).getHeader();
+        } finally {
+            raf.close();
+        }
+        if (header[0] != BLOCK) {
+            throw new MathParseException(Integer.toString(header[0]), 5, MappedBlockRealMatrix.class);
+        }
+        if (header[1] < 1) {
+            throw new MathParseException(Integer.toString(header[1]), 8, MappedBlockRealMatrix.class);
+        }
+        if (header[2] < 1) {
+            throw new MathParseException(Integer.toString(header[2]), 12, MappedBlockRealMatrix.class);
+        }
+        return new MappedBlockRealMatrix(file, HEADER_SIZE, header[1], header[2], mode);
+    }
+
+    /**
+     * Write a matrix.
+     *
+     * @param m Matrix to write.
+     * @param output Output to use.
+     * @throws IOException if the underlying channel cannot be written.
+     */
+    private static void write(final RealMatrix m, final Output output)
+        throws IOException {
+        final int rows    = m.getRowDimension();
+        final int columns = m.getColumnDimension();
+        if (m instanceof BlockRealMatrix) {
+            output.putHeader(BLOCK, rows, columns);
+            for (final double[] block : ((BlockRealMatrix) m).getBlocksRef()) {
+                output.putDoubles(block, 0, block.length);
+            }
+        } else if (m instanceof AbstractCompressedRealMatrix) {
+            final AbstractCompressedRealMatrix c = (AbstractCompressedRealMatrix) m;
+            final int nnz = c.getNonZeroCount();
+            final int[] pointers = c.getPointersRef();
+            output.putHeader((m instanceof CompressedRowRealMatrix) ? COMPRESSED_ROW : COMPRESSED_COLUMN,
+                             rows, columns);
+            output.putInt(nnz);
+            output.putInt(0);
+            output.putInts(pointers, pointers.length);
+            output.putInts(c.getIndicesRef(), nnz);
+            if (((pointers.length + nnz) & 0x1) != 0) {
+                output.putInt(0);
+            }
+            output.putDoubles(c.getValuesRef(), 0, nnz);
+        } else {
+            output.putHeader(DENSE, rows, columns);
+            if (m instanceof Array2DRowRealMatrix) {
+                for (final double[] row : ((Array2DRowRealMatrix) m).getDataRef()) {
+                    output.putDoubles(row, 0, columns);
+                }
+            } else {
+                for (int i = 0; i < rows; ++i) {
+                    output.putDoubles(m.getRow(i), 0, columns);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a vector.
+     *
+     * @param v Vector to write.
+     * @param output Output to use.
+     * @throws IOException if the underlying channel cannot be written.
+     */
+    private static void write(final RealVector v, final Output output)
+        throws IOException {
+        final int dimension = v.getDimension();
+        if (isSparse(v)) {
+            final int[] indices = sparseIndices(v);
+            final double[] values = new double[indices.length];
+            for (int k = 0; k < indices.length; ++k) {
+                values[k] = v.getEntry(indices[k]);
+            }
+            output.putHeader(SPARSE_VECTOR, dimension, 1);
+            output.putInt(indices.length);
+            output.putInt(0);
+            output.putInts(indices, indices.length);
+            if ((indices.length & 0x1) != 0) {
+                output.putInt(0);
+            }
+            output.putDoubles(values, 0, values.length);
+        } else {
+            output.putHeader(DENSE_VECTOR, dimension, 1);
+            final double[] data = (v instanceof ArrayRealVector) ?
+                                  ((ArrayRealVector) v).getDataRef() : v.toArray();
+            output.putDoubles(data, 0, dimension);
+        }
+    }
+
+    /**
+     * Read a matrix.
+     *
+     * @param input Input to use.
+     * @return matrix read.
+     * @throws MathParseException if the header is not the header of a matrix
+     * or if the data is inconsistent.
+     * @throws IOException if the underlying channel cannot be read.
+     */
+    private static RealMatrix readMatrix(final Input input)
+        throws MathParseException, IOException {
+        final int[] header  = input.getHeader();
+        final int kind      = header[0];
+        final int rows      = header[1];
+        final int columns   = header[2];
+        if (kind < DENSE || kind > COMPRESSED_COLUMN) {
+            throw new MathParseException(Integer.toString(kind), 5, RealMatrix.class);
+        }
+        if (rows < 1) {
+            throw new MathParseException(Integer.toString(rows), 8, RealMatrix.class);
+        }
+        if (columns < 1) {
+            throw new MathParseException(Integer.toString(columns), 12, RealMatrix.class);
+        }
+        switch (kind) {
+        case DENSE : {
+            checkAvailable(input, 8l * rows * columns, RealMatrix.class);
+            final double[][] data = new double[rows][columns];
+            for (final double[] row : data) {
+                input.getDoubles(row, columns);
+            }
+            return new Array2DRowRealMatrix(data, false);
+        }
+        case BLOCK : {
+            checkAvailable(input, 8l * rows * columns, RealMatrix.class);
+            final double[][] blocks = BlockRealMatrix.createBlocksLayout(rows, columns);
+            for (final double[] block : blocks) {
+                input.getDoubles(block, block.length);
+            }
+            return new BlockRealMatrix(rows, columns, blocks, false);
+        }
+        default : {
+            // compressed row or compressed column
+            final int slices = (kind == COMPRESSED_ROW) ? rows    : columns;
+            final int minor  = (kind == COMPRESSED_ROW) ? columns : rows;
+            if (slices == Integer.MAX_VALUE) {
+                throw new MathParseException(Integer.toString(slices),
+                                             (kind == COMPRESSED_ROW) ? 8 : 12,
+                                             RealMatrix.class);
+            }
+            checkAvailable(input, 8, RealMatrix.class);
+            final int nnz = input.getInt();
+            input.getInt();
+            if (nnz < 0 || nnz > ((long) rows) * columns) {
+                throw new MathParseException(Integer.toString(nnz), HEADER_SIZE, RealMatrix.class);
+            }
+            checkAvailable(input, sparseSize(slices + 1l, nnz) - HEADER_SIZE - 8, RealMatrix.class);
+
+            final int[] pointers = new int[slices + 1];
+            input.getInts(pointers, pointers.length);
+            final int pointersStart = HEADER_SIZE + 8;
+            if (pointers[0] != 0) {
+                throw new MathParseException(Integer.toString(pointers[0]), pointersStart, RealMatrix.class);
+            }
+            for (int k = 1; k < pointers.length; ++k) {
+                if (pointers[k] < pointers[k - 1] || pointers[k] > nnz) {
+                    throw new MathParseException(Integer.toString(pointers[k]),
+                                                 pointersStart + 4 * k, RealMatrix.class);
+                }
+            }
+            if (pointers[slices] != nnz) {
+                throw new MathParseException(Integer.toString(pointers[slices]),
+                                             pointersStart + 4 * slices, RealMatrix.class);
+            }
+
+            final int[] indices = new int[nnz];
+            input.getInts(indices, nnz);
+            final int indicesStart = pointersStart + 4 * pointers.length;
+            for (int slice = 0; slice < slices; ++slice) {
+                // indices must be strictly increasing within each slice
+                int previous = -1;
+                for (int k = pointers[slice]; k < pointers[slice + 1]; ++k) {
+                    if (indices[k] <= previous || indices[k] >= minor) {
+                        throw new MathParseException(Integer.toString(indices[k]),
+                                                     indicesStart + 4 * k, RealMatrix.class);
+                    }
+                    previous = indices[k];
+                }
+            }
+
+            if (((pointers.length + nnz) & 0x1) != 0) {
+                input.getInt();
+            }
+            final double[] values = new double[nnz];
+            input.getDoubles(values, nnz);
+            return (kind == COMPRESSED_ROW) ?
+                   new CompressedRowRealMatrix(rows, columns, pointers, indices, values) :
+                   new CompressedColumnRealMatrix(rows, columns, pointers, indices, values);
+        }
+        }
+    }
+
+    /**
+     * Read a vector.
+     *
+     * @param input Input to use.
+     * @return vector read.
+     * @throws MathParseException if the header is not the header of a vector
+     * or if the data is inconsistent.
+     * @throws IOException if the underlying channel cannot be read.
+     */
+    private static RealVector readVector(final Input input)
+        throws MathParseException, IOException {
+        final int[] header  = input.getHeader();
+        final int kind      = header[0];
+        final int dimension = header[1];
+        if (kind != DENSE_VECTOR && kind != SPARSE_VECTOR) {
+            throw new MathParseException(Integer.toString(kind), 5, RealVector.class);
+        }
+        if (dimension < 0) {
+            throw new MathParseException(Integer.toString(dimension), 8, RealVector.class);
+        }
+        if (header[2] != 1) {
+            throw new MathParseException(Integer.toString(header[2]), 12, RealVector.class);
+        }
+        if (kind == DENSE_VECTOR) {
+            checkAvailable(input, 8l * dimension, RealVector.class);
+            final double[] data = new double[dimension];
+            input.getDoubles(data, dimension);
+            return new ArrayRealVector(data, false);
+        }
+
+        checkAvailable(input, 8, RealVector.class);
+        final int nnz = input.getInt();
+        input.getInt();
+        if (nnz < 0 || nnz > dimension) {
+            throw new MathParseException(Integer.toString(nnz), HEADER_SIZE, RealVector.class);
+        }
+        checkAvailable(input, sparseSize(0, nnz) - HEADER_SIZE - 8, RealVector.class);
+        final int[] indices = new int[nnz];
+        input.getInts(indices, nnz);
+        for (int k = 0; k < nnz; ++k) {
+            // indices must be strictly increasing
+            if (indices[k] >= dimension || (k == 0 ? indices[k] < 0 : indices[k] <= indices[k - 1])) {
+                throw new MathParseException(Integer.toString(indices[k]),
+                                             HEADER_SIZE + 8 + 4 * k, RealVector.class);
+            }
+        }
+        if ((nnz & 0x1) != 0) {
+            input.getInt();
+        }
+        final double[] values = new double[nnz];
+        input.getDoubles(values, nnz);
+        return createSparseVector(dimension, indices, values);
+    }
+
+    /**
+     * Check that the input holds enough bytes for the rest of a payload.
+     *
+     * @param input Input to use.
+     * @param size Number of bytes still needed by the payload.
+     * @param type Type of the object read.
+     * @throws MathParseException if the input is known to be shorter.
+     * @throws IOException if the size of the underlying channel cannot be read.
+     */
+    private static void checkAvailable(final Input input, final long size, final Class<?> type)
+        throws MathParseException, IOException {
+        if (size > input.available()) {
+            throw new MathParseException(Long.toString(size), HEADER_SIZE, type);
+        }
+    }
+
+    /**
+     * Check if a vector is stored in sparse form.
+     * <p>
+     * {@link OpenMapRealVector} is deprecated, but it is still the only
+     * sparse vector implementation.
+     * </p>
+     *
+     * @param v Vector to check.
+     * @return true if the vector is an {@link OpenMapRealVector}
+     */
+    @SuppressWarnings("deprecation")
+    private static boolean isSparse(final RealVector v) {
+        return v instanceof OpenMapRealVector;
+    }
+
+    /**
+     * Create a sparse vector.
+     *
+     * @param dimension Dimension of the vector.
+     * @param indices Indices of the stored entries.
+     * @param values Values of the stored entries.
+     * @return a new {@link OpenMapRealVector}
+     */
+    @SuppressWarnings("deprecation")
+    private static RealVector createSparseVector(final int dimension,
+                                                 final int[] indices, final double[] values) {
+        final OpenMapRealVector v = new OpenMapRealVector(dimension, indices.length);
+        for (int k = 0; k < indices.length; ++k) {
+            v.setEntry(indices[k], values[k]);
+        }
+        return v;
+    }
+
+    /**
+     * Get the size of a sparse object.
+     *
+     * @param nPointers Number of pointers.
+     * @param nnz Number of stored entries.
+     * @return size of the object in bytes
+     */
+    private static long sparseSize(final long nPointers, final long nnz) {
+        final long ints = 2 + nPointers + nnz;
+        return HEADER_SIZE + 4 * (ints + (ints & 0x1)) + 8 * nnz;
+    }
+
+    /**
+     * Get the sorted indices of the stored entries of a sparse vector.
+     *
+     * @param v Vector.
+     * @return sorted indices of the stored entries
+     */
+    @SuppressWarnings("deprecation")
+    private static int[] sparseIndices(final RealVector v) {
+        int count = 0;
+        for (Iterator<RealVector.Entry> iterator = v.sparseIterator(); iterator.hasNext();) {
+            iterator.next();
+            ++count;
+        }
+        final int[] indices = new int[count];
+        int k = 0;
+        for (Iterator<RealVector.Entry> iterator = v.sparseIterator(); iterator.hasNext();) {
+            indices[k++] = iterator.next().getIndex();
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Create a buffer for channels transfers.
+     *
+     * @return a new direct buffer in little-endian order
+     */
+    private static ByteBuffer newChannelBuffer() {
+        return ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Binary output, to a buffer or through a buffer to a channel. */
+    private static class Output {
+
+        /** Little-endian buffer. */
+        private final ByteBuffer buffer;
+
+        /** Channel to which the buffer is flushed (null for buffer-only output). */
+        private final WritableByteChannel channel;
+
+        /** Simple constructor.
+         * @param buffer little-endian buffer
+         * @param channel channel to which the buffer is flushed (null for buffer-only output)
+         */
+        Output(final ByteBuffer buffer, final WritableByteChannel channel) {
+            this.buffer  = buffer;
+            this.channel = channel;
+        }
+
+        /** Write a header.
+         * @param kind kind of payload
+         * @param rows number of rows
+         * @param columns number of columns
+         * @exception IOException if the channel cannot be written
+         */
+        void putHeader(final byte kind, final int rows, final int columns)
+            throws IOException {
+            ensure(HEADER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.put(kind);
+            buffer.putShort((short) 0);
+            buffer.putInt(rows);
+            buffer.putInt(columns);
+        }
+
+        /** Write an int.
+         * @param value value to write
+         * @exception IOException if the channel cannot be written
+         */
+        void putInt(final int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        /** Write ints.
+         * @param values array holding the values to write
+         * @param n number of values to write
+         * @exception IOException if the channel cannot be written
+         */
+        void putInts(final int[] values, final int n) throws IOException {
+            int from = 0;
+            while (from < n) {
+                final int chunk = (channel == null) ? n - from : FastMath.min(n - from, buffer.remaining() / 4);
+                if (chunk == 0) {
+                    flush();
+                } else {
+                    buffer.asIntBuffer().put(values, from, chunk);
+                    buffer.position(buffer.position() + 4 * chunk);
+                    from += chunk;
+                }
+            }
+        }
+
+        /** Write doubles.
+         * @param values array holding the values to write
+         * @param start index of the first value to write
+         * @param n number of values to write
+         * @exception IOException if the channel cannot be written
+         */
+        void putDoubles(final double[] values, final int start, final int n) throws IOException {
+            int from = start;
+            final int end = start + n;
+            while (from < end) {
+                final int chunk = (channel == null) ? end - from : FastMath.min(end - from, buffer.remaining() / 8);
+                if (chunk == 0) {
+                    flush();
+                } else {
+                    buffer.asDoubleBuffer().put(values, from, chunk);
+                    buffer.position(buffer.position() + 8 * chunk);
+                    from += chunk;
+                }
+            }
+        }
+
+        /** Make sure the buffer has room for some bytes.
+         * @param n number of bytes needed
+         * @exception IOException if the channel cannot be written
+         */
+        private void ensure(final int n) throws IOException {
+            if (channel != null && buffer.remaining() < n) {
+                flush();
+            }
+        }
+
+        /** Flush the buffer to the channel.
+         * @exception IOException if the channel cannot be written
+         */
+        void flush() throws IOException {
+            if (channel != null) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+
+    }
+
+    /** Binary input, from a buffer or through a buffer from a channel. */
+    private static class Input {
+
+        /** Little-endian buffer. */
+        private final ByteBuffer buffer;
+
+        /** Channel from which the buffer is filled (null for buffer-only input). */
+        private final ReadableByteChannel channel;
+
+        /** Position of the start of the object in the buffer (for buffer-only input). */
+        private final int start;
+
+        /** Simple constructor.
+         * @param buffer little-endian buffer
+         * @param channel channel from which the buffer is filled (null for buffer-only input)
+         */
+        Input(final ByteBuffer buffer, final ReadableByteChannel channel) {
+            this.buffer  = buffer;
+            this.channel = channel;
+            this.start   = buffer.position();
+            if (channel != null) {
+                // start with an empty buffer in read mode
+                buffer.limit(0);
+            }
+        }
+
+        /** Read and check a header.
+         * @return kind of payload, number of rows and number of columns
+         * @exception MathParseException if the header is invalid
+         * @exception IOException if the channel cannot be read
+         */
+        int[] getHeader() throws MathParseException, IOException {
+            require(HEADER_SIZE);
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new MathParseException(Integer.toHexString(magic), 0, RealMatrixBinaryFormat.class);
+            }
+            final byte version = buffer.get();
+            if (version != VERSION) {
+                throw new MathParseException(Integer.toString(version), 4, RealMatrixBinaryFormat.class);
+            }
+            final byte kind = buffer.get();
+            buffer.getShort();
+            final int rows    = buffer.getInt();
+            final int columns = buffer.getInt();
+            return new int[] {
+                kind, rows, columns
+            };
+        }
+
+        /** Get the number of bytes left in the input, if known.
+         * @return number of bytes left, or {@code Long.MAX_VALUE} if unknown
+         * @exception IOException if the size of the channel cannot be read
+         */
+        long available() throws IOException {
+            if (channel == null) {
+                return buffer.remaining();
+            } else if (channel instanceof FileChannel) {
+                final FileChannel fileChannel = (FileChannel) channel;
+                return buffer.remaining() + fileChannel.size() - fileChannel.position();
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /** Read an int.
+         * @return value read
+         * @exception IOException if the channel cannot be read
+         */
+        int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        /** Read ints.
+         * @param values array where to store the values read
+         * @param n number of values to read
+         * @exception IOException if the channel cannot be read
+         */
+        void getInts(final int[] values, final int n) throws IOException {
+            int from = 0;
+            while (from < n) {
+                final int chunk = (channel == null) ? n - from : FastMath.min(n - from, buffer.capacity() / 4);
+                require(4 * chunk);
+                buffer.asIntBuffer().get(values, from, chunk);
+                buffer.position(buffer.position() + 4 * chunk);
+                from += chunk;
+            }
+        }
+
+        /** Read doubles.
+         * @param values array where to store the values read
+         * @param n number of values to read
+         * @exception IOException if the channel cannot be read
+         */
+        void getDoubles(final double[] values, final int n) throws IOException {
+            int from = 0;
+            while (from < n) {
+                final int chunk = (channel == null) ? n - from : FastMath.min(n - from, buffer.capacity() / 8);
+                require(8 * chunk);
+                buffer.asDoubleBuffer().get(values, from, chunk);
+                buffer.position(buffer.position() + 8 * chunk);
+                from += chunk;
+            }
+        }
+
+        /** Make sure the buffer holds some bytes, reading no more than needed from the channel.
+         * @param n number of bytes needed
+         * @exception MathParseException if there is no channel and the buffer is too short
+         * @exception IOException if the channel cannot be read
+         */
+        private void require(final int n) throws MathParseException, IOException {
+            if (channel == null) {
+                if (buffer.remaining() < n) {
+                    throw new MathParseException(Integer.toString(n), buffer.position() - start,
+                                                 RealMatrixBinaryFormat.class);
+                }
+            } else if (buffer.remaining() < n) {
+                buffer.compact();
+                buffer.limit(n);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException();
+                    }
+                }
+                buffer.flip();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Lazy linear combination of matrices and matrix products.
+ * <p>
+ * An expression such as {@code a.multiply(b).add(c).scalarMultiply(k)}
+ * creates two full temporary matrices before the final result is available.
+ * The equivalent expression
+ * {@code RealMatrixExpression.of(a).multiply(b).add(c).scalarMultiply(k)}
+ * only records the operations, in the form
+ * &sum;<sub>t</sub> s<sub>t</sub> L<sub>t</sub> R<sub>t</sub> + &sum;<sub>u</sub> s<sub>u</sub> M<sub>u</sub> + d,
+ * where d is a scalar added to all entries. The {@link #evaluate()} method
+ * then computes the result in a single pass over the blocks of a
+ * {@link BlockRealMatrix}: each output block receives the contributions of
+ * all the products and is then updated with the contributions of all the
+ * other terms while it is still in cache. No intermediate matrix is created.
+ * The {@link #operate(double[])} method applies the expression to a vector
+ * without ever forming the matrix, products being applied right to left.
+ * </p>
+ * <p>
+ * Expressions are immutable: each method returns a new expression and the
+ * matrices involved are referenced, not copied, so they must not be changed
+ * before the expression is evaluated. Multiplying an expression which is not
+ * a single scaled matrix cannot be fused; in this case the expression is
+ * evaluated first and its result is multiplied lazily. Operands of products
+ * that are not {@link BlockRealMatrix} instances are converted to this
+ * layout at evaluation time, only once per matrix even if it appears in
+ * several products.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class RealMatrixExpression implements AnyMatrix {
+
+    /** Number of rows of the expression. */
+    private final int rows;
+
+    /** Number of columns of the expression. */
+    private final int columns;
+
+    /** Terms of the linear combination. */
+    private final List<Term> terms;
+
+    /** Scalar added to all entries. */
+    private final double shift;
+
+    /**
+     * Build an expression.
+     *
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param terms Terms of the linear combination (not copied).
+     * @param shift Scalar added to all entries.
+     */
+    private RealMatrixExpression(final int rows, final int columns,
+                                 final List<Term> terms, final double shift) {
+        this.rows = rows;
+        this.columns = columns;
+        this.terms = terms;
+        this.shift = shift;
+    }
+
+    /**
+     * Create an expression holding a single matrix.
+     *
+     * @param m Matrix.
+     * @return an expression whose value is {@code m}.
+     */
+    public static RealMatrixExpression of(final RealMatrix m) {
+        final List<Term> terms = new ArrayList<Term>(1);
+        terms.add(new Term(1.0, m, null));
+        return new RealMatrixExpression(m.getRowDimension(), m.getColumnDimension(), terms, 0.0);
+    }
+
+    /** {@inheritDoc} */
+    public boolean isSquare() {
+        return rows == columns;
+    }
+
+    /** {@inheritDoc} */
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /**
+     * Returns the sum of this expression and {@code m}.
+     *
+     * @param m Matrix to be added.
+     * @return {@code this + m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as this expression.
+     */
+    public RealMatrixExpression add(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkAdditionCompatible(this, m);
+        final List<Term> sum = new ArrayList<Term>(terms);
+        sum.add(new Term(1.0, m, null));
+        return new RealMatrixExpression(rows, columns, sum, shift);
+    }
+
+    /**
+     * Returns the sum of this expression and {@code e}.
+     *
+     * @param e Expression to be added.
+     * @return {@code this + e}.
+     * @throws MatrixDimensionMismatchException if {@code e} is not the same
+     * size as this expression.
+     */
+    public RealMatrixExpression add(final RealMatrixExpression e)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkAdditionCompatible(this, e);
+        final List<Term> sum = new ArrayList<Term>(terms);
+        sum.addAll(e.terms);
+        return new RealMatrixExpression(rows, columns, sum, shift + e.shift);
+    }
+
+    /**
+     * Returns the difference of this expression and {@code m}.
+     *
+     * @param m Matrix to be subtracted.
+     * @return {@code this - m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as this expression.
+     */
+    public RealMatrixExpression subtract(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        final List<Term> difference = new ArrayList<Term>(terms);
+        difference.add(new Term(-1.0, m, null));
+        return new RealMatrixExpression(rows, columns, difference, shift);
+    }
+
+    /**
+     * Returns the difference of this expression and {@code e}.
+     *
+     * @param e Expression to be subtracted.
+     * @return {@code this - e}.
+     * @throws MatrixDimensionMismatchException if {@code e} is not the same
+     * size as this expression.
+     */
+    public RealMatrixExpression subtract(final RealMatrixExpression e)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkSubtractionCompatible(this, e);
+        return add(e.scalarMultiply(-1.0));
+    }
+
+    /**
+     * Returns the result of adding {@code d} to each entry of this expression.
+     *
+     * @param d Value to be added to each entry.
+     * @return {@code d + this}.
+     */
+    public RealMatrixExpression scalarAdd(final double d) {
+        return new RealMatrixExpression(rows, columns, terms, shift + d);
+    }
+
+    /**
+     * Returns the result of multiplying each entry of this expression by {@code d}.
+     *
+     * @param d Value to multiply all entries by.
+     * @return {@code d * this}.
+     */
+    public RealMatrixExpression scalarMultiply(final double d) {
+        final List<Term> scaled = new ArrayList<Term>(terms.size());
+        for (final Term term : terms) {
+            scaled.add(new Term(d * term.scale, term.left, term.right));
+        }
+        return new RealMatrixExpression(rows, columns, scaled, d * shift);
+    }
+
+    /**
+     * Returns the result of postmultiplying this expression by {@code m}.
+     * <p>
+     * If this expression is a single scaled matrix, the product is recorded
+     * and will be fused with the other terms at evaluation time. Otherwise,
+     * this expression is evaluated first.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this * m}.
+     * @throws DimensionMismatchException if the column dimension of this
+     * expression is not equal to the row dimension of {@code m}.
+     */
+    public RealMatrixExpression multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final Term first = terms.get(0);
+        final List<Term> product = new ArrayList<Term>(1);
+        if (terms.size() == 1 && first.right == null && shift == 0) {
+            product.add(new Term(first.scale, first.left, m));
+        } else {
+            product.add(new Term(1.0, evaluate(), m));
+        }
+        return new RealMatrixExpression(rows, m.getColumnDimension(), product, 0.0);
+    }
+
+    /**
+     * Evaluate the expression.
+     *
+     * @return a new matrix holding the value of the expression.
+     */
+    public BlockRealMatrix evaluate() {
+
+        // set up the operands in block layout, converting each matrix only once
+        final int n = terms.size();
+        final BlockRealMatrix[] left = new BlockRealMatrix[n];
+        final BlockRealMatrix[] right = new BlockRealMatrix[n];
+        final Map<RealMatrix, BlockRealMatrix> converted =
+            new IdentityHashMap<RealMatrix, BlockRealMatrix>();
+        for (int t = 0; t < n; ++t) {
+            final Term term = terms.get(t);
+            if (term.right != null) {
+                left[t] = toBlock(term.left, converted);
+                right[t] = toBlock(term.right, converted);
+            } else if (term.left instanceof BlockRealMatrix) {
+                left[t] = (BlockRealMatrix) term.left;
+            }
+        }
+
+        final int blockRows = (rows + BlockRealMatrix.BLOCK_SIZE - 1) / BlockRealMatrix.BLOCK_SIZE;
+        final int blockColumns = (columns + BlockRealMatrix.BLOCK_SIZE - 1) / BlockRealMatrix.BLOCK_SIZE;
+        final double[][] blocks = BlockRealMatrix.createBlocksLayout(rows, columns);
+        int blockIndex = 0;
+        for (int iBlock = 0; iBlock < blockRows; ++iBlock) {
+            for (int jBlock = 0; jBlock < blockColumns; ++jBlock) {
+                final double[] outBlock = blocks[blockIndex];
+
+                // products first, then the epilogue while the block is hot
+                for (int t = 0; t < n; ++t) {
+                    if (right[t] != null) {
+                        left[t].multiplyBlock(right[t], terms.get(t).scale, outBlock, iBlock, jBlock);
+                    }
+                }
+                for (int t = 0; t < n; ++t) {
+                    final Term term = terms.get(t);
+                    if (right[t] == null) {
+                        if (left[t] != null) {
+                            left[t].addScaledBlock(term.scale, outBlock, blockIndex);
+                        } else {
+                            addScaledBlock(term.scale, term.left, outBlock, iBlock, jBlock);
+                        }
+                    }
+                }
+                if (shift != 0) {
+                    for (int k = 0; k < outBlock.length; ++k) {
+                        outBlock[k] += shift;
+                    }
+                }
+
+                ++blockIndex;
+            }
+        }
+
+        return new BlockRealMatrix(rows, columns, blocks, false);
+
+    }
+
+    /**
+     * Returns the result of multiplying this expression by the vector {@code v}.
+     * <p>
+     * The matrix is never formed: each term is applied to the vector,
+     * products being applied right to left.
+     * </p>
+     *
+     * @param v Vector to operate on.
+     * @return {@code this * v}.
+     * @throws DimensionMismatchException if the length of {@code v} does not
+     * match the column dimension of this expression.
+     */
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+
+        final double[] out = new double[rows];
+        for (final Term term : terms) {
+            final double[] image = (term.right == null) ?
+                                   term.left.operate(v) :
+                                   term.left.operate(term.right.operate(v));
+            for (int i = 0; i < rows; ++i) {
+                out[i] += term.scale * image[i];
+            }
+        }
+
+        if (shift != 0) {
+            double sum = 0;
+            for (final double vi : v) {
+                sum += vi;
+            }
+            final double offset = shift * sum;
+            for (int i = 0; i < rows; ++i) {
+                out[i] += offset;
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Returns the result of multiplying this expression by the vector {@code v}.
+     *
+     * @param v Vector to operate on.
+     * @return {@code this * v}.
+     * @throws DimensionMismatchException if the dimension of {@code v} does
+     * not match the column dimension of this expression.
+     */
+    public RealVector operate(final RealVector v)
+        throws DimensionMismatchException {
+        return new ArrayRealVector(operate(v.toArray()), false);
+    }
+
+    /**
+     * Convert a matrix to block layout if needed.
+     *
+     * @param m Matrix to convert.
+     * @param converted Matrices already converted, keyed by identity.
+     * @return {@code m} itself if it already is a {@link BlockRealMatrix},
+     * a converted copy otherwise.
+     */
+    private static BlockRealMatrix toBlock(final RealMatrix m,
+                                           final Map<RealMatrix, BlockRealMatrix> converted) {
+        if (m instanceof BlockRealMatrix) {
+            return (BlockRealMatrix) m;
+        }
+        BlockRealMatrix block = converted.get(m);
+        if (block == null) {
+            block = new BlockRealMatrix(m.getData());
+            converted.put(m, block);
+        }
+        return block;
+    }
+
+    /**
+     * Add one scaled block of a matrix not stored in block layout.
+     *
+     * @param scale Factor applied to the block.
+     * @param m Matrix to add.
+     * @param outBlock Array into which the scaled block is accumulated.
+     * @param iBlock Row index (in block sense) of the block.
+     * @param jBlock Column index (in block sense) of the block.
+     */
+    private static void addScaledBlock(final double scale, final RealMatrix m,
+                                       final double[] outBlock,
+                                       final int iBlock, final int jBlock) {
+        final int pStart = iBlock * BlockRealMatrix.BLOCK_SIZE;
+        final int pEnd = FastMath.min(pStart + BlockRealMatrix.BLOCK_SIZE, m.getRowDimension());
+        final int qStart = jBlock * BlockRealMatrix.BLOCK_SIZE;
+        final int qEnd = FastMath.min(qStart + BlockRealMatrix.BLOCK_SIZE, m.getColumnDimension());
+        int k = 0;
+        if (m instanceof Array2DRowRealMatrix) {
+            final double[][] data = ((Array2DRowRealMatrix) m).getDataRef();
+            for (int p = pStart; p < pEnd; ++p) {
+                final double[] dataP = data[p];
+                for (int q = qStart; q < qEnd; ++q) {
+                    outBlock[k++] += scale * dataP[q];
+                }
+            }
+        } else {
+            for (int p = pStart; p < pEnd; ++p) {
+                for (int q = qStart; q < qEnd; ++q) {
+                    outBlock[k++] += scale * m.getEntry(p, q);
+                }
+            }
+        }
+    }
+
+    /** Term of the linear combination. */
+    private static class Term {
+
+        /** Scale factor. */
+        private final double scale;
+
+        /** Left operand, or single matrix. */
+        private final RealMatrix left;
+
+        /** Right operand, {@code null} if the term is not a product. */
+        private final RealMatrix right;
+
+        /** Simple constructor.
+         * @param scale scale factor
+         * @param left left operand, or single matrix
+         * @param right right operand, {@code null} if the term is not a product
+         */
+        Term(final double scale, final RealMatrix left, final RealMatrix right) {
+            this.scale = scale;
+            this.left  = left;
+            this.right = right;
+        }
+
+    }
+
+}
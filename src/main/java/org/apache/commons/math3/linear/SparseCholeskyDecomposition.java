@@ -0,0 +1,595 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the Cholesky decomposition of a sparse symmetric
+ * positive-definite matrix.
+ * <p>
+ * The decomposition is P A P<sup>T</sup> = L L<sup>T</sup>, where P is a
+ * permutation chosen to reduce the fill-in of the sparse lower triangular
+ * factor L. It is computed in two phases:
+ * </p>
+ * <ul>
+ *   <li>a {@link SymbolicAnalysis symbolic analysis}, which only depends on
+ *   the sparsity pattern of A: it computes the ordering (by default an
+ *   approximate minimum degree ordering), the elimination tree and the
+ *   pattern of L,</li>
+ *   <li>a numerical factorization, which computes the entries of L row by
+ *   row (up-looking algorithm), in time proportional to the number of
+ *   floating point operations.</li>
+ * </ul>
+ * <p>
+ * The symbolic analysis can be {@link #getSymbolicAnalysis() retrieved} and
+ * reused to factorize other matrices with the same pattern (or a subset of
+ * it), as happens for example with the successive jacobians of a Newton
+ * iteration. In this case only the numerical phase is performed.
+ * </p>
+ * <p>
+ * Both triangular parts of A must be stored (as the permutation mixes them),
+ * but only one of each pair of symmetric entries is read, so symmetry is not
+ * checked. The matrix should preferably be a {@link CompressedColumnRealMatrix}
+ * or a {@link CompressedRowRealMatrix}; other matrices are converted first.
+ * </p>
+ *
+ * @see CholeskyDecomposition
+ * @see IncompleteCholeskyPreconditioner
+ * @version $Id$
+ * @since 3.3
+ */
+public class SparseCholeskyDecomposition {
+
+    /** Symbolic analysis. */
+    private final SymbolicAnalysis analysis;
+
+    /** Values of the entries of L, in the pattern of the analysis. */
+    private final double[] lValues;
+
+    /** Cached value of L. */
+    private CompressedColumnRealMatrix cachedL;
+
+    /**
+     * Calculates the Cholesky decomposition of the given matrix, using an
+     * approximate minimum degree ordering.
+     *
+     * @param matrix the matrix to decompose
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * strictly positive definite.
+     */
+    public SparseCholeskyDecomposition(final RealMatrix matrix)
+        throws NonSquareMatrixException, NonPositiveDefiniteMatrixException {
+        this(matrix, new SymbolicAnalysis(matrix));
+    }
+
+    /**
+     * Calculates the Cholesky decomposition of the given matrix, reusing
+     * an existing symbolic analysis.
+     *
+     * @param matrix the matrix to decompose
+     * @param analysis symbolic analysis of a matrix whose pattern contains
+     * the pattern of {@code matrix}
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @throws DimensionMismatchException if the matrix dimension does not
+     * match the analysis dimension.
+     * @throws MathIllegalArgumentException if the matrix has entries
+     * outside of the analyzed pattern.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * strictly positive definite.
+     */
+    public SparseCholeskyDecomposition(final RealMatrix matrix,
+                                       final SymbolicAnalysis analysis)
+        throws NonSquareMatrixException, DimensionMismatchException,
+               MathIllegalArgumentException, NonPositiveDefiniteMatrixException {
+
+        final AbstractCompressedRealMatrix a = SymbolicAnalysis.toCompressed(matrix);
+        final int n = analysis.n;
+        if (a.getRowDimension() != n) {
+            throw new DimensionMismatchException(a.getRowDimension(), n);
+        }
+        this.analysis = analysis;
+        this.cachedL  = null;
+
+        final int[]    aPointers = a.getPointersRef();
+        final int[]    aIndices  = a.getIndicesRef();
+        final double[] aValues   = a.getValuesRef();
+        final int[]    perm      = analysis.permutation;
+        final int[]    pinv      = analysis.inverse;
+        final int[]    lp        = analysis.lPointers;
+        final int[]    li        = analysis.lIndices;
+
+        lValues = new double[lp[n]];
+        final double[] x    = new double[n];
+        final int[]    next = new int[n];
+        final int[]    flag = new int[n];
+        final int[]    s    = new int[n];
+        for (int j = 0; j < n; ++j) {
+            next[j] = lp[j] + 1;
+            flag[j] = -1;
+        }
+
+        for (int k = 0; k < n; ++k) {
+
+            // nonzero pattern of row k of L, in topological order
+            final int top = analysis.reach(k, aPointers, aIndices, flag, s);
+
+            // scatter the upper part of column k of P A P^T
+            final int col = perm[k];
+            for (int q = aPointers[col]; q < aPointers[col + 1]; ++q) {
+                final int i = pinv[aIndices[q]];
+                if (i <= k) {
+                    x[i] += aValues[q];
+                }
+            }
+            double d = x[k];
+            x[k] = 0;
+
+            // solve L(0:k-1, 0:k-1) y = x, y being row k of L
+            for (int t = top; t < n; ++t) {
+                final int j = s[t];
+                final double lKJ = x[j] / lValues[lp[j]];
+                x[j] = 0;
+                for (int q = lp[j] + 1; q < next[j]; ++q) {
+                    x[li[q]] -= lValues[q] * lKJ;
+                }
+                d -= lKJ * lKJ;
+
+                // skip the analyzed entries that are structurally zero here
+                int slot = next[j];
+                while (slot < lp[j + 1] && li[slot] < k) {
+                    ++slot;
+                }
+                if (slot == lp[j + 1] || li[slot] != k) {
+                    throw new MathIllegalArgumentException(LocalizedFormats.NO_SUCH_MATRIX_ENTRY,
+                                                           perm[k], perm[j], n, n);
+                }
+                lValues[slot] = lKJ;
+                next[j] = slot + 1;
+            }
+
+            if (!(d > 0)) {
+                throw new NonPositiveDefiniteMatrixException(d, perm[k], 0);
+            }
+            lValues[lp[k]] = FastMath.sqrt(d);
+        }
+
+    }
+
+    /**
+     * Get the symbolic analysis used for this decomposition.
+     * <p>
+     * The analysis can be reused to decompose other matrices with the same
+     * sparsity pattern.
+     * </p>
+     *
+     * @return symbolic analysis
+     */
+    public SymbolicAnalysis getSymbolicAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Get the fill-reducing permutation.
+     *
+     * @return a copy of the permutation: row k of P A P<sup>T</sup> is
+     * row {@code permutation[k]} of A
+     */
+    public int[] getPermutation() {
+        return analysis.getPermutation();
+    }
+
+    /**
+     * Returns the matrix L of the decomposition.
+     * <p>L is a lower-triangular matrix such that P A P<sup>T</sup> =
+     * L L<sup>T</sup></p>
+     * @return the L matrix
+     */
+    public CompressedColumnRealMatrix getL() {
+        if (cachedL == null) {
+            final int n = analysis.n;
+            cachedL = new CompressedColumnRealMatrix(n, n,
+                                                     analysis.lPointers.clone(),
+                                                     analysis.lIndices.clone(),
+                                                     lValues.clone());
+        }
+        return cachedL;
+    }
+
+    /**
+     * Return the determinant of the matrix
+     * @return determinant of the matrix
+     */
+    public double getDeterminant() {
+        double determinant = 1.0;
+        for (int k = 0; k < analysis.n; ++k) {
+            final double lKK = lValues[analysis.lPointers[k]];
+            determinant *= lKK * lKK;
+        }
+        return determinant;
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in least square sense.
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver(analysis, lValues);
+    }
+
+    /**
+     * Symbolic analysis of a sparse symmetric matrix for Cholesky decomposition.
+     * <p>
+     * The analysis only depends on the sparsity pattern of the matrix. It
+     * holds the fill-reducing permutation, the elimination tree of the
+     * permuted matrix and the pattern of its Cholesky factor, and is
+     * immutable, so it can be shared between decompositions.
+     * </p>
+     * @since 3.3
+     */
+    public static class SymbolicAnalysis {
+
+        /** Dimension of the matrix. */
+        private final int n;
+
+        /** Permutation. */
+        private final int[] permutation;
+
+        /** Inverse permutation. */
+        private final int[] inverse;
+
+        /** Parent of each node in the elimination tree (-1 for roots). */
+        private final int[] parent;
+
+        /** Index of the first entry of each column of L. */
+        private final int[] lPointers;
+
+        /** Row indices of the entries of L (diagonal first in each column). */
+        private final int[] lIndices;
+
+        /**
+         * Analyze a matrix using an approximate minimum degree ordering.
+         *
+         * @param matrix symmetric matrix (only its pattern is used)
+         * @throws NonSquareMatrixException if the matrix is not square.
+         */
+        public SymbolicAnalysis(final RealMatrix matrix)
+            throws NonSquareMatrixException {
+            this(toCompressed(matrix), null);
+        }
+
+        /**
+         * Analyze a matrix using a specified ordering.
+         * <p>
+         * This allows to use an ordering computed elsewhere (for example by
+         * nested dissection), or the natural ordering for matrices which
+         * have a good ordering by construction.
+         * </p>
+         *
+         * @param matrix symmetric matrix (only its pattern is used)
+         * @param permutation ordering to use: row k of the permuted matrix
+         * is row {@code permutation[k]} of {@code matrix}
+         * @throws NonSquareMatrixException if the matrix is not square.
+         * @throws DimensionMismatchException if the permutation length does
+         * not match the matrix dimension.
+         * @throws OutOfRangeException if an index of the permutation is out
+         * of range.
+         * @throws MathIllegalArgumentException if an index appears twice in
+         * the permutation.
+         */
+        public SymbolicAnalysis(final RealMatrix matrix, final int[] permutation)
+            throws NonSquareMatrixException, DimensionMismatchException,
+                   OutOfRangeException, MathIllegalArgumentException {
+            this(toCompressed(matrix), permutation.clone());
+        }
+
+        /**
+         * Analyze a matrix.
+         *
+         * @param a symmetric matrix in compressed form
+         * @param permutation ordering to use (if null, an approximate minimum
+         * degree ordering is computed)
+         */
+        private SymbolicAnalysis(final AbstractCompressedRealMatrix a, final int[] permutation) {
+
+            n = a.getRowDimension();
+            final int[] aPointers = a.getPointersRef();
+            final int[] aIndices  = a.getIndicesRef();
+
+            // ordering
+            this.permutation = (permutation == null) ?
+                               MinimumDegreeOrdering.computeOrdering(n, aPointers, aIndices) :
+                               permutation;
+            if (this.permutation.length != n) {
+                throw new DimensionMismatchException(this.permutation.length, n);
+            }
+            inverse = new int[n];
+            for (int k = 0; k < n; ++k) {
+                inverse[k] = -1;
+            }
+            for (int k = 0; k < n; ++k) {
+                final int i = this.permutation[k];
+                if (i < 0 || i >= n) {
+                    throw new OutOfRangeException(LocalizedFormats.INDEX, i, 0, n - 1);
+                }
+                if (inverse[i] >= 0) {
+                    throw new MathIllegalArgumentException(LocalizedFormats.INDEX, i);
+                }
+                inverse[i] = k;
+            }
+
+            // elimination tree of the permuted matrix, with path compression
+            parent = new int[n];
+            final int[] ancestor = new int[n];
+            for (int k = 0; k < n; ++k) {
+                parent[k]   = -1;
+                ancestor[k] = -1;
+                final int col = this.permutation[k];
+                for (int q = aPointers[col]; q < aPointers[col + 1]; ++q) {
+                    int i = inverse[aIndices[q]];
+                    while (i >= 0 && i < k) {
+                        final int next = ancestor[i];
+                        ancestor[i] = k;
+                        if (next < 0) {
+                            parent[i] = k;
+                        }
+                        i = next;
+                    }
+                }
+            }
+
+            // column counts of L, using the row patterns
+            final int[] counts = new int[n];
+            final int[] flag   = new int[n];
+            final int[] s      = new int[n];
+            for (int k = 0; k < n; ++k) {
+                flag[k] = -1;
+            }
+            for (int k = 0; k < n; ++k) {
+                counts[k]++;
+                for (int t = reach(k, aPointers, aIndices, flag, s); t < n; ++t) {
+                    counts[s[t]]++;
+                }
+            }
+            lPointers = new int[n + 1];
+            for (int k = 0; k < n; ++k) {
+                lPointers[k + 1] = lPointers[k] + counts[k];
+            }
+
+            // pattern of L, with sorted row indices
+            lIndices = new int[lPointers[n]];
+            final int[] next = new int[n];
+            for (int k = 0; k < n; ++k) {
+                flag[k] = -1;
+                next[k] = lPointers[k] + 1;
+                lIndices[lPointers[k]] = k;
+            }
+            for (int k = 0; k < n; ++k) {
+                for (int t = reach(k, aPointers, aIndices, flag, s); t < n; ++t) {
+                    lIndices[next[s[t]]++] = k;
+                }
+            }
+
+        }
+
+        /**
+         * Convert a matrix to compressed form.
+         *
+         * @param matrix matrix to convert
+         * @return compressed matrix (either compressed row or compressed
+         * column, which are equivalent for symmetric matrices)
+         * @throws NonSquareMatrixException if the matrix is not square.
+         */
+        private static AbstractCompressedRealMatrix toCompressed(final RealMatrix matrix)
+            throws NonSquareMatrixException {
+            if (!matrix.isSquare()) {
+                throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                                   matrix.getColumnDimension());
+            }
+            return (matrix instanceof AbstractCompressedRealMatrix) ?
+                   (AbstractCompressedRealMatrix) matrix :
+                   new CompressedColumnRealMatrix(matrix);
+        }
+
+        /**
+         * Compute the nonzero pattern of a row of L.
+         * <p>
+         * The pattern is the set of nodes reached in the elimination tree
+         * from the entries of the upper part of column k of the permuted
+         * matrix, stopping at k.
+         * </p>
+         *
+         * @param k row index
+         * @param aPointers index of the first entry of each slice of the matrix
+         * @param aIndices minor indices of the entries of the matrix
+         * @param flag work array, flag[j] is set to k for visited nodes
+         * @param s output array, the pattern is in s[top] to s[n - 1],
+         * in topological order
+         * @return top
+         * @throws MathIllegalArgumentException if the matrix has entries
+         * outside of the analyzed pattern.
+         */
+        int reach(final int k, final int[] aPointers, final int[] aIndices,
+                  final int[] flag, final int[] s)
+            throws MathIllegalArgumentException {
+            int top = n;
+            flag[k] = k;
+            final int col = permutation[k];
+            for (int q = aPointers[col]; q < aPointers[col + 1]; ++q) {
+                int i = inverse[aIndices[q]];
+                if (i > k) {
+                    continue;
+                }
+                int length = 0;
+                while (flag[i] != k) {
+                    s[length++] = i;
+                    flag[i] = k;
+                    i = parent[i];
+                    if (i < 0) {
+                        // the path did not reach k: entry not in the analyzed pattern
+                        throw new MathIllegalArgumentException(LocalizedFormats.NO_SUCH_MATRIX_ENTRY,
+                                                               aIndices[q], col, n, n);
+                    }
+                }
+                while (length > 0) {
+                    s[--top] = s[--length];
+                }
+            }
+            return top;
+        }
+
+        /**
+         * Get the dimension of the analyzed matrix.
+         *
+         * @return dimension of the matrix
+         */
+        public int getDimension() {
+            return n;
+        }
+
+        /**
+         * Get the fill-reducing permutation.
+         *
+         * @return a copy of the permutation: row k of the permuted matrix is
+         * row {@code permutation[k]} of the analyzed matrix
+         */
+        public int[] getPermutation() {
+            return permutation.clone();
+        }
+
+        /**
+         * Get the number of entries of the Cholesky factor, including fill-in.
+         *
+         * @return number of entries of L
+         */
+        public int getNonZeroCount() {
+            return lPointers[n];
+        }
+
+    }
+
+    /** Specialized solver. */
+    private static class Solver implements DecompositionSolver {
+
+        /** Symbolic analysis. */
+        private final SymbolicAnalysis analysis;
+
+        /** Values of the entries of L. */
+        private final double[] lValues;
+
+        /**
+         * Build a solver from decomposed matrix.
+         * @param analysis symbolic analysis
+         * @param lValues values of the entries of L
+         */
+        private Solver(final SymbolicAnalysis analysis, final double[] lValues) {
+            this.analysis = analysis;
+            this.lValues  = lValues;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            // if we get this far, the matrix was positive definite, hence non-singular
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(final RealVector b) {
+            final int n = analysis.n;
+            if (b.getDimension() != n) {
+                throw new DimensionMismatchException(b.getDimension(), n);
+            }
+            final double[] x = new double[n];
+            solve(b.toArray(), x);
+            return new ArrayRealVector(x, false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(final RealMatrix b) {
+            final int n = analysis.n;
+            if (b.getRowDimension() != n) {
+                throw new DimensionMismatchException(b.getRowDimension(), n);
+            }
+            final int nColB = b.getColumnDimension();
+            final double[][] x = new double[n][nColB];
+            final double[] column = new double[n];
+            for (int c = 0; c < nColB; ++c) {
+                solve(b.getColumn(c), column);
+                for (int i = 0; i < n; ++i) {
+                    x[i][c] = column[i];
+                }
+            }
+            return new Array2DRowRealMatrix(x, false);
+        }
+
+        /**
+         * Solve the system for one right hand side.
+         * @param b right hand side
+         * @param x placeholder for the solution
+         */
+        private void solve(final double[] b, final double[] x) {
+            final int    n  = analysis.n;
+            final int[]  p  = analysis.permutation;
+            final int[]  lp = analysis.lPointers;
+            final int[]  li = analysis.lIndices;
+
+            // y = P b
+            final double[] y = new double[n];
+            for (int k = 0; k < n; ++k) {
+                y[k] = b[p[k]];
+            }
+
+            // solve L z = y
+            for (int j = 0; j < n; ++j) {
+                final double yJ = y[j] / lValues[lp[j]];
+                y[j] = yJ;
+                for (int q = lp[j] + 1; q < lp[j + 1]; ++q) {
+                    y[li[q]] -= lValues[q] * yJ;
+                }
+            }
+
+            // solve L^T w = z
+            for (int j = n - 1; j >= 0; --j) {
+                double sum = y[j];
+                for (int q = lp[j] + 1; q < lp[j + 1]; ++q) {
+                    sum -= lValues[q] * y[li[q]];
+                }
+                y[j] = sum / lValues[lp[j]];
+            }
+
+            // x = P^T w
+            for (int k = 0; k < n; ++k) {
+                x[p[k]] = y[k];
+            }
+        }
+
+        /**
+         * Get the inverse of the decomposed matrix.
+         *
+         * @return the inverse matrix.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(analysis.n));
+        }
+    }
+
+}
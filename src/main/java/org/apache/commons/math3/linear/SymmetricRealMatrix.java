@@ -0,0 +1,776 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.Serializable;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.MathUtils;
+
+/**
+ * Implementation of a symmetric matrix with packed storage.
+ * <p>
+ * Only the upper triangular part of the matrix is stored, column by column:
+ * entry a<sub>ij</sub> with i &le; j is stored at index j (j + 1) / 2 + i of
+ * the {@link #getDataRef() data array}. This is the layout used by the BLAS
+ * and LAPACK packed routines, and it needs n (n + 1) / 2 elements instead of
+ * n<sup>2</sup>. Products with vectors and matrices, {@link
+ * #rankKUpdate(double, RealMatrix) rank-k updates} and {@link
+ * #quadraticForm(double[]) quadratic forms} only read each stored element
+ * once, hence perform about half of the operations of their dense
+ * counterparts.
+ * </p>
+ * <p>
+ * Since a<sub>ij</sub> and a<sub>ji</sub> share the same storage, {@link
+ * #setEntry(int, int, double) setting}, {@link #addToEntry(int, int, double)
+ * incrementing} or {@link #multiplyEntry(int, int, double) multiplying} one
+ * of them also changes the other one, so the matrix always remains symmetric.
+ * For the same reason, {@link #setRow(int, double[]) setting a row} also sets
+ * the column with the same index, and {@link #setSubMatrix(double[][], int,
+ * int) setting a sub-matrix} also sets its mirror image with respect to the
+ * diagonal. The walks with a {@link RealMatrixChangingVisitor changing
+ * visitor} visit each stored element only once, at its upper triangular
+ * position. Operations whose result is not symmetric in general, like {@link
+ * #multiply(RealMatrix) multiplication}, return a dense matrix.
+ * </p>
+ * <p>
+ * {@link CholeskyDecomposition} and {@link EigenDecomposition} accept
+ * instances of this class without checking their symmetry. The Cholesky
+ * decomposition works directly on the packed data.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class SymmetricRealMatrix extends AbstractRealMatrix
+    implements Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140309L;
+
+    /** Dimension of the matrix. */
+    private final int n;
+
+    /** Upper triangular part of the matrix, packed column by column. */
+    private final double[] data;
+
+    /**
+     * Creates a symmetric matrix with the supplied dimension.
+     *
+     * @param dimension Number of rows and columns in the new matrix.
+     * @throws NotStrictlyPositiveException if the dimension is not positive.
+     */
+    public SymmetricRealMatrix(final int dimension)
+        throws NotStrictlyPositiveException {
+        super(dimension, dimension);
+        this.n    = dimension;
+        this.data = new double[dimension * (dimension + 1) / 2];
+    }
+
+    /**
+     * Creates a symmetric matrix from the entries of a dense array.
+     * <p>
+     * The input array is copied, not referenced. It must be exactly
+     * symmetric.
+     * </p>
+     *
+     * @param d Data for the new matrix.
+     * @throws DimensionMismatchException if {@code d} is not rectangular.
+     * @throws NoDataException if {@code d} is empty.
+     * @throws NonSquareMatrixException if {@code d} is not square.
+     * @throws NonSymmetricMatrixException if {@code d} is not symmetric.
+     */
+    public SymmetricRealMatrix(final double[][] d)
+        throws DimensionMismatchException, NoDataException,
+               NonSquareMatrixException, NonSymmetricMatrixException {
+        this(new Array2DRowRealMatrix(d, false), 0);
+    }
+
+    /**
+     * Creates a symmetric matrix from the entries of another matrix.
+     * <p>
+     * The entries of the upper triangular part of {@code m} are copied.
+     * </p>
+     *
+     * @param m Matrix to copy.
+     * @param relativeSymmetryThreshold Threshold above which off-diagonal
+     * elements are considered too different and matrix not symmetric.
+     * @throws NonSquareMatrixException if {@code m} is not square.
+     * @throws NonSymmetricMatrixException if {@code m} is not symmetric.
+     */
+    public SymmetricRealMatrix(final RealMatrix m,
+                               final double relativeSymmetryThreshold)
+        throws NonSquareMatrixException, NonSymmetricMatrixException {
+        this(checkSymmetric(m, relativeSymmetryThreshold));
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            for (int i = 0; i <= j; ++i) {
+                data[index++] = m.getEntry(i, j);
+            }
+        }
+    }
+
+    /**
+     * Check that a matrix is symmetric.
+     *
+     * @param m Matrix to check.
+     * @param relativeSymmetryThreshold Threshold above which off-diagonal
+     * elements are considered too different and matrix not symmetric.
+     * @return the dimension of the matrix.
+     * @throws NonSquareMatrixException if {@code m} is not square.
+     * @throws NonSymmetricMatrixException if {@code m} is not symmetric.
+     */
+    private static int checkSymmetric(final RealMatrix m,
+                                      final double relativeSymmetryThreshold)
+        throws NonSquareMatrixException, NonSymmetricMatrixException {
+        MatrixUtils.checkSymmetric(m, relativeSymmetryThreshold);
+        return m.getRowDimension();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As the new matrix must be able to hold any entry, it is a dense
+     * {@link Array2DRowRealMatrix}.
+     * </p>
+     */
+    @Override
+    public RealMatrix createMatrix(final int rowDimension,
+                                   final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new Array2DRowRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SymmetricRealMatrix copy() {
+        final SymmetricRealMatrix copy = new SymmetricRealMatrix(n);
+        System.arraycopy(data, 0, copy.data, 0, data.length);
+        return copy;
+    }
+
+    /**
+     * Gets a reference to the underlying data array.
+     * <p>
+     * The layout of the array is described in the class documentation.
+     * </p>
+     *
+     * @return 1-dimensional array of the packed upper triangular part.
+     */
+    public double[] getDataRef() {
+        return data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[][] getData() {
+        final double[][] out = new double[n][n];
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double[] outJ = out[j];
+            for (int i = 0; i <= j; ++i) {
+                final double value = data[index++];
+                out[i][j] = value;
+                outJ[i]   = value;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compute the sum of {@code this} and {@code m}.
+     *
+     * @param m Matrix to be added.
+     * @return {@code this + m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public SymmetricRealMatrix add(final SymmetricRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkAdditionCompatible(this, m);
+        final SymmetricRealMatrix out = new SymmetricRealMatrix(n);
+        for (int k = 0; k < data.length; ++k) {
+            out.data[k] = data[k] + m.data[k];
+        }
+        return out;
+    }
+
+    /**
+     * Returns {@code this} minus {@code m}.
+     *
+     * @param m Matrix to be subtracted.
+     * @return {@code this - m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public SymmetricRealMatrix subtract(final SymmetricRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        final SymmetricRealMatrix out = new SymmetricRealMatrix(n);
+        for (int k = 0; k < data.length; ++k) {
+            out.data[k] = data[k] - m.data[k];
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix add(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof SymmetricRealMatrix) {
+            return add((SymmetricRealMatrix) m);
+        }
+        return super.add(m);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix subtract(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof SymmetricRealMatrix) {
+            return subtract((SymmetricRealMatrix) m);
+        }
+        return super.subtract(m);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SymmetricRealMatrix scalarAdd(final double d) {
+        final SymmetricRealMatrix out = new SymmetricRealMatrix(n);
+        for (int k = 0; k < data.length; ++k) {
+            out.data[k] = data[k] + d;
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SymmetricRealMatrix scalarMultiply(final double d) {
+        final SymmetricRealMatrix out = new SymmetricRealMatrix(n);
+        for (int k = 0; k < data.length; ++k) {
+            out.data[k] = data[k] * d;
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+        final int nCols = m.getColumnDimension();
+        final double[][] mData = m.getData();
+        final double[][] out = new double[n][nCols];
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double[] mJ   = mData[j];
+            final double[] outJ = out[j];
+            for (int i = 0; i < j; ++i) {
+                // a(i,j) contributes to both out(i,:) and out(j,:)
+                final double aIJ = data[index++];
+                final double[] mI   = mData[i];
+                final double[] outI = out[i];
+                for (int c = 0; c < nCols; ++c) {
+                    outI[c] += aIJ * mJ[c];
+                    outJ[c] += aIJ * mI[c];
+                }
+            }
+            final double aJJ = data[index++];
+            for (int c = 0; c < nCols; ++c) {
+                outJ[c] += aJJ * mJ[c];
+            }
+        }
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SymmetricRealMatrix transpose() {
+        return copy();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        return data[index(row, column)];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The symmetric entry (column, row) is set too.
+     * </p>
+     */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[index(row, column)] = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The symmetric entry (column, row) is incremented too.
+     * </p>
+     */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[index(row, column)] += increment;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The symmetric entry (column, row) is multiplied too.
+     * </p>
+     */
+    @Override
+    public void multiplyEntry(final int row, final int column, final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        data[index(row, column)] *= factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Column {@code row} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setRow(final int row, final double[] array)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setRow(row, array);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Row {@code column} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setColumn(final int column, final double[] array)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setColumn(column, array);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Column {@code row} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setRowVector(final int row, final RealVector vector)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setRowVector(row, vector);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Row {@code column} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setColumnVector(final int column, final RealVector vector)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setColumnVector(column, vector);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Column {@code row} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setRowMatrix(final int row, final RealMatrix matrix)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setRowMatrix(row, matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Row {@code column} is set to the same values.
+     * </p>
+     */
+    @Override
+    public void setColumnMatrix(final int column, final RealMatrix matrix)
+        throws OutOfRangeException, MatrixDimensionMismatchException {
+        super.setColumnMatrix(column, matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The mirror image of the sub-matrix with respect to the diagonal is set
+     * too. Entries of the sub-matrix whose mirror also lies in the
+     * sub-matrix must therefore be exactly symmetric.
+     * </p>
+     *
+     * @throws NonSymmetricMatrixException if two entries of {@code subMatrix}
+     * are mirror images of each other but differ.
+     */
+    @Override
+    public void setSubMatrix(final double[][] subMatrix, final int row, final int column)
+        throws NoDataException, OutOfRangeException,
+        DimensionMismatchException, NullArgumentException,
+        NonSymmetricMatrixException {
+        MathUtils.checkNotNull(subMatrix);
+        final int nRows = subMatrix.length;
+        if (nRows == 0) {
+            throw new NoDataException(LocalizedFormats.AT_LEAST_ONE_ROW);
+        }
+        final int nCols = subMatrix[0].length;
+        if (nCols == 0) {
+            throw new NoDataException(LocalizedFormats.AT_LEAST_ONE_COLUMN);
+        }
+        for (int r = 1; r < nRows; ++r) {
+            if (subMatrix[r].length != nCols) {
+                throw new DimensionMismatchException(nCols, subMatrix[r].length);
+            }
+        }
+        MatrixUtils.checkRowIndex(this, row);
+        MatrixUtils.checkColumnIndex(this, column);
+        MatrixUtils.checkRowIndex(this, nRows + row - 1);
+        MatrixUtils.checkColumnIndex(this, nCols + column - 1);
+
+        // entries sharing the same storage must agree before anything is written
+        for (int i = 0; i < nRows; ++i) {
+            final int r = row + i;
+            for (int j = 0; j < nCols; ++j) {
+                final int c = column + j;
+                if (r < c &&
+                    c >= row && c < row + nRows &&
+                    r >= column && r < column + nCols &&
+                    subMatrix[i][j] != subMatrix[c - row][r - column]) {
+                    throw new NonSymmetricMatrixException(r, c, 0);
+                }
+            }
+        }
+
+        for (int i = 0; i < nRows; ++i) {
+            for (int j = 0; j < nCols; ++j) {
+                data[index(row + i, column + j)] = subMatrix[i][j];
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != n) {
+            throw new DimensionMismatchException(v.length, n);
+        }
+        final double[] out = new double[n];
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double vJ = v[j];
+            double sum = 0;
+            for (int i = 0; i < j; ++i) {
+                final double aIJ = data[index++];
+                out[i] += aIJ * vJ;
+                sum    += aIJ * v[i];
+            }
+            out[j] += sum + data[index++] * vJ;
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v)
+        throws DimensionMismatchException {
+        // v^T A = (A v)^T for symmetric matrices
+        return operate(v);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each stored element is visited once, at its upper triangular position
+     * (row &le; column), and the value returned by the visitor is used for
+     * both entries sharing this element.
+     * </p>
+     */
+    @Override
+    public double walkInRowOrder(final RealMatrixChangingVisitor visitor) {
+        return walkInRowOrder(visitor, 0, n - 1, 0, n - 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each stored element is visited once. An off-diagonal element is
+     * visited at its upper triangular position (row &lt; column) if this
+     * position lies in the sub-matrix, and at its lower triangular position
+     * otherwise. The value returned by the visitor is used for both entries
+     * sharing this element.
+     * </p>
+     */
+    @Override
+    public double walkInRowOrder(final RealMatrixChangingVisitor visitor,
+                                 final int startRow, final int endRow,
+                                 final int startColumn, final int endColumn)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        MatrixUtils.checkSubMatrixIndex(this, startRow, endRow, startColumn, endColumn);
+        visitor.start(n, n, startRow, endRow, startColumn, endColumn);
+        for (int i = startRow; i <= endRow; ++i) {
+            for (int j = startColumn; j <= endColumn; ++j) {
+                if (isVisited(i, j, startRow, endRow, startColumn, endColumn)) {
+                    final int k = index(i, j);
+                    data[k] = visitor.visit(i, j, data[k]);
+                }
+            }
+        }
+        return visitor.end();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each stored element is visited once, at its upper triangular position
+     * (row &le; column), and the value returned by the visitor is used for
+     * both entries sharing this element.
+     * </p>
+     */
+    @Override
+    public double walkInColumnOrder(final RealMatrixChangingVisitor visitor) {
+        return walkInColumnOrder(visitor, 0, n - 1, 0, n - 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each stored element is visited once. An off-diagonal element is
+     * visited at its upper triangular position (row &lt; column) if this
+     * position lies in the sub-matrix, and at its lower triangular position
+     * otherwise. The value returned by the visitor is used for both entries
+     * sharing this element.
+     * </p>
+     */
+    @Override
+    public double walkInColumnOrder(final RealMatrixChangingVisitor visitor,
+                                    final int startRow, final int endRow,
+                                    final int startColumn, final int endColumn)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        MatrixUtils.checkSubMatrixIndex(this, startRow, endRow, startColumn, endColumn);
+        visitor.start(n, n, startRow, endRow, startColumn, endColumn);
+        for (int j = startColumn; j <= endColumn; ++j) {
+            for (int i = startRow; i <= endRow; ++i) {
+                if (isVisited(i, j, startRow, endRow, startColumn, endColumn)) {
+                    final int k = index(i, j);
+                    data[k] = visitor.visit(i, j, data[k]);
+                }
+            }
+        }
+        return visitor.end();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The walk is performed in column order, which follows the packed
+     * storage, and has the same behavior as {@link
+     * #walkInColumnOrder(RealMatrixChangingVisitor)}.
+     * </p>
+     */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixChangingVisitor visitor) {
+        return walkInColumnOrder(visitor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The walk is performed in column order, which follows the packed
+     * storage, and has the same behavior as {@link
+     * #walkInColumnOrder(RealMatrixChangingVisitor, int, int, int, int)}.
+     * </p>
+     */
+    @Override
+    public double walkInOptimizedOrder(final RealMatrixChangingVisitor visitor,
+                                       final int startRow, final int endRow,
+                                       final int startColumn, final int endColumn)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        return walkInColumnOrder(visitor, startRow, endRow, startColumn, endColumn);
+    }
+
+    /**
+     * Computes the quadratic form x<sup>T</sup> A x.
+     *
+     * @param x Vector.
+     * @return x<sup>T</sup> A x.
+     * @throws DimensionMismatchException if the dimension of {@code x} does
+     * not match the dimension of the matrix.
+     */
+    public double quadraticForm(final double[] x)
+        throws DimensionMismatchException {
+        if (x.length != n) {
+            throw new DimensionMismatchException(x.length, n);
+        }
+        double offDiagonal = 0;
+        double diagonal    = 0;
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double xJ = x[j];
+            double sum = 0;
+            for (int i = 0; i < j; ++i) {
+                sum += data[index++] * x[i];
+            }
+            offDiagonal += sum * xJ;
+            diagonal    += data[index++] * xJ * xJ;
+        }
+        return 2 * offDiagonal + diagonal;
+    }
+
+    /**
+     * Computes the quadratic form x<sup>T</sup> A x.
+     *
+     * @param x Vector.
+     * @return x<sup>T</sup> A x.
+     * @throws DimensionMismatchException if the dimension of {@code x} does
+     * not match the dimension of the matrix.
+     */
+    public double quadraticForm(final RealVector x)
+        throws DimensionMismatchException {
+        if (x instanceof ArrayRealVector) {
+            return quadraticForm(((ArrayRealVector) x).getDataRef());
+        }
+        return quadraticForm(x.toArray());
+    }
+
+    /**
+     * Performs in place the rank-one update A &larr; A + &alpha; x x<sup>T</sup>.
+     *
+     * @param alpha Scaling factor.
+     * @param x Vector.
+     * @throws DimensionMismatchException if the dimension of {@code x} does
+     * not match the dimension of the matrix.
+     */
+    public void rankOneUpdate(final double alpha, final double[] x)
+        throws DimensionMismatchException {
+        if (x.length != n) {
+            throw new DimensionMismatchException(x.length, n);
+        }
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double scaledXJ = alpha * x[j];
+            for (int i = 0; i <= j; ++i) {
+                data[index++] += x[i] * scaledXJ;
+            }
+        }
+    }
+
+    /**
+     * Performs in place the rank-k update A &larr; A + &alpha; B B<sup>T</sup>.
+     * <p>
+     * For a matrix B with k columns, this is equivalent to k {@link
+     * #rankOneUpdate(double, double[]) rank-one updates}, one for each column
+     * of B. An update with B<sup>T</sup> B (for example to accumulate a
+     * scatter matrix from a block of observations stored as rows of B) is
+     * obtained by passing the transpose of B.
+     * </p>
+     *
+     * @param alpha Scaling factor.
+     * @param b Matrix with as many rows as {@code this}.
+     * @throws DimensionMismatchException if the row dimension of {@code b}
+     * does not match the dimension of the matrix.
+     */
+    public void rankKUpdate(final double alpha, final RealMatrix b)
+        throws DimensionMismatchException {
+        if (b.getRowDimension() != n) {
+            throw new DimensionMismatchException(b.getRowDimension(), n);
+        }
+        final int k = b.getColumnDimension();
+        final double[][] bData = b.getData();
+        int index = 0;
+        for (int j = 0; j < n; ++j) {
+            final double[] bJ = bData[j];
+            for (int i = 0; i <= j; ++i) {
+                final double[] bI = bData[i];
+                double dot = 0;
+                for (int p = 0; p < k; ++p) {
+                    dot += bI[p] * bJ[p];
+                }
+                data[index++] += alpha * dot;
+            }
+        }
+    }
+
+    /**
+     * Check if an entry of a sub-matrix is the one at which a changing walk
+     * visits its stored element.
+     *
+     * @param row Row index of the entry.
+     * @param column Column index of the entry.
+     * @param startRow Initial row index of the sub-matrix.
+     * @param endRow Final row index of the sub-matrix (inclusive).
+     * @param startColumn Initial column index of the sub-matrix.
+     * @param endColumn Final column index of the sub-matrix (inclusive).
+     * @return true if the entry is in the upper triangular part or if its
+     * mirror entry is not in the sub-matrix.
+     */
+    private static boolean isVisited(final int row, final int column,
+                                     final int startRow, final int endRow,
+                                     final int startColumn, final int endColumn) {
+        return row <= column ||
+               column < startRow || column > endRow ||
+               row < startColumn || row > endColumn;
+    }
+
+    /**
+     * Get the index of an entry in the packed data array.
+     *
+     * @param row Row index.
+     * @param column Column index.
+     * @return index of the entry.
+     */
+    private static int index(final int row, final int column) {
+        return (row <= column) ?
+               column * (column + 1) / 2 + row :
+               row * (row + 1) / 2 + column;
+    }
+
+}
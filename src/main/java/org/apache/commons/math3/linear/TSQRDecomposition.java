@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.util.ConcurrencyUtils;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Calculates the R factor of the QR-decomposition of a tall and skinny matrix
+ * using the Tall Skinny QR (TSQR) algorithm.
+ * <p>The rows of the matrix are split in chunks, each chunk is decomposed
+ * independently using a {@link BlockQRDecomposition}, and the R factors of the
+ * chunks are merged pairwise, by decomposing the two stacked triangular factors,
+ * until a single R factor remains. If an {@link ExecutorService executor} is
+ * provided at construction, the chunks and the merges at each level of the
+ * reduction tree are decomposed concurrently. The result does not depend on the
+ * use of an executor.</p>
+ * <p>The orthogonal factor Q is never formed: it is represented implicitly by
+ * the reflections of all the decompositions of the reduction tree, which is
+ * sufficient to solve least squares problems. For this reason, and contrary to
+ * {@link QRDecomposition}, the R factor is returned in its reduced form: for an
+ * m&times;n matrix A, it is a min(m, n)&times;n matrix, the remaining rows of the
+ * full factor being all zeros. This matrix satisfies A<sup>T</sup>A = R<sup>T</sup>R,
+ * and it is equal to the R factor computed by {@link QRDecomposition} up to the
+ * signs of its rows.</p>
+ *
+ * @see <a href="http://www.netlib.org/lapack/lawnspdf/lawn204.pdf">Demmel, Grigori,
+ * Hoemmen and Langou, Communication-optimal parallel and sequential QR and LU
+ * factorizations, LAPACK Working Note 204</a>
+ * @see BlockQRDecomposition
+ * @version $Id$
+ * @since 3.3
+ */
+public class TSQRDecomposition {
+
+    /** Default number of rows in each chunk. */
+    public static final int DEFAULT_CHUNK_ROWS = 8192;
+
+    /** Number of rows. */
+    private final int m;
+
+    /** Number of columns. */
+    private final int n;
+
+    /** Index of the first row of each chunk, plus the number of rows. */
+    private final int[] chunkStarts;
+
+    /**
+     * Decompositions of the reduction tree.
+     * <p>Level 0 holds the decompositions of the chunks, and element i of
+     * level l+1 holds the decomposition of the stacked R factors of elements
+     * 2i and 2i+1 of level l, or null if element 2i+1 does not exist, in which
+     * case element 2i of level l is passed unchanged to level l+2.</p>
+     */
+    private final BlockQRDecomposition[][] tree;
+
+    /** Decomposition holding the final R factor. */
+    private final BlockQRDecomposition root;
+
+    /** Executor used for solving (may be null). */
+    private final ExecutorService executor;
+
+    /** Cached value of R. */
+    private RealMatrix cachedR;
+
+    /**
+     * Calculates the TSQR-decomposition of the given matrix.
+     * The singularity threshold defaults to zero and all
+     * computation is done in the calling thread.
+     *
+     * @param matrix The matrix to decompose.
+     */
+    public TSQRDecomposition(RealMatrix matrix) {
+        this(matrix, 0d, null);
+    }
+
+    /**
+     * Calculates the TSQR-decomposition of the given matrix,
+     * using {@link #DEFAULT_CHUNK_ROWS default chunks size}.
+     *
+     * @param matrix The matrix to decompose.
+     * @param threshold Singularity threshold.
+     * @param executor executor in charge of decomposing the chunks
+     * (if null, all computation is done in the calling thread)
+     */
+    public TSQRDecomposition(RealMatrix matrix, double threshold, ExecutorService executor) {
+        this(matrix, FastMath.max(DEFAULT_CHUNK_ROWS, matrix.getColumnDimension()),
+             threshold, executor);
+    }
+
+    /**
+     * Calculates the TSQR-decomposition of the given matrix.
+     * <p>If the number of rows is not a multiple of {@code chunkRows},
+     * the last rows are added to the last chunk.</p>
+     *
+     * @param matrix The matrix to decompose.
+     * @param chunkRows Number of rows in each chunk.
+     * @param threshold Singularity threshold.
+     * @param executor executor in charge of decomposing the chunks
+     * (if null, all computation is done in the calling thread)
+     * @throws NumberIsTooSmallException if {@code chunkRows} is smaller
+     * than the number of columns of the matrix.
+     */
+    public TSQRDecomposition(final RealMatrix matrix, final int chunkRows,
+                             final double threshold, final ExecutorService executor)
+        throws NumberIsTooSmallException {
+
+        m = matrix.getRowDimension();
+        n = matrix.getColumnDimension();
+        if (chunkRows < n) {
+            throw new NumberIsTooSmallException(chunkRows, n, true);
+        }
+        this.executor = executor;
+
+        final int nChunks = FastMath.max(1, m / chunkRows);
+        chunkStarts = new int[nChunks + 1];
+        for (int i = 0; i < nChunks; ++i) {
+            chunkStarts[i] = i * chunkRows;
+        }
+        chunkStarts[nChunks] = m;
+
+        // count the levels of the reduction tree
+        int nLevels = 1;
+        for (int size = nChunks; size > 1; size = (size + 1) / 2) {
+            ++nLevels;
+        }
+        tree = new BlockQRDecomposition[nLevels][];
+
+        // decompose the chunks
+        final List<Callable<BlockQRDecomposition>> leafTasks =
+            new ArrayList<Callable<BlockQRDecomposition>>(nChunks);
+        for (int i = 0; i < nChunks; ++i) {
+            final int start = chunkStarts[i];
+            final int end   = chunkStarts[i + 1];
+            leafTasks.add(new Callable<BlockQRDecomposition>() {
+                /** {@inheritDoc} */
+                public BlockQRDecomposition call() {
+                    final double[][] chunk = new double[n][end - start];
+                    matrix.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+                        /** {@inheritDoc} */
+                        @Override
+                        public void visit(final int row, final int column, final double value) {
+                            chunk[column][row - start] = value;
+                        }
+                    }, start, end - 1, 0, n - 1);
+                    return new BlockQRDecomposition(chunk, end - start, threshold);
+                }
+            });
+        }
+        tree[0] = toArray(ConcurrencyUtils.invokeAllOrRun(executor, leafTasks));
+
+        // merge the R factors pairwise
+        BlockQRDecomposition[] current = tree[0];
+        for (int level = 1; level < nLevels; ++level) {
+            final BlockQRDecomposition[] children = current;
+            final List<Callable<BlockQRDecomposition>> mergeTasks =
+                new ArrayList<Callable<BlockQRDecomposition>>();
+            for (int i = 0; i + 1 < children.length; i += 2) {
+                final BlockQRDecomposition upper = children[i];
+                final BlockQRDecomposition lower = children[i + 1];
+                mergeTasks.add(new Callable<BlockQRDecomposition>() {
+                    /** {@inheritDoc} */
+                    public BlockQRDecomposition call() {
+                        final double[][] stacked = new double[n][2 * n];
+                        upper.copyR(stacked, 0);
+                        lower.copyR(stacked, n);
+                        return new BlockQRDecomposition(stacked, 2 * n, threshold);
+                    }
+                });
+            }
+            final List<BlockQRDecomposition> merged = ConcurrencyUtils.invokeAllOrRun(executor, mergeTasks);
+
+            tree[level] = new BlockQRDecomposition[(children.length + 1) / 2];
+            current     = new BlockQRDecomposition[tree[level].length];
+            for (int i = 0; i < tree[level].length; ++i) {
+                if (i < merged.size()) {
+                    tree[level][i] = merged.get(i);
+                    current[i]     = merged.get(i);
+                } else {
+                    // odd number of children, the last one is passed unchanged
+                    current[i] = children[2 * i];
+                }
+            }
+        }
+        root = current[0];
+
+    }
+
+    /**
+     * Convert a list of decompositions to an array.
+     * @param list list to convert
+     * @return array containing the same elements
+     */
+    private static BlockQRDecomposition[] toArray(final List<BlockQRDecomposition> list) {
+        return list.toArray(new BlockQRDecomposition[list.size()]);
+    }
+
+    /**
+     * Returns the matrix R of the decomposition.
+     * <p>R is an upper-triangular matrix, in reduced form (its row dimension
+     * is the minimum of the row and column dimensions of the decomposed matrix)</p>
+     * @return the R matrix
+     */
+    public RealMatrix getR() {
+        if (cachedR == null) {
+            final int k = FastMath.min(m, n);
+            final double[][] rColumns = new double[n][k];
+            root.copyR(rColumns, 0);
+            cachedR = MatrixUtils.createRealMatrix(rColumns).transpose();
+        }
+
+        // return the cached matrix
+        return cachedR;
+    }
+
+    /**
+     * Get a solver for finding the A &times; X = B solution in least square sense.
+     * <p>The solver uses the same executor as the decomposition, if any.</p>
+     * @return a solver
+     */
+    public DecompositionSolver getSolver() {
+        return new Solver();
+    }
+
+    /**
+     * Compute the reduced product Q<sup>T</sup>Y.
+     * <p>The reflections of the reduction tree are applied to the columns of Y,
+     * keeping at each level only the min(m, n) first rows.</p>
+     * @param y matrix to multiply
+     * @return first min(m, n) rows of Q<sup>T</sup>Y, by columns
+     */
+    private double[][] reducedQTY(final RealMatrix y) {
+
+        final int columns = y.getColumnDimension();
+        final int k = FastMath.min(m, n);
+
+        // apply the reflections of the chunks
+        final List<Callable<double[][]>> leafTasks = new ArrayList<Callable<double[][]>>();
+        for (int i = 0; i < tree[0].length; ++i) {
+            final int start = chunkStarts[i];
+            final int end   = chunkStarts[i + 1];
+            final BlockQRDecomposition leaf = tree[0][i];
+            leafTasks.add(new Callable<double[][]>() {
+                /** {@inheritDoc} */
+                public double[][] call() {
+                    final double[][] chunk = new double[columns][end - start];
+                    y.walkInOptimizedOrder(new DefaultRealMatrixPreservingVisitor() {
+                        /** {@inheritDoc} */
+                        @Override
+                        public void visit(final int row, final int column, final double value) {
+                            chunk[column][row - start] = value;
+                        }
+                    }, start, end - 1, 0, columns - 1);
+                    leaf.applyQT(chunk);
+                    final double[][] top = new double[columns][];
+                    for (int c = 0; c < columns; ++c) {
+                        top[c] = new double[k];
+                        System.arraycopy(chunk[c], 0, top[c], 0, k);
+                    }
+                    return top;
+                }
+            });
+        }
+        List<double[][]> current = ConcurrencyUtils.invokeAllOrRun(executor, leafTasks);
+
+        // apply the reflections of the merges
+        for (int level = 1; level < tree.length; ++level) {
+            final List<double[][]> children = current;
+            final List<Callable<double[][]>> mergeTasks = new ArrayList<Callable<double[][]>>();
+            for (int i = 0; i < tree[level].length; ++i) {
+                if (tree[level][i] == null) {
+                    final double[][] passed = children.get(2 * i);
+                    mergeTasks.add(new Callable<double[][]>() {
+                        /** {@inheritDoc} */
+                        public double[][] call() {
+                            return passed;
+                        }
+                    });
+                } else {
+                    final double[][] upper = children.get(2 * i);
+                    final double[][] lower = children.get(2 * i + 1);
+                    final BlockQRDecomposition node = tree[level][i];
+                    mergeTasks.add(new Callable<double[][]>() {
+                        /** {@inheritDoc} */
+                        public double[][] call() {
+                            final double[][] stacked = new double[columns][2 * n];
+                            for (int c = 0; c < columns; ++c) {
+                                System.arraycopy(upper[c], 0, stacked[c], 0, n);
+                                System.arraycopy(lower[c], 0, stacked[c], n, n);
+                            }
+                            node.applyQT(stacked);
+                            final double[][] top = new double[columns][];
+                            for (int c = 0; c < columns; ++c) {
+                                top[c] = new double[n];
+                                System.arraycopy(stacked[c], 0, top[c], 0, n);
+                            }
+                            return top;
+                        }
+                    });
+                }
+            }
+            current = ConcurrencyUtils.invokeAllOrRun(executor, mergeTasks);
+        }
+
+        return current.get(0);
+
+    }
+
+    /** Specialized solver. */
+    private class Solver implements DecompositionSolver {
+
+        /** {@inheritDoc} */
+        public boolean isNonSingular() {
+            return root.isFullRank();
+        }
+
+        /** {@inheritDoc} */
+        public RealVector solve(RealVector b) {
+            if (b.getDimension() != m) {
+                throw new DimensionMismatchException(b.getDimension(), m);
+            }
+            if (!isNonSingular()) {
+                throw new SingularMatrixException();
+            }
+            final double[][] y = reducedQTY(new Array2DRowRealMatrix(b.toArray()));
+            return new ArrayRealVector(root.solveR(y[0]), false);
+        }
+
+        /** {@inheritDoc} */
+        public RealMatrix solve(RealMatrix b) {
+            if (b.getRowDimension() != m) {
+                throw new DimensionMismatchException(b.getRowDimension(), m);
+            }
+            if (!isNonSingular()) {
+                throw new SingularMatrixException();
+            }
+
+            final int columns = b.getColumnDimension();
+            final double[][] y = reducedQTY(b);
+            final double[][] x = new double[n][columns];
+            for (int k = 0; k < columns; ++k) {
+                final double[] xK = root.solveR(y[k]);
+                for (int i = 0; i < n; ++i) {
+                    x[i][k] = xK[i];
+                }
+            }
+            return MatrixUtils.createRealMatrix(x);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @throws SingularMatrixException if the decomposed matrix is singular.
+         */
+        public RealMatrix getInverse() {
+            return solve(MatrixUtils.createRealIdentityMatrix(m));
+        }
+    }
+}
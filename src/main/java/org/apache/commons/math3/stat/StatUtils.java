@@ -16,7 +16,11 @@
  */
 package org.apache.commons.math3.stat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.apache.commons.math3.exception.NotPositiveException;
@@ -24,6 +28,7 @@ import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.descriptive.UnivariateStatistic;
@@ -37,10 +42,22 @@ import org.apache.commons.math3.stat.descriptive.summary.Product;
 import org.apache.commons.math3.stat.descriptive.summary.Sum;
 import org.apache.commons.math3.stat.descriptive.summary.SumOfLogs;
 import org.apache.commons.math3.stat.descriptive.summary.SumOfSquares;
+import org.apache.commons.math3.util.ConcurrencyUtils;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.MathArrays;
+import org.apache.commons.math3.util.MathUtils;
 
 /**
  * StatUtils provides static methods for computing statistics based on data
  * stored in double[] arrays.
+ * <p>
+ * Since 3.3, the most common statistics also have variants taking an
+ * {@link ExecutorService}, which split large arrays into chunks reduced as
+ * independent tasks. The partial results are combined in chunk order, so the
+ * results are deterministic, but they may differ from the sequential ones in
+ * the last bits due to the different order of the floating point operations.
+ * Arrays smaller than a few chunks are reduced in the calling thread.
+ * </p>
  *
  * @version $Id$
  */
@@ -76,6 +93,15 @@ public final class StatUtils {
     /** geometric mean */
     private static final GeometricMean GEOMETRIC_MEAN = new GeometricMean();
 
+    /** Minimum number of elements per task in parallel reductions. */
+    private static final int MIN_PARALLEL_CHUNK = 0x1 << 16;
+
+    /** Maximum number of tasks in parallel reductions. */
+    private static final int MAX_PARALLEL_TASKS = 256;
+
+    /** Number of buckets used for parallel percentile selection. */
+    private static final int PERCENTILE_BUCKETS = 0x1 << 12;
+
     /**
      * Private Constructor
      */
@@ -858,6 +884,449 @@ public final class StatUtils {
         return getMode(sample, begin, length);
     }
 
+    /**
+     * Returns the sum of the values in the input array, reducing large arrays
+     * in parallel.
+     * <p>
+     * See {@link #sum(double[])}.</p>
+     *
+     * @param values  array of values to sum
+     * @param executor executor to use for reducing chunks of the array
+     * @return the sum of the values or <code>Double.NaN</code> if the array
+     * is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double sum(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        return sum(values, executor, false);
+    }
+
+    /**
+     * Returns the sum of the squares of the entries in the input array,
+     * reducing large arrays in parallel.
+     * <p>
+     * See {@link #sumSq(double[])}.</p>
+     *
+     * @param values  input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return the sum of the squared values or <code>Double.NaN</code> if the
+     * array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double sumSq(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        return sum(values, executor, true);
+    }
+
+    /**
+     * Returns the arithmetic mean of the entries in the input array, reducing
+     * large arrays in parallel.
+     * <p>
+     * Each chunk computes its mean with the corrected two-pass algorithm of
+     * {@link Mean}, and the partial means are combined weighted by the chunk
+     * sizes.</p>
+     *
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return the mean of the values or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double mean(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        final double[] moments = moments(values, executor, false);
+        return moments[0] == 0 ? Double.NaN : moments[1];
+    }
+
+    /**
+     * Returns the variance of the entries in the input array, reducing
+     * large arrays in parallel.
+     * <p>
+     * This method returns the bias-corrected sample variance (using {@code n - 1}
+     * in the denominator), as {@link #variance(double[])}. Each chunk computes
+     * its mean and sum of squared deviations with the corrected two-pass
+     * algorithm of {@link Variance}, and the partial moments are combined using
+     * the pairwise formulas of Chan, Golub and LeVeque, so the accuracy does not
+     * degrade with the size of the array.</p>
+     *
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return the variance of the values or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double variance(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        final double[] moments = moments(values, executor, true);
+        if (moments[0] == 0) {
+            return Double.NaN;
+        } else if (moments[0] == 1) {
+            return 0.0;
+        }
+        return moments[2] / (moments[0] - 1);
+    }
+
+    /**
+     * Returns the maximum of the entries in the input array, reducing large
+     * arrays in parallel.
+     * <p>
+     * See {@link #max(double[])} for the handling of NaN values.</p>
+     *
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return the maximum of the values or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double max(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        return extrema(values, executor)[1];
+    }
+
+    /**
+     * Returns the minimum of the entries in the input array, reducing large
+     * arrays in parallel.
+     * <p>
+     * See {@link #min(double[])} for the handling of NaN values.</p>
+     *
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return the minimum of the values or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     * @since 3.3
+     */
+    public static double min(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        return extrema(values, executor)[0];
+    }
+
+    /**
+     * Returns an estimate of the <code>p</code>th percentile of the values
+     * in the <code>values</code> array, selecting in parallel for large arrays.
+     * <p>
+     * The result is the same as the one of {@link #percentile(double[], double)}.
+     * The input array is not modified and not copied: the range of the values
+     * is found in parallel, then the values are counted in parallel in
+     * equal-width buckets over this range, and only the values falling in the
+     * buckets containing the requested ranks are gathered and sorted. Arrays
+     * containing NaN or infinite values are processed sequentially.</p>
+     *
+     * @param values input array of values
+     * @param p the percentile value to compute
+     * @param executor executor to use for reducing chunks of the array
+     * @return the percentile value or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if <code>values</code> or
+     * <code>executor</code> is null or p is invalid
+     * @since 3.3
+     */
+    public static double percentile(final double[] values, final double p,
+                                    final ExecutorService executor)
+        throws MathIllegalArgumentException {
+
+        MathArrays.verifyValues(values, 0, 0);
+        MathUtils.checkNotNull(executor);
+        if ((p > 100) || (p <= 0)) {
+            throw new OutOfRangeException(LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+        }
+        final int n = values.length;
+        if (n < 2 * MIN_PARALLEL_CHUNK) {
+            return new Percentile().evaluate(values, p);
+        }
+
+        // find the range of the values
+        final double[] extrema = extrema(values, executor);
+        final double min = extrema[0];
+        final double max = extrema[1];
+        if (extrema[2] != 0 || Double.isInfinite(min) || Double.isInfinite(max)) {
+            // NaN and infinite values cannot be bucketed
+            return new Percentile().evaluate(values, p);
+        }
+        if (min == max) {
+            return min;
+        }
+        final double scale = PERCENTILE_BUCKETS / (max - min);
+        if (Double.isInfinite(scale)) {
+            return new Percentile().evaluate(values, p);
+        }
+
+        // ranks of the elements to interpolate, as in Percentile
+        final double pos  = p * (n + 1.0) / 100;
+        final double fpos = FastMath.floor(pos);
+        final int lowerRank;
+        final int upperRank;
+        if (pos < 1) {
+            lowerRank = 0;
+            upperRank = 0;
+        } else if (pos >= n) {
+            lowerRank = n - 1;
+            upperRank = n - 1;
+        } else {
+            lowerRank = ((int) fpos) - 1;
+            upperRank = (int) fpos;
+        }
+
+        // count the values in each bucket
+        final List<int[]> histograms =
+            reduceChunks(values, executor, new ChunkReduction<int[]>() {
+                /** {@inheritDoc} */
+                public int[] reduce(final double[] array, final int begin, final int end) {
+                    final int[] histogram = new int[PERCENTILE_BUCKETS];
+                    for (int i = begin; i < end; ++i) {
+                        ++histogram[bucket(array[i], min, scale)];
+                    }
+                    return histogram;
+                }
+            });
+        final int[] counts = new int[PERCENTILE_BUCKETS];
+        for (final int[] histogram : histograms) {
+            for (int b = 0; b < PERCENTILE_BUCKETS; ++b) {
+                counts[b] += histogram[b];
+            }
+        }
+
+        // find the buckets containing the ranks
+        int below = 0;
+        int first = 0;
+        while (below + counts[first] <= lowerRank) {
+            below += counts[first++];
+        }
+        int last  = first;
+        int upTo  = below + counts[first];
+        while (upTo <= upperRank) {
+            upTo += counts[++last];
+        }
+        final int firstBucket = first;
+        final int lastBucket  = last;
+
+        // gather and sort the values of these buckets
+        final List<double[]> parts =
+            reduceChunks(values, executor, new ChunkReduction<double[]>() {
+                /** {@inheritDoc} */
+                public double[] reduce(final double[] array, final int begin, final int end) {
+                    int count = 0;
+                    final double[] selected = new double[end - begin];
+                    for (int i = begin; i < end; ++i) {
+                        final int b = bucket(array[i], min, scale);
+                        if (b >= firstBucket && b <= lastBucket) {
+                            selected[count++] = array[i];
+                        }
+                    }
+                    final double[] part = new double[count];
+                    System.arraycopy(selected, 0, part, 0, count);
+                    return part;
+                }
+            });
+        final double[] candidates = new double[upTo - below];
+        int index = 0;
+        for (final double[] part : parts) {
+            System.arraycopy(part, 0, candidates, index, part.length);
+            index += part.length;
+        }
+        Arrays.sort(candidates);
+
+        final double lower = candidates[lowerRank - below];
+        if (pos < 1 || pos >= n) {
+            return lower;
+        }
+        final double upper = candidates[upperRank - below];
+        return lower + (pos - fpos) * (upper - lower);
+
+    }
+
+    /**
+     * Compute the bucket of a value for parallel percentile selection.
+     * @param value value to classify
+     * @param min minimum value
+     * @param scale number of buckets per unit
+     * @return index of the bucket (non-decreasing with respect to value)
+     */
+    private static int bucket(final double value, final double min, final double scale) {
+        return FastMath.min((int) ((value - min) * scale), PERCENTILE_BUCKETS - 1);
+    }
+
+    /**
+     * Compute a sum or a sum of squares in parallel.
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @param squares if true, the squares of the values are summed
+     * @return the sum or Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     */
+    private static double sum(final double[] values, final ExecutorService executor,
+                              final boolean squares)
+        throws MathIllegalArgumentException {
+        MathArrays.verifyValues(values, 0, 0);
+        MathUtils.checkNotNull(executor);
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        final List<double[]> partials =
+            reduceChunks(values, executor, new ChunkReduction<double[]>() {
+                /** {@inheritDoc} */
+                public double[] reduce(final double[] array, final int begin, final int end) {
+                    double sum = 0;
+                    if (squares) {
+                        for (int i = begin; i < end; ++i) {
+                            sum += array[i] * array[i];
+                        }
+                    } else {
+                        for (int i = begin; i < end; ++i) {
+                            sum += array[i];
+                        }
+                    }
+                    return new double[] { sum };
+                }
+            });
+        double sum = 0;
+        for (final double[] partial : partials) {
+            sum += partial[0];
+        }
+        return sum;
+    }
+
+    /**
+     * Compute the count, mean and (optionally) sum of squared deviations in parallel.
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @param second if true, the sum of squared deviations is computed
+     * @return count, mean and sum of squared deviations (0 if not computed)
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     */
+    private static double[] moments(final double[] values, final ExecutorService executor,
+                                    final boolean second)
+        throws MathIllegalArgumentException {
+        MathArrays.verifyValues(values, 0, 0);
+        MathUtils.checkNotNull(executor);
+        final List<double[]> partials =
+            reduceChunks(values, executor, new ChunkReduction<double[]>() {
+                /** {@inheritDoc} */
+                public double[] reduce(final double[] array, final int begin, final int end) {
+                    // corrected two-pass algorithm, as in Mean and Variance
+                    final double n = end - begin;
+                    double sum = 0;
+                    for (int i = begin; i < end; ++i) {
+                        sum += array[i];
+                    }
+                    final double xbar = sum / n;
+                    double accum  = 0;
+                    double accum2 = 0;
+                    for (int i = begin; i < end; ++i) {
+                        final double dev = array[i] - xbar;
+                        accum  += second ? dev * dev : 0;
+                        accum2 += dev;
+                    }
+                    return new double[] {
+                        n, xbar + accum2 / n, second ? accum - accum2 * accum2 / n : 0
+                    };
+                }
+            });
+
+        // pairwise merging (Chan, Golub and LeVeque)
+        final double[] moments = new double[3];
+        for (final double[] partial : partials) {
+            if (moments[0] == 0) {
+                System.arraycopy(partial, 0, moments, 0, 3);
+            } else {
+                final double nA    = moments[0];
+                final double nB    = partial[0];
+                final double nT    = nA + nB;
+                final double delta = partial[1] - moments[1];
+                moments[0]  = nT;
+                moments[1] += delta * nB / nT;
+                moments[2] += partial[2] + delta * delta * nA * nB / nT;
+            }
+        }
+        return moments;
+    }
+
+    /**
+     * Compute the minimum and maximum in parallel.
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @return minimum, maximum (both ignoring NaN values as {@link Min} and
+     * {@link Max} do) and a non-zero value if some values are NaN
+     * @throws MathIllegalArgumentException if the array or the executor is null
+     */
+    private static double[] extrema(final double[] values, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        MathArrays.verifyValues(values, 0, 0);
+        MathUtils.checkNotNull(executor);
+        final List<double[]> partials =
+            reduceChunks(values, executor, new ChunkReduction<double[]>() {
+                /** {@inheritDoc} */
+                public double[] reduce(final double[] array, final int begin, final int end) {
+                    double min = Double.NaN;
+                    double max = Double.NaN;
+                    double nan = 0;
+                    for (int i = begin; i < end; ++i) {
+                        final double value = array[i];
+                        if (Double.isNaN(value)) {
+                            nan = 1;
+                        } else {
+                            min = (value < min || Double.isNaN(min)) ? value : min;
+                            max = (value > max || Double.isNaN(max)) ? value : max;
+                        }
+                    }
+                    return new double[] { min, max, nan };
+                }
+            });
+        final double[] extrema = new double[] { Double.NaN, Double.NaN, 0 };
+        for (final double[] partial : partials) {
+            if (partial[0] < extrema[0] || Double.isNaN(extrema[0])) {
+                extrema[0] = partial[0];
+            }
+            if (partial[1] > extrema[1] || Double.isNaN(extrema[1])) {
+                extrema[1] = partial[1];
+            }
+            extrema[2] += partial[2];
+        }
+        return extrema;
+    }
+
+    /**
+     * Reduce chunks of an array, in parallel if the array is large enough.
+     * @param <T> type of the partial results
+     * @param values the input array
+     * @param executor executor to use for reducing chunks of the array
+     * @param reduction reduction to apply to each chunk
+     * @return partial results, in chunk order
+     */
+    private static <T> List<T> reduceChunks(final double[] values, final ExecutorService executor,
+                                            final ChunkReduction<T> reduction) {
+        final int nbTasks =
+            FastMath.max(1, FastMath.min(MAX_PARALLEL_TASKS, values.length / MIN_PARALLEL_CHUNK));
+        final int chunk = (values.length + nbTasks - 1) / nbTasks;
+        final List<Callable<T>> tasks = new ArrayList<Callable<T>>(nbTasks);
+        for (int begin = 0; begin < values.length; begin += chunk) {
+            final int b = begin;
+            final int e = FastMath.min(values.length, begin + chunk);
+            tasks.add(new Callable<T>() {
+                /** {@inheritDoc} */
+                public T call() {
+                    return reduction.reduce(values, b, e);
+                }
+            });
+        }
+        return ConcurrencyUtils.invokeAllOrRun(nbTasks > 1 ? executor : null, tasks);
+    }
+
+    /** Reduction of a chunk of an array.
+     * @param <T> type of the partial result
+     */
+    private interface ChunkReduction<T> {
+
+        /** Reduce a chunk.
+         * @param values the input array
+         * @param begin index of the first element of the chunk
+         * @param end index after the last element of the chunk
+         * @return partial result
+         */
+        T reduce(double[] values, int begin, int end);
+
+    }
+
     /**
      * Private helper method.
      * Assumes parameters have been validated.
@@ -21,6 +21,7 @@ import org.apache.commons.math3.exception.NotStrictlyPositiveException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.BlockRealMatrix;
+import org.apache.commons.math3.linear.SymmetricRealMatrix;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.descriptive.moment.Variance;
 
@@ -148,6 +149,22 @@ public class Covariance {
         return covarianceMatrix;
     }
 
+    /**
+     * Returns the covariance matrix in packed symmetric storage.
+     * <p>
+     * The packed matrix holds only the upper triangular part of the
+     * covariance matrix and can be passed to a {@link
+     * org.apache.commons.math3.linear.CholeskyDecomposition
+     * CholeskyDecomposition}, which works directly on the packed data.
+     * </p>
+     *
+     * @return packed covariance matrix (null if no data was provided)
+     * @since 3.3
+     */
+    public SymmetricRealMatrix getCovarianceMatrixPacked() {
+        return (covarianceMatrix == null) ? null : new SymmetricRealMatrix(covarianceMatrix, 0);
+    }
+
     /**
      * Returns the number of observations (length of covariate vectors)
      *
@@ -21,6 +21,7 @@ import org.apache.commons.math3.exception.MathUnsupportedOperationException;
 import org.apache.commons.math3.exception.NumberIsTooSmallException;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SymmetricRealMatrix;
 
 /**
  * Covariance implementation that does not require input data to be
@@ -196,6 +197,25 @@ public class StorelessCovariance extends Covariance {
         return MatrixUtils.createRealMatrix(getData());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cells of this class already use the packed layout, so the matrix
+     * is filled directly, without building a dense array.
+     * </p>
+     * @throws NumberIsTooSmallException if the number of observations
+     * in a cell is &lt; 2
+     */
+    @Override
+    public SymmetricRealMatrix getCovarianceMatrixPacked() throws NumberIsTooSmallException {
+        final SymmetricRealMatrix packed = new SymmetricRealMatrix(dimension);
+        final double[] data = packed.getDataRef();
+        for (int k = 0; k < covMatrix.length; ++k) {
+            data[k] = covMatrix[k].getResult();
+        }
+        return packed;
+    }
+
     /**
      * Return the covariance matrix as two-dimensional array.
      *
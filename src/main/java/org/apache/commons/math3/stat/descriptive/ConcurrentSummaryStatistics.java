@@ -0,0 +1,586 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Computes summary statistics for a stream of data values added concurrently
+ * by many threads.
+ * <p>
+ * {@link SynchronizedSummaryStatistics} serializes all updates on a single
+ * monitor, which becomes a contention point when many threads record values.
+ * This class instead spreads the updates over a small table of cells, each
+ * holding the count, the first four central moments, the minimum, the
+ * maximum, the sum and the sum of logs of the values added to it. Each thread
+ * is mapped to a cell by a per-thread hash code, as in {@code
+ * java.util.concurrent.atomic.LongAdder}. An update claims its cell with a
+ * single compare-and-set; if another thread is updating the same cell, it
+ * does not wait but moves on to another cell, and the table is doubled on such
+ * collisions, up to the number of available processors. The number of cells
+ * therefore does not depend on how many threads have added values, and
+ * {@link #clear()} resets the cells in place.
+ * </p>
+ * <p>
+ * Getters take a consistent snapshot of each cell and merge them, using for
+ * the mean and second moment the same pairwise formulas as {@link
+ * AggregateSummaryStatistics#aggregate(java.util.Collection)}, extended to the
+ * third and fourth moments (P. P&eacute;bay, <a
+ * href="http://prod.sandia.gov/techlib/access-control.cgi/2008/086212.pdf">
+ * Formulas for Robust, One-Pass Parallel Computation of Covariances and
+ * Arbitrary-Order Statistical Moments</a>, 2008). Reading a cell spins while
+ * it is being updated, so getters may be delayed by concurrent writers,
+ * whereas writers never wait for readers. Reading is also more expensive than
+ * with {@link SummaryStatistics}, proportionally to the number of cells. Each
+ * getter takes its own snapshot: use {@link #getSummary()} to get several
+ * statistics consistent with each other. Values added while a getter runs may
+ * or may not be taken into account.
+ * </p>
+ * <p>
+ * The statistics are computed with the same formulas as the default
+ * implementations used by {@link SummaryStatistics}, so they agree with the
+ * ones of a {@link SummaryStatistics} fed with the same values, up to
+ * rounding errors.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class ConcurrentSummaryStatistics implements StatisticalSummary {
+
+    /** Maximal number of cells (smallest power of two not below the number of processors). */
+    private static final int MAX_CELLS;
+
+    /** Hash code of each thread, shared by all instances and changed on collisions. */
+    private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+        /** {@inheritDoc} */
+        @Override
+        protected int[] initialValue() {
+            // spread the thread identifiers, avoiding 0 which is a fixed point of xorshift
+            final int h = (int) ((Thread.currentThread().getId() * 0x9e3779b97f4a7c15l) >>> 32);
+            return new int[] { h == 0 ? 1 : h };
+        }
+    };
+
+    static {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        int max = 1;
+        while (max < processors) {
+            max <<= 1;
+        }
+        MAX_CELLS = max;
+    }
+
+    /** Cells, the length of the table is a power of two. */
+    private volatile Cell[] cells;
+
+    /** Flag set while the table of cells is being grown. */
+    private final AtomicBoolean growing;
+
+    /**
+     * Construct a ConcurrentSummaryStatistics instance.
+     */
+    public ConcurrentSummaryStatistics() {
+        cells   = new Cell[] { new Cell() };
+        growing = new AtomicBoolean(false);
+    }
+
+    /**
+     * Add a value to the data.
+     * @param value the value to add
+     */
+    public void addValue(final double value) {
+        final int[] probe = PROBE.get();
+        int h = probe[0];
+        while (true) {
+            final Cell[] current = cells;
+            if (current[h & (current.length - 1)].tryIncrement(value)) {
+                return;
+            }
+
+            // another thread is updating the same cell
+            if (current.length < MAX_CELLS) {
+                grow(current);
+            } else {
+                Thread.yield();
+            }
+
+            // move to another cell (xorshift)
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            probe[0] = h;
+
+        }
+    }
+
+    /**
+     * Resets all statistics.
+     * <p>
+     * Values added concurrently with this call may be lost.
+     * </p>
+     */
+    public void clear() {
+        for (final Cell cell : cells) {
+            cell.reset();
+        }
+    }
+
+    /**
+     * Get the current number of cells.
+     * @return number of cells
+     */
+    int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Return a {@link StatisticalSummaryValues} instance reporting current
+     * statistics, all computed from the same snapshot.
+     * @return Current values of statistics
+     */
+    public StatisticalSummary getSummary() {
+        final Cell snapshot = snapshot();
+        return new StatisticalSummaryValues(snapshot.getMean(), snapshot.getVariance(),
+                                            snapshot.n, snapshot.max, snapshot.min,
+                                            snapshot.sum);
+    }
+
+    /**
+     * Returns the number of available values
+     * @return The number of available values
+     */
+    public long getN() {
+        return snapshot().n;
+    }
+
+    /**
+     * Returns the sum of the values that have been added
+     * @return The sum or 0 if no values have been added
+     */
+    public double getSum() {
+        return snapshot().sum;
+    }
+
+    /**
+     * Returns the mean of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the mean
+     */
+    public double getMean() {
+        return snapshot().getMean();
+    }
+
+    /**
+     * Returns the standard deviation of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the standard deviation
+     */
+    public double getStandardDeviation() {
+        final Cell snapshot = snapshot();
+        return snapshot.n > 0 ? FastMath.sqrt(snapshot.getVariance()) : Double.NaN;
+    }
+
+    /**
+     * Returns the (sample) variance of the available values.
+     *
+     * <p>This method returns the bias-corrected sample variance (using {@code n - 1} in
+     * the denominator).  Use {@link #getPopulationVariance()} for the non-bias-corrected
+     * population variance.</p>
+     *
+     * <p>Double.NaN is returned if no values have been added.</p>
+     *
+     * @return the variance
+     */
+    public double getVariance() {
+        return snapshot().getVariance();
+    }
+
+    /**
+     * Returns the <a href="http://en.wikibooks.org/wiki/Statistics/Summary/Variance">
+     * population variance</a> of the values that have been added.
+     *
+     * <p>Double.NaN is returned if no values have been added.</p>
+     *
+     * @return the population variance
+     */
+    public double getPopulationVariance() {
+        final Cell snapshot = snapshot();
+        return snapshot.n > 0 ? snapshot.m2 / snapshot.n : Double.NaN;
+    }
+
+    /**
+     * Returns the skewness of the values that have been added.
+     * <p>
+     * Double.NaN is returned if less than 3 values have been added.
+     * </p>
+     * @return the skewness
+     * @see org.apache.commons.math3.stat.descriptive.moment.Skewness
+     */
+    public double getSkewness() {
+        final Cell snapshot = snapshot();
+        if (snapshot.n < 3) {
+            return Double.NaN;
+        }
+        final double n = snapshot.n;
+        final double variance = snapshot.m2 / (n - 1);
+        if (variance < 10E-20) {
+            return 0.0;
+        }
+        return (n * snapshot.m3) / ((n - 1) * (n - 2) * FastMath.sqrt(variance) * variance);
+    }
+
+    /**
+     * Returns the kurtosis of the values that have been added.
+     * <p>
+     * Double.NaN is returned if less than 4 values have been added.
+     * </p>
+     * @return the kurtosis
+     * @see org.apache.commons.math3.stat.descriptive.moment.Kurtosis
+     */
+    public double getKurtosis() {
+        final Cell snapshot = snapshot();
+        if (snapshot.n <= 3) {
+            return Double.NaN;
+        }
+        final double n = snapshot.n;
+        final double variance = snapshot.m2 / (n - 1);
+        if (variance < 10E-20) {
+            return 0.0;
+        }
+        return (n * (n + 1) * snapshot.m4 - 3 * snapshot.m2 * snapshot.m2 * (n - 1)) /
+               ((n - 1) * (n - 2) * (n - 3) * variance * variance);
+    }
+
+    /**
+     * Returns the maximum of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the maximum
+     */
+    public double getMax() {
+        return snapshot().max;
+    }
+
+    /**
+     * Returns the minimum of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the minimum
+     */
+    public double getMin() {
+        return snapshot().min;
+    }
+
+    /**
+     * Returns the geometric mean of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the geometric mean
+     */
+    public double getGeometricMean() {
+        final Cell snapshot = snapshot();
+        return snapshot.n > 0 ? FastMath.exp(snapshot.sumLog / snapshot.n) : Double.NaN;
+    }
+
+    /**
+     * Returns the sum of the logs of the values that have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return the sum of logs
+     */
+    public double getSumOfLogs() {
+        final Cell snapshot = snapshot();
+        return snapshot.n > 0 ? snapshot.sumLog : Double.NaN;
+    }
+
+    /**
+     * Returns the sum of squared deviations from the mean of the values that
+     * have been added.
+     * <p>
+     * Double.NaN is returned if no values have been added.
+     * </p>
+     * @return second central moment statistic
+     */
+    public double getSecondMoment() {
+        final Cell snapshot = snapshot();
+        return snapshot.n > 0 ? snapshot.m2 : Double.NaN;
+    }
+
+    /**
+     * Generates a text report displaying summary statistics from values that
+     * have been added.
+     * @return String with line feeds displaying statistics
+     */
+    @Override
+    public String toString() {
+        final Cell snapshot = snapshot();
+        StringBuilder outBuffer = new StringBuilder();
+        String endl = "\n";
+        outBuffer.append("ConcurrentSummaryStatistics:").append(endl);
+        outBuffer.append("n: ").append(snapshot.n).append(endl);
+        outBuffer.append("min: ").append(snapshot.min).append(endl);
+        outBuffer.append("max: ").append(snapshot.max).append(endl);
+        outBuffer.append("mean: ").append(snapshot.getMean()).append(endl);
+        outBuffer.append("variance: ").append(snapshot.getVariance()).append(endl);
+        return outBuffer.toString();
+    }
+
+    /**
+     * Take a snapshot of all cells and merge them.
+     * @return merged snapshot
+     */
+    private Cell snapshot() {
+        final Cell merged  = new Cell();
+        final Cell current = new Cell();
+        for (final Cell cell : cells) {
+            cell.copyTo(current);
+            merged.merge(current);
+        }
+        return merged;
+    }
+
+    /**
+     * Double the number of cells, unless another thread is already doing it.
+     * @param current table of cells which was found too small
+     */
+    private void grow(final Cell[] current) {
+        if (cells == current && growing.compareAndSet(false, true)) {
+            try {
+                if (cells == current) {
+                    // existing cells are kept, so no value is lost
+                    final Cell[] grown = new Cell[current.length << 1];
+                    System.arraycopy(current, 0, grown, 0, current.length);
+                    for (int i = current.length; i < grown.length; ++i) {
+                        grown[i] = new Cell();
+                    }
+                    cells = grown;
+                }
+            } finally {
+                growing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Statistics of the values added to one cell.
+     * <p>
+     * Cells are protected by a sequence counter: the counter is odd while an
+     * update is in progress. Writers make it odd with a compare-and-set, which
+     * fails if another writer holds the cell, and make it even again when
+     * done. Readers retry until they have read all fields between two
+     * identical even values of the counter. The counter is only accessed with
+     * atomic operations, which the memory model forbids to reorder with the
+     * surrounding plain reads and writes of the fields.
+     * </p>
+     */
+    private static class Cell {
+
+        /** Sequence counter. */
+        private final AtomicInteger sequence;
+
+        /** Number of values. */
+        private long n;
+
+        /** Mean. */
+        private double m1;
+
+        /** Sum of squared deviations from the mean. */
+        private double m2;
+
+        /** Sum of cubed deviations from the mean. */
+        private double m3;
+
+        /** Sum of deviations from the mean raised to the fourth power. */
+        private double m4;
+
+        /** Minimum. */
+        private double min;
+
+        /** Maximum. */
+        private double max;
+
+        /** Sum. */
+        private double sum;
+
+        /** Sum of logs. */
+        private double sumLog;
+
+        /** Simple constructor.
+         */
+        Cell() {
+            sequence = new AtomicInteger();
+            min      = Double.NaN;
+            max      = Double.NaN;
+        }
+
+        /** Add a value, unless another thread is updating the cell.
+         * @param d value to add
+         * @return true if the value was added, false if the cell was busy
+         */
+        boolean tryIncrement(final double d) {
+
+            final int s = sequence.get();
+            if ((s & 0x1) != 0 || !sequence.compareAndSet(s, s + 1)) {
+                return false;
+            }
+
+            // same updates as FourthMoment, Min, Max, Sum and SumOfLogs
+            final double prevM2 = m2;
+            final double prevM3 = m3;
+            ++n;
+            final double n0     = n;
+            final double dev    = d - m1;
+            final double nDev   = dev / n0;
+            final double nDevSq = nDev * nDev;
+            m1 += nDev;
+            m2 += (n0 - 1) * dev * nDev;
+            m3  = m3 - 3.0 * nDev * prevM2 + (n0 - 1) * (n0 - 2) * nDevSq * dev;
+            m4  = m4 - 4.0 * nDev * prevM3 + 6.0 * nDevSq * prevM2 +
+                  ((n0 * n0) - 3 * (n0 - 1)) * (nDevSq * nDevSq * (n0 - 1) * n0);
+            if (d < min || Double.isNaN(min)) {
+                min = d;
+            }
+            if (d > max || Double.isNaN(max)) {
+                max = d;
+            }
+            sum    += d;
+            sumLog += FastMath.log(d);
+
+            sequence.set(s + 2);
+            return true;
+
+        }
+
+        /** Reset the cell to its initial state.
+         */
+        void reset() {
+            int s = sequence.get();
+            while ((s & 0x1) != 0 || !sequence.compareAndSet(s, s + 1)) {
+                Thread.yield();
+                s = sequence.get();
+            }
+            n      = 0;
+            m1     = 0;
+            m2     = 0;
+            m3     = 0;
+            m4     = 0;
+            min    = Double.NaN;
+            max    = Double.NaN;
+            sum    = 0;
+            sumLog = 0;
+            sequence.set(s + 2);
+        }
+
+        /** Copy a consistent state of this cell (called by any thread).
+         * @param dest cell where to copy the state
+         */
+        void copyTo(final Cell dest) {
+            while (true) {
+                final int s = sequence.get();
+                if ((s & 0x1) == 0) {
+                    dest.n      = n;
+                    dest.m1     = m1;
+                    dest.m2     = m2;
+                    dest.m3     = m3;
+                    dest.m4     = m4;
+                    dest.min    = min;
+                    dest.max    = max;
+                    dest.sum    = sum;
+                    dest.sumLog = sumLog;
+                    if (sequence.compareAndSet(s, s)) {
+                        return;
+                    }
+                }
+                Thread.yield();
+            }
+        }
+
+        /** Merge another cell into this one (both being private snapshots).
+         * @param other cell to merge
+         */
+        void merge(final Cell other) {
+            if (other.n == 0) {
+                return;
+            }
+            if (n == 0) {
+                other.copyTo(this);
+                return;
+            }
+
+            final double nA    = n;
+            final double nB    = other.n;
+            final double nT    = nA + nB;
+            final double delta = other.m1 - m1;
+            final double dN    = delta / nT;
+            final double dN2   = dN * dN;
+
+            m4 = m4 + other.m4 +
+                 dN2 * dN2 * nT * nA * nB * (nA * nA - nA * nB + nB * nB) +
+                 6.0 * dN2 * (nA * nA * other.m2 + nB * nB * m2) +
+                 4.0 * dN * (nA * other.m3 - nB * m3);
+            m3 = m3 + other.m3 +
+                 dN2 * dN * nT * nA * nB * (nA - nB) +
+                 3.0 * dN * (nA * other.m2 - nB * m2);
+            m2 = m2 + other.m2 + delta * dN * nA * nB;
+            m1 += dN * nB;
+            n  += other.n;
+
+            if (other.min < min || Double.isNaN(min)) {
+                min = other.min;
+            }
+            if (other.max > max || Double.isNaN(max)) {
+                max = other.max;
+            }
+            sum    += other.sum;
+            sumLog += other.sumLog;
+
+        }
+
+        /** Get the mean.
+         * @return mean
+         */
+        double getMean() {
+            return n > 0 ? m1 : Double.NaN;
+        }
+
+        /** Get the bias-corrected variance.
+         * @return variance
+         */
+        double getVariance() {
+            if (n == 0) {
+                return Double.NaN;
+            } else if (n == 1) {
+                return 0.0;
+            }
+            return m2 / (n - 1.0);
+        }
+
+    }
+
+}
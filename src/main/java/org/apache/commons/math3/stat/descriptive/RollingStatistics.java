@@ -0,0 +1,607 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive;
+
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Maintains statistics over a sliding window of the most recent values.
+ * <p>
+ * {@link DescriptiveStatistics} with a finite window recomputes each statistic
+ * from the stored window at each call. This class instead updates the
+ * statistics as values enter and leave the window:
+ * <ul>
+ *   <li>the mean and the second central moment are updated in constant time
+ *   when a value is added or evicted (Welford's update and its inverse); to
+ *   avoid the slow accumulation of rounding errors, they are recomputed from
+ *   the window once every window size evictions, which keeps the amortized
+ *   cost constant,</li>
+ *   <li>the values of the window are also kept sorted in an indexable skip
+ *   list (W. Pugh, <a href="http://dx.doi.org/10.1145/78973.78977">Skip
+ *   Lists: A Probabilistic Alternative to Balanced Trees</a>, 1990, with
+ *   link widths for positional access), so insertions, evictions and
+ *   percentile queries cost O(log n) expected time.</li>
+ * </ul>
+ * The window is filled progressively: until {@code windowSize} values have been
+ * added, the statistics are computed on all the values added so far.
+ * </p>
+ * <p>
+ * Percentiles are estimated with the same algorithm as {@link
+ * org.apache.commons.math3.stat.descriptive.rank.Percentile}, ordering
+ * the values as {@link Double#compareTo(Double)}. The minimum and the maximum
+ * ignore NaN values, as {@link org.apache.commons.math3.stat.descriptive.rank.Min}
+ * and {@link org.apache.commons.math3.stat.descriptive.rank.Max} do, and the
+ * moments are NaN as long as a NaN value is in the window.
+ * </p>
+ * <p>
+ * <strong>Note that this implementation is not synchronized.</strong></p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class RollingStatistics implements StatisticalSummary {
+
+    /** Seed of the generator for skip list levels. */
+    private static final long SEED = 0x2545f4914f6cdd1dl;
+
+    /** Window size. */
+    private final int windowSize;
+
+    /** Circular buffer holding the window, in insertion order. */
+    private final double[] window;
+
+    /** Index of the oldest value in the circular buffer. */
+    private int start;
+
+    /** Number of values in the window. */
+    private int n;
+
+    /** Number of finite values in the window. */
+    private int nFinite;
+
+    /** Number of NaN values in the window. */
+    private int nNaN;
+
+    /** Number of positive infinite values in the window. */
+    private int nPositiveInfinity;
+
+    /** Number of negative infinite values in the window. */
+    private int nNegativeInfinity;
+
+    /** Mean of the finite values in the window. */
+    private double mean;
+
+    /** Sum of squared deviations from the mean of the finite values in the window. */
+    private double m2;
+
+    /** Number of evictions since the moments were last recomputed. */
+    private int evictions;
+
+    /** Sorted values of the window. */
+    private final SkipList sorted;
+
+    /**
+     * Construct a RollingStatistics instance with the specified window size.
+     *
+     * @param windowSize the number of most recent values over which the
+     * statistics are computed
+     * @throws MathIllegalArgumentException if window size is less than 1
+     */
+    public RollingStatistics(final int windowSize) throws MathIllegalArgumentException {
+        if (windowSize < 1) {
+            throw new MathIllegalArgumentException(
+                    LocalizedFormats.NOT_POSITIVE_WINDOW_SIZE, windowSize);
+        }
+        this.windowSize = windowSize;
+        this.window     = new double[windowSize];
+        this.sorted     = new SkipList(windowSize);
+        clear();
+    }
+
+    /**
+     * Adds a value to the window, evicting the oldest value if the window
+     * is full.
+     *
+     * @param v the value to be added
+     */
+    public void addValue(final double v) {
+        if (n == windowSize) {
+            final double evicted = window[start];
+            window[start] = v;
+            start = (start + 1) % windowSize;
+            sorted.remove(evicted);
+            sorted.insert(v);
+            removeMoments(evicted);
+            addMoments(v);
+            if (++evictions >= windowSize) {
+                recomputeMoments();
+            }
+        } else {
+            window[(start + n) % windowSize] = v;
+            ++n;
+            sorted.insert(v);
+            addMoments(v);
+        }
+    }
+
+    /**
+     * Resets all statistics and storage.
+     */
+    public void clear() {
+        start             = 0;
+        n                 = 0;
+        nFinite           = 0;
+        nNaN              = 0;
+        nPositiveInfinity = 0;
+        nNegativeInfinity = 0;
+        mean              = 0;
+        m2                = 0;
+        evictions         = 0;
+        sorted.clear();
+    }
+
+    /**
+     * Returns the maximum number of values over which statistics are computed.
+     *
+     * @return the window size
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Returns the number of values currently in the window.
+     *
+     * @return the number of values in the window
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the values currently in the window, oldest first.
+     *
+     * @return a copy of the values in the window
+     */
+    public double[] getValues() {
+        final double[] values = new double[n];
+        for (int i = 0; i < n; ++i) {
+            values[i] = window[(start + i) % windowSize];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values currently in the window, in increasing order.
+     *
+     * @return a sorted copy of the values in the window
+     */
+    public double[] getSortedValues() {
+        return sorted.toArray();
+    }
+
+    /**
+     * Returns the <a href="http://www.xycoon.com/arithmetic_mean.htm">
+     * arithmetic mean </a> of the values in the window, or
+     * <code>Double.NaN</code> if the window is empty.
+     *
+     * @return The mean
+     */
+    public double getMean() {
+        if (n == 0 || nNaN > 0 || (nPositiveInfinity > 0 && nNegativeInfinity > 0)) {
+            return Double.NaN;
+        } else if (nPositiveInfinity > 0) {
+            return Double.POSITIVE_INFINITY;
+        } else if (nNegativeInfinity > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return mean;
+    }
+
+    /**
+     * Returns the sum of the values in the window, or <code>Double.NaN</code>
+     * if the window is empty.
+     *
+     * @return The sum
+     */
+    public double getSum() {
+        final double m = getMean();
+        return (nFinite == n) ? m * n : m;
+    }
+
+    /**
+     * Returns the (sample) variance of the values in the window.
+     * <p>
+     * This method returns the bias-corrected sample variance (using
+     * {@code n - 1} in the denominator). It returns <code>Double.NaN</code>
+     * if the window is empty or contains non-finite values, and 0 if it
+     * contains a single value.</p>
+     *
+     * @return The variance
+     */
+    public double getVariance() {
+        if (n == 0 || nFinite < n) {
+            return Double.NaN;
+        } else if (n == 1) {
+            return 0.0;
+        }
+        return m2 / (n - 1);
+    }
+
+    /**
+     * Returns the population variance of the values in the window.
+     * <p>
+     * It returns <code>Double.NaN</code> if the window is empty or contains
+     * non-finite values.</p>
+     *
+     * @return The population variance
+     */
+    public double getPopulationVariance() {
+        if (n == 0 || nFinite < n) {
+            return Double.NaN;
+        }
+        return m2 / n;
+    }
+
+    /**
+     * Returns the standard deviation of the values in the window.
+     *
+     * @return The standard deviation
+     */
+    public double getStandardDeviation() {
+        return FastMath.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the maximum of the values in the window, ignoring NaN values.
+     * <p>
+     * Returns <code>Double.NaN</code> if the window is empty or contains only
+     * NaN values.</p>
+     *
+     * @return The max
+     */
+    public double getMax() {
+        return (n == nNaN) ? Double.NaN : sorted.get(n - nNaN - 1);
+    }
+
+    /**
+     * Returns the minimum of the values in the window, ignoring NaN values.
+     * <p>
+     * Returns <code>Double.NaN</code> if the window is empty or contains only
+     * NaN values.</p>
+     *
+     * @return The min
+     */
+    public double getMin() {
+        return (n == nNaN) ? Double.NaN : sorted.get(0);
+    }
+
+    /**
+     * Returns the median of the values in the window.
+     *
+     * @return The median or <code>Double.NaN</code> if the window is empty
+     */
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    /**
+     * Returns an estimate for the p<sup>th</sup> percentile of the values
+     * in the window.
+     * <p>
+     * The estimate is the same as the one computed by
+     * {@link org.apache.commons.math3.stat.descriptive.rank.Percentile}
+     * on the window, in O(log n) expected time.</p>
+     *
+     * @param p the requested percentile (scaled from 0 - 100)
+     * @return An estimate for the p<sup>th</sup> percentile of the values
+     * in the window, or <code>Double.NaN</code> if the window is empty
+     * @throws OutOfRangeException if p is not greater than 0 and less
+     * than or equal to 100
+     */
+    public double getPercentile(final double p) throws OutOfRangeException {
+        if ((p > 100) || (p <= 0)) {
+            throw new OutOfRangeException(
+                    LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+        }
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return sorted.get(0);
+        }
+        final double pos  = p * (n + 1.0) / 100;
+        final double fpos = FastMath.floor(pos);
+        final int intPos  = (int) fpos;
+        final double dif  = pos - fpos;
+        if (pos < 1) {
+            return sorted.get(0);
+        }
+        if (pos >= n) {
+            return sorted.get(n - 1);
+        }
+        final double lower = sorted.get(intPos - 1);
+        final double upper = sorted.get(intPos);
+        return lower + dif * (upper - lower);
+    }
+
+    /**
+     * Generates a text report displaying statistics of the window.
+     * @return String with line feeds displaying statistics
+     */
+    @Override
+    public String toString() {
+        StringBuilder outBuffer = new StringBuilder();
+        String endl = "\n";
+        outBuffer.append("RollingStatistics:").append(endl);
+        outBuffer.append("n: ").append(getN()).append(endl);
+        outBuffer.append("min: ").append(getMin()).append(endl);
+        outBuffer.append("max: ").append(getMax()).append(endl);
+        outBuffer.append("mean: ").append(getMean()).append(endl);
+        outBuffer.append("std dev: ").append(getStandardDeviation()).append(endl);
+        outBuffer.append("median: ").append(getMedian()).append(endl);
+        return outBuffer.toString();
+    }
+
+    /**
+     * Update the moments for a value entering the window.
+     * @param v value entering the window
+     */
+    private void addMoments(final double v) {
+        if (Double.isNaN(v)) {
+            ++nNaN;
+        } else if (v == Double.POSITIVE_INFINITY) {
+            ++nPositiveInfinity;
+        } else if (v == Double.NEGATIVE_INFINITY) {
+            ++nNegativeInfinity;
+        } else {
+            ++nFinite;
+            final double delta = v - mean;
+            mean += delta / nFinite;
+            m2   += delta * (v - mean);
+        }
+    }
+
+    /**
+     * Update the moments for a value leaving the window.
+     * @param v value leaving the window
+     */
+    private void removeMoments(final double v) {
+        if (Double.isNaN(v)) {
+            --nNaN;
+        } else if (v == Double.POSITIVE_INFINITY) {
+            --nPositiveInfinity;
+        } else if (v == Double.NEGATIVE_INFINITY) {
+            --nNegativeInfinity;
+        } else if (--nFinite == 0) {
+            mean = 0;
+            m2   = 0;
+        } else {
+            final double delta = v - mean;
+            mean -= delta / nFinite;
+            m2    = FastMath.max(0.0, m2 - delta * (v - mean));
+        }
+    }
+
+    /**
+     * Recompute the moments of the finite values from the window,
+     * using the corrected two-pass algorithm.
+     */
+    private void recomputeMoments() {
+        evictions = 0;
+        if (nFinite == 0) {
+            return;
+        }
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            final double v = window[i];
+            if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+                sum += v;
+            }
+        }
+        final double xbar = sum / nFinite;
+        double accum  = 0;
+        double accum2 = 0;
+        for (int i = 0; i < n; ++i) {
+            final double v = window[i];
+            if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+                final double dev = v - xbar;
+                accum  += dev * dev;
+                accum2 += dev;
+            }
+        }
+        mean = xbar + accum2 / nFinite;
+        m2   = accum - accum2 * accum2 / nFinite;
+    }
+
+    /**
+     * Indexable skip list of doubles, allowing duplicates.
+     * <p>
+     * Each link also stores its width, i.e. the number of bottom level links
+     * it spans, which allows to access elements by rank. A null link is the
+     * end of the list.
+     * </p>
+     */
+    private static class SkipList {
+
+        /** Maximum number of levels. */
+        private final int maxLevels;
+
+        /** Head node. */
+        private final Node head;
+
+        /** Predecessors on each level (work array). */
+        private final Node[] chain;
+
+        /** Number of bottom level steps to reach each predecessor (work array). */
+        private final int[] steps;
+
+        /** Number of elements. */
+        private int size;
+
+        /** State of the xorshift generator for levels. */
+        private long state;
+
+        /** Simple constructor.
+         * @param capacity maximum number of elements
+         */
+        SkipList(final int capacity) {
+            maxLevels = 1 + (int) FastMath.floor(FastMath.log(capacity) / FastMath.log(2.0));
+            head      = new Node(Double.NaN, maxLevels);
+            chain     = new Node[maxLevels];
+            steps     = new int[maxLevels];
+            clear();
+        }
+
+        /** Remove all elements.
+         */
+        void clear() {
+            for (int level = 0; level < maxLevels; ++level) {
+                head.next[level]  = null;
+                head.width[level] = 1;
+            }
+            size  = 0;
+            state = SEED;
+        }
+
+        /** Get an element by rank.
+         * @param rank rank of the element (0-based)
+         * @return element at the specified rank
+         */
+        double get(final int rank) {
+            Node node = head;
+            int i = rank + 1;
+            for (int level = maxLevels - 1; level >= 0; --level) {
+                while (node.width[level] <= i) {
+                    i   -= node.width[level];
+                    node = node.next[level];
+                }
+            }
+            return node.value;
+        }
+
+        /** Insert an element.
+         * @param value element to insert
+         */
+        void insert(final double value) {
+
+            // find the last node on each level not greater than the value
+            Node node = head;
+            for (int level = maxLevels - 1; level >= 0; --level) {
+                steps[level] = 0;
+                while (node.next[level] != null &&
+                       Double.compare(node.next[level].value, value) <= 0) {
+                    steps[level] += node.width[level];
+                    node = node.next[level];
+                }
+                chain[level] = node;
+            }
+
+            // random level, with geometric distribution
+            state ^= state << 13;
+            state ^= state >>> 7;
+            state ^= state << 17;
+            final int d = FastMath.min(maxLevels, 1 + Long.numberOfTrailingZeros(state));
+
+            final Node newNode = new Node(value, d);
+            int distance = 0;
+            for (int level = 0; level < d; ++level) {
+                final Node previous   = chain[level];
+                newNode.next[level]   = previous.next[level];
+                previous.next[level]  = newNode;
+                newNode.width[level]  = previous.width[level] - distance;
+                previous.width[level] = distance + 1;
+                distance += steps[level];
+            }
+            for (int level = d; level < maxLevels; ++level) {
+                chain[level].width[level]++;
+            }
+            ++size;
+
+        }
+
+        /** Remove one occurrence of an element.
+         * @param value element to remove (must be present)
+         */
+        void remove(final double value) {
+
+            // find the last node on each level smaller than the value
+            Node node = head;
+            for (int level = maxLevels - 1; level >= 0; --level) {
+                while (node.next[level] != null &&
+                       Double.compare(node.next[level].value, value) < 0) {
+                    node = node.next[level];
+                }
+                chain[level] = node;
+            }
+
+            final Node removed = chain[0].next[0];
+            final int d = removed.next.length;
+            for (int level = 0; level < d; ++level) {
+                final Node previous = chain[level];
+                previous.width[level] += previous.next[level].width[level] - 1;
+                previous.next[level]   = previous.next[level].next[level];
+            }
+            for (int level = d; level < maxLevels; ++level) {
+                chain[level].width[level]--;
+            }
+            --size;
+
+        }
+
+        /** Get the elements as an array.
+         * @return sorted array of the elements
+         */
+        double[] toArray() {
+            final double[] array = new double[size];
+            int i = 0;
+            for (Node node = head.next[0]; node != null; node = node.next[0]) {
+                array[i++] = node.value;
+            }
+            return array;
+        }
+
+    }
+
+    /** Node of the skip list. */
+    private static class Node {
+
+        /** Element. */
+        private final double value;
+
+        /** Next nodes on each level. */
+        private final Node[] next;
+
+        /** Width of the links on each level. */
+        private final int[] width;
+
+        /** Simple constructor.
+         * @param value element
+         * @param levels number of levels
+         */
+        Node(final double value, final int levels) {
+            this.value = value;
+            this.next  = new Node[levels];
+            this.width = new int[levels];
+        }
+
+    }
+
+}
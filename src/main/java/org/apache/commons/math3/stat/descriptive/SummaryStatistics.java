@@ -18,6 +18,7 @@ package org.apache.commons.math3.stat.descriptive;
 
 import java.io.Serializable;
 
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.apache.commons.math3.exception.MathIllegalStateException;
 import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
@@ -27,6 +28,7 @@ import org.apache.commons.math3.stat.descriptive.moment.SecondMoment;
 import org.apache.commons.math3.stat.descriptive.moment.Variance;
 import org.apache.commons.math3.stat.descriptive.rank.Max;
 import org.apache.commons.math3.stat.descriptive.rank.Min;
+import org.apache.commons.math3.stat.descriptive.rank.StreamingPercentile;
 import org.apache.commons.math3.stat.descriptive.summary.Sum;
 import org.apache.commons.math3.stat.descriptive.summary.SumOfLogs;
 import org.apache.commons.math3.stat.descriptive.summary.SumOfSquares;
@@ -117,6 +119,9 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
     /** Variance statistic implementation - can be reset by setter. */
     private StorelessUnivariateStatistic varianceImpl = variance;
 
+    /** Percentile sketch - null unless set by setter. */
+    private StreamingPercentile percentileImpl = null;
+
     /**
      * Construct a SummaryStatistics instance
      */
@@ -165,6 +170,9 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         if (geoMeanImpl != geoMean) {
             geoMeanImpl.increment(value);
         }
+        if (percentileImpl != null) {
+            percentileImpl.increment(value);
+        }
         n++;
     }
 
@@ -314,6 +322,29 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         return secondMoment.getResult();
     }
 
+    /**
+     * Returns an estimate of the p<sup>th</sup> percentile of the values that
+     * have been added.
+     * <p>
+     * Percentiles are only available once a sketch has been configured using
+     * {@link #setPercentileImpl(StreamingPercentile)}; see
+     * {@link StreamingPercentile} for the accuracy of the estimate.
+     * <code>Double.NaN</code> is returned if no sketch has been configured
+     * or if no data values have been added.</p>
+     *
+     * @param p the requested percentile (scaled from 0 - 100)
+     * @return an estimate of the p<sup>th</sup> percentile
+     * @throws MathIllegalArgumentException if p is not greater than 0 and less
+     * than or equal to 100
+     * @since 3.3
+     */
+    public double getPercentile(double p) throws MathIllegalArgumentException {
+        if (percentileImpl == null) {
+            return Double.NaN;
+        }
+        return percentileImpl.getPercentile(p);
+    }
+
     /**
      * Generates a text report displaying summary statistics from values that
      * have been added.
@@ -357,6 +388,9 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         if (varianceImpl != variance) {
             varianceImpl.clear();
         }
+        if (percentileImpl != null) {
+            percentileImpl.clear();
+        }
     }
 
     /**
@@ -645,6 +679,42 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         this.varianceImpl = varianceImpl;
     }
 
+    /**
+     * Returns the currently configured percentile sketch
+     * @return the StreamingPercentile estimating percentiles, or null if
+     * percentiles are not computed
+     * @since 3.3
+     */
+    public StreamingPercentile getPercentileImpl() {
+        return percentileImpl;
+    }
+
+    /**
+     * <p>
+     * Sets the sketch used to estimate percentiles.
+     * </p>
+     * <p>
+     * Percentiles are not computed by default, as the sketch retains
+     * a few thousand values. Setting a sketch enables
+     * {@link #getPercentile(double)}; setting null disables it.
+     * </p>
+     * <p>
+     * This method cannot be activated after data has been added - i.e.,
+     * after {@link #addValue(double) addValue} has been used to add data.
+     * If it is activated after data has been added, an IllegalStateException
+     * will be thrown.
+     * </p>
+     * @param percentileImpl the StreamingPercentile instance to use for
+     *        estimating percentiles (may be null)
+     * @throws MathIllegalStateException if data has already been added (i.e if n > 0)
+     * @since 3.3
+     */
+    public void setPercentileImpl(StreamingPercentile percentileImpl)
+    throws MathIllegalStateException {
+        checkEmpty();
+        this.percentileImpl = percentileImpl;
+    }
+
     /**
      * Throws IllegalStateException if n > 0.
      * @throws MathIllegalStateException if data has been added
@@ -686,6 +756,7 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         dest.sumLogImpl = source.sumLogImpl.copy();
         dest.sumsqImpl = source.sumsqImpl.copy();
         dest.secondMoment = source.secondMoment.copy();
+        dest.percentileImpl = source.percentileImpl == null ? null : source.percentileImpl.copy();
         dest.n = source.n;
 
         // Keep commons-math supplied statistics with embedded moments in synch
@@ -16,8 +16,10 @@
  */
 package org.apache.commons.math3.stat.descriptive;
 
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.apache.commons.math3.exception.MathIllegalStateException;
 import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.stat.descriptive.rank.StreamingPercentile;
 import org.apache.commons.math3.util.MathUtils;
 
 /**
@@ -152,6 +154,14 @@ public class SynchronizedSummaryStatistics extends SummaryStatistics {
         return super.getGeometricMean();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized double getPercentile(double p) throws MathIllegalArgumentException {
+        return super.getPercentile(p);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -320,6 +330,23 @@ public class SynchronizedSummaryStatistics extends SummaryStatistics {
         super.setVarianceImpl(varianceImpl);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized StreamingPercentile getPercentileImpl() {
+        return super.getPercentileImpl();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setPercentileImpl(StreamingPercentile percentileImpl)
+    throws MathIllegalStateException {
+        super.setPercentileImpl(percentileImpl);
+    }
+
     /**
      * Returns a copy of this SynchronizedSummaryStatistics instance with the
      * same internal state.
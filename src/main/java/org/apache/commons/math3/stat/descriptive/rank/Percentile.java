@@ -17,13 +17,18 @@
 package org.apache.commons.math3.stat.descriptive.rank;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.apache.commons.math3.stat.descriptive.AbstractUnivariateStatistic;
+import org.apache.commons.math3.util.ConcurrencyUtils;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.commons.math3.util.MathUtils;
 
@@ -71,7 +76,11 @@ import org.apache.commons.math3.util.MathUtils;
  * multiple percentiles are computed based on the same data, users should set the
  * data array once using either one of the {@link #evaluate(double[], double)} or
  * {@link #setData(double[])} methods and thereafter {@link #evaluate(double)}
- * with just the percentile provided.
+ * with just the percentile provided. When several percentiles of the same
+ * array are needed at once, {@link #evaluate(double[], double[])} copies the
+ * array only once and serves all the percentiles from the same partitions.
+ * For large arrays, {@link #evaluate(double[], double[], ExecutorService)}
+ * additionally selects the independent ranks in parallel.
  * </p>
  * <p>
  * <strong>Note that this implementation is not synchronized.</strong> If
@@ -92,6 +101,9 @@ public class Percentile extends AbstractUnivariateStatistic implements Serializa
     /** Maximum number of partitioning pivots cached (each level double the number of pivots). */
     private static final int MAX_CACHED_LEVELS = 10;
 
+    /** Minimum number of elements of a slice for selecting its ranks in parallel. */
+    private static final int MIN_PARALLEL_SIZE = 0x1 << 15;
+
     /** Determines what percentile is computed when evaluate() is activated
      * with no quantile argument */
     private double quantile = 0.0;
@@ -276,11 +288,6 @@ public class Percentile extends AbstractUnivariateStatistic implements Serializa
         if (length == 1) {
             return values[begin]; // always return single value for n = 1
         }
-        double n = length;
-        double pos = p * (n + 1) / 100;
-        double fpos = FastMath.floor(pos);
-        int intPos = (int) fpos;
-        double dif = pos - fpos;
         double[] work;
         int[] pivotsHeap;
         if (values == getDataRef()) {
@@ -293,17 +300,299 @@ public class Percentile extends AbstractUnivariateStatistic implements Serializa
             Arrays.fill(pivotsHeap, -1);
         }
 
+        return estimate(work, pivotsHeap, p);
+    }
+
+    /**
+     * Returns estimates of several percentiles of the values in the
+     * <code>values</code> array.
+     * <p>
+     * This is equivalent to calling {@link #evaluate(double[], double)} once
+     * for each element of <code>ps</code>, but the array is copied only once
+     * and all percentiles share the same partitions, so the cost of the
+     * selections decreases with each additional percentile.</p>
+     * <p>
+     * Calls to this method do not modify the internal <code>quantile</code>
+     * state of this statistic.</p>
+     *
+     * @param values input array of values
+     * @param ps the percentile values to compute
+     * @return the percentile values, in the same order as <code>ps</code>,
+     * all set to Double.NaN if the array is empty
+     * @throws MathIllegalArgumentException if <code>values</code> or
+     * <code>ps</code> is null or one of the percentiles is invalid
+     * @since 3.3
+     */
+    public double[] evaluate(final double[] values, final double[] ps)
+    throws MathIllegalArgumentException {
+        test(values, 0, 0);
+        return evaluate(values, 0, values.length, ps);
+    }
+
+    /**
+     * Returns estimates of several percentiles of the values in the
+     * <code>values</code> array, starting with the element in (0-based)
+     * position <code>begin</code> in the array and including <code>length</code>
+     * values.
+     * <p>
+     * See {@link #evaluate(double[], double[])}.</p>
+     *
+     * @param values array of input values
+     * @param begin  the first (0-based) element to include in the computation
+     * @param length  the number of array elements to include
+     * @param ps the percentile values to compute
+     * @return the percentile values, in the same order as <code>ps</code>
+     * @throws MathIllegalArgumentException if the parameters are not valid or
+     * <code>values</code> or <code>ps</code> is null
+     * @since 3.3
+     */
+    public double[] evaluate(final double[] values, final int begin,
+                             final int length, final double[] ps)
+        throws MathIllegalArgumentException {
+        return evaluate(values, begin, length, ps, null);
+    }
+
+    /**
+     * Returns estimates of several percentiles of the values in the
+     * <code>values</code> array, selecting independent ranks in parallel.
+     * <p>
+     * The array is partitioned once in the calling thread around the pivots
+     * separating the requested ranks, and the resulting independent slices are
+     * then processed as separate tasks on the executor. Only large arrays
+     * with several distinct percentiles benefit from this: small arrays and
+     * single percentiles are processed as in {@link #evaluate(double[], double[])},
+     * in the calling thread. The results are identical to the sequential ones.</p>
+     *
+     * @param values input array of values
+     * @param ps the percentile values to compute
+     * @param executor executor to use for selecting the ranks
+     * @return the percentile values, in the same order as <code>ps</code>
+     * @throws MathIllegalArgumentException if <code>values</code>,
+     * <code>ps</code> or <code>executor</code> is null or one of the
+     * percentiles is invalid
+     * @since 3.3
+     */
+    public double[] evaluate(final double[] values, final double[] ps,
+                             final ExecutorService executor)
+        throws MathIllegalArgumentException {
+        test(values, 0, 0);
+        MathUtils.checkNotNull(executor);
+        return evaluate(values, 0, values.length, ps, executor);
+    }
+
+    /**
+     * Returns estimates of several percentiles of an array slice.
+     *
+     * @param values array of input values
+     * @param begin  the first (0-based) element to include in the computation
+     * @param length  the number of array elements to include
+     * @param ps the percentile values to compute
+     * @param executor executor to use for selecting the ranks (may be null)
+     * @return the percentile values, in the same order as <code>ps</code>
+     * @throws MathIllegalArgumentException if the parameters are not valid or
+     * <code>values</code> or <code>ps</code> is null
+     */
+    private double[] evaluate(final double[] values, final int begin, final int length,
+                              final double[] ps, final ExecutorService executor)
+        throws MathIllegalArgumentException {
+
+        test(values, begin, length);
+        MathUtils.checkNotNull(ps);
+        for (final double p : ps) {
+            if ((p > 100) || (p <= 0)) {
+                throw new OutOfRangeException(
+                        LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+            }
+        }
+
+        final double[] result = new double[ps.length];
+        if (length == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        if (length == 1) {
+            Arrays.fill(result, values[begin]);
+            return result;
+        }
+
+        double[] work;
+        int[] pivotsHeap;
+        if (values == getDataRef()) {
+            work = getDataRef();
+            pivotsHeap = cachedPivots;
+        } else {
+            work = new double[length];
+            System.arraycopy(values, begin, work, 0, length);
+            pivotsHeap = new int[(0x1 << MAX_CACHED_LEVELS) - 1];
+            Arrays.fill(pivotsHeap, -1);
+        }
+
+        if (executor == null || work.length < MIN_PARALLEL_SIZE) {
+            for (int i = 0; i < ps.length; ++i) {
+                result[i] = estimate(work, pivotsHeap, ps[i]);
+            }
+            return result;
+        }
+
+        // gather all the distinct ranks needed, in increasing order
+        final int[] needed = new int[2 * ps.length];
+        for (int i = 0; i < ps.length; ++i) {
+            needed[2 * i]     = lowerRank(ps[i], work.length);
+            needed[2 * i + 1] = FastMath.min(needed[2 * i] + 1, work.length - 1);
+        }
+        Arrays.sort(needed);
+        int nbRanks = 0;
+        for (int i = 0; i < needed.length; ++i) {
+            if (i == 0 || needed[i] != needed[i - 1]) {
+                needed[nbRanks++] = needed[i];
+            }
+        }
+        final int[] ranks = new int[nbRanks];
+        System.arraycopy(needed, 0, ranks, 0, nbRanks);
+
+        // select all ranks, splitting the work into independent tasks
+        final double[] selected = new double[nbRanks];
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        splitSelection(work, pivotsHeap, 0, work.length, 0, ranks, 0, nbRanks, selected, tasks);
+        ConcurrencyUtils.invokeAll(executor, tasks);
+
+        for (int i = 0; i < ps.length; ++i) {
+            final double n    = work.length;
+            final double pos  = ps[i] * (n + 1) / 100;
+            final double fpos = FastMath.floor(pos);
+            final int intPos  = (int) fpos;
+            final double dif  = pos - fpos;
+            if (pos < 1) {
+                result[i] = selected[0];
+            } else if (pos >= n) {
+                result[i] = selected[nbRanks - 1];
+            } else {
+                final double lower = selected[Arrays.binarySearch(ranks, intPos - 1)];
+                final double upper = selected[Arrays.binarySearch(ranks, intPos)];
+                result[i] = lower + dif * (upper - lower);
+            }
+        }
+        return result;
+
+    }
+
+    /**
+     * Estimate a percentile from a work array.
+     * @param work work array (will be reorganized during the call)
+     * @param pivotsHeap set of pivot index corresponding to elements that
+     * are already at their sorted location
+     * @param p the percentile to compute
+     * @return the percentile value
+     */
+    private double estimate(final double[] work, final int[] pivotsHeap, final double p) {
+        final double n    = work.length;
+        final double pos  = p * (n + 1) / 100;
+        final double fpos = FastMath.floor(pos);
+        final int intPos  = (int) fpos;
+        final double dif  = pos - fpos;
+
         if (pos < 1) {
             return select(work, pivotsHeap, 0);
         }
         if (pos >= n) {
-            return select(work, pivotsHeap, length - 1);
+            return select(work, pivotsHeap, work.length - 1);
         }
         double lower = select(work, pivotsHeap, intPos - 1);
         double upper = select(work, pivotsHeap, intPos);
         return lower + dif * (upper - lower);
     }
 
+    /**
+     * Get the index of the lower element used for estimating a percentile.
+     * @param p the percentile to compute
+     * @param length number of elements
+     * @return index of the lower element (the upper one being the next one,
+     * if any)
+     */
+    private static int lowerRank(final double p, final int length) {
+        final double pos = p * (length + 1.0) / 100;
+        if (pos < 1) {
+            return 0;
+        }
+        if (pos >= length) {
+            return length - 1;
+        }
+        return ((int) FastMath.floor(pos)) - 1;
+    }
+
+    /**
+     * Partition a slice of the work array until the ranks it contains are
+     * spread over independent slices, and create one selection task per slice.
+     * <p>
+     * The partitions made here are stored in the pivots heap, just as the ones
+     * made by {@link #select(double[], int[], int)}. Tasks work on disjoint
+     * slices of the work array and disjoint sub-trees of the heap, so they can
+     * run concurrently.
+     * </p>
+     * @param work work array (will be reorganized during the call)
+     * @param pivotsHeap set of pivot index corresponding to elements that
+     * are already at their sorted location
+     * @param begin index of the first element of the slice
+     * @param end index after the last element of the slice
+     * @param node index of the slice in the pivots heap
+     * @param ranks sorted ranks to select
+     * @param from index of the first rank within the slice
+     * @param to index after the last rank within the slice
+     * @param selected array where to store the selected elements
+     * @param tasks list where to add the selection tasks
+     */
+    private void splitSelection(final double[] work, final int[] pivotsHeap,
+                                final int begin, final int end, final int node,
+                                final int[] ranks, final int from, final int to,
+                                final double[] selected, final List<Callable<Void>> tasks) {
+
+        if (to - from == 1 || end - begin < MIN_PARALLEL_SIZE) {
+            // the remaining ranks are selected sequentially in one task
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                public Void call() {
+                    for (int i = from; i < to; ++i) {
+                        selected[i] = select(work, pivotsHeap, begin, end, node, ranks[i]);
+                    }
+                    return null;
+                }
+            });
+            return;
+        }
+
+        final int pivot;
+        if ((node < pivotsHeap.length) && (pivotsHeap[node] >= 0)) {
+            pivot = pivotsHeap[node];
+        } else {
+            pivot = partition(work, begin, end, medianOf3(work, begin, end));
+            if (node < pivotsHeap.length) {
+                pivotsHeap[node] = pivot;
+            }
+        }
+
+        // split the ranks around the pivot
+        int leftEnd = from;
+        while (leftEnd < to && ranks[leftEnd] < pivot) {
+            ++leftEnd;
+        }
+        int rightStart = leftEnd;
+        if (rightStart < to && ranks[rightStart] == pivot) {
+            selected[rightStart++] = work[pivot];
+        }
+
+        if (leftEnd > from) {
+            splitSelection(work, pivotsHeap, begin, pivot,
+                           FastMath.min(2 * node + 1, pivotsHeap.length),
+                           ranks, from, leftEnd, selected, tasks);
+        }
+        if (to > rightStart) {
+            splitSelection(work, pivotsHeap, pivot + 1, end,
+                           FastMath.min(2 * node + 2, pivotsHeap.length),
+                           ranks, rightStart, to, selected, tasks);
+        }
+
+    }
+
     /**
      * Select the k<sup>th</sup> smallest element from work array
      * @param work work array (will be reorganized during the call)
@@ -316,10 +605,31 @@ public class Percentile extends AbstractUnivariateStatistic implements Serializa
      * @return k<sup>th</sup> smallest element
      */
     private double select(final double[] work, final int[] pivotsHeap, final int k) {
+        return select(work, pivotsHeap, 0, work.length, 0, k);
+    }
+
+    /**
+     * Select the k<sup>th</sup> smallest element from a slice of the work array
+     * <p>
+     * The slice must correspond to a node of the pivots heap, i.e. all the
+     * elements before it are smaller and all the elements after it are larger.
+     * </p>
+     * @param work work array (will be reorganized during the call)
+     * @param pivotsHeap set of pivot index corresponding to elements that
+     * are already at their sorted location
+     * @param sliceBegin index of the first element of the slice
+     * @param sliceEnd index after the last element of the slice
+     * @param sliceNode index of the slice in the pivots heap
+     * @param k index of the desired element (must be within the slice)
+     * @return k<sup>th</sup> smallest element
+     */
+    private double select(final double[] work, final int[] pivotsHeap,
+                          final int sliceBegin, final int sliceEnd, final int sliceNode,
+                          final int k) {
 
-        int begin = 0;
-        int end   = work.length;
-        int node  = 0;
+        int begin = sliceBegin;
+        int end   = sliceEnd;
+        int node  = sliceNode;
 
         while (end - begin > MIN_SELECT_SIZE) {
 
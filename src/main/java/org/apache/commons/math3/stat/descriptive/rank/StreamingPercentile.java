@@ -0,0 +1,513 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive.rank;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.MathArrays;
+import org.apache.commons.math3.util.MathUtils;
+
+/**
+ * Estimates percentiles of a stream of values in bounded memory.
+ * <p>
+ * Unlike {@link Percentile}, this statistic does not store the values. It
+ * maintains a KLL sketch (Karnin, Lang and Liberty, <a
+ * href="http://arxiv.org/abs/1603.05346">Optimal Quantile Approximation in
+ * Streams</a>, 2016): a hierarchy of compactors where level h holds values
+ * standing for 2<sup>h</sup> original values each. When a level is full, it is
+ * sorted and one value out of two (starting at a random parity) is promoted
+ * to the next level. The capacity of the top level is {@code k}, and the
+ * capacities of lower levels decrease geometrically by a factor 2/3 (down to
+ * a minimum of 8 values), so the sketch never retains more than about 3k
+ * values plus 8 per level, i.e. O(k + log n) memory.
+ * </p>
+ * <p>
+ * <strong>Accuracy:</strong> the sketch estimates ranks, not values. The
+ * estimate returned for percentile p is a value that was actually added
+ * and whose rank among the n values differs from p&nbsp;n/100 by at most
+ * &epsilon;&nbsp;n. KLL sketches guarantee that for any single query,
+ * &epsilon; = O(&radic;log(1/&delta;)&nbsp;/&nbsp;k) with probability at
+ * least 1&nbsp;-&nbsp;&delta;. In practice, the normalized rank error
+ * &epsilon; stays below 1.5&nbsp;% with the default {@code k = 200} and
+ * decreases as 1/k. Memory and accuracy do not depend on n or on the
+ * distribution of the values. The minimum and maximum values are tracked
+ * exactly.
+ * </p>
+ * <p>
+ * Sketches can be {@link #merge(StreamingPercentile) merged}, for example to
+ * combine per-thread or per-host sketches, and the merged sketch has the same
+ * accuracy guarantees as a sketch built from all the values. The random bits
+ * come from an internal generator with a fixed seed, so results are
+ * reproducible. {@code NaN} values are ignored and not counted.
+ * </p>
+ * <p>
+ * <strong>Note that this implementation is not synchronized.</strong> If
+ * multiple threads access an instance of this class concurrently, and at least
+ * one of the threads invokes the <code>increment()</code> or
+ * <code>clear()</code> method, it must be synchronized externally.</p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public class StreamingPercentile extends AbstractStorelessUnivariateStatistic
+    implements Serializable {
+
+    /** Default capacity of the top compactor. */
+    public static final int DEFAULT_K = 200;
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20140318L;
+
+    /** Minimum capacity of a compactor. */
+    private static final int MIN_CAPACITY = 8;
+
+    /** Ratio between the capacities of consecutive compactors. */
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    /** Seed of the internal generator. */
+    private static final long SEED = 0x5deece66d1b2e3f7l;
+
+    /** Percentile returned by {@link #getResult()}. */
+    private double quantile;
+
+    /** Capacity of the top compactor. */
+    private int k;
+
+    /** Compactors, level h holding values of weight 2<sup>h</sup>. */
+    private double[][] levels;
+
+    /** Number of values in each compactor. */
+    private int[] sizes;
+
+    /** Number of compactors in use. */
+    private int nbLevels;
+
+    /** Number of values added. */
+    private long n;
+
+    /** Smallest value added. */
+    private double min;
+
+    /** Largest value added. */
+    private double max;
+
+    /** State of the internal xorshift generator. */
+    private long state;
+
+    /** Sorted retained values (cache for queries, null when invalid). */
+    private transient double[] sortedValues;
+
+    /** Cumulative weights of the sorted retained values. */
+    private transient double[] cumulativeWeights;
+
+    /**
+     * Constructs a StreamingPercentile estimating the median, with the
+     * default capacity {@link #DEFAULT_K}.
+     */
+    public StreamingPercentile() {
+        this(50.0);
+    }
+
+    /**
+     * Constructs a StreamingPercentile with the default capacity
+     * {@link #DEFAULT_K}.
+     *
+     * @param p percentile returned by {@link #getResult()}
+     * @throws MathIllegalArgumentException if p is not greater than 0 and less
+     * than or equal to 100
+     */
+    public StreamingPercentile(final double p) throws MathIllegalArgumentException {
+        this(p, DEFAULT_K);
+    }
+
+    /**
+     * Constructs a StreamingPercentile.
+     *
+     * @param p percentile returned by {@link #getResult()}
+     * @param k capacity of the top compactor, the rank error decreasing as 1/k
+     * @throws MathIllegalArgumentException if p is not greater than 0 and less
+     * than or equal to 100
+     * @throws NumberIsTooSmallException if k is smaller than 8
+     */
+    public StreamingPercentile(final double p, final int k)
+        throws MathIllegalArgumentException, NumberIsTooSmallException {
+        if (k < MIN_CAPACITY) {
+            throw new NumberIsTooSmallException(k, MIN_CAPACITY, true);
+        }
+        setQuantile(p);
+        this.k = k;
+        clear();
+    }
+
+    /**
+     * Copy constructor, creates a new {@code StreamingPercentile} identical
+     * to the {@code original}
+     *
+     * @param original the {@code StreamingPercentile} instance to copy
+     * @throws NullArgumentException if original is null
+     */
+    public StreamingPercentile(final StreamingPercentile original)
+        throws NullArgumentException {
+        copy(original, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void increment(final double d) {
+        if (Double.isNaN(d)) {
+            return;
+        }
+        if (n == 0) {
+            min = d;
+            max = d;
+        } else {
+            min = FastMath.min(min, d);
+            max = FastMath.max(max, d);
+        }
+        append(0, d);
+        ++n;
+        sortedValues = null;
+        compress();
+    }
+
+    /**
+     * Merge another sketch into this one.
+     * <p>
+     * After the merge, this sketch estimates the percentiles of the union of
+     * the values added to both sketches. The other sketch is not modified.
+     * </p>
+     *
+     * @param other sketch to merge into this one
+     * @throws NullArgumentException if other is null
+     */
+    public void merge(final StreamingPercentile other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        if (other.n == 0) {
+            return;
+        }
+        // appending to this sketch changes its levels, so merging it
+        // with itself must read from a snapshot
+        final StreamingPercentile source = (other == this) ? copy() : other;
+        if (n == 0) {
+            min = source.min;
+            max = source.max;
+        } else {
+            min = FastMath.min(min, source.min);
+            max = FastMath.max(max, source.max);
+        }
+        for (int h = 0; h < source.nbLevels; ++h) {
+            for (int i = 0; i < source.sizes[h]; ++i) {
+                append(h, source.levels[h][i]);
+            }
+        }
+        n += source.n;
+        sortedValues = null;
+        compress();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        levels   = new double[1][MIN_CAPACITY];
+        sizes    = new int[1];
+        nbLevels = 1;
+        n        = 0;
+        min      = Double.NaN;
+        max      = Double.NaN;
+        state    = SEED;
+        sortedValues      = null;
+        cumulativeWeights = null;
+    }
+
+    /**
+     * Returns an estimate of the percentile set by {@link #setQuantile(double)}.
+     *
+     * @return estimated percentile, or {@code NaN} if no values have been added
+     */
+    @Override
+    public double getResult() {
+        return getPercentile(quantile);
+    }
+
+    /**
+     * Returns an estimate of the p<sup>th</sup> percentile of the values added.
+     * <p>
+     * The estimate is the smallest retained value whose estimated rank is at
+     * least p&nbsp;n/100. Several queries in a row reuse the same sorted view
+     * of the sketch.
+     * </p>
+     *
+     * @param p requested percentile
+     * @return estimated percentile, or {@code NaN} if no values have been added
+     * @throws MathIllegalArgumentException if p is not greater than 0 and less
+     * than or equal to 100
+     */
+    public double getPercentile(final double p) throws MathIllegalArgumentException {
+        checkQuantile(p);
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (p == 100) {
+            return max;
+        }
+
+        if (sortedValues == null) {
+            sortRetained();
+        }
+
+        final double target = p * n / 100;
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedValues[FastMath.min(index, sortedValues.length - 1)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the capacity of the top compactor.
+     *
+     * @return capacity of the top compactor
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns the number of values currently retained by the sketch.
+     *
+     * @return number of retained values
+     */
+    public int getRetainedCount() {
+        int retained = 0;
+        for (int h = 0; h < nbLevels; ++h) {
+            retained += sizes[h];
+        }
+        return retained;
+    }
+
+    /**
+     * Returns the value of the quantile field (determines what percentile is
+     * computed when getResult() is called).
+     *
+     * @return quantile
+     */
+    public double getQuantile() {
+        return quantile;
+    }
+
+    /**
+     * Sets the value of the quantile field (determines what percentile is
+     * computed when getResult() is called).
+     *
+     * @param p a value between 0 < p <= 100
+     * @throws MathIllegalArgumentException  if p is not greater than 0 and less
+     * than or equal to 100
+     */
+    public void setQuantile(final double p) throws MathIllegalArgumentException {
+        checkQuantile(p);
+        quantile = p;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamingPercentile copy() {
+        StreamingPercentile result = new StreamingPercentile(quantile, k);
+        // No try-catch or advertised exception because args are guaranteed non-null
+        copy(this, result);
+        return result;
+    }
+
+    /**
+     * Copies source to dest.
+     * <p>Neither source nor dest can be null. The capacity of dest
+     * is set to the capacity of source.</p>
+     *
+     * @param source StreamingPercentile to copy
+     * @param dest StreamingPercentile to copy to
+     * @throws NullArgumentException if either source or dest is null
+     */
+    public static void copy(final StreamingPercentile source, final StreamingPercentile dest)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(source);
+        MathUtils.checkNotNull(dest);
+        dest.quantile = source.quantile;
+        dest.k        = source.k;
+        dest.levels   = new double[source.levels.length][];
+        for (int h = 0; h < source.levels.length; ++h) {
+            dest.levels[h] = source.levels[h].clone();
+        }
+        dest.sizes    = source.sizes.clone();
+        dest.nbLevels = source.nbLevels;
+        dest.n        = source.n;
+        dest.min      = source.min;
+        dest.max      = source.max;
+        dest.state    = source.state;
+        dest.sortedValues      = null;
+        dest.cumulativeWeights = null;
+    }
+
+    /**
+     * Check a percentile value.
+     *
+     * @param p percentile to check
+     * @throws OutOfRangeException if p is not greater than 0 and less
+     * than or equal to 100
+     */
+    private static void checkQuantile(final double p) throws OutOfRangeException {
+        if (p <= 0 || p > 100) {
+            throw new OutOfRangeException(LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+        }
+    }
+
+    /**
+     * Get the capacity of a compactor.
+     *
+     * @param h level of the compactor
+     * @return capacity of the compactor
+     */
+    private int capacity(final int h) {
+        final double c = FastMath.ceil(k * FastMath.pow(CAPACITY_RATIO, nbLevels - 1 - h));
+        return FastMath.max(MIN_CAPACITY, (int) c);
+    }
+
+    /**
+     * Append a value to a compactor, creating levels as needed.
+     *
+     * @param h level of the compactor
+     * @param value value to append
+     */
+    private void append(final int h, final double value) {
+        if (h >= nbLevels) {
+            if (h >= levels.length) {
+                final double[][] newLevels = new double[h + 1][];
+                System.arraycopy(levels, 0, newLevels, 0, levels.length);
+                final int[] newSizes = new int[h + 1];
+                System.arraycopy(sizes, 0, newSizes, 0, sizes.length);
+                for (int i = levels.length; i <= h; ++i) {
+                    newLevels[i] = new double[MIN_CAPACITY];
+                }
+                levels = newLevels;
+                sizes  = newSizes;
+            }
+            nbLevels = h + 1;
+        }
+        if (sizes[h] == levels[h].length) {
+            final double[] newLevel = new double[2 * levels[h].length];
+            System.arraycopy(levels[h], 0, newLevel, 0, sizes[h]);
+            levels[h] = newLevel;
+        }
+        levels[h][sizes[h]++] = value;
+    }
+
+    /**
+     * Compact the full compactors until the sketch fits in its capacity.
+     */
+    private void compress() {
+        while (true) {
+            int retained = 0;
+            int capacity = 0;
+            for (int h = 0; h < nbLevels; ++h) {
+                retained += sizes[h];
+                capacity += capacity(h);
+            }
+            if (retained < capacity) {
+                return;
+            }
+            for (int h = 0; h < nbLevels; ++h) {
+                if (sizes[h] >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compact one compactor, promoting half of its values to the next level.
+     *
+     * @param h level of the compactor
+     */
+    private void compact(final int h) {
+        final double[] level = levels[h];
+        final int size = sizes[h];
+
+        // with an odd size, the last value stays at this level
+        final int even = size & ~0x1;
+        Arrays.sort(level, 0, even);
+
+        // xorshift generator for the random parity
+        state ^= state << 13;
+        state ^= state >>> 7;
+        state ^= state << 17;
+        final int offset = (int) (state & 0x1);
+
+        for (int i = offset; i < even; i += 2) {
+            append(h + 1, level[i]);
+        }
+        if (even < size) {
+            levels[h][0] = level[size - 1];
+            sizes[h] = 1;
+        } else {
+            sizes[h] = 0;
+        }
+    }
+
+    /**
+     * Sort the retained values and compute their cumulative weights.
+     */
+    private void sortRetained() {
+        final int retained = getRetainedCount();
+        final double[] values  = new double[retained];
+        final double[] weights = new double[retained];
+        int index = 0;
+        double weight = 1;
+        for (int h = 0; h < nbLevels; ++h) {
+            System.arraycopy(levels[h], 0, values, index, sizes[h]);
+            Arrays.fill(weights, index, index + sizes[h], weight);
+            index  += sizes[h];
+            weight *= 2;
+        }
+        MathArrays.sortInPlace(values, weights);
+        for (int i = 1; i < retained; ++i) {
+            weights[i] += weights[i - 1];
+        }
+        sortedValues      = values;
+        cumulativeWeights = weights;
+    }
+
+}
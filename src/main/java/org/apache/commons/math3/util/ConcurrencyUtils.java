@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.exception.MathIllegalStateException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+
+/**
+ * Utilities for running independent parts of a computation on an
+ * {@link ExecutorService executor}.
+ * <p>
+ * The library never creates threads by itself: algorithms that can split
+ * their work into independent tasks provide overloads accepting a
+ * user-supplied executor, so thread pools remain under control of the
+ * application.
+ * </p>
+ *
+ * @version $Id$
+ * @since 3.3
+ */
+public final class ConcurrencyUtils {
+
+    /**
+     * Class contains only static methods.
+     */
+    private ConcurrencyUtils() {}
+
+    /**
+     * Executes all tasks and waits for their completion.
+     * <p>
+     * If one task fails with an unchecked exception or an error, it is
+     * rethrown as is in the calling thread once all tasks are finished.
+     * Checked exceptions thrown by tasks are wrapped in a
+     * {@link MathIllegalStateException}.
+     * </p>
+     *
+     * @param <T> Type of the results.
+     * @param executor Executor to use.
+     * @param tasks Tasks to run.
+     * @return the results of the tasks, in the same order as the tasks.
+     * @throws NullArgumentException if {@code executor} or {@code tasks}
+     * is {@code null}.
+     * @throws MathIllegalStateException if the calling thread is interrupted
+     * while waiting or if a task throws a checked exception.
+     */
+    public static <T> List<T> invokeAll(final ExecutorService executor,
+                                        final Collection<Callable<T>> tasks)
+        throws NullArgumentException, MathIllegalStateException {
+        MathUtils.checkNotNull(executor);
+        MathUtils.checkNotNull(tasks);
+
+        try {
+            final List<Future<T>> futures = executor.invokeAll(tasks);
+            final List<T> results = new ArrayList<T>(futures.size());
+            for (final Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(ie, LocalizedFormats.ILLEGAL_STATE);
+        } catch (ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MathIllegalStateException(cause, LocalizedFormats.ILLEGAL_STATE);
+        }
+    }
+
+    /**
+     * Executes all tasks, either using an executor or in the calling thread.
+     * <p>
+     * This method is intended for algorithms where the executor is optional:
+     * if {@code executor} is not {@code null}, this method behaves exactly as
+     * {@link #invokeAll(ExecutorService, Collection)}, otherwise the tasks are
+     * run sequentially in the calling thread, in the order of the collection.
+     * </p>
+     *
+     * @param <T> Type of the results.
+     * @param executor Executor to use (may be {@code null}).
+     * @param tasks Tasks to run.
+     * @return the results of the tasks, in the same order as the tasks.
+     * @throws NullArgumentException if {@code tasks} is {@code null}.
+     * @throws MathIllegalStateException if the calling thread is interrupted
+     * while waiting or if a task throws a checked exception.
+     */
+    public static <T> List<T> invokeAllOrRun(final ExecutorService executor,
+                                             final Collection<Callable<T>> tasks)
+        throws NullArgumentException, MathIllegalStateException {
+        if (executor != null) {
+            return invokeAll(executor, tasks);
+        }
+        MathUtils.checkNotNull(tasks);
+
+        final List<T> results = new ArrayList<T>(tasks.size());
+        for (final Callable<T> task : tasks) {
+            try {
+                results.add(task.call());
+            } catch (RuntimeException re) {
+                throw re;
+            } catch (Exception e) {
+                throw new MathIllegalStateException(e, LocalizedFormats.ILLEGAL_STATE);
+            }
+        }
+        return results;
+    }
+
+}
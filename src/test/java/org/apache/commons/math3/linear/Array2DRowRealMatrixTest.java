@@ -16,6 +16,9 @@
  */
 package org.apache.commons.math3.linear;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Test;
 import org.junit.Assert;
 
@@ -223,6 +226,112 @@ public final class Array2DRowRealMatrixTest {
        TestUtils.assertEquals("m3*m4=m5", m3.multiply(m4), m5, entryTolerance);
    }
 
+    @Test
+    public void testDestinationOperations() {
+        Random r = new Random(0x3d85a16f0c7e42b9l);
+        Array2DRowRealMatrix a = createRandomMatrix(r, 13, 9);
+        Array2DRowRealMatrix b = createRandomMatrix(r, 9, 7);
+        Array2DRowRealMatrix c = createRandomMatrix(r, 13, 9);
+
+        // results must be identical to the allocating methods, not only close
+        Array2DRowRealMatrix out = createRandomMatrix(r, 13, 7);
+        Assert.assertSame(out, a.multiply(b, out));
+        Assert.assertEquals(a.multiply(b), out);
+        out = createRandomMatrix(r, 13, 9);
+        Assert.assertSame(out, a.add(c, out));
+        Assert.assertEquals(a.add(c), out);
+        Assert.assertSame(out, a.subtract(c, out));
+        Assert.assertEquals(a.subtract(c), out);
+
+        double[] v = b.getColumn(2);
+        double[] y = new double[13];
+        Arrays.fill(y, Double.NaN);
+        Assert.assertSame(y, a.operate(v, y));
+        Assert.assertTrue(Arrays.equals(a.operate(v), y));
+        Arrays.fill(v, Double.NaN);
+        Assert.assertSame(v, a.preMultiply(y, v));
+        TestUtils.assertEquals(a.preMultiply(y), v, 1.0e-12);
+    }
+
+    @Test
+    public void testDestinationAliasing() {
+        Random r = new Random(0x7a0e4c92d51b38f6l);
+        Array2DRowRealMatrix a = createRandomMatrix(r, 11, 11);
+        Array2DRowRealMatrix b = createRandomMatrix(r, 11, 6);
+        Array2DRowRealMatrix c = createRandomMatrix(r, 6, 6);
+
+        // out == m
+        Array2DRowRealMatrix expected = a.multiply(b);
+        Array2DRowRealMatrix m = (Array2DRowRealMatrix) b.copy();
+        Assert.assertSame(m, a.multiply(m, m));
+        Assert.assertEquals(expected, m);
+
+        // out == this
+        expected = b.multiply(c);
+        Array2DRowRealMatrix t = (Array2DRowRealMatrix) b.copy();
+        Assert.assertSame(t, t.multiply(c, t));
+        Assert.assertEquals(expected, t);
+
+        // out == this == m
+        expected = a.multiply(a);
+        t = (Array2DRowRealMatrix) a.copy();
+        Assert.assertSame(t, t.multiply(t, t));
+        Assert.assertEquals(expected, t);
+
+        // element-wise operations
+        Array2DRowRealMatrix twice = (Array2DRowRealMatrix) a.scalarMultiply(2.0);
+        expected = a.add(twice);
+        t = (Array2DRowRealMatrix) a.copy();
+        t.add(twice, t);
+        Assert.assertEquals(expected, t);
+        t.subtract(t, t);
+        Assert.assertEquals(new Array2DRowRealMatrix(11, 11), t);
+
+        // vectors
+        double[] v = b.getColumn(5);
+        double[] expectedV = a.operate(v);
+        Assert.assertSame(v, a.operate(v, v));
+        Assert.assertTrue(Arrays.equals(expectedV, v));
+        expectedV = a.preMultiply(v);
+        Assert.assertSame(v, a.preMultiply(v, v));
+        TestUtils.assertEquals(expectedV, v, 1.0e-12);
+    }
+
+    @Test
+    public void testDestinationOperationsErrors() {
+        Array2DRowRealMatrix a = new Array2DRowRealMatrix(testData);
+        try {
+            a.multiply(a, new Array2DRowRealMatrix(3, 2));
+            Assert.fail("Expecting MatrixDimensionMismatchException");
+        } catch (MatrixDimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.multiply(new Array2DRowRealMatrix(testData2), new Array2DRowRealMatrix(3, 3));
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.subtract(a, new Array2DRowRealMatrix(testData2));
+            Assert.fail("Expecting MatrixDimensionMismatchException");
+        } catch (MatrixDimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.operate(new double[3], new double[2]);
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.preMultiply(new double[3], new double[4]);
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+    }
+
     @Test
     public void testPower() {
         Array2DRowRealMatrix m = new Array2DRowRealMatrix(testData);
@@ -1169,5 +1278,14 @@ public final class Array2DRowRealMatrixTest {
 //              System.out.println(os);
 //          }
 //    }
-}
 
+    private Array2DRowRealMatrix createRandomMatrix(Random r, int rows, int columns) {
+        Array2DRowRealMatrix m = new Array2DRowRealMatrix(rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                m.setEntry(i, j, 200 * r.nextDouble() - 100);
+            }
+        }
+        return m;
+    }
+}
@@ -16,7 +16,12 @@
  */
 package org.apache.commons.math3.linear;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.util.FastMath;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -146,6 +151,63 @@ public class ArrayRealVectorTest extends RealVectorAbstractTest {
 
     }
 
+    @Test
+    public void testDestinationOperations() {
+        final ArrayRealVector u = new ArrayRealVector(new double[] { 1, 2, 3, 4 });
+        final ArrayRealVector v = new ArrayRealVector(new double[] { -2, 0.5, 4, 8 });
+        final RealVector w = new OpenMapRealVector(v);
+        final ArrayRealVector out = new ArrayRealVector(4, Double.NaN);
+
+        Assert.assertSame(out, u.add(v, out));
+        Assert.assertEquals(u.add(v), out);
+        Assert.assertSame(out, u.add(w, out));
+        Assert.assertEquals(u.add(v), out);
+        Assert.assertSame(out, u.subtract(v, out));
+        Assert.assertEquals(u.subtract(v), out);
+        Assert.assertSame(out, u.subtract(w, out));
+        Assert.assertEquals(u.subtract(v), out);
+        Assert.assertSame(out, u.ebeMultiply(v, out));
+        Assert.assertEquals(u.ebeMultiply(v), out);
+        Assert.assertSame(out, u.ebeMultiply(w, out));
+        Assert.assertEquals(u.ebeMultiply(v), out);
+        Assert.assertSame(out, u.ebeDivide(v, out));
+        Assert.assertEquals(u.ebeDivide(v), out);
+        Assert.assertSame(out, u.ebeDivide(w, out));
+        Assert.assertEquals(u.ebeDivide(v), out);
+        Assert.assertSame(out, u.combine(2, -3, v, out));
+        Assert.assertEquals(u.combine(2, -3, v), out);
+        Assert.assertSame(out, u.combine(2, -3, w, out));
+        Assert.assertEquals(u.combine(2, -3, v), out);
+    }
+
+    @Test
+    public void testDestinationAliasing() {
+        final ArrayRealVector u = new ArrayRealVector(new double[] { 1, 2, 3, 4 });
+        final ArrayRealVector v = new ArrayRealVector(new double[] { -2, 0.5, 4, 8 });
+
+        ArrayRealVector t = u.copy();
+        Assert.assertSame(t, t.add(v, t));
+        Assert.assertEquals(u.add(v), t);
+        t = v.copy();
+        Assert.assertSame(t, u.subtract(t, t));
+        Assert.assertEquals(u.subtract(v), t);
+        t = u.copy();
+        Assert.assertSame(t, t.ebeMultiply(t, t));
+        Assert.assertEquals(u.ebeMultiply(u), t);
+        t = v.copy();
+        Assert.assertSame(t, u.ebeDivide(t, t));
+        Assert.assertEquals(u.ebeDivide(v), t);
+        t = u.copy();
+        Assert.assertSame(t, t.combine(0.5, 2, v, t));
+        Assert.assertEquals(u.combine(0.5, 2, v), t);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDestinationDimensionMismatch() {
+        final ArrayRealVector u = new ArrayRealVector(new double[] { 1, 2, 3, 4 });
+        u.add(u, new ArrayRealVector(3));
+    }
+
     @Test
     public void testGetDataRef() {
         final double[] data = {1d, 2d, 3d, 4d};
@@ -170,4 +232,62 @@ public class ArrayRealVectorTest extends RealVectorAbstractTest {
         Assert.assertEquals(0, new ArrayRealVector(new double[0], true).getDimension());
         Assert.assertEquals(0, new ArrayRealVector(new double[0], false).getDimension());
     }
+
+    @Test
+    public void testParallelWalk() {
+        final double[] data = new double[200001];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = FastMath.sin(i);
+        }
+        final ArrayRealVector v = new ArrayRealVector(data, false);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final double max = v.walkInOptimizedOrder(new MaxIndexVisitor(), executor);
+            Assert.assertEquals(v.getMaxIndex(), (int) max);
+
+            v.walkInOptimizedOrder(new CombinableRealVectorChangingVisitor() {
+                public void start(int dimension, int start, int end) {
+                }
+                public double visit(int index, double value) {
+                    return index - value;
+                }
+                public double end() {
+                    return 0;
+                }
+                public CombinableRealVectorChangingVisitor split() {
+                    return this;
+                }
+                public void combine(CombinableRealVectorChangingVisitor partial) {
+                }
+            }, executor);
+            for (int i = 0; i < data.length; ++i) {
+                Assert.assertEquals(i - FastMath.sin(i), v.getEntry(i), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Visitor finding the index of the first maximal entry. */
+    private static class MaxIndexVisitor implements CombinableRealVectorPreservingVisitor {
+        private int index = -1;
+        private double max = Double.NEGATIVE_INFINITY;
+        public void start(int dimension, int start, int end) {
+        }
+        public void visit(int i, double value) {
+            if (value > max) {
+                max   = value;
+                index = i;
+            }
+        }
+        public double end() {
+            return index;
+        }
+        public CombinableRealVectorPreservingVisitor split() {
+            return new MaxIndexVisitor();
+        }
+        public void combine(CombinableRealVectorPreservingVisitor partial) {
+            visit(((MaxIndexVisitor) partial).index, ((MaxIndexVisitor) partial).max);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BandedCholeskyDecompositionTest {
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new BandedCholeskyDecomposition(new BandedRealMatrix(5, 4, 1, 1));
+    }
+
+    @Test(expected = NonSymmetricMatrixException.class)
+    public void testNonSymmetric() {
+        final BandedRealMatrix a = createSPD(new Well1024a(0x3e4f5a6b7c8d9e0fl), 10, 2);
+        a.setEntry(3, 5, a.getEntry(3, 5) + 0.1);
+        new BandedCholeskyDecomposition(a);
+    }
+
+    @Test(expected = NonPositiveDefiniteMatrixException.class)
+    public void testNotPositiveDefinite() {
+        new BandedCholeskyDecomposition(new BandedRealMatrix(new double[][] {
+            { 2, 3, 0 }, { 3, 2, 1 }, { 0, 1, 2 }
+        }, 1, 1));
+    }
+
+    @Test
+    public void testDenseComparison() {
+        final RandomGenerator random = new Well1024a(0x5b8a03e7c6f21d94l);
+        for (final int k : new int[] { 0, 1, 2, 5 }) {
+            final BandedRealMatrix a = createSPD(random, 30, k);
+            final RealMatrix dense = new Array2DRowRealMatrix(a.getData());
+            final BandedCholeskyDecomposition cholesky = new BandedCholeskyDecomposition(a);
+            final CholeskyDecomposition reference = new CholeskyDecomposition(dense);
+
+            Assert.assertEquals(k, cholesky.getL().getLowerBandwidth());
+            Assert.assertEquals(0, cholesky.getL().getUpperBandwidth());
+            TestUtils.assertEquals("", reference.getL(), cholesky.getL(), 1.0e-12);
+            TestUtils.assertEquals("", dense, cholesky.getL().multiply(cholesky.getLT()), 1.0e-12);
+            Assert.assertEquals(reference.getDeterminant(), cholesky.getDeterminant(),
+                                1.0e-12 * FastMath.abs(reference.getDeterminant()));
+
+            final DecompositionSolver solver = cholesky.getSolver();
+            Assert.assertTrue(solver.isNonSingular());
+            final RealVector b = GMRESTest.createRightHandSide(30);
+            TestUtils.assertEquals(reference.getSolver().solve(b).toArray(),
+                                   solver.solve(b).toArray(), 1.0e-12);
+            final RealMatrix bm = BlockQRDecompositionTest.createRandomMatrix(random, 30, 4);
+            TestUtils.assertEquals("", reference.getSolver().solve(bm), solver.solve(bm), 1.0e-12);
+            TestUtils.assertEquals("", MatrixUtils.createRealIdentityMatrix(30),
+                                   dense.multiply(solver.getInverse()), 1.0e-12);
+        }
+    }
+
+    @Test
+    public void testLargePentadiagonal() {
+        // second difference penalty of a smoothing spline, with linear cost
+        final int n = 200000;
+        final BandedRealMatrix a = new BandedRealMatrix(n, n, 2, 2);
+        for (int i = 0; i < n; ++i) {
+            a.setEntry(i, i, 7);
+            if (i > 0) {
+                a.setEntry(i, i - 1, -4);
+                a.setEntry(i - 1, i, -4);
+            }
+            if (i > 1) {
+                a.setEntry(i, i - 2, 1);
+                a.setEntry(i - 2, i, 1);
+            }
+        }
+        final RealVector x = new ArrayRealVector(n, 1.0);
+        final RealVector solution =
+            new BandedCholeskyDecomposition(a).getSolver().solve(a.operate(x));
+        Assert.assertEquals(0, solution.getDistance(x), 1.0e-8);
+    }
+
+    /**
+     * Creates a random symmetric positive definite banded matrix.
+     */
+    private static BandedRealMatrix createSPD(final RandomGenerator random,
+                                              final int n, final int k) {
+        final BandedRealMatrix a = new BandedRealMatrix(n, n, k, k);
+        for (int i = 0; i < n; ++i) {
+            a.setEntry(i, i, 2 * k + 1 + random.nextDouble());
+            for (int j = FastMath.max(0, i - k); j < i; ++j) {
+                final double aIJ = 2 * random.nextDouble() - 1;
+                a.setEntry(i, j, aIJ);
+                a.setEntry(j, i, aIJ);
+            }
+        }
+        return a;
+    }
+
+}
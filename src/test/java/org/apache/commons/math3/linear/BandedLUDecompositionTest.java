@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BandedLUDecompositionTest {
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new BandedLUDecomposition(new BandedRealMatrix(5, 4, 1, 1));
+    }
+
+    @Test
+    public void testDenseComparison() {
+        final RandomGenerator random = new Well1024a(0x0d8f7a32e1b4c659l);
+        for (final int[] band : new int[][] { { 1, 1 }, { 0, 2 }, { 3, 0 }, { 2, 3 }, { 0, 0 } }) {
+            final BandedRealMatrix a =
+                BandedRealMatrixTest.createRandomBanded(random, 40, 40, band[0], band[1]);
+            final RealMatrix dense = new Array2DRowRealMatrix(a.getData());
+            final BandedLUDecomposition lu = new BandedLUDecomposition(a);
+            final LUDecomposition reference = new LUDecomposition(dense);
+
+            Assert.assertEquals(reference.getDeterminant(), lu.getDeterminant(),
+                                1.0e-12 * FastMath.abs(reference.getDeterminant()));
+            Assert.assertEquals(0, lu.getU().getLowerBandwidth());
+            Assert.assertEquals(band[0] + band[1], lu.getU().getUpperBandwidth());
+
+            final RealVector b = GMRESTest.createRightHandSide(40);
+            final DecompositionSolver solver = lu.getSolver();
+            Assert.assertTrue(solver.isNonSingular());
+            final RealVector expectedX = reference.getSolver().solve(b);
+            TestUtils.assertEquals(expectedX.toArray(), solver.solve(b).toArray(),
+                                   1.0e-12 * expectedX.getLInfNorm());
+            final RealMatrix bm = BlockQRDecompositionTest.createRandomMatrix(random, 40, 3);
+            final RealMatrix expected = reference.getSolver().solve(bm);
+            TestUtils.assertEquals("", expected, solver.solve(bm), 1.0e-12 * expected.getNorm());
+            TestUtils.assertEquals("", MatrixUtils.createRealIdentityMatrix(40),
+                                   dense.multiply(solver.getInverse()), 1.0e-8);
+        }
+    }
+
+    @Test
+    public void testPivotingRequired() {
+        // tridiagonal matrix with zero diagonal: the Thomas algorithm
+        // without pivoting would fail immediately
+        final int n = 10;
+        final BandedRealMatrix a = new BandedRealMatrix(n, n, 1, 1);
+        for (int i = 0; i < n; ++i) {
+            if (i > 0) {
+                a.setEntry(i, i - 1, 1.0 + i);
+            }
+            if (i < n - 1) {
+                a.setEntry(i, i + 1, 2.0 + i);
+            }
+        }
+        final BandedLUDecomposition lu = new BandedLUDecomposition(a);
+        final RealVector x = GMRESTest.createRightHandSide(n);
+        TestUtils.assertEquals(x.toArray(), lu.getSolver().solve(a.operate(x)).toArray(), 1.0e-12);
+        Assert.assertEquals(new LUDecomposition(new Array2DRowRealMatrix(a.getData())).getDeterminant(),
+                            lu.getDeterminant(), 1.0e-8);
+    }
+
+    @Test
+    public void testSingular() {
+        final BandedRealMatrix a = new BandedRealMatrix(new double[][] {
+            { 1, 2, 0 }, { 2, 4, 0 }, { 0, 1, 1 }
+        }, 1, 1);
+        final BandedLUDecomposition lu = new BandedLUDecomposition(a);
+        Assert.assertFalse(lu.getSolver().isNonSingular());
+        Assert.assertNull(lu.getU());
+        Assert.assertEquals(0.0, lu.getDeterminant(), 0.0);
+        try {
+            lu.getSolver().solve(new ArrayRealVector(3));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        final BandedRealMatrix a = new BandedRealMatrix(new double[][] {
+            { 1, 2, 0 }, { 2, 1, 3 }, { 0, 1, 1 }
+        }, 1, 1);
+        new BandedLUDecomposition(a).getSolver().solve(new ArrayRealVector(4));
+    }
+
+    @Test
+    public void testLargeTridiagonal() {
+        // linear cost: a dense decomposition of this size would not be possible
+        final int n = 500000;
+        final BandedRealMatrix a = new BandedRealMatrix(n, n, 1, 1);
+        for (int i = 0; i < n; ++i) {
+            a.setEntry(i, i, 2.5);
+            if (i > 0) {
+                a.setEntry(i, i - 1, -1.0);
+            }
+            if (i < n - 1) {
+                a.setEntry(i, i + 1, -1.0);
+            }
+        }
+        final RealVector x = new ArrayRealVector(n, 1.0);
+        final RealVector solution = new BandedLUDecomposition(a).getSolver().solve(a.operate(x));
+        Assert.assertEquals(0, solution.getDistance(x), 1.0e-10);
+    }
+
+}
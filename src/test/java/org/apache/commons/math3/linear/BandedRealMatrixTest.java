@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BandedRealMatrixTest {
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeBandwidth() {
+        new BandedRealMatrix(5, 5, -1, 1);
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testTooLargeBandwidth() {
+        new BandedRealMatrix(5, 3, 1, 3);
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testSetOutsideBand() {
+        new BandedRealMatrix(5, 5, 1, 1).setEntry(3, 0, 1.0);
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testNonZeroOutsideBand() {
+        new BandedRealMatrix(new double[][] { { 1, 2, 3 }, { 4, 5, 6 } }, 1, 1);
+    }
+
+    @Test
+    public void testEntries() {
+        final BandedRealMatrix m = new BandedRealMatrix(4, 6, 1, 2);
+        Assert.assertEquals(1, m.getLowerBandwidth());
+        Assert.assertEquals(2, m.getUpperBandwidth());
+        m.setEntry(0, 0, 1);
+        m.setEntry(0, 2, 2);
+        m.setEntry(3, 2, 3);
+        m.setEntry(3, 5, 4);
+        m.addToEntry(3, 5, 1);
+        m.multiplyEntry(0, 2, 3);
+        m.setEntry(0, 5, 0.0);
+        m.multiplyEntry(0, 5, 2.0);
+        Assert.assertEquals(1, m.getEntry(0, 0), 0);
+        Assert.assertEquals(6, m.getEntry(0, 2), 0);
+        Assert.assertEquals(0, m.getEntry(0, 3), 0);
+        Assert.assertEquals(3, m.getEntry(3, 2), 0);
+        Assert.assertEquals(5, m.getEntry(3, 5), 0);
+        Assert.assertEquals(0, m.getEntry(3, 1), 0);
+        Assert.assertEquals(4 * 4, m.getDataRef().length);
+    }
+
+    @Test
+    public void testDenseConversion() {
+        final RandomGenerator random = new Well1024a(0x1f3a85c0d76e92b4l);
+        final BandedRealMatrix m = createRandomBanded(random, 7, 5, 2, 1);
+        final BandedRealMatrix copy = new BandedRealMatrix(m.getData(), 2, 1);
+        Assert.assertEquals(m, copy);
+        Assert.assertEquals(new Array2DRowRealMatrix(m.getData()), m);
+        TestUtils.assertEquals("", new Array2DRowRealMatrix(m.getData()).getSubMatrix(1, 4, 0, 3),
+                               m.getSubMatrix(1, 4, 0, 3), 1.0e-15);
+    }
+
+    @Test
+    public void testOperate() {
+        final RandomGenerator random = new Well1024a(0x6c0e35f2a8d194b7l);
+        for (final int[] shape : new int[][] { { 9, 9, 1, 1 }, { 9, 6, 3, 0 }, { 5, 12, 0, 4 } }) {
+            final BandedRealMatrix m = createRandomBanded(random, shape[0], shape[1], shape[2], shape[3]);
+            final RealMatrix dense = new Array2DRowRealMatrix(m.getData());
+            final double[] v = new double[shape[1]];
+            for (int i = 0; i < v.length; ++i) {
+                v[i] = random.nextDouble();
+            }
+            final double[] w = new double[shape[0]];
+            for (int i = 0; i < w.length; ++i) {
+                w[i] = random.nextDouble();
+            }
+            TestUtils.assertEquals(dense.operate(v), m.operate(v), 1.0e-14);
+            TestUtils.assertEquals(dense.preMultiply(w), m.preMultiply(w), 1.0e-14);
+        }
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() {
+        new BandedRealMatrix(5, 4, 1, 1).operate(new double[5]);
+    }
+
+    @Test
+    public void testArithmetic() {
+        final RandomGenerator random = new Well1024a(0x92be406c7f1d3a58l);
+        final BandedRealMatrix a = createRandomBanded(random, 10, 8, 2, 1);
+        final BandedRealMatrix b = createRandomBanded(random, 10, 8, 0, 3);
+        final BandedRealMatrix c = createRandomBanded(random, 8, 11, 1, 2);
+        final RealMatrix denseA = new Array2DRowRealMatrix(a.getData());
+        final RealMatrix denseB = new Array2DRowRealMatrix(b.getData());
+        final RealMatrix denseC = new Array2DRowRealMatrix(c.getData());
+
+        final BandedRealMatrix sum = a.add(b);
+        Assert.assertEquals(2, sum.getLowerBandwidth());
+        Assert.assertEquals(3, sum.getUpperBandwidth());
+        TestUtils.assertEquals("", denseA.add(denseB), sum, 1.0e-14);
+        TestUtils.assertEquals("", denseA.subtract(denseB), a.subtract(b), 1.0e-14);
+        TestUtils.assertEquals("", denseA.add(denseB), a.add(denseB), 1.0e-14);
+        TestUtils.assertEquals("", denseA.subtract(denseB), a.subtract(denseB), 1.0e-14);
+        TestUtils.assertEquals("", denseA.scalarMultiply(2.5), a.scalarMultiply(2.5), 1.0e-14);
+
+        final BandedRealMatrix product = a.multiply(c);
+        Assert.assertEquals(3, product.getLowerBandwidth());
+        Assert.assertEquals(3, product.getUpperBandwidth());
+        TestUtils.assertEquals("", denseA.multiply(denseC), product, 1.0e-13);
+        TestUtils.assertEquals("", denseA.multiply(denseC), a.multiply(denseC), 1.0e-13);
+        TestUtils.assertEquals("", denseC.preMultiply(denseA), c.preMultiply(a), 1.0e-13);
+
+        final BandedRealMatrix transposed = a.transpose();
+        Assert.assertEquals(1, transposed.getLowerBandwidth());
+        Assert.assertEquals(2, transposed.getUpperBandwidth());
+        TestUtils.assertEquals("", denseA.transpose(), transposed, 1.0e-15);
+    }
+
+    @Test
+    public void testLinearStorage() {
+        final int n = 1000000;
+        final BandedRealMatrix m = new BandedRealMatrix(n, n, 1, 1);
+        Assert.assertEquals(3 * n, m.getDataRef().length);
+        for (int i = 0; i < n; ++i) {
+            m.setEntry(i, i, 2);
+            if (i > 0) {
+                m.setEntry(i, i - 1, -1);
+                m.setEntry(i - 1, i, -1);
+            }
+        }
+        final double[] v = new double[n];
+        Arrays.fill(v, 1.0);
+        final double[] y = m.operate(v);
+        Assert.assertEquals(1.0, y[0], 0);
+        Assert.assertEquals(0.0, y[n / 2], 0);
+        Assert.assertEquals(1.0, y[n - 1], 0);
+    }
+
+    static BandedRealMatrix createRandomBanded(final RandomGenerator random,
+                                               final int rows, final int columns,
+                                               final int lower, final int upper) {
+        final BandedRealMatrix m = new BandedRealMatrix(rows, columns, lower, upper);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = FastMath.max(0, i - lower); j <= FastMath.min(columns - 1, i + upper); ++j) {
+                m.setEntry(i, j, 2 * random.nextDouble() - 1);
+            }
+        }
+        return m;
+    }
+
+}
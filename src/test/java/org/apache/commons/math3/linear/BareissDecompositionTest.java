@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.math.BigInteger;
+
+import org.apache.commons.math3.fraction.BigFraction;
+import org.apache.commons.math3.fraction.BigFractionField;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BareissDecompositionTest {
+
+    @Test
+    public void testAgainstFieldLU() {
+        final RandomGenerator random = new Well1024a(0x2d9b6e13f08c4a75l);
+        final FieldMatrix<BigFraction> a = createRandomMatrix(random, 15, 15);
+        final FieldMatrix<BigFraction> b = createRandomMatrix(random, 15, 3);
+        final BareissDecomposition bareiss = new BareissDecomposition(a);
+        final FieldLUDecomposition<BigFraction> lu = new FieldLUDecomposition<BigFraction>(a);
+        Assert.assertEquals(lu.getDeterminant(), bareiss.getDeterminant());
+        Assert.assertTrue(bareiss.getSolver().isNonSingular());
+
+        final FieldMatrix<BigFraction> x = bareiss.getSolver().solve(b);
+        Assert.assertEquals(lu.getSolver().solve(b), x);
+        Assert.assertEquals(b, a.multiply(x));
+
+        final FieldVector<BigFraction> v = b.getColumnVector(1);
+        Assert.assertEquals(v, a.operate(bareiss.getSolver().solve(v)));
+    }
+
+    @Test
+    public void testHilbert() {
+        // the inverse of the Hilbert matrix has integer entries
+        final int n = 12;
+        final BigFraction[][] h = new BigFraction[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                h[i][j] = new BigFraction(1, i + j + 1);
+            }
+        }
+        final FieldMatrix<BigFraction> hilbert =
+            new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), h, false);
+        final BareissDecomposition bareiss = new BareissDecomposition(hilbert);
+        final FieldMatrix<BigFraction> inverse = bareiss.getSolver().getInverse();
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                Assert.assertEquals(BigInteger.ONE, inverse.getEntry(i, j).getDenominator());
+            }
+        }
+        Assert.assertEquals(MatrixUtils.createFieldIdentityMatrix(BigFractionField.getInstance(), n),
+                            hilbert.multiply(inverse));
+        Assert.assertEquals(new FieldLUDecomposition<BigFraction>(hilbert).getDeterminant(),
+                            bareiss.getDeterminant());
+    }
+
+    @Test
+    public void testInteger() {
+        final BigInteger[][] a = {
+            { BigInteger.valueOf(0), BigInteger.valueOf(2), BigInteger.valueOf(1) },
+            { BigInteger.valueOf(3), BigInteger.valueOf(1), BigInteger.valueOf(4) },
+            { BigInteger.valueOf(1), BigInteger.valueOf(5), BigInteger.valueOf(9) }
+        };
+        final BareissDecomposition bareiss = new BareissDecomposition(a);
+        // a zero leading entry requires a row swap
+        Assert.assertEquals(1, bareiss.getPivot()[0]);
+        Assert.assertEquals(new BigFraction(-32), bareiss.getDeterminant());
+        Assert.assertEquals(BigInteger.valueOf(0), a[0][0]);
+
+        final FieldVector<BigFraction> b =
+            new ArrayFieldVector<BigFraction>(new BigFraction[] {
+                new BigFraction(1), new BigFraction(1, 2), new BigFraction(-3)
+            });
+        final FieldVector<BigFraction> x = bareiss.getSolver().solve(b);
+        final FieldMatrix<BigFraction> fa = new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), 3, 3);
+        for (int i = 0; i < 3; ++i) {
+            for (int j = 0; j < 3; ++j) {
+                fa.setEntry(i, j, new BigFraction(a[i][j]));
+            }
+        }
+        Assert.assertEquals(b, fa.operate(x));
+    }
+
+    @Test
+    public void testSingular() {
+        final BigInteger[][] a = {
+            { BigInteger.valueOf(2), BigInteger.valueOf(0), BigInteger.valueOf(1) },
+            { BigInteger.valueOf(1), BigInteger.valueOf(3), BigInteger.valueOf(2) },
+            { BigInteger.valueOf(1), BigInteger.valueOf(1), BigInteger.valueOf(1) }
+        };
+        final BareissDecomposition bareiss = new BareissDecomposition(a);
+        Assert.assertEquals(BigFraction.ZERO, bareiss.getDeterminant());
+        Assert.assertFalse(bareiss.getSolver().isNonSingular());
+        try {
+            bareiss.getSolver().getInverse();
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new BareissDecomposition(new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), 3, 2));
+    }
+
+    @Test
+    public void testCoefficientGrowth() {
+        // exact solution of a moderately large system with growing coefficients
+        final RandomGenerator random = new Well1024a(0x7c4f20b8e91d5a36l);
+        final int n = 60;
+        final FieldMatrix<BigFraction> a = createRandomMatrix(random, n, n);
+        final FieldMatrix<BigFraction> b = createRandomMatrix(random, n, 1);
+        final FieldMatrix<BigFraction> x = new BareissDecomposition(a).getSolver().solve(b);
+        Assert.assertEquals(b, a.multiply(x));
+    }
+
+    private static FieldMatrix<BigFraction> createRandomMatrix(final RandomGenerator random,
+                                                               final int rows, final int columns) {
+        final FieldMatrix<BigFraction> m =
+            new Array2DRowFieldMatrix<BigFraction>(BigFractionField.getInstance(), rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                m.setEntry(i, j, new BigFraction(random.nextInt(41) - 20, random.nextInt(9) + 1));
+            }
+        }
+        return m;
+    }
+
+}
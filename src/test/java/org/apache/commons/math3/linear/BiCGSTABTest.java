@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.IterationEvent;
+import org.apache.commons.math3.util.IterationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BiCGSTABTest {
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatchRightHandSide() {
+        final Array2DRowRealMatrix a = new Array2DRowRealMatrix(3, 3);
+        new BiCGSTAB(10, 0.).solve(a, new ArrayRealVector(2), new ArrayRealVector(3));
+    }
+
+    @Test
+    public void testUnpreconditionedSolution() {
+        final CompressedRowRealMatrix a = GMRESTest.createConvectionDiffusion(200);
+        final RealVector b = GMRESTest.createRightHandSide(200);
+        final RealVector x = new BiCGSTAB(10000, 1.0e-10).solve(a, b);
+        GMRESTest.checkSolution(a, b, x, 1.0e-10);
+    }
+
+    @Test
+    public void testPreconditionedSolution() {
+        final CompressedRowRealMatrix a = GMRESTest.createConvectionDiffusion(200);
+        final RealVector b = GMRESTest.createRightHandSide(200);
+        final BiCGSTAB solver = new BiCGSTAB(10000, 1.0e-10);
+        final RealVector x = solver.solve(a, JacobiPreconditioner.create(a), b);
+        GMRESTest.checkSolution(a, b, x, 1.0e-10);
+    }
+
+    @Test
+    public void testNonSymmetricDense() {
+        final RealMatrix r = BlockQRDecompositionTest.createRandomMatrix(new Well1024a(0x9c3e17b4f5d2086al), 60, 60);
+        final Array2DRowRealMatrix a =
+            new Array2DRowRealMatrix(r.add(MatrixUtils.createRealIdentityMatrix(60).scalarMultiply(20)).getData(), false);
+        final RealVector b = GMRESTest.createRightHandSide(60);
+        final RealVector x0 = new ArrayRealVector(60, 1.0);
+        final RealVector x = new BiCGSTAB(1000, 1.0e-12).solveInPlace(a, null, b, x0);
+        Assert.assertSame(x0, x);
+        GMRESTest.checkSolution(a, b, x, 1.0e-12);
+        Assert.assertEquals(0, x.subtract(new LUDecomposition(a).getSolver().solve(b)).getNorm(), 1.0e-10);
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxIterations() {
+        final CompressedRowRealMatrix a = GMRESTest.createConvectionDiffusion(200);
+        new BiCGSTAB(3, 1.0e-10).solve(a, GMRESTest.createRightHandSide(200));
+    }
+
+    @Test
+    public void testLanczosBreakdown() {
+        // r^T A r = 0 for any r, so alpha cannot be computed
+        final Array2DRowRealMatrix a = new Array2DRowRealMatrix(new double[][] {
+            { 0, 1 }, { -1, 0 }
+        });
+        final RealVector b = new ArrayRealVector(new double[] { 1, 0 });
+        final int[] count = new int[1];
+        final BiCGSTAB solver = new BiCGSTAB(10, 1.0e-10);
+        solver.getIterationManager().addIterationListener(new IterationListener() {
+            public void initializationPerformed(final IterationEvent e) {
+            }
+
+            public void iterationStarted(final IterationEvent e) {
+            }
+
+            public void iterationPerformed(final IterationEvent e) {
+                ++count[0];
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                Assert.assertFalse(evt.getSolution().isNaN());
+                Assert.assertFalse(evt.getSolution().isInfinite());
+                Assert.assertEquals(1.0, evt.getNormOfResidual(), 0);
+            }
+
+            public void terminationPerformed(final IterationEvent e) {
+            }
+        });
+        try {
+            solver.solve(a, b);
+            Assert.fail("an exception should have been thrown");
+        } catch (MaxCountExceededException mcee) {
+            // expected, the breakdown cannot be cured by restarting
+        }
+        Assert.assertEquals(9, count[0]);
+    }
+
+    @Test
+    public void testEventManagement() {
+        final CompressedRowRealMatrix a = GMRESTest.createConvectionDiffusion(40);
+        final RealVector b = GMRESTest.createRightHandSide(40);
+        final int[] count = new int[4];
+        final IterationListener listener = new IterationListener() {
+            private void check(final IterationEvent e) {
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                Assert.assertEquals(evt.getNormOfResidual(), evt.getResidual().getNorm(), 0.0);
+                try {
+                    evt.getResidual().set(0.0);
+                    Assert.fail("r is modifiable");
+                } catch (MathUnsupportedOperationException exc) {
+                    // Expected behavior
+                }
+            }
+
+            public void initializationPerformed(final IterationEvent e) {
+                ++count[0];
+                check(e);
+            }
+
+            public void iterationStarted(final IterationEvent e) {
+                ++count[1];
+                Assert.assertEquals(count[1], e.getIterations() - 1);
+                check(e);
+            }
+
+            public void iterationPerformed(final IterationEvent e) {
+                ++count[2];
+                Assert.assertEquals(count[2], e.getIterations() - 1);
+                check(e);
+            }
+
+            public void terminationPerformed(final IterationEvent e) {
+                ++count[3];
+                check(e);
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                final RealVector trueResidual = b.subtract(a.operate(evt.getSolution()));
+                Assert.assertEquals(0, trueResidual.subtract(evt.getResidual()).getNorm(), 1.0e-10);
+            }
+        };
+        final BiCGSTAB solver = new BiCGSTAB(1000, 1.0e-10);
+        solver.getIterationManager().addIterationListener(listener);
+        solver.solve(a, b);
+        Assert.assertEquals(1, count[0]);
+        Assert.assertEquals(count[1], count[2]);
+        Assert.assertTrue(count[1] > 0);
+        Assert.assertEquals(1, count[3]);
+    }
+
+}
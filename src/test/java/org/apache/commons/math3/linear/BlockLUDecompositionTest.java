@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockLUDecompositionTest {
+
+    private double[][] testData = {
+            { 1.0, 2.0, 3.0},
+            { 2.0, 5.0, 3.0},
+            { 1.0, 0.0, 8.0}
+    };
+
+    private double[][] bigSingular = {
+            { 1.0, 2.0,   3.0,    4.0 },
+            { 2.0, 5.0,   3.0,    4.0 },
+            { 7.0, 3.0, 256.0, 1930.0 },
+            { 3.0, 7.0,   6.0,    8.0 }
+    }; // 4th row = 1st + 2nd
+
+    /** test non-square matrix */
+    @Test(expected=NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new BlockLUDecomposition(MatrixUtils.createRealMatrix(new double[3][2]));
+    }
+
+    /** test PA = LU on small matrices */
+    @Test
+    public void testSmall() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(testData);
+        BlockLUDecomposition lu = new BlockLUDecomposition(matrix);
+        LUDecomposition reference = new LUDecomposition(matrix);
+        Assert.assertArrayEquals(reference.getPivot(), lu.getPivot());
+        Assert.assertEquals(0, lu.getL().subtract(reference.getL()).getNorm(), 1.0e-14);
+        Assert.assertEquals(0, lu.getU().subtract(reference.getU()).getNorm(), 1.0e-14);
+        Assert.assertEquals(reference.getDeterminant(), lu.getDeterminant(), 1.0e-14);
+        checkDecomposition(matrix, lu, 1.0e-14);
+    }
+
+    /** test PA = LU on matrices spanning several blocks */
+    @Test
+    public void testSeveralBlocks() {
+        RandomGenerator random = new Well1024a(0x2c7f13b04e8a9d61l);
+        for (int n : new int[] { 1, 51, 52, 53, 150, 211 }) {
+            RealMatrix matrix = createRandomMatrix(random, n);
+            BlockLUDecomposition lu = new BlockLUDecomposition(matrix);
+            LUDecomposition reference = new LUDecomposition(matrix);
+            Assert.assertArrayEquals(reference.getPivot(), lu.getPivot());
+            Assert.assertEquals(reference.getDeterminant(), lu.getDeterminant(),
+                                1.0e-10 * FastMath.abs(reference.getDeterminant()));
+            checkDecomposition(matrix, lu, 1.0e-12 * n);
+        }
+    }
+
+    /** test that the parallel decomposition gives exactly the same result */
+    @Test
+    public void testParallel() {
+        RandomGenerator random = new Well1024a(0x91ad6e3c05b7f248l);
+        RealMatrix matrix = createRandomMatrix(random, 263);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            BlockLUDecomposition serial   = new BlockLUDecomposition(matrix, 1.0e-11);
+            BlockLUDecomposition parallel = new BlockLUDecomposition(matrix, 1.0e-11, executor);
+            Assert.assertArrayEquals(serial.getPivot(), parallel.getPivot());
+            Assert.assertEquals(serial.getL(), parallel.getL());
+            Assert.assertEquals(serial.getU(), parallel.getU());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** test solver */
+    @Test
+    public void testSolve() {
+        RandomGenerator random = new Well1024a(0x5e0c2a97b18f34d6l);
+        RealMatrix matrix = createRandomMatrix(random, 130);
+        DecompositionSolver solver = new BlockLUDecomposition(matrix).getSolver();
+        DecompositionSolver reference = new LUDecomposition(matrix).getSolver();
+        Assert.assertTrue(solver.isNonSingular());
+
+        RealVector b = new ArrayRealVector(130);
+        for (int i = 0; i < 130; ++i) {
+            b.setEntry(i, random.nextDouble());
+        }
+        RealVector x = solver.solve(b);
+        Assert.assertEquals(0, x.subtract(reference.solve(b)).getNorm(), 1.0e-10);
+        Assert.assertEquals(0, matrix.operate(x).subtract(b).getNorm(), 1.0e-10);
+
+        RealMatrix inverse = solver.getInverse();
+        Assert.assertEquals(0, inverse.subtract(reference.getInverse()).getNorm(), 1.0e-10);
+        Assert.assertEquals(0,
+                            matrix.multiply(inverse).subtract(MatrixUtils.createRealIdentityMatrix(130)).getNorm(),
+                            1.0e-10);
+    }
+
+    /** test singular */
+    @Test
+    public void testSingular() {
+        BlockLUDecomposition lu = new BlockLUDecomposition(MatrixUtils.createRealMatrix(bigSingular));
+        Assert.assertFalse(lu.getSolver().isNonSingular());
+        Assert.assertNull(lu.getL());
+        Assert.assertNull(lu.getU());
+        Assert.assertNull(lu.getP());
+        Assert.assertEquals(0.0, lu.getDeterminant(), 0.0);
+        try {
+            lu.getSolver().solve(new ArrayRealVector(4));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    private void checkDecomposition(RealMatrix matrix, BlockLUDecomposition lu, double tolerance) {
+        RealMatrix pa = lu.getP().multiply(matrix);
+        RealMatrix l  = lu.getL();
+        RealMatrix u  = lu.getU();
+        for (int i = 0; i < matrix.getRowDimension(); ++i) {
+            Assert.assertEquals(1.0, l.getEntry(i, i), 0.0);
+            for (int j = i + 1; j < matrix.getColumnDimension(); ++j) {
+                Assert.assertEquals(0.0, l.getEntry(i, j), 0.0);
+                Assert.assertEquals(0.0, u.getEntry(j, i), 0.0);
+            }
+        }
+        Assert.assertEquals(0, l.multiply(u).subtract(pa).getNorm(), tolerance);
+    }
+
+    private RealMatrix createRandomMatrix(RandomGenerator random, int n) {
+        RealMatrix m = new BlockRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                m.setEntry(i, j, 2 * random.nextDouble() - 1);
+            }
+        }
+        return m;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockQRDecompositionTest {
+
+    private double[][] testData3x3Singular = {
+            { 1, 4, 7, },
+            { 2, 5, 8, },
+            { 3, 6, 9, }, };
+
+    /** test the decomposition against the unblocked algorithm */
+    @Test
+    public void testSameAsQRDecomposition() {
+        RandomGenerator random = new Well1024a(0x6b1e05fd3a9c4782l);
+        int[][] shapes = { { 3, 3 }, { 4, 3 }, { 3, 4 }, { 40, 7 }, { 150, 70 }, { 70, 150 }, { 97, 97 } };
+        for (int[] shape : shapes) {
+            RealMatrix matrix = createRandomMatrix(random, shape[0], shape[1]);
+            BlockQRDecomposition qr = new BlockQRDecomposition(matrix);
+            QRDecomposition reference = new QRDecomposition(matrix);
+            double tolerance = 1.0e-13 * shape[0];
+            TestUtils.assertEquals("R", reference.getR(), qr.getR(), tolerance);
+            TestUtils.assertEquals("Q", reference.getQ(), qr.getQ(), tolerance);
+            TestUtils.assertEquals("QT", reference.getQT(), qr.getQT(), tolerance);
+            TestUtils.assertEquals("H", reference.getH(), qr.getH(), tolerance);
+            TestUtils.assertEquals("QR", matrix, qr.getQ().multiply(qr.getR()), tolerance);
+        }
+    }
+
+    /** test the least squares solution of tall systems */
+    @Test
+    public void testLeastSquares() {
+        RandomGenerator random = new Well1024a(0x0c93e7a25bd41f68l);
+        RealMatrix matrix = createRandomMatrix(random, 1000, 45);
+        DecompositionSolver solver = new BlockQRDecomposition(matrix).getSolver();
+        DecompositionSolver reference = new QRDecomposition(matrix).getSolver();
+        Assert.assertTrue(solver.isNonSingular());
+
+        RealMatrix b = createRandomMatrix(random, 1000, 3);
+        TestUtils.assertEquals("matrix", reference.solve(b), solver.solve(b), 1.0e-12);
+        TestUtils.assertEquals(reference.solve(b.getColumnVector(1)).toArray(),
+                               solver.solve(b.getColumnVector(1)).toArray(),
+                               1.0e-12);
+
+        // the residual is orthogonal to the columns of the matrix
+        RealVector x = solver.solve(b.getColumnVector(0));
+        RealVector residual = b.getColumnVector(0).subtract(matrix.operate(x));
+        Assert.assertEquals(0, matrix.preMultiply(residual).getNorm(), 1.0e-11);
+    }
+
+    /** test the inverse of a square matrix */
+    @Test
+    public void testInverse() {
+        RandomGenerator random = new Well1024a(0x83f1d26e0a4b957cl);
+        RealMatrix matrix = createRandomMatrix(random, 60, 60);
+        RealMatrix inverse = new BlockQRDecomposition(matrix).getSolver().getInverse();
+        TestUtils.assertEquals("identity", MatrixUtils.createRealIdentityMatrix(60),
+                               matrix.multiply(inverse), 1.0e-11);
+    }
+
+    /** test singular */
+    @Test
+    public void testSingular() {
+        DecompositionSolver solver =
+            new BlockQRDecomposition(MatrixUtils.createRealMatrix(testData3x3Singular), 1.0e-13).getSolver();
+        Assert.assertFalse(solver.isNonSingular());
+        try {
+            solver.solve(new ArrayRealVector(3));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    /** test null column */
+    @Test
+    public void testNullColumn() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(new double[][] {
+            { 1, 0, 2 }, { 3, 0, 4 }, { 5, 0, 6 }, { 7, 0, 9 }
+        });
+        BlockQRDecomposition qr = new BlockQRDecomposition(matrix);
+        Assert.assertFalse(qr.getSolver().isNonSingular());
+        TestUtils.assertEquals("QR", matrix, qr.getQ().multiply(qr.getR()), 1.0e-13);
+    }
+
+    static RealMatrix createRandomMatrix(RandomGenerator random, int rows, int columns) {
+        RealMatrix m = MatrixUtils.createRealMatrix(rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                m.setEntry(i, j, 2 * random.nextDouble() - 1);
+            }
+        }
+        return m;
+    }
+
+}
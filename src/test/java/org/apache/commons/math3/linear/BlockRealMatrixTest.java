@@ -18,12 +18,15 @@ package org.apache.commons.math3.linear;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 import org.junit.Assert;
 
 import org.apache.commons.math3.TestUtils;
 import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.exception.NoDataException;
@@ -288,6 +291,239 @@ public final class BlockRealMatrixTest {
 
     }
 
+    @Test
+    public void testParallelOperations() {
+        Random r = new Random(0x6c1a3f4e2d07b95al);
+        BlockRealMatrix a = createRandomMatrix(r, 163, 121);
+        BlockRealMatrix b = createRandomMatrix(r, 121, 107);
+        BlockRealMatrix c = createRandomMatrix(r, 163, 121);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // parallel results must be identical to serial ones, not only close
+            Assert.assertEquals(a.multiply(b), a.multiply(b, executor));
+            Assert.assertEquals(a.add(c), a.add(c, executor));
+            Assert.assertEquals(a.subtract(c), a.subtract(c, executor));
+            Assert.assertEquals(a.transpose(), a.transpose(executor));
+            Assert.assertEquals(b.transpose().multiply(a.transpose()),
+                                b.transpose(executor).multiply(a.transpose(executor), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelWalk() {
+        Random r = new Random(0x2f7b9c04e1d8a365l);
+        BlockRealMatrix a = createRandomMatrix(r, 517, 403);
+        BlockRealMatrix reference = a.copy();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            // reductions do not depend on the executor
+            double sumSq = a.walkInOptimizedOrder(new SumSquaresVisitor(), executor);
+            Assert.assertEquals(sumSq, a.walkInOptimizedOrder(new SumSquaresVisitor(), single), 0);
+            Assert.assertEquals(a.walkInOptimizedOrder(new SumSquaresVisitor()),
+                                sumSq, 1.0e-12 * sumSq);
+            Assert.assertEquals(a.getFrobeniusNorm(), FastMath.sqrt(sumSq), 1.0e-12 * a.getFrobeniusNorm());
+
+            // transforms are applied to all entries exactly once
+            ScalingVisitor scaling = new ScalingVisitor(2.0);
+            Assert.assertEquals(517 * 403, a.walkInOptimizedOrder(scaling, executor), 0);
+            Assert.assertEquals(reference.scalarMultiply(2.0), a);
+        } finally {
+            executor.shutdown();
+            single.shutdown();
+        }
+    }
+
+    private static class SumSquaresVisitor
+        extends DefaultRealMatrixPreservingVisitor
+        implements CombinableRealMatrixPreservingVisitor {
+        private double sum;
+        @Override
+        public void visit(int row, int column, double value) {
+            sum += value * value;
+        }
+        @Override
+        public double end() {
+            return sum;
+        }
+        public CombinableRealMatrixPreservingVisitor split() {
+            return new SumSquaresVisitor();
+        }
+        public void combine(CombinableRealMatrixPreservingVisitor partial) {
+            sum += ((SumSquaresVisitor) partial).sum;
+        }
+    }
+
+    private static class ScalingVisitor
+        extends DefaultRealMatrixChangingVisitor
+        implements CombinableRealMatrixChangingVisitor {
+        private final double factor;
+        private int count;
+        public ScalingVisitor(double factor) {
+            this.factor = factor;
+        }
+        @Override
+        public double visit(int row, int column, double value) {
+            ++count;
+            return factor * value;
+        }
+        @Override
+        public double end() {
+            return count;
+        }
+        public CombinableRealMatrixChangingVisitor split() {
+            return new ScalingVisitor(factor);
+        }
+        public void combine(CombinableRealMatrixChangingVisitor partial) {
+            count += ((ScalingVisitor) partial).count;
+        }
+    }
+
+    @Test
+    public void testParallelOperationsErrors() {
+        BlockRealMatrix a = new BlockRealMatrix(testData);
+        BlockRealMatrix b = new BlockRealMatrix(testData2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            try {
+                a.multiply(b, executor);
+                Assert.fail("Expecting DimensionMismatchException");
+            } catch (DimensionMismatchException ex) {
+                // expected
+            }
+            try {
+                a.add(b, executor);
+                Assert.fail("Expecting MatrixDimensionMismatchException");
+            } catch (MatrixDimensionMismatchException ex) {
+                // expected
+            }
+            try {
+                a.subtract(b, executor);
+                Assert.fail("Expecting MatrixDimensionMismatchException");
+            } catch (MatrixDimensionMismatchException ex) {
+                // expected
+            }
+            try {
+                a.transpose(null);
+                Assert.fail("Expecting NullArgumentException");
+            } catch (NullArgumentException ex) {
+                // expected
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDestinationOperations() {
+        Random r = new Random(0x2f6e1d8c9b3a5047l);
+        BlockRealMatrix a = createRandomMatrix(r, 113, 97);
+        BlockRealMatrix b = createRandomMatrix(r, 97, 71);
+        BlockRealMatrix c = createRandomMatrix(r, 113, 97);
+
+        // results must be identical to the allocating methods, not only close
+        BlockRealMatrix out = createRandomMatrix(r, 113, 71);
+        Assert.assertSame(out, a.multiply(b, out));
+        Assert.assertEquals(a.multiply(b), out);
+        out = createRandomMatrix(r, 113, 97);
+        Assert.assertSame(out, a.add(c, out));
+        Assert.assertEquals(a.add(c), out);
+        Assert.assertSame(out, a.subtract(c, out));
+        Assert.assertEquals(a.subtract(c), out);
+
+        double[] v = new double[97];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = r.nextDouble();
+        }
+        double[] y = new double[113];
+        Arrays.fill(y, Double.NaN);
+        Assert.assertSame(y, a.operate(v, y));
+        Assert.assertTrue(Arrays.equals(a.operate(v), y));
+        Arrays.fill(v, Double.NaN);
+        Assert.assertSame(v, a.preMultiply(y, v));
+        Assert.assertTrue(Arrays.equals(a.preMultiply(y), v));
+    }
+
+    @Test
+    public void testDestinationAliasing() {
+        Random r = new Random(0x51c08e3a7d2f946bl);
+        BlockRealMatrix a = createRandomMatrix(r, 113, 113);
+        BlockRealMatrix b = createRandomMatrix(r, 113, 71);
+        BlockRealMatrix c = createRandomMatrix(r, 71, 71);
+
+        // out == m
+        BlockRealMatrix expected = a.multiply(b);
+        BlockRealMatrix m = b.copy();
+        Assert.assertSame(m, a.multiply(m, m));
+        Assert.assertEquals(expected, m);
+
+        // out == this
+        expected = b.multiply(c);
+        BlockRealMatrix t = b.copy();
+        Assert.assertSame(t, t.multiply(c, t));
+        Assert.assertEquals(expected, t);
+
+        // out == this == m
+        expected = a.multiply(a);
+        t = a.copy();
+        Assert.assertSame(t, t.multiply(t, t));
+        Assert.assertEquals(expected, t);
+
+        // element-wise operations
+        expected = a.add(a.scalarMultiply(2.0));
+        t = a.copy();
+        t.add((BlockRealMatrix) a.scalarMultiply(2.0), t);
+        Assert.assertEquals(expected, t);
+        t.subtract(t, t);
+        Assert.assertEquals(new BlockRealMatrix(113, 113), t);
+
+        // vectors
+        double[] v = b.getColumn(5);
+        double[] expectedV = a.operate(v);
+        Assert.assertSame(v, a.operate(v, v));
+        Assert.assertTrue(Arrays.equals(expectedV, v));
+        expectedV = a.preMultiply(v);
+        Assert.assertSame(v, a.preMultiply(v, v));
+        Assert.assertTrue(Arrays.equals(expectedV, v));
+    }
+
+    @Test
+    public void testDestinationOperationsErrors() {
+        BlockRealMatrix a = new BlockRealMatrix(testData);
+        try {
+            a.multiply(a, new BlockRealMatrix(3, 2));
+            Assert.fail("Expecting MatrixDimensionMismatchException");
+        } catch (MatrixDimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.multiply(new BlockRealMatrix(testData2), new BlockRealMatrix(3, 3));
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.add(a, new BlockRealMatrix(testData2));
+            Assert.fail("Expecting MatrixDimensionMismatchException");
+        } catch (MatrixDimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.operate(new double[3], new double[2]);
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+        try {
+            a.preMultiply(new double[3], new double[4]);
+            Assert.fail("Expecting DimensionMismatchException");
+        } catch (DimensionMismatchException ex) {
+            // expected
+        }
+    }
+
     //Additional Test for BlockRealMatrixTest.testMultiply
 
     private double[][] d3 = new double[][] {{1,2,3,4},{5,6,7,8}};
@@ -135,4 +135,98 @@ public class CholeskyDecompositionTest {
         Assert.assertTrue(l  == llt.getL());
         Assert.assertTrue(lt == llt.getLT());
     }
+
+    @Test
+    public void testUpdate() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(testData);
+        CholeskyDecomposition llt = new CholeskyDecomposition(matrix);
+        DecompositionSolver solver = llt.getSolver();
+        RealMatrix l = llt.getL();
+
+        double[] v = { 1, -2, 0.5, 3, -1 };
+        llt.update(v);
+        RealMatrix updated = matrix.add(outerProduct(v));
+        CholeskyDecomposition reference = new CholeskyDecomposition(updated);
+        Assert.assertEquals(0, llt.getL().subtract(reference.getL()).getNorm(), 1.0e-12);
+        Assert.assertEquals(reference.getDeterminant(), llt.getDeterminant(),
+                            1.0e-12 * reference.getDeterminant());
+        Assert.assertNotSame(l, llt.getL());
+
+        // the solver obtained before the update uses the updated factor
+        RealVector b = new ArrayRealVector(new double[] { 1, 2, 3, 4, 5 });
+        RealVector x = solver.solve(b);
+        Assert.assertEquals(0, updated.operate(x).subtract(b).getNorm(), 1.0e-10);
+    }
+
+    @Test
+    public void testDowndate() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(testData);
+        double[] v = { 0.5, -1, 2, 1.5, -3 };
+        CholeskyDecomposition llt = new CholeskyDecomposition(matrix.add(outerProduct(v)));
+        llt.downdate(v);
+        RealMatrix lRef = new CholeskyDecomposition(matrix).getL();
+        Assert.assertEquals(0, llt.getL().subtract(lRef).getNorm(), 1.0e-12);
+        for (int i = 0; i < testData.length; ++i) {
+            Assert.assertTrue(llt.getL().getEntry(i, i) > 0);
+        }
+
+        // update and downdate cancel each other
+        double[] w = { -2, 1, 1, 0.25, 4 };
+        llt.update(w);
+        llt.downdate(w);
+        Assert.assertEquals(0, llt.getL().subtract(lRef).getNorm(), 1.0e-12);
+        RealVector b = new ArrayRealVector(new double[] { 5, 4, 3, 2, 1 });
+        RealVector x = llt.getSolver().solve(b);
+        Assert.assertEquals(0, matrix.operate(x).subtract(b).getNorm(), 1.0e-10);
+    }
+
+    @Test
+    public void testDowndateNotPositiveDefinite() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(testData);
+        CholeskyDecomposition llt = new CholeskyDecomposition(matrix);
+        RealMatrix l = llt.getL();
+        try {
+            // removing the first row of L^T leaves a singular matrix
+            llt.downdate(llt.getLT().getRow(0));
+            Assert.fail("an exception should have been thrown");
+        } catch (NonPositiveDefiniteMatrixException npdme) {
+            // expected
+        }
+        // the decomposition is left unchanged
+        Assert.assertSame(l, llt.getL());
+        Assert.assertEquals(0, llt.getL().multiply(llt.getLT()).subtract(matrix).getNorm(), 1.0e-12);
+    }
+
+    @Test
+    public void testPackedInput() {
+        RealMatrix matrix = MatrixUtils.createRealMatrix(testData);
+        SymmetricRealMatrix packed = new SymmetricRealMatrix(testData);
+        double[] before = packed.getDataRef().clone();
+        CholeskyDecomposition reference = new CholeskyDecomposition(matrix);
+        CholeskyDecomposition llt = new CholeskyDecomposition(packed);
+        Assert.assertEquals(0, llt.getL().subtract(reference.getL()).getNorm(), 1.0e-12);
+        Assert.assertEquals(reference.getDeterminant(), llt.getDeterminant(),
+                            1.0e-12 * reference.getDeterminant());
+
+        // the decomposed matrix is not modified
+        Assert.assertArrayEquals(before, packed.getDataRef(), 0);
+
+        RealMatrix inverse = llt.getSolver().getInverse();
+        Assert.assertEquals(0, inverse.multiply(matrix).subtract(MatrixUtils.createRealIdentityMatrix(5)).getNorm(),
+                            1.0e-10);
+        RealVector b = new ArrayRealVector(new double[] { 1, -1, 2, -2, 3 });
+        Assert.assertEquals(0, matrix.operate(llt.getSolver().solve(b)).subtract(b).getNorm(), 1.0e-10);
+    }
+
+    @Test(expected = NonPositiveDefiniteMatrixException.class)
+    public void testPackedNotPositiveDefinite() {
+        new CholeskyDecomposition(new SymmetricRealMatrix(new double[][] {
+            { 2, 3 }, { 3, 4 }
+        }));
+    }
+
+    private RealMatrix outerProduct(double[] v) {
+        RealVector vector = new ArrayRealVector(v);
+        return vector.outerProduct(vector);
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link CompressedColumnRealMatrix} class.
+ *
+ * @version $Id$
+ */
+public class CompressedColumnRealMatrixTest {
+
+    @Test
+    public void testEntries() {
+        final RealMatrix dense =
+            CompressedRowRealMatrixTest.createSparseDense(new Well1024a(0x0d5e8c37a1b94f26l), 23, 37, 0.1);
+        final CompressedColumnRealMatrix csc = new CompressedColumnRealMatrix(dense);
+        Assert.assertEquals(dense, csc);
+        Assert.assertEquals(CompressedRowRealMatrixTest.countNonZero(dense), csc.getNonZeroCount());
+    }
+
+    @Test
+    public void testSetEntry() {
+        final CompressedColumnRealMatrix csc = new CompressedColumnRealMatrix(5, 4);
+        final RealMatrix dense = new Array2DRowRealMatrix(5, 4);
+        final int[][] positions = { { 4, 3 }, { 0, 0 }, { 1, 2 }, { 3, 0 }, { 0, 2 }, { 0, 3 }, { 2, 1 } };
+        for (int k = 0; k < positions.length; ++k) {
+            csc.setEntry(positions[k][0], positions[k][1], k + 1);
+            dense.setEntry(positions[k][0], positions[k][1], k + 1);
+            Assert.assertEquals(dense, csc);
+        }
+        Assert.assertEquals(7, csc.getNonZeroCount());
+    }
+
+    @Test
+    public void testOperate() {
+        final RandomGenerator random = new Well1024a(0x9b3e07d2c4a5f118l);
+        final RealMatrix dense = CompressedRowRealMatrixTest.createSparseDense(random, 41, 29, 0.15);
+        final CompressedColumnRealMatrix csc = new CompressedColumnRealMatrix(dense);
+        final double[] x = CompressedRowRealMatrixTest.createVector(random, 29);
+        final double[] y = CompressedRowRealMatrixTest.createVector(random, 41);
+        TestUtils.assertEquals(dense.operate(x), csc.operate(x), 1.0e-12);
+        TestUtils.assertEquals(dense.preMultiply(y), csc.preMultiply(y), 1.0e-12);
+    }
+
+    @Test
+    public void testMultiply() {
+        final RandomGenerator random = new Well1024a(0x61c4fa0e83b2d975l);
+        final RealMatrix a = CompressedRowRealMatrixTest.createSparseDense(random, 31, 17, 0.2);
+        final RealMatrix b = CompressedRowRealMatrixTest.createSparseDense(random, 17, 23, 0.2);
+        final RealMatrix expected = a.multiply(b);
+        final CompressedColumnRealMatrix cscA = new CompressedColumnRealMatrix(a);
+        final CompressedColumnRealMatrix cscB = new CompressedColumnRealMatrix(b);
+        TestUtils.assertEquals("sparse", expected, cscA.multiply(cscB), 1.0e-12);
+        TestUtils.assertEquals("sparse*csr", expected,
+                               cscA.multiply((RealMatrix) new CompressedRowRealMatrix(b)),
+                               1.0e-12);
+        TestUtils.assertEquals("dense", expected, cscA.multiply(b), 1.0e-12);
+    }
+
+    @Test
+    public void testTranspose() {
+        final RealMatrix dense =
+            CompressedRowRealMatrixTest.createSparseDense(new Well1024a(0xe2b7c9104f63da58l), 45, 13, 0.2);
+        final CompressedColumnRealMatrix csc = new CompressedColumnRealMatrix(dense);
+        Assert.assertEquals(dense.transpose(), csc.transpose());
+        Assert.assertEquals(dense, csc.toCompressedRow());
+        Assert.assertEquals(dense.add(dense), csc.add(csc));
+    }
+
+}
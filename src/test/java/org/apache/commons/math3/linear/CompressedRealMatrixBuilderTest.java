@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link CompressedRealMatrixBuilder} class.
+ *
+ * @version $Id$
+ */
+public class CompressedRealMatrixBuilderTest {
+
+    @Test
+    public void testRandomTriplets() {
+        final RandomGenerator random = new Well1024a(0xa4c17e5b3062f9d8l);
+        final RealMatrix expected = new Array2DRowRealMatrix(47, 31);
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(47, 31);
+        for (int k = 0; k < 400; ++k) {
+            // many duplicates, in random order
+            final int i = random.nextInt(47);
+            final int j = random.nextInt(31);
+            final double v = random.nextInt(7) - 3;
+            expected.addToEntry(i, j, v);
+            builder.add(i, j, v);
+        }
+        Assert.assertEquals(400, builder.getTripletsCount());
+
+        final CompressedRowRealMatrix csr = builder.buildCompressedRow();
+        final CompressedColumnRealMatrix csc = builder.buildCompressedColumn();
+        Assert.assertEquals(expected, csr);
+        Assert.assertEquals(expected, csc);
+
+        // entries that sum up to exactly zero are not stored
+        final int nonZero = CompressedRowRealMatrixTest.countNonZero(expected);
+        Assert.assertEquals(nonZero, csr.getNonZeroCount());
+        Assert.assertEquals(nonZero, csc.getNonZeroCount());
+    }
+
+    @Test
+    public void testArrays() {
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(3, 3);
+        builder.add(new int[] { 2, 0, 1, 0, 2 },
+                    new int[] { 2, 1, 1, 1, 0 },
+                    new double[] { 1.0, 2.0, 3.0, 4.0, 5.0 });
+        final RealMatrix expected = new Array2DRowRealMatrix(new double[][] {
+            { 0.0, 6.0, 0.0 }, { 0.0, 3.0, 0.0 }, { 5.0, 0.0, 1.0 }
+        });
+        Assert.assertEquals(expected, builder.buildCompressedRow());
+        Assert.assertEquals(4, builder.buildCompressedRow().getNonZeroCount());
+
+        builder.clear();
+        Assert.assertEquals(0, builder.getTripletsCount());
+        Assert.assertEquals(0, builder.buildCompressedColumn().getNonZeroCount());
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testOutOfRange() {
+        new CompressedRealMatrixBuilder(3, 4).add(1, 4, 1.0);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testArraysMismatch() {
+        new CompressedRealMatrixBuilder(3, 4).add(new int[2], new int[2], new double[3]);
+    }
+
+}
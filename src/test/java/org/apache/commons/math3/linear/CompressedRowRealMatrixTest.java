@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link CompressedRowRealMatrix} class.
+ *
+ * @version $Id$
+ */
+public class CompressedRowRealMatrixTest {
+
+    @Test
+    public void testEntries() {
+        final RealMatrix dense = createSparseDense(new Well1024a(0x3f7a4c51e9b2d806l), 37, 23, 0.1);
+        final CompressedRowRealMatrix csr = new CompressedRowRealMatrix(dense);
+        Assert.assertEquals(dense, csr);
+        Assert.assertEquals(countNonZero(dense), csr.getNonZeroCount());
+        Assert.assertEquals(dense.getFrobeniusNorm(), csr.getFrobeniusNorm(), 1.0e-12);
+    }
+
+    @Test
+    public void testSetEntry() {
+        final CompressedRowRealMatrix csr = new CompressedRowRealMatrix(4, 5);
+        final RealMatrix dense = new Array2DRowRealMatrix(4, 5);
+        // insertions in random order
+        final int[][] positions = { { 3, 4 }, { 0, 0 }, { 2, 1 }, { 0, 3 }, { 2, 0 }, { 3, 0 }, { 1, 2 } };
+        for (int k = 0; k < positions.length; ++k) {
+            csr.setEntry(positions[k][0], positions[k][1], k + 1);
+            dense.setEntry(positions[k][0], positions[k][1], k + 1);
+            Assert.assertEquals(dense, csr);
+        }
+        csr.addToEntry(2, 1, 10.0);
+        dense.addToEntry(2, 1, 10.0);
+        csr.addToEntry(1, 4, 0.5);
+        dense.addToEntry(1, 4, 0.5);
+        csr.multiplyEntry(0, 3, -2.0);
+        dense.multiplyEntry(0, 3, -2.0);
+        csr.multiplyEntry(0, 1, -2.0);
+        dense.multiplyEntry(0, 1, -2.0);
+        Assert.assertEquals(dense, csr);
+        Assert.assertEquals(8, csr.getNonZeroCount());
+
+        // setting an entry to zero keeps the structure
+        csr.setEntry(3, 4, 0.0);
+        Assert.assertEquals(0.0, csr.getEntry(3, 4), 0.0);
+        Assert.assertEquals(8, csr.getNonZeroCount());
+
+        // setting a structural zero to zero does not change anything
+        csr.setEntry(1, 1, 0.0);
+        Assert.assertEquals(8, csr.getNonZeroCount());
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testGetEntryOutOfRange() {
+        new CompressedRowRealMatrix(3, 4).getEntry(3, 0);
+    }
+
+    @Test
+    public void testOperate() {
+        final RandomGenerator random = new Well1024a(0x1c9d0bb53fa24e67l);
+        final RealMatrix dense = createSparseDense(random, 41, 29, 0.15);
+        final CompressedRowRealMatrix csr = new CompressedRowRealMatrix(dense);
+        final double[] x = createVector(random, 29);
+        final double[] y = createVector(random, 41);
+        TestUtils.assertEquals(dense.operate(x), csr.operate(x), 1.0e-12);
+        TestUtils.assertEquals(dense.preMultiply(y), csr.preMultiply(y), 1.0e-12);
+        TestUtils.assertEquals(dense.operate(new ArrayRealVector(x)).toArray(),
+                               csr.operate(new ArrayRealVector(x)).toArray(), 1.0e-12);
+        try {
+            csr.operate(y);
+            Assert.fail("an exception should have been thrown");
+        } catch (DimensionMismatchException dme) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+        final RandomGenerator random = new Well1024a(0x7e28a1c6f5d034b9l);
+        final RealMatrix a = createSparseDense(random, 31, 17, 0.2);
+        final RealMatrix b = createSparseDense(random, 17, 23, 0.2);
+        final RealMatrix expected = a.multiply(b);
+        final CompressedRowRealMatrix csrA = new CompressedRowRealMatrix(a);
+        final CompressedRowRealMatrix csrB = new CompressedRowRealMatrix(b);
+
+        final CompressedRowRealMatrix product = csrA.multiply(csrB);
+        TestUtils.assertEquals("sparse", expected, product, 1.0e-12);
+        TestUtils.assertEquals("sparse*csc", expected,
+                               csrA.multiply((RealMatrix) new CompressedColumnRealMatrix(b)),
+                               1.0e-12);
+        TestUtils.assertEquals("dense", expected, csrA.multiply(b), 1.0e-12);
+        TestUtils.assertEquals("block", expected, csrA.multiply(new BlockRealMatrix(b.getData())), 1.0e-12);
+        Assert.assertTrue(product.getNonZeroCount() <= countNonZero(expected));
+    }
+
+    @Test
+    public void testAddSubtractScalar() {
+        final RandomGenerator random = new Well1024a(0x5ab31f0c92e87d46l);
+        final RealMatrix a = createSparseDense(random, 19, 27, 0.2);
+        final RealMatrix b = createSparseDense(random, 19, 27, 0.2);
+        final CompressedRowRealMatrix csrA = new CompressedRowRealMatrix(a);
+        final CompressedRowRealMatrix csrB = new CompressedRowRealMatrix(b);
+        Assert.assertEquals(a.add(b), csrA.add(csrB));
+        Assert.assertEquals(a.subtract(b), csrA.subtract(csrB));
+        Assert.assertEquals(a.add(b), csrA.add(b));
+        Assert.assertEquals(a.scalarMultiply(-3.5), csrA.scalarMultiply(-3.5));
+    }
+
+    @Test
+    public void testTranspose() {
+        final RealMatrix dense = createSparseDense(new Well1024a(0x42e6b9d07c1fa385l), 13, 45, 0.2);
+        final CompressedRowRealMatrix csr = new CompressedRowRealMatrix(dense);
+        final CompressedColumnRealMatrix t = csr.transpose();
+        Assert.assertEquals(dense.transpose(), t);
+        Assert.assertEquals(dense.transpose(), t.toCompressedRow());
+        Assert.assertEquals(dense, csr.toCompressedColumn());
+        Assert.assertEquals(dense, new CompressedRowRealMatrix(csr.toCompressedColumn()));
+    }
+
+    @Test
+    public void testCopyIndependence() {
+        final CompressedRowRealMatrix csr = new CompressedRowRealMatrix(3, 3);
+        csr.setEntry(1, 1, 2.0);
+        final CompressedRowRealMatrix copy = csr.copy();
+        copy.setEntry(1, 1, 3.0);
+        copy.setEntry(0, 2, 4.0);
+        Assert.assertEquals(2.0, csr.getEntry(1, 1), 0.0);
+        Assert.assertEquals(0.0, csr.getEntry(0, 2), 0.0);
+        Assert.assertEquals(1, csr.getNonZeroCount());
+    }
+
+    static RealMatrix createSparseDense(final RandomGenerator random,
+                                        final int rows, final int columns,
+                                        final double density) {
+        final RealMatrix m = new Array2DRowRealMatrix(rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                if (random.nextDouble() < density) {
+                    m.setEntry(i, j, 2 * random.nextDouble() - 1);
+                }
+            }
+        }
+        return m;
+    }
+
+    static double[] createVector(final RandomGenerator random, final int n) {
+        final double[] v = new double[n];
+        for (int i = 0; i < n; ++i) {
+            v[i] = 2 * random.nextDouble() - 1;
+        }
+        return v;
+    }
+
+    static int countNonZero(final RealMatrix m) {
+        int count = 0;
+        for (int i = 0; i < m.getRowDimension(); ++i) {
+            for (int j = 0; j < m.getColumnDimension(); ++j) {
+                if (m.getEntry(i, j) != 0) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+}
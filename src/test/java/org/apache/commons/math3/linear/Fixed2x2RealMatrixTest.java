@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+/**
+ * Test cases for the {@link Fixed2x2RealMatrix} class.
+ *
+ * @version $Id$
+ */
+public class Fixed2x2RealMatrixTest extends FixedRealMatrixAbstractTest {
+
+    public Fixed2x2RealMatrixTest() {
+        super(2);
+    }
+
+    @Override
+    protected RealMatrix create(final double[][] d) {
+        return new Fixed2x2RealMatrix(d);
+    }
+
+    @Override
+    protected RealMatrix create(final double[] d, final boolean copyArray) {
+        return new Fixed2x2RealMatrix(d, copyArray);
+    }
+
+    @Override
+    protected double[] getDataRef(final RealMatrix m) {
+        return ((Fixed2x2RealMatrix) m).getDataRef();
+    }
+
+    @Override
+    protected double determinant(final RealMatrix m) {
+        return ((Fixed2x2RealMatrix) m).getDeterminant();
+    }
+
+    @Override
+    protected RealMatrix inverse(final RealMatrix m) {
+        return ((Fixed2x2RealMatrix) m).inverse();
+    }
+
+    @Override
+    protected double[] solve(final RealMatrix m, final double[] b) {
+        return ((Fixed2x2RealMatrix) m).solve(b);
+    }
+
+    @Override
+    protected void multiply(final double[] a, final int aOffset, final double[] b, final int bOffset,
+                            final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.multiply(a, aOffset, b, bOffset, out, outOffset, count);
+    }
+
+    @Override
+    protected void propagate(final double[] j, final int jOffset, final double[] p, final int pOffset,
+                             final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.propagate(j, jOffset, p, pOffset, out, outOffset, count);
+    }
+
+    @Override
+    protected void operate(final double[] m, final int mOffset, final double[] v, final int vOffset,
+                           final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.operate(m, mOffset, v, vOffset, out, outOffset, count);
+    }
+
+    @Override
+    protected void determinant(final double[] m, final int mOffset,
+                               final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.determinant(m, mOffset, out, outOffset, count);
+    }
+
+    @Override
+    protected void inverse(final double[] m, final int mOffset,
+                           final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.inverse(m, mOffset, out, outOffset, count);
+    }
+
+    @Override
+    protected void solve(final double[] m, final int mOffset, final double[] b, final int bOffset,
+                         final double[] out, final int outOffset, final int count) {
+        Fixed2x2RealMatrix.solve(m, mOffset, b, bOffset, out, outOffset, count);
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Common test cases for the fixed-size matrices, which only differ by
+ * their dimension and by the class holding the kernels.
+ *
+ * @version $Id$
+ */
+public abstract class FixedRealMatrixAbstractTest {
+
+    /** Number of rows and columns of the tested matrices. */
+    private final int n;
+
+    /** Number of entries of the tested matrices. */
+    private final int size;
+
+    /**
+     * Simple constructor.
+     * @param n number of rows and columns of the tested matrices
+     */
+    protected FixedRealMatrixAbstractTest(final int n) {
+        this.n    = n;
+        this.size = n * n;
+    }
+
+    /** Create a matrix from a rectangular array. */
+    protected abstract RealMatrix create(double[][] d);
+
+    /** Create a matrix from its row-major entries. */
+    protected abstract RealMatrix create(double[] d, boolean copyArray);
+
+    /** Get the row-major entries of a matrix. */
+    protected abstract double[] getDataRef(RealMatrix m);
+
+    /** Compute the determinant of a matrix. */
+    protected abstract double determinant(RealMatrix m);
+
+    /** Compute the inverse of a matrix. */
+    protected abstract RealMatrix inverse(RealMatrix m);
+
+    /** Solve a linear system. */
+    protected abstract double[] solve(RealMatrix m, double[] b);
+
+    /** Batch multiplication. */
+    protected abstract void multiply(double[] a, int aOffset, double[] b, int bOffset,
+                                     double[] out, int outOffset, int count);
+
+    /** Batch covariance propagation. */
+    protected abstract void propagate(double[] j, int jOffset, double[] p, int pOffset,
+                                      double[] out, int outOffset, int count);
+
+    /** Batch matrix-vector product. */
+    protected abstract void operate(double[] m, int mOffset, double[] v, int vOffset,
+                                    double[] out, int outOffset, int count);
+
+    /** Batch determinant. */
+    protected abstract void determinant(double[] m, int mOffset,
+                                        double[] out, int outOffset, int count);
+
+    /** Batch inversion. */
+    protected abstract void inverse(double[] m, int mOffset,
+                                    double[] out, int outOffset, int count);
+
+    /** Batch solve. */
+    protected abstract void solve(double[] m, int mOffset, double[] b, int bOffset,
+                                  double[] out, int outOffset, int count);
+
+    @Test
+    public void testEntries() {
+        final RealMatrix reference = createRandomMatrix(createGenerator());
+        final RealMatrix m = create(reference.getData());
+        Assert.assertEquals(reference, m);
+        Assert.assertEquals(reference.transpose(), m.transpose());
+        Assert.assertEquals(reference.getTrace(), m.getTrace(), 1.0e-15);
+        Assert.assertSame(m.getClass(), m.copy().getClass());
+        Assert.assertSame(m.getClass(), m.transpose().getClass());
+        Assert.assertSame(m.getClass(), m.createMatrix(n, n).getClass());
+        Assert.assertTrue(m.createMatrix(n, n + 1) instanceof Array2DRowRealMatrix);
+        m.setEntry(1, 0, 3.0);
+        m.addToEntry(1, 0, 1.0);
+        m.multiplyEntry(1, 0, 0.5);
+        Assert.assertEquals(2.0, m.getEntry(1, 0), 0);
+        Assert.assertEquals(2.0, getDataRef(m)[n], 0);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testWrongDimension() {
+        create(new double[n][n + 1]);
+    }
+
+    @Test
+    public void testMultiplyOperate() {
+        final RandomGenerator random = createGenerator();
+        final RealMatrix a = createRandomMatrix(random);
+        final RealMatrix b = createRandomMatrix(random);
+        final RealMatrix product = create(a.getData()).multiply(create(b.getData()));
+        Assert.assertSame(create(a.getData()).getClass(), product.getClass());
+        TestUtils.assertEquals("", a.multiply(b), product, 1.0e-14);
+        final double[] v = b.getRow(0);
+        TestUtils.assertEquals(a.operate(v), create(a.getData()).operate(v), 1.0e-14);
+    }
+
+    @Test
+    public void testInverseSolve() {
+        final RandomGenerator random = createGenerator();
+        for (int k = 0; k < 100; ++k) {
+            final RealMatrix a = createRandomMatrix(random);
+            final RealMatrix m = create(a.getData());
+            final LUDecomposition lu = new LUDecomposition(a);
+            final double det = lu.getDeterminant();
+            Assert.assertEquals(det, determinant(m), 1.0e-13 * FastMath.max(1.0, FastMath.abs(det)));
+            final RealMatrix inverse = lu.getSolver().getInverse();
+            final double tol = 1.0e-12 * inverse.getNorm();
+            TestUtils.assertEquals("", inverse, inverse(m), tol);
+            final double[] b = a.getColumn(0);
+            TestUtils.assertEquals(lu.getSolver().solve(new ArrayRealVector(b)).toArray(), solve(m, b), tol);
+        }
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testSingular() {
+        // the last row is the sum of the first two ones
+        final double[][] d = new double[n][n];
+        for (int i = 0; i < n - 1; ++i) {
+            for (int j = 0; j < n; ++j) {
+                d[i][j] = (i + 1) * (j + 2) + (i == j ? 1 : 0);
+            }
+        }
+        for (int j = 0; j < n; ++j) {
+            d[n - 1][j] += d[0][j] + (n > 2 ? d[1][j] : 0);
+        }
+        inverse(create(d));
+    }
+
+    @Test
+    public void testNearlySingular() {
+        // the last row is the first one plus a tiny perturbation
+        final RealMatrix a = createRandomMatrix(createGenerator());
+        for (int j = 0; j < n; ++j) {
+            a.setEntry(n - 1, j, a.getEntry(0, j) * (1 + 1.0e-14 * (j + 1)));
+        }
+        try {
+            new LUDecomposition(a).getSolver().getInverse();
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected, the fixed-size matrices must behave the same way
+        }
+        final RealMatrix m = create(a.getData());
+        try {
+            inverse(m);
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+        try {
+            solve(m, a.getColumn(0));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+        try {
+            inverse(getDataRef(m), 0, new double[size], 0, 1);
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTinyScale() {
+        // the singularity threshold is relative to the entries magnitude
+        final RealMatrix a = createRandomMatrix(createGenerator()).scalarMultiply(1.0e-8);
+        final RealMatrix expected = new LUDecomposition(a.scalarMultiply(1.0e8)).getSolver().getInverse();
+        final RealMatrix inverse = inverse(create(a.getData()));
+        TestUtils.assertEquals("", expected.scalarMultiply(1.0e8), inverse, 1.0e-4 * inverse.getNorm());
+    }
+
+    @Test
+    public void testMixedScales() {
+        // well-conditioned matrices with rows of very different scales are not singular
+        for (final double[] diagonal : new double[][] {
+            { 1.0e6, 1.0, 1.0, 1.0 }, { 1.0, 1.0e-4, 1.0e-4, 1.0e-4 }, { 1.0e-8, 1.0e8, 1.0, 1.0e-3 }
+        }) {
+            final double[][] d = new double[n][n];
+            final double[] b = new double[n];
+            for (int i = 0; i < n; ++i) {
+                d[i][i] = diagonal[i];
+                b[i] = diagonal[i] * (i + 1);
+            }
+            final RealMatrix inverse = inverse(create(d));
+            final double[] x = solve(create(d), b);
+            for (int i = 0; i < n; ++i) {
+                for (int j = 0; j < n; ++j) {
+                    Assert.assertEquals(i == j ? 1.0 / diagonal[i] : 0.0, inverse.getEntry(i, j),
+                                        1.0e-15 * FastMath.abs(1.0 / diagonal[i]));
+                }
+                Assert.assertEquals(i + 1, x[i], 1.0e-15 * (i + 1));
+            }
+        }
+
+        // scaling the rows of a random matrix does not change its singularity
+        final RandomGenerator random = createGenerator();
+        final RealMatrix a = createRandomMatrix(random);
+        final RealMatrix inverse = new LUDecomposition(a).getSolver().getInverse();
+        final RealMatrix scaled = a.copy();
+        for (int i = 0; i < n; ++i) {
+            scaled.setRow(i, a.getRowVector(i).mapMultiply(FastMath.pow(10.0, 6 * i - 6)).toArray());
+        }
+        final RealMatrix scaledInverse = inverse(create(scaled.getData()));
+        for (int j = 0; j < n; ++j) {
+            // the columns of the inverse are scaled by the inverse factors
+            final RealVector expected = inverse.getColumnVector(j).mapMultiply(FastMath.pow(10.0, 6 - 6 * j));
+            TestUtils.assertEquals(expected.toArray(), scaledInverse.getColumn(j),
+                                   1.0e-12 * expected.getLInfNorm());
+        }
+
+        // the singularity test is still triggered regardless of the scales
+        scaled.setRow(n - 1, scaled.getRowVector(0).mapMultiply(1.0e-12).toArray());
+        try {
+            inverse(create(scaled.getData()));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        final RandomGenerator random = createGenerator();
+        final int count = 50;
+        final int offset = 3;
+        final double[] a = new double[offset + count * size];
+        final double[] b = new double[offset + count * size];
+        final double[] v = new double[offset + count * n];
+        for (int i = 0; i < a.length; ++i) {
+            a[i] = random.nextDouble() - 0.5;
+            b[i] = random.nextDouble() - 0.5;
+        }
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = random.nextDouble() - 0.5;
+        }
+        final double[] products = new double[count * size];
+        final double[] propagated = new double[count * size];
+        final double[] inverses = new double[count * size];
+        final double[] determinants = new double[count];
+        final double[] images = new double[count * n];
+        final double[] solutions = new double[count * n];
+        multiply(a, offset, b, offset, products, 0, count);
+        propagate(a, offset, b, offset, propagated, 0, count);
+        inverse(a, offset, inverses, 0, count);
+        determinant(a, offset, determinants, 0, count);
+        operate(a, offset, v, offset, images, 0, count);
+        solve(a, offset, v, offset, solutions, 0, count);
+
+        for (int k = 0; k < count; ++k) {
+            final RealMatrix ak = create(slice(a, offset + k * size, size), false);
+            final double[] bk = slice(b, offset + k * size, size);
+            final double[] vk = slice(v, offset + k * n, n);
+            final double[] expected = getDataRef(ak.multiply(create(bk, false)));
+            Assert.assertArrayEquals(expected, slice(products, k * size, size), 0);
+            Assert.assertArrayEquals(getDataRef(inverse(ak)), slice(inverses, k * size, size), 0);
+            Assert.assertEquals(determinant(ak), determinants[k], 0);
+            Assert.assertArrayEquals(ak.operate(vk), slice(images, k * n, n), 0);
+            Assert.assertArrayEquals(solve(ak, vk), slice(solutions, k * n, n), 0);
+
+            // propagation only uses the upper triangular part of the covariance
+            final RealMatrix p = create(bk, true);
+            for (int i = 0; i < n; ++i) {
+                for (int j = 0; j < i; ++j) {
+                    p.setEntry(i, j, p.getEntry(j, i));
+                }
+            }
+            final RealMatrix out = create(slice(propagated, k * size, size), false);
+            TestUtils.assertEquals("", ak.multiply(p).multiply(ak.transpose()), out, 1.0e-14);
+            Assert.assertEquals(out, out.transpose());
+        }
+
+        // in-place computation
+        final double[] copy = a.clone();
+        inverse(copy, offset, copy, offset, count);
+        Assert.assertArrayEquals(inverses, slice(copy, offset, count * size), 0);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testBatchTooShort() {
+        multiply(new double[size * 2], 0, new double[size * 2], 1, new double[size * 2], 0, 2);
+    }
+
+    private RandomGenerator createGenerator() {
+        return new Well1024a(0x9e3f07a1c5d28b46l + n);
+    }
+
+    private RealMatrix createRandomMatrix(final RandomGenerator random) {
+        final RealMatrix m = new Array2DRowRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                m.setEntry(i, j, 2 * random.nextDouble() - 1);
+            }
+        }
+        return m;
+    }
+
+    private static double[] slice(final double[] array, final int offset, final int length) {
+        final double[] s = new double[length];
+        System.arraycopy(array, offset, s, 0, length);
+        return s;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FloatArrayRealVectorTest {
+
+    @Test
+    public void testConversions() {
+        final double[] d = { 0.1, 1.0e-3, FastMath.PI, -2.5 };
+        final FloatArrayRealVector v = new FloatArrayRealVector(d);
+        Assert.assertEquals(4, v.getDimension());
+        for (int i = 0; i < d.length; ++i) {
+            Assert.assertEquals((float) d[i], v.getEntry(i), 0);
+        }
+        final ArrayRealVector converted = new ArrayRealVector(v);
+        Assert.assertEquals(v, converted);
+        Assert.assertEquals(converted, v);
+        Assert.assertEquals(converted.hashCode(), v.hashCode());
+        Assert.assertEquals(v, new FloatArrayRealVector(converted));
+        Assert.assertFalse(v.equals(new ArrayRealVector(d)));
+        Assert.assertEquals(v, new FloatArrayRealVector(v.getDataRef()));
+        Assert.assertNotSame(v.getDataRef(), v.copy().getDataRef());
+    }
+
+    @Test
+    public void testEntries() {
+        final FloatArrayRealVector v = new FloatArrayRealVector(5);
+        v.setEntry(2, 0.1);
+        v.addToEntry(2, 0.2);
+        Assert.assertEquals((float) (0.1f + 0.2), v.getEntry(2), 0);
+        v.setSubVector(3, new ArrayRealVector(new double[] { 1, 2 }));
+        Assert.assertEquals(2.0, v.getEntry(4), 0);
+        Assert.assertEquals(new ArrayRealVector(new double[] { v.getEntry(2), 1, 2 }), v.getSubVector(2, 3));
+        Assert.assertEquals(7, v.append(new ArrayRealVector(2)).getDimension());
+        Assert.assertEquals(0.5f, v.append(0.5).getEntry(5), 0);
+        try {
+            v.getEntry(5);
+            Assert.fail("an exception should have been thrown");
+        } catch (OutOfRangeException ore) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAccumulation() {
+        final int n = 1 << 12;
+        final float[] ones = new float[n];
+        Arrays.fill(ones, 1.0f);
+        final FloatArrayRealVector v = new FloatArrayRealVector(ones, false);
+        final FloatArrayRealVector w = new FloatArrayRealVector(new float[] { 1.0f }, false);
+        Assert.assertEquals(n, v.dotProduct(v), 0);
+        Assert.assertEquals(FastMath.sqrt(n), v.getNorm(), 0);
+        Assert.assertEquals(n, v.getL1Norm(), 0);
+        Assert.assertEquals(1.0, v.getLInfNorm(), 0);
+        Assert.assertEquals(1.0, w.dotProduct(new ArrayRealVector(new double[] { 1.0 })), 0);
+
+        // 2^24 + 1 is not representable as a float
+        final FloatArrayRealVector big = new FloatArrayRealVector(new float[] { 1 << 24, 1 }, false);
+        Assert.assertEquals((1 << 24) + 1, big.dotProduct(new FloatArrayRealVector(new float[] { 1, 1 })), 0);
+    }
+
+    @Test
+    public void testElementByElement() {
+        final FloatArrayRealVector v = new FloatArrayRealVector(new float[] { 1, 2, 3 });
+        final RealVector w = new ArrayRealVector(new double[] { 2, 4, 8 });
+        Assert.assertEquals(new ArrayRealVector(new double[] { 2, 8, 24 }), v.ebeMultiply(w));
+        Assert.assertEquals(new ArrayRealVector(new double[] { 0.5, 0.5, 0.375 }), v.ebeDivide(w));
+        Assert.assertEquals(new ArrayRealVector(new double[] { 3, 6, 11 }), v.add(w));
+        Assert.assertEquals(new ArrayRealVector(new double[] { 2, 4, 6 }), v.copy().mapMultiplyToSelf(2));
+        Assert.assertEquals(new ArrayRealVector(new double[] { 2, 3, 4 }), v.copy().mapAddToSelf(1));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        new FloatArrayRealVector(3).dotProduct(new FloatArrayRealVector(4));
+    }
+
+    @Test
+    public void testPredicates() {
+        Assert.assertFalse(new FloatArrayRealVector(3).isNaN());
+        Assert.assertTrue(new FloatArrayRealVector(new float[] { 1, Float.NaN }).isNaN());
+        Assert.assertTrue(new FloatArrayRealVector(new float[] { 1, Float.POSITIVE_INFINITY }).isInfinite());
+        Assert.assertFalse(new FloatArrayRealVector(new float[] { Float.NaN, Float.POSITIVE_INFINITY }).isInfinite());
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FloatBlockRealMatrixTest {
+
+    @Test
+    public void testConversions() {
+        final RandomGenerator random = new Well1024a(0x4e1b7f09c3a2d856l);
+        final RealMatrix m = BlockQRDecompositionTest.createRandomMatrix(random, 67, 113);
+        final FloatBlockRealMatrix f = new FloatBlockRealMatrix(m);
+        Assert.assertEquals(67, f.getRowDimension());
+        Assert.assertEquals(113, f.getColumnDimension());
+        for (int i = 0; i < 67; ++i) {
+            for (int j = 0; j < 113; ++j) {
+                Assert.assertEquals((float) m.getEntry(i, j), f.getEntry(i, j), 0);
+            }
+        }
+
+        // conversion to double is exact
+        final BlockRealMatrix d = f.toBlockRealMatrix();
+        Assert.assertEquals(f, d);
+        Assert.assertEquals(f, new FloatBlockRealMatrix(d));
+        Assert.assertEquals(f, f.copy());
+        Assert.assertTrue(f.transpose() instanceof FloatBlockRealMatrix);
+        Assert.assertEquals(d.transpose(), f.transpose());
+    }
+
+    @Test
+    public void testEntries() {
+        final FloatBlockRealMatrix f = new FloatBlockRealMatrix(60, 70);
+        f.setEntry(55, 66, 0.1);
+        Assert.assertEquals(0.1f, f.getEntry(55, 66), 0);
+        f.addToEntry(55, 66, 0.2);
+        Assert.assertEquals((float) (0.1f + 0.2), f.getEntry(55, 66), 0);
+        f.multiplyEntry(55, 66, 2);
+        Assert.assertEquals(2 * (float) (0.1f + 0.2), f.getEntry(55, 66), 0);
+        Assert.assertEquals(0.0, f.getEntry(54, 66), 0);
+    }
+
+    @Test
+    public void testProducts() {
+        final RandomGenerator random = new Well1024a(0x92c5d0e4a7f13b68l);
+        final FloatBlockRealMatrix a =
+            new FloatBlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 75, 130));
+        final FloatBlockRealMatrix b =
+            new FloatBlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 130, 57));
+        final BlockRealMatrix da = a.toBlockRealMatrix();
+        final BlockRealMatrix db = b.toBlockRealMatrix();
+
+        // accumulation in double: the only error is the final rounding
+        final RealMatrix product = a.multiply(b);
+        Assert.assertTrue(product instanceof FloatBlockRealMatrix);
+        final RealMatrix reference = da.multiply(db);
+        for (int i = 0; i < 75; ++i) {
+            for (int j = 0; j < 57; ++j) {
+                Assert.assertEquals((float) reference.getEntry(i, j), product.getEntry(i, j), 0);
+            }
+        }
+        // products with double matrices are also stored in single precision
+        TestUtils.assertEquals("", da.multiply(db.getColumnMatrix(3)),
+                               a.multiply((RealMatrix) db.getColumnMatrix(3)), 1.0e-5);
+
+        final double[] v = new double[130];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = random.nextDouble();
+        }
+        TestUtils.assertEquals(da.operate(v), a.operate(v), 1.0e-12);
+        final double[] w = new double[75];
+        for (int i = 0; i < w.length; ++i) {
+            w[i] = random.nextDouble();
+        }
+        TestUtils.assertEquals(da.preMultiply(w), a.preMultiply(w), 1.0e-12);
+
+        final FloatArrayRealVector fv = new FloatArrayRealVector(v);
+        final RealVector result = a.operate(fv);
+        Assert.assertTrue(result instanceof FloatArrayRealVector);
+        final double[] expected = da.operate(fv.toArray());
+        for (int i = 0; i < expected.length; ++i) {
+            Assert.assertEquals((float) expected[i], result.getEntry(i), 0);
+        }
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() {
+        new FloatBlockRealMatrix(3, 4).operate(new FloatArrayRealVector(3));
+    }
+
+    @Test
+    public void testWalk() {
+        final FloatBlockRealMatrix f = new FloatBlockRealMatrix(80, 55);
+        f.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(int row, int column, double value) {
+                return row + 0.5 * column;
+            }
+        });
+        for (int i = 0; i < 80; ++i) {
+            for (int j = 0; j < 55; ++j) {
+                Assert.assertEquals(i + 0.5 * j, f.getEntry(i, j), 0);
+            }
+        }
+        Assert.assertEquals(f.toBlockRealMatrix().getFrobeniusNorm(), f.getFrobeniusNorm(), 1.0e-12);
+    }
+
+}
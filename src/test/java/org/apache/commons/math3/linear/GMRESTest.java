@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.util.IterationEvent;
+import org.apache.commons.math3.util.IterationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GMRESTest {
+
+    @Test(expected = NonSquareOperatorException.class)
+    public void testNonSquareOperator() {
+        final Array2DRowRealMatrix a = new Array2DRowRealMatrix(2, 3);
+        final IterativeLinearSolver solver = new GMRES(10, 0., 5);
+        solver.solve(a, new ArrayRealVector(2), new ArrayRealVector(3));
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidRestart() {
+        new GMRES(10, 0., 0);
+    }
+
+    @Test
+    public void testUnpreconditionedSolution() {
+        final CompressedRowRealMatrix a = createConvectionDiffusion(200);
+        final RealVector b = createRightHandSide(200);
+        for (final int restart : new int[] { 10, 30, 200 }) {
+            final GMRES solver = new GMRES(10000, 1.0e-10, restart);
+            final RealVector x = solver.solve(a, b);
+            checkSolution(a, b, x, 1.0e-10);
+        }
+    }
+
+    @Test
+    public void testPreconditionedSolution() {
+        final CompressedRowRealMatrix a = createConvectionDiffusion(200);
+        final RealVector b = createRightHandSide(200);
+        final JacobiPreconditioner m = JacobiPreconditioner.create(a);
+
+        final GMRES unpreconditioned = new GMRES(10000, 1.0e-10, 20);
+        unpreconditioned.solve(a, b);
+        final int plain = unpreconditioned.getIterationManager().getIterations();
+
+        final GMRES preconditioned = new GMRES(10000, 1.0e-10, 20);
+        final RealVector x = preconditioned.solve(a, m, b);
+        checkSolution(a, b, x, 1.0e-10);
+        Assert.assertTrue(preconditioned.getIterationManager().getIterations() < plain);
+    }
+
+    @Test
+    public void testInPlaceWithInitialGuess() {
+        final CompressedRowRealMatrix a = createConvectionDiffusion(50);
+        final RealVector b = createRightHandSide(50);
+        final RealVector x0 = new ArrayRealVector(50, 1.0);
+        final RealVector x = new GMRES(1000, 1.0e-12, 10).solveInPlace(a, null, b, x0);
+        Assert.assertSame(x0, x);
+        checkSolution(a, b, x, 1.0e-12);
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxIterations() {
+        final CompressedRowRealMatrix a = createConvectionDiffusion(200);
+        new GMRES(5, 1.0e-10, 3).solve(a, createRightHandSide(200));
+    }
+
+    @Test
+    public void testEventManagement() {
+        final CompressedRowRealMatrix a = createConvectionDiffusion(40);
+        final int[] count = new int[4];
+        final IterationListener listener = new IterationListener() {
+            public void initializationPerformed(final IterationEvent e) {
+                ++count[0];
+                checkEvent((IterativeLinearSolverEvent) e);
+                Assert.assertTrue(((IterativeLinearSolverEvent) e).providesResidual());
+            }
+
+            public void iterationStarted(final IterationEvent e) {
+                ++count[1];
+                Assert.assertEquals(count[1], e.getIterations() - 1);
+                checkEvent((IterativeLinearSolverEvent) e);
+            }
+
+            public void iterationPerformed(final IterationEvent e) {
+                ++count[2];
+                Assert.assertEquals(count[2], e.getIterations() - 1);
+                checkEvent((IterativeLinearSolverEvent) e);
+            }
+
+            public void terminationPerformed(final IterationEvent e) {
+                ++count[3];
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                checkEvent(evt);
+                Assert.assertTrue(evt.providesResidual());
+                Assert.assertEquals(evt.getNormOfResidual(), evt.getResidual().getNorm(), 0.0);
+            }
+        };
+        final GMRES solver = new GMRES(1000, 1.0e-10, 8);
+        solver.getIterationManager().addIterationListener(listener);
+        solver.solve(a, createRightHandSide(40));
+        Assert.assertEquals(1, count[0]);
+        Assert.assertEquals(count[1], count[2]);
+        Assert.assertTrue(count[1] > 8);
+        Assert.assertEquals(1, count[3]);
+    }
+
+    private static void checkEvent(final IterativeLinearSolverEvent evt) {
+        try {
+            evt.getSolution().set(0.0);
+            Assert.fail("x is modifiable");
+        } catch (MathUnsupportedOperationException exc) {
+            // Expected behavior
+        }
+        try {
+            evt.getRightHandSideVector().set(0.0);
+            Assert.fail("b is modifiable");
+        } catch (MathUnsupportedOperationException exc) {
+            // Expected behavior
+        }
+    }
+
+    static void checkSolution(final RealLinearOperator a, final RealVector b,
+                              final RealVector x, final double delta) {
+        final double rnorm = b.subtract(a.operate(x)).getNorm();
+        Assert.assertTrue(rnorm <= 1.01 * delta * b.getNorm());
+    }
+
+    /**
+     * Creates a non-symmetric tridiagonal matrix arising from
+     * the discretization of a convection-diffusion equation, with badly
+     * scaled columns.
+     */
+    static CompressedRowRealMatrix createConvectionDiffusion(final int n) {
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < n; ++i) {
+            builder.add(i, i, 2.5 * columnScale(i));
+            if (i > 0) {
+                builder.add(i, i - 1, -1.6 * columnScale(i - 1));
+            }
+            if (i < n - 1) {
+                builder.add(i, i + 1, -0.4 * columnScale(i + 1));
+            }
+        }
+        return builder.buildCompressedRow();
+    }
+
+    private static double columnScale(final int j) {
+        return 1 + (j % 7) * 10;
+    }
+
+    static RealVector createRightHandSide(final int n) {
+        final RealVector b = new ArrayRealVector(n);
+        for (int i = 0; i < n; ++i) {
+            b.setEntry(i, 1.0 + (i % 3));
+        }
+        return b;
+    }
+
+}
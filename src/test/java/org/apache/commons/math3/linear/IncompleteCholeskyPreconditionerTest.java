@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncompleteCholeskyPreconditionerTest {
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new IncompleteCholeskyPreconditioner(new Array2DRowRealMatrix(3, 2));
+    }
+
+    @Test(expected = NonPositiveDefiniteMatrixException.class)
+    public void testNotPositiveDefinite() {
+        new IncompleteCholeskyPreconditioner(new Array2DRowRealMatrix(new double[][] {
+            { 1, 2 }, { 2, 1 }
+        }));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        final IncompleteCholeskyPreconditioner m =
+            new IncompleteCholeskyPreconditioner(createLaplacian(4));
+        m.operate(new double[16], new double[15]);
+    }
+
+    @Test
+    public void testExactOnDenseMatrix() {
+        // without any zero, the incomplete factorization is the Cholesky factorization
+        final RandomGenerator random = new Well1024a(0x4a3c2ef6a10b5d7bl);
+        final int n = 20;
+        final RealMatrix g = BlockQRDecompositionTest.createRandomMatrix(random, n, n);
+        final RealMatrix a = g.multiply(g.transpose()).add(MatrixUtils.createRealIdentityMatrix(n));
+        final IncompleteCholeskyPreconditioner m = new IncompleteCholeskyPreconditioner(a);
+        Assert.assertEquals(n * (n + 1) / 2, m.getNonZeroCount());
+        final RealMatrix inverse = new CholeskyDecomposition(a).getSolver().getInverse();
+        for (int j = 0; j < n; ++j) {
+            TestUtils.assertEquals(inverse.getColumn(j),
+                                   m.operate(unit(n, j)).toArray(),
+                                   1.0e-10);
+        }
+    }
+
+    @Test
+    public void testExactOnTridiagonalMatrix() {
+        // there is no fill-in in the factorization of a tridiagonal matrix
+        final int n = 100;
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < n; ++i) {
+            builder.add(i, i, 4 + i % 3);
+            if (i > 0) {
+                builder.add(i, i - 1, -1.5);
+                builder.add(i - 1, i, -1.5);
+            }
+        }
+        final CompressedRowRealMatrix a = builder.buildCompressedRow();
+        final IncompleteCholeskyPreconditioner m = new IncompleteCholeskyPreconditioner(a);
+        Assert.assertEquals(2 * n - 1, m.getNonZeroCount());
+        final RealVector x = GMRESTest.createRightHandSide(n);
+        TestUtils.assertEquals(x.toArray(), m.operate(a.operate(x)).toArray(), 1.0e-12);
+    }
+
+    @Test
+    public void testOnlyLowerPartUsed() {
+        final CompressedRowRealMatrix a = createLaplacian(5);
+        final RealMatrix lower = a.copy();
+        for (int i = 0; i < lower.getRowDimension(); ++i) {
+            for (int j = i + 1; j < lower.getColumnDimension(); ++j) {
+                lower.setEntry(i, j, 0);
+            }
+        }
+        final RealVector x = GMRESTest.createRightHandSide(25);
+        TestUtils.assertEquals(new IncompleteCholeskyPreconditioner(a).operate(x).toArray(),
+                               new IncompleteCholeskyPreconditioner(lower).operate(x).toArray(),
+                               0.0);
+    }
+
+    @Test
+    public void testInPlaceOperate() {
+        final IncompleteCholeskyPreconditioner m =
+            new IncompleteCholeskyPreconditioner(createLaplacian(10));
+        final double[] x = GMRESTest.createRightHandSide(100).toArray();
+        final double[] y = new double[100];
+        m.operate(x, y);
+        TestUtils.assertEquals(m.operate(new ArrayRealVector(x)).toArray(), y, 0.0);
+        m.operate(x, x);
+        TestUtils.assertEquals(y, x, 0.0);
+    }
+
+    @Test
+    public void testPreconditionedConjugateGradient() {
+        final int k = 30;
+        final CompressedRowRealMatrix a = createLaplacian(k);
+        final RealVector b = GMRESTest.createRightHandSide(k * k);
+
+        final ConjugateGradient cg = new ConjugateGradient(10000, 1.0e-10, true);
+        cg.solve(a, b);
+        final int plain = cg.getIterationManager().getIterations();
+
+        final IncompleteCholeskyPreconditioner m = new IncompleteCholeskyPreconditioner(a);
+        final ConjugateGradient pcg = new ConjugateGradient(10000, 1.0e-10, true);
+        final RealVector x = pcg.solve(a, m, b);
+        GMRESTest.checkSolution(a, b, x, 1.0e-10);
+        Assert.assertTrue(pcg.getIterationManager().getIterations() < plain / 2);
+    }
+
+    private static RealVector unit(final int n, final int j) {
+        final RealVector e = new ArrayRealVector(n);
+        e.setEntry(j, 1);
+        return e;
+    }
+
+    /**
+     * Creates the 5-point discretization of the Laplacian on a k &times; k grid.
+     */
+    static CompressedRowRealMatrix createLaplacian(final int k) {
+        final int n = k * k;
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < k; ++i) {
+            for (int j = 0; j < k; ++j) {
+                final int row = i * k + j;
+                builder.add(row, row, 4);
+                if (i > 0) {
+                    builder.add(row, row - k, -1);
+                }
+                if (i < k - 1) {
+                    builder.add(row, row + k, -1);
+                }
+                if (j > 0) {
+                    builder.add(row, row - 1, -1);
+                }
+                if (j < k - 1) {
+                    builder.add(row, row + 1, -1);
+                }
+            }
+        }
+        return builder.buildCompressedRow();
+    }
+
+}
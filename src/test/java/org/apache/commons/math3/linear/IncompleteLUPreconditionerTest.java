@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncompleteLUPreconditionerTest {
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new IncompleteLUPreconditioner(new Array2DRowRealMatrix(3, 2));
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testZeroPivot() {
+        new IncompleteLUPreconditioner(new Array2DRowRealMatrix(new double[][] {
+            { 0, 1 }, { 1, 0 }
+        }));
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeFill() {
+        new IncompleteLUPreconditioner(GMRESTest.createConvectionDiffusion(10), -1, 1.0e-3);
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeDropTolerance() {
+        new IncompleteLUPreconditioner(GMRESTest.createConvectionDiffusion(10), 5, -1.0e-3);
+    }
+
+    @Test
+    public void testExactOnTridiagonalMatrix() {
+        // there is no fill-in in the factorization of a tridiagonal matrix
+        final CompressedRowRealMatrix a = GMRESTest.createConvectionDiffusion(100);
+        final RealVector x = GMRESTest.createRightHandSide(100);
+        final IncompleteLUPreconditioner ilu0 = new IncompleteLUPreconditioner(a);
+        Assert.assertEquals(3 * 100 - 2, ilu0.getNonZeroCount());
+        TestUtils.assertEquals(x.toArray(), ilu0.operate(a.operate(x)).toArray(), 1.0e-12);
+        final IncompleteLUPreconditioner ilut = new IncompleteLUPreconditioner(a, 1, 0.0);
+        Assert.assertEquals(3 * 100 - 2, ilut.getNonZeroCount());
+        TestUtils.assertEquals(x.toArray(), ilut.operate(a.operate(x)).toArray(), 1.0e-12);
+    }
+
+    @Test
+    public void testExactOnDenseMatrix() {
+        // without any zero, both variants compute the LU decomposition
+        final RandomGenerator random = new Well1024a(0x7b1e5a29c3d84f60l);
+        final int n = 20;
+        final RealMatrix a = BlockQRDecompositionTest.createRandomMatrix(random, n, n).
+                             add(MatrixUtils.createRealIdentityMatrix(n).scalarMultiply(n));
+        final RealMatrix inverse = new LUDecomposition(a).getSolver().getInverse();
+        final IncompleteLUPreconditioner ilu0 = new IncompleteLUPreconditioner(a);
+        final IncompleteLUPreconditioner ilut = new IncompleteLUPreconditioner(a, n, 0.0);
+        Assert.assertEquals(n * n, ilu0.getNonZeroCount());
+        Assert.assertEquals(n * n, ilut.getNonZeroCount());
+        for (int j = 0; j < n; ++j) {
+            final RealVector e = new ArrayRealVector(n);
+            e.setEntry(j, 1);
+            TestUtils.assertEquals(inverse.getColumn(j), ilu0.operate(e).toArray(), 1.0e-12);
+            TestUtils.assertEquals(inverse.getColumn(j), ilut.operate(e).toArray(), 1.0e-12);
+        }
+    }
+
+    @Test
+    public void testExactWithFillIn() {
+        // random sparsity pattern: rows of L get fill-in at arbitrary columns,
+        // which must still be eliminated in increasing column order
+        final RandomGenerator random = new Well1024a(0x2c94f1e07ab35d68l);
+        final int n = 60;
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < n; ++i) {
+            builder.add(i, i, n);
+            for (int k = 0; k < 3; ++k) {
+                builder.add(i, random.nextInt(n), random.nextDouble() - 0.5);
+            }
+        }
+        final CompressedRowRealMatrix a = builder.buildCompressedRow();
+        final IncompleteLUPreconditioner ilut = new IncompleteLUPreconditioner(a, n, 0.0);
+        final RealVector x = GMRESTest.createRightHandSide(n);
+        TestUtils.assertEquals(x.toArray(), ilut.operate(a.operate(x)).toArray(), 1.0e-12);
+    }
+
+    @Test
+    public void testFillLimit() {
+        final CompressedRowRealMatrix a = create2DConvectionDiffusion(20);
+        final IncompleteLUPreconditioner ilu0 = new IncompleteLUPreconditioner(a);
+        Assert.assertEquals(a.getNonZeroCount(), ilu0.getNonZeroCount());
+        for (final int fill : new int[] { 0, 2, 5, 10 }) {
+            final IncompleteLUPreconditioner ilut = new IncompleteLUPreconditioner(a, fill, 1.0e-4);
+            Assert.assertTrue(ilut.getNonZeroCount() <= (2 * fill + 1) * a.getRowDimension());
+        }
+        // exact factorization: fill-in is limited to the band of half width 20
+        final IncompleteLUPreconditioner full = new IncompleteLUPreconditioner(a, 20, 0.0);
+        final RealVector x = GMRESTest.createRightHandSide(400);
+        TestUtils.assertEquals(x.toArray(), full.operate(a.operate(x)).toArray(), 1.0e-10);
+    }
+
+    @Test
+    public void testInPlaceOperate() {
+        final IncompleteLUPreconditioner m =
+            new IncompleteLUPreconditioner(create2DConvectionDiffusion(10), 3, 1.0e-3);
+        final double[] x = GMRESTest.createRightHandSide(100).toArray();
+        final double[] y = new double[100];
+        m.operate(x, y);
+        TestUtils.assertEquals(m.operate(new ArrayRealVector(x)).toArray(), y, 0.0);
+        m.operate(x, x);
+        TestUtils.assertEquals(y, x, 0.0);
+    }
+
+    @Test
+    public void testPreconditionedGMRES() {
+        final CompressedRowRealMatrix a = create2DConvectionDiffusion(30);
+        final RealVector b = GMRESTest.createRightHandSide(900);
+
+        final GMRES gmres = new GMRES(100000, 1.0e-10, 30);
+        gmres.solve(a, b);
+        final int plain = gmres.getIterationManager().getIterations();
+
+        int previous = plain;
+        for (final IncompleteLUPreconditioner m :
+             new IncompleteLUPreconditioner[] {
+                 new IncompleteLUPreconditioner(a),
+                 new IncompleteLUPreconditioner(a, 10, 1.0e-4)
+             }) {
+            final GMRES solver = new GMRES(100000, 1.0e-10, 30);
+            final RealVector x = solver.solve(a, m, b);
+            GMRESTest.checkSolution(a, b, x, 1.0e-10);
+            final int iterations = solver.getIterationManager().getIterations();
+            Assert.assertTrue(iterations < previous);
+            previous = iterations;
+        }
+    }
+
+    @Test
+    public void testPreconditionedBiCGSTAB() {
+        final CompressedRowRealMatrix a = create2DConvectionDiffusion(30);
+        final RealVector b = GMRESTest.createRightHandSide(900);
+
+        final BiCGSTAB bicgstab = new BiCGSTAB(100000, 1.0e-10);
+        bicgstab.solve(a, b);
+        final int plain = bicgstab.getIterationManager().getIterations();
+
+        final BiCGSTAB solver = new BiCGSTAB(100000, 1.0e-10);
+        final RealVector x = solver.solve(a, new IncompleteLUPreconditioner(a), b);
+        GMRESTest.checkSolution(a, b, x, 1.0e-10);
+        Assert.assertTrue(solver.getIterationManager().getIterations() < plain / 2);
+    }
+
+    /**
+     * Creates the upwind discretization of a convection-diffusion
+     * equation on a k &times; k grid.
+     */
+    private static CompressedRowRealMatrix create2DConvectionDiffusion(final int k) {
+        final int n = k * k;
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < k; ++i) {
+            for (int j = 0; j < k; ++j) {
+                final int row = i * k + j;
+                builder.add(row, row, 4.8);
+                if (i > 0) {
+                    builder.add(row, row - k, -1.5);
+                }
+                if (i < k - 1) {
+                    builder.add(row, row + k, -0.5);
+                }
+                if (j > 0) {
+                    builder.add(row, row - 1, -1.3);
+                }
+                if (j < k - 1) {
+                    builder.add(row, row + 1, -0.7);
+                }
+            }
+        }
+        return builder.buildCompressedRow();
+    }
+
+}
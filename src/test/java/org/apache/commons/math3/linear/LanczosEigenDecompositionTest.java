@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LanczosEigenDecompositionTest {
+
+    /** test against full decomposition of a dense matrix */
+    @Test
+    public void testDenseMatrix() {
+        RandomGenerator random = new Well1024a(0x7d3b92e04a6c15f8l);
+        RealMatrix r = BlockQRDecompositionTest.createRandomMatrix(random, 150, 150);
+        Array2DRowRealMatrix a = new Array2DRowRealMatrix(r.add(r.transpose()).getData(), false);
+        double[] reference = new EigenDecomposition(a).getRealEigenvalues();
+        Arrays.sort(reference);
+
+        LanczosEigenDecomposition largest = new LanczosEigenDecomposition(a, 5, true);
+        LanczosEigenDecomposition smallest = new LanczosEigenDecomposition(a, 5, false);
+        for (int i = 0; i < 5; ++i) {
+            Assert.assertEquals(reference[reference.length - 1 - i], largest.getRealEigenvalue(i), 1.0e-9);
+            Assert.assertEquals(reference[i], smallest.getRealEigenvalue(i), 1.0e-9);
+            checkEigenpair(a, largest.getRealEigenvalue(i), largest.getEigenvector(i), 1.0e-8);
+            checkEigenpair(a, smallest.getRealEigenvalue(i), smallest.getEigenvector(i), 1.0e-8);
+        }
+    }
+
+    /** test a matrix-free operator with known spectrum */
+    @Test
+    public void testMatrixFreeLaplacian() {
+        final int n = 300;
+        RealLinearOperator laplacian = new RealLinearOperator() {
+            @Override
+            public int getRowDimension() {
+                return n;
+            }
+            @Override
+            public int getColumnDimension() {
+                return n;
+            }
+            @Override
+            public RealVector operate(RealVector x) {
+                final RealVector y = new ArrayRealVector(n);
+                for (int i = 0; i < n; ++i) {
+                    double yi = 2 * x.getEntry(i);
+                    if (i > 0) {
+                        yi -= x.getEntry(i - 1);
+                    }
+                    if (i < n - 1) {
+                        yi -= x.getEntry(i + 1);
+                    }
+                    y.setEntry(i, yi);
+                }
+                return y;
+            }
+        };
+
+        LanczosEigenDecomposition smallest =
+            new LanczosEigenDecomposition(laplacian, 3, false, 40, 1.0e-10, 1000, null);
+        LanczosEigenDecomposition largest =
+            new LanczosEigenDecomposition(laplacian, 3, true, 40, 1.0e-10, 1000, null);
+        for (int k = 1; k <= 3; ++k) {
+            Assert.assertEquals(2 - 2 * FastMath.cos(k * FastMath.PI / (n + 1)),
+                                smallest.getRealEigenvalue(k - 1), 1.0e-10);
+            Assert.assertEquals(2 - 2 * FastMath.cos((n + 1 - k) * FastMath.PI / (n + 1)),
+                                largest.getRealEigenvalue(k - 1), 1.0e-10);
+        }
+        Assert.assertTrue(smallest.getRestarts() > 0);
+        Assert.assertTrue(smallest.getOperatorApplications() > 40);
+    }
+
+    /** test a sparse matrix with repeated eigenvalues */
+    @Test
+    public void testSparseDiagonal() {
+        CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(1000, 1000);
+        for (int i = 0; i < 1000; ++i) {
+            builder.add(i, i, (i < 3) ? 10.0 : (i % 5));
+        }
+        CompressedRowRealMatrix a = builder.buildCompressedRow();
+        LanczosEigenDecomposition largest = new LanczosEigenDecomposition(a, 3, true);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(10.0, largest.getRealEigenvalue(i), 1.0e-10);
+            checkEigenpair(a, 10.0, largest.getEigenvector(i), 1.0e-8);
+        }
+        // the eigenvectors of the repeated eigenvalue are orthogonal
+        Assert.assertEquals(0.0, largest.getEigenvector(0).dotProduct(largest.getEigenvector(1)), 1.0e-10);
+        Assert.assertEquals(0.0, largest.getEigenvector(1).dotProduct(largest.getEigenvector(2)), 1.0e-10);
+    }
+
+    /** test a small operator where the Krylov basis spans the whole space */
+    @Test
+    public void testFullBasis() {
+        DiagonalMatrix a = new DiagonalMatrix(new double[] { 4, 1, 3, 2 });
+        LanczosEigenDecomposition ed = new LanczosEigenDecomposition(a, 4, false);
+        Assert.assertArrayEquals(new double[] { 1, 2, 3, 4 }, ed.getRealEigenvalues(), 1.0e-14);
+    }
+
+    @Test(expected=NonSquareOperatorException.class)
+    public void testNonSquare() {
+        new LanczosEigenDecomposition(new Array2DRowRealMatrix(3, 4), 1, true);
+    }
+
+    @Test(expected=NumberIsTooLargeException.class)
+    public void testTooManyEigenpairs() {
+        new LanczosEigenDecomposition(new Array2DRowRealMatrix(3, 3), 4, true);
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testBasisTooSmall() {
+        new LanczosEigenDecomposition(new Array2DRowRealMatrix(30, 30), 4, true, 4, 1.0e-10, 10, null);
+    }
+
+    private void checkEigenpair(RealLinearOperator a, double lambda, RealVector v, double tolerance) {
+        Assert.assertEquals(1.0, v.getNorm(), 1.0e-12);
+        Assert.assertEquals(0.0, a.operate(v).subtract(v.mapMultiply(lambda)).getNorm(), tolerance);
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedBlockRealMatrixTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("mapped-matrix", ".bin");
+        file.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testBlocksLayout() throws IOException {
+        final RandomGenerator random = new Well1024a(0x3f6a1c8e07b2d945l);
+        final RealMatrix reference = BlockQRDecompositionTest.createRandomMatrix(random, 113, 61);
+        final MappedBlockRealMatrix m = create(reference);
+        Assert.assertEquals(reference, m);
+        Assert.assertEquals(8l * 113 * 61, file.length());
+        m.force();
+
+        // the file contains the blocks one after the other
+        final double[][] blocks = BlockRealMatrix.toBlocksLayout(reference.getData());
+        final ByteBuffer bytes = ByteBuffer.allocate((int) file.length()).order(ByteOrder.LITTLE_ENDIAN);
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.getChannel().read(bytes, 0);
+        } finally {
+            raf.close();
+        }
+        bytes.flip();
+        for (final double[] block : blocks) {
+            for (final double entry : block) {
+                Assert.assertEquals(entry, bytes.getDouble(), 0);
+            }
+        }
+        Assert.assertFalse(bytes.hasRemaining());
+
+        // the file can be mapped again
+        final MappedBlockRealMatrix readOnly =
+            new MappedBlockRealMatrix(file, 113, 61, FileChannel.MapMode.READ_ONLY);
+        Assert.assertEquals(reference, readOnly);
+        Assert.assertEquals(reference, readOnly.copy());
+        Assert.assertTrue(readOnly.copy() instanceof BlockRealMatrix);
+    }
+
+    @Test
+    public void testEntries() throws IOException {
+        final MappedBlockRealMatrix m = new MappedBlockRealMatrix(file, 60, 55, FileChannel.MapMode.READ_WRITE);
+        m.setEntry(57, 53, 2.0);
+        m.addToEntry(57, 53, 1.5);
+        m.multiplyEntry(57, 53, 2.0);
+        m.setEntry(3, 54, -1.0);
+        Assert.assertEquals(7.0, m.getEntry(57, 53), 0);
+        Assert.assertEquals(-1.0, m.getEntry(3, 54), 0);
+        Assert.assertEquals(0.0, m.getEntry(57, 52), 0);
+    }
+
+    @Test
+    public void testPrivateMapping() throws IOException {
+        final MappedBlockRealMatrix m = new MappedBlockRealMatrix(file, 10, 10, FileChannel.MapMode.READ_WRITE);
+        m.setEntry(4, 5, 3.0);
+        final MappedBlockRealMatrix p = new MappedBlockRealMatrix(file, 10, 10, FileChannel.MapMode.PRIVATE);
+        Assert.assertEquals(3.0, p.getEntry(4, 5), 0);
+        p.setEntry(4, 5, 6.0);
+        Assert.assertEquals(6.0, p.getEntry(4, 5), 0);
+        Assert.assertEquals(3.0, m.getEntry(4, 5), 0);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testFileTooSmall() throws IOException {
+        new MappedBlockRealMatrix(file, 10, 10, FileChannel.MapMode.READ_ONLY);
+    }
+
+    @Test
+    public void testOperate() throws IOException {
+        final RandomGenerator random = new Well1024a(0x8b05e3d27c4f1a96l);
+        final RealMatrix reference = BlockQRDecompositionTest.createRandomMatrix(random, 130, 70);
+        final MappedBlockRealMatrix m = create(reference);
+        final double[] v = new double[70];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = random.nextDouble();
+        }
+        final double[] w = new double[130];
+        for (int i = 0; i < w.length; ++i) {
+            w[i] = random.nextDouble();
+        }
+        TestUtils.assertEquals(reference.operate(v), m.operate(v), 1.0e-13);
+        TestUtils.assertEquals(reference.preMultiply(w), m.preMultiply(w), 1.0e-13);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() throws IOException {
+        new MappedBlockRealMatrix(file, 10, 8, FileChannel.MapMode.READ_WRITE).operate(new double[10]);
+    }
+
+    @Test
+    public void testTransposeMultiply() throws IOException {
+        final RandomGenerator random = new Well1024a(0xd41e7a2c96b53f08l);
+        final RealMatrix reference = BlockQRDecompositionTest.createRandomMatrix(random, 170, 60);
+        final MappedBlockRealMatrix m = create(reference);
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 170, 3);
+        TestUtils.assertEquals("", reference.transpose().multiply(b), m.transposeMultiply(b), 1.0e-12);
+
+        final RealMatrix gram = m.transposeMultiply(m);
+        Assert.assertTrue(gram instanceof SymmetricRealMatrix);
+        TestUtils.assertEquals("", reference.transpose().multiply(reference), gram, 1.0e-12);
+    }
+
+    @Test
+    public void testNormalEquations() throws IOException {
+        final RandomGenerator random = new Well1024a(0x6c2f9e04b8a7d153l);
+        final RealMatrix reference = BlockQRDecompositionTest.createRandomMatrix(random, 200, 8);
+        final MappedBlockRealMatrix a = create(reference);
+        final double[] b = new double[200];
+        for (int i = 0; i < b.length; ++i) {
+            b[i] = random.nextDouble();
+        }
+        final RealVector expected = new QRDecomposition(reference).getSolver().solve(new ArrayRealVector(b));
+        final RealVector x = new CholeskyDecomposition(a.transposeMultiply(a)).getSolver().
+                             solve(new ArrayRealVector(a.preMultiply(b)));
+        TestUtils.assertEquals(expected.toArray(), x.toArray(), 1.0e-10);
+    }
+
+    @Test
+    public void testWalk() throws IOException {
+        final MappedBlockRealMatrix m = new MappedBlockRealMatrix(file, 120, 57, FileChannel.MapMode.READ_WRITE);
+        m.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(int row, int column, double value) {
+                return row * 1000 + column;
+            }
+        });
+        m.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(int row, int column, double value) {
+                return -value;
+            }
+        }, 50, 110, 2, 53);
+        for (int i = 0; i < 120; ++i) {
+            for (int j = 0; j < 57; ++j) {
+                final boolean inside = i >= 50 && i <= 110 && j >= 2 && j <= 53;
+                Assert.assertEquals((inside ? -1 : 1) * (i * 1000 + j), m.getEntry(i, j), 0);
+            }
+        }
+
+        final double sum = m.walkInOptimizedOrder(new SumVisitor());
+        Assert.assertEquals(new SumVisitor().sum(m), sum, 0);
+        Assert.assertEquals(new SumVisitor().sum(m.getSubMatrix(10, 100, 5, 56)),
+                            m.walkInOptimizedOrder(new SumVisitor(), 10, 100, 5, 56), 0);
+    }
+
+    private MappedBlockRealMatrix create(final RealMatrix reference) throws IOException {
+        final MappedBlockRealMatrix m =
+            new MappedBlockRealMatrix(file, reference.getRowDimension(), reference.getColumnDimension(),
+                                      FileChannel.MapMode.READ_WRITE);
+        m.setSubMatrix(reference.getData(), 0, 0);
+        return m;
+    }
+
+    private static class SumVisitor extends DefaultRealMatrixPreservingVisitor {
+        private double sum;
+        @Override
+        public void start(int rows, int columns, int startRow, int endRow, int startColumn, int endColumn) {
+            sum = 0;
+        }
+        @Override
+        public void visit(int row, int column, double value) {
+            sum += value;
+        }
+        @Override
+        public double end() {
+            return sum;
+        }
+        public double sum(final RealMatrix m) {
+            double s = 0;
+            for (int i = 0; i < m.getRowDimension(); ++i) {
+                for (int j = 0; j < m.getColumnDimension(); ++j) {
+                    s += m.getEntry(i, j);
+                }
+            }
+            return s;
+        }
+    }
+
+}
@@ -18,7 +18,10 @@
 package org.apache.commons.math3.linear;
 
 import java.util.Random;
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.linear.SingularMatrixException;
+import org.apache.commons.math3.util.FastMath;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -248,6 +251,111 @@ public class QRDecompositionTest {
         qr.getSolver().getInverse();
     }
 
+    @Test
+    public void testUpdate() {
+        Random r = new Random(643895747384642l);
+        RealMatrix a = createTestMatrix(r, 9, 4);
+        QRDecomposition qr = new QRDecomposition(a);
+        DecompositionSolver solver = qr.getSolver();
+
+        RealMatrix appended = a;
+        for (int k = 0; k < 3; ++k) {
+            double[] v = createTestMatrix(r, 1, 4).getRow(0);
+            qr.update(v);
+            RealMatrix next = MatrixUtils.createRealMatrix(appended.getRowDimension() + 1, 4);
+            next.setSubMatrix(appended.getData(), 0, 0);
+            next.setRow(appended.getRowDimension(), v);
+            appended = next;
+        }
+
+        checkUpdatedDecomposition(appended, qr);
+        Assert.assertNull(qr.getH());
+
+        // the solver obtained before the updates solves the updated least squares problem
+        RealVector b = new ArrayRealVector(createTestMatrix(r, 1, 12).getRow(0));
+        RealVector expected = new QRDecomposition(appended).getSolver().solve(b);
+        Assert.assertEquals(0, solver.solve(b).subtract(expected).getNorm(), normTolerance);
+        RealMatrix bm = createTestMatrix(r, 12, 3);
+        RealMatrix expectedM = new QRDecomposition(appended).getSolver().solve(bm);
+        Assert.assertEquals(0, solver.solve(bm).subtract(expectedM).getNorm(), normTolerance);
+    }
+
+    @Test
+    public void testUpdateWide() {
+        Random r = new Random(2093482340982l);
+        RealMatrix a = createTestMatrix(r, 2, 5);
+        QRDecomposition qr = new QRDecomposition(a);
+        double[] v = createTestMatrix(r, 1, 5).getRow(0);
+        qr.update(v);
+        RealMatrix appended = MatrixUtils.createRealMatrix(3, 5);
+        appended.setSubMatrix(a.getData(), 0, 0);
+        appended.setRow(2, v);
+        checkUpdatedDecomposition(appended, qr);
+    }
+
+    @Test
+    public void testDowndate() {
+        Random r = new Random(9827346592834l);
+        RealMatrix a = createTestMatrix(r, 10, 4);
+        QRDecomposition qr = new QRDecomposition(a);
+        DecompositionSolver solver = qr.getSolver();
+
+        // remove rows 3 then 0 then the last one
+        int[] removed = { 3, 0, 7 };
+        RealMatrix remaining = a;
+        for (int index : removed) {
+            qr.downdate(index);
+            RealMatrix next = MatrixUtils.createRealMatrix(remaining.getRowDimension() - 1, 4);
+            for (int i = 0, j = 0; i < remaining.getRowDimension(); ++i) {
+                if (i != index) {
+                    next.setRow(j++, remaining.getRow(i));
+                }
+            }
+            remaining = next;
+        }
+
+        checkUpdatedDecomposition(remaining, qr);
+        RealVector b = new ArrayRealVector(createTestMatrix(r, 1, 7).getRow(0));
+        RealVector expected = new QRDecomposition(remaining).getSolver().solve(b);
+        Assert.assertEquals(0, solver.solve(b).subtract(expected).getNorm(), normTolerance);
+
+        // a sliding window: append a row and remove the oldest one
+        double[] v = createTestMatrix(r, 1, 4).getRow(0);
+        qr.update(v);
+        qr.downdate(0);
+        RealMatrix window = MatrixUtils.createRealMatrix(7, 4);
+        window.setSubMatrix(remaining.getSubMatrix(1, 6, 0, 3).getData(), 0, 0);
+        window.setRow(6, v);
+        checkUpdatedDecomposition(window, qr);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testDowndateWrongIndex() {
+        new QRDecomposition(MatrixUtils.createRealMatrix(testData4x3)).downdate(4);
+    }
+
+    @Test(expected=NoDataException.class)
+    public void testDowndateLastRow() {
+        QRDecomposition qr = new QRDecomposition(MatrixUtils.createRealMatrix(new double[][] { { 1, 2 } }));
+        qr.downdate(0);
+    }
+
+    private void checkUpdatedDecomposition(RealMatrix a, QRDecomposition qr) {
+        RealMatrix q = qr.getQ();
+        RealMatrix rm = qr.getR();
+        Assert.assertEquals(a.getRowDimension(), q.getRowDimension());
+        Assert.assertEquals(a.getRowDimension(), rm.getRowDimension());
+        Assert.assertEquals(a.getColumnDimension(), rm.getColumnDimension());
+        Assert.assertEquals(0, q.multiply(rm).subtract(a).getNorm(), normTolerance);
+        RealMatrix id = MatrixUtils.createRealIdentityMatrix(q.getRowDimension());
+        Assert.assertEquals(0, q.multiply(qr.getQT()).subtract(id).getNorm(), normTolerance);
+        for (int i = 0; i < rm.getRowDimension(); ++i) {
+            for (int j = 0; j < FastMath.min(i, rm.getColumnDimension()); ++j) {
+                Assert.assertEquals(0, rm.getEntry(i, j), 0);
+            }
+        }
+    }
+
     private RealMatrix createTestMatrix(final Random r, final int rows, final int columns) {
         RealMatrix m = MatrixUtils.createRealMatrix(rows, columns);
         m.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor(){
@@ -230,4 +230,22 @@ public class RRQRDecompositionTest {
         Assert.assertEquals(2, qr.getRank(1.0e-16));
     }
 
+
+    @Test
+    public void testUpdate() {
+        Random r = new Random(4394837923l);
+        RealMatrix a = createTestMatrix(r, 6, 4);
+        RRQRDecomposition qr = new RRQRDecomposition(a);
+        double[] v = createTestMatrix(r, 1, 4).getRow(0);
+        qr.update(v);
+        RealMatrix appended = MatrixUtils.createRealMatrix(7, 4);
+        appended.setSubMatrix(a.getData(), 0, 0);
+        appended.setRow(6, v);
+        RealMatrix ap = appended.multiply(qr.getP());
+        Assert.assertEquals(0, qr.getQ().multiply(qr.getR()).subtract(ap).getNorm(), 1.0e-13);
+
+        RealVector b = new ArrayRealVector(createTestMatrix(r, 1, 7).getRow(0));
+        RealVector expected = new QRDecomposition(appended).getSolver().solve(b);
+        Assert.assertEquals(0, qr.getSolver().solve(b).subtract(expected).getNorm(), 1.0e-13);
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RandomizedSingularValueDecompositionTest {
+
+    /** test a matrix with exact low rank */
+    @Test
+    public void testExactLowRank() {
+        RandomGenerator random = new Well1024a(0x2f8c61d4a0b37e95l);
+        RealMatrix a = createLowRank(random, 2500, 80, 6, 0.0);
+        double[] reference = new SingularValueDecomposition(a).getSingularValues();
+
+        RandomizedSingularValueDecomposition svd =
+            new RandomizedSingularValueDecomposition((AbstractRealMatrix) a, 6, random);
+        double[] s = svd.getSingularValues();
+        Assert.assertEquals(6, s.length);
+        for (int i = 0; i < s.length; ++i) {
+            Assert.assertEquals(reference[i], s[i], 1.0e-10 * reference[0]);
+        }
+        checkOrthonormalColumns(svd.getU(), 1.0e-12);
+        checkOrthonormalColumns(svd.getV(), 1.0e-12);
+        RealMatrix rebuilt = svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose());
+        TestUtils.assertEquals("rebuilt", a, rebuilt, 1.0e-10 * reference[0]);
+    }
+
+    /** test a noisy matrix with power iterations */
+    @Test
+    public void testPowerIterations() {
+        RandomGenerator random = new Well1024a(0x94e2b07c3d15af68l);
+        RealMatrix a = createLowRank(random, 400, 120, 10, 1.0e-3);
+        double[] reference = new SingularValueDecomposition(a).getSingularValues();
+        RandomizedSingularValueDecomposition svd =
+            new RandomizedSingularValueDecomposition((AbstractRealMatrix) a, 8, 8, 3, random, null);
+        double[] s = svd.getSingularValues();
+        for (int i = 0; i < s.length; ++i) {
+            Assert.assertEquals(reference[i], s[i], 1.0e-6 * reference[0]);
+        }
+    }
+
+    /** test sparse matrices and matrix-free operators */
+    @Test
+    public void testOperators() {
+        RandomGenerator random = new Well1024a(0x5b0d7e92f1c4a836l);
+        final RealMatrix dense = CompressedRowRealMatrixTest.createSparseDense(random, 200, 60, 0.05);
+        for (int i = 0; i < 4; ++i) {
+            // make a few columns dominant
+            dense.setColumnVector(i, dense.getColumnVector(i).mapMultiply(100.0));
+        }
+        double[] reference = new SingularValueDecomposition(dense).getSingularValues();
+
+        RealLinearOperator matrixFree = new RealLinearOperator() {
+            @Override
+            public int getRowDimension() {
+                return dense.getRowDimension();
+            }
+            @Override
+            public int getColumnDimension() {
+                return dense.getColumnDimension();
+            }
+            @Override
+            public RealVector operate(RealVector x) {
+                return dense.operate(x);
+            }
+            @Override
+            public RealVector operateTranspose(RealVector x) {
+                return dense.preMultiply(x);
+            }
+        };
+
+        RealLinearOperator[] operators = {
+            new CompressedRowRealMatrix(dense), new CompressedColumnRealMatrix(dense), matrixFree
+        };
+        for (RealLinearOperator operator : operators) {
+            double[] s = new RandomizedSingularValueDecomposition(operator, 4, 20, 2, random, null).getSingularValues();
+            for (int i = 0; i < s.length; ++i) {
+                Assert.assertEquals(reference[i], s[i], 1.0e-8 * reference[0]);
+            }
+        }
+    }
+
+    /** test that the parallel decomposition gives exactly the same result */
+    @Test
+    public void testParallel() {
+        RandomGenerator random = new Well1024a(0xd61a4f3be8027c59l);
+        AbstractRealMatrix a = (AbstractRealMatrix) createLowRank(random, 5000, 40, 5, 1.0e-2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            RandomizedSingularValueDecomposition serial =
+                new RandomizedSingularValueDecomposition(a, 5, 5, 1, new Well1024a(0x3l), null);
+            RandomizedSingularValueDecomposition parallel =
+                new RandomizedSingularValueDecomposition(a, 5, 5, 1, new Well1024a(0x3l), executor);
+            Assert.assertArrayEquals(serial.getSingularValues(), parallel.getSingularValues(), 0.0);
+            Assert.assertEquals(serial.getU(), parallel.getU());
+            Assert.assertEquals(serial.getV(), parallel.getV());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected=NumberIsTooLargeException.class)
+    public void testRankTooLarge() {
+        new RandomizedSingularValueDecomposition(new Array2DRowRealMatrix(10, 4), 5, new Well1024a(0x1l));
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testNullRank() {
+        new RandomizedSingularValueDecomposition(new Array2DRowRealMatrix(10, 4), 0, new Well1024a(0x1l));
+    }
+
+    private RealMatrix createLowRank(RandomGenerator random, int m, int n, int rank, double noise) {
+        RealMatrix left  = BlockQRDecompositionTest.createRandomMatrix(random, m, rank);
+        RealMatrix right = BlockQRDecompositionTest.createRandomMatrix(random, rank, n);
+        RealMatrix a = left.multiply(right);
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < n; ++j) {
+                a.addToEntry(i, j, noise * random.nextGaussian());
+            }
+        }
+        return a;
+    }
+
+    private void checkOrthonormalColumns(RealMatrix m, double tolerance) {
+        TestUtils.assertEquals("orthonormality",
+                               MatrixUtils.createRealIdentityMatrix(m.getColumnDimension()),
+                               m.transpose().multiply(m), tolerance);
+    }
+
+}
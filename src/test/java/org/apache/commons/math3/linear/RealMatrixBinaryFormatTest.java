@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.math3.exception.MathParseException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RealMatrixBinaryFormatTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("binary-matrix", ".bin");
+        file.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testBufferRoundTrip() {
+        final RandomGenerator random = new Well1024a(0x5e8a1f63c07d94b2l);
+        final RealMatrix dense = new Array2DRowRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 7, 5).getData());
+        final RealMatrix block = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 60, 110).getData());
+        final RealMatrix diagonal = new DiagonalMatrix(new double[] { 1, 2, 3 });
+        final RealMatrix csr = createSparse(random).buildCompressedRow();
+        final RealMatrix csc = createSparse(random).buildCompressedColumn();
+
+        final long size = RealMatrixBinaryFormat.getSize(dense) + RealMatrixBinaryFormat.getSize(block) +
+                          RealMatrixBinaryFormat.getSize(diagonal) +
+                          RealMatrixBinaryFormat.getSize(csr) + RealMatrixBinaryFormat.getSize(csc);
+        final ByteBuffer buffer = ByteBuffer.allocate((int) size + 3).order(ByteOrder.BIG_ENDIAN);
+        buffer.position(3);
+        RealMatrixBinaryFormat.write(dense, buffer);
+        Assert.assertEquals(3 + RealMatrixBinaryFormat.getSize(dense), buffer.position());
+        RealMatrixBinaryFormat.write(block, buffer);
+        RealMatrixBinaryFormat.write(diagonal, buffer);
+        RealMatrixBinaryFormat.write(csr, buffer);
+        RealMatrixBinaryFormat.write(csc, buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        Assert.assertEquals(RealMatrixBinaryFormat.MAGIC, Integer.reverseBytes(buffer.getInt(3)));
+
+        buffer.position(3);
+        checkRead(dense, Array2DRowRealMatrix.class, RealMatrixBinaryFormat.readMatrix(buffer));
+        checkRead(block, BlockRealMatrix.class, RealMatrixBinaryFormat.readMatrix(buffer));
+        checkRead(diagonal, Array2DRowRealMatrix.class, RealMatrixBinaryFormat.readMatrix(buffer));
+        checkRead(csr, CompressedRowRealMatrix.class, RealMatrixBinaryFormat.readMatrix(buffer));
+        checkRead(csc, CompressedColumnRealMatrix.class, RealMatrixBinaryFormat.readMatrix(buffer));
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testChannelRoundTrip() throws IOException {
+        final RandomGenerator random = new Well1024a(0xa4c2e07f19b6358dl);
+        final RealMatrix block = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 230, 190).getData());
+        final RealMatrix csr = createSparse(random).buildCompressedRow();
+        final RealVector dense = new ArrayRealVector(block.getRow(3));
+        final OpenMapRealVector sparse = new OpenMapRealVector(1000);
+        sparse.setEntry(999, 1.5);
+        sparse.setEntry(12, -2.0);
+        sparse.setEntry(500, 4.0);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final FileChannel channel = raf.getChannel();
+            RealMatrixBinaryFormat.write(block, channel);
+            RealMatrixBinaryFormat.write(sparse, channel);
+            RealMatrixBinaryFormat.write(csr, channel);
+            RealMatrixBinaryFormat.write(dense, channel);
+        } finally {
+            raf.close();
+        }
+        Assert.assertEquals(RealMatrixBinaryFormat.getSize(block) + RealMatrixBinaryFormat.getSize(sparse) +
+                            RealMatrixBinaryFormat.getSize(csr) + RealMatrixBinaryFormat.getSize(dense),
+                            file.length());
+
+        raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            checkRead(block, BlockRealMatrix.class, RealMatrixBinaryFormat.readMatrix(channel));
+            final RealVector readSparse = RealMatrixBinaryFormat.readVector(channel);
+            Assert.assertTrue(readSparse instanceof OpenMapRealVector);
+            Assert.assertEquals(sparse, readSparse);
+            checkRead(csr, CompressedRowRealMatrix.class, RealMatrixBinaryFormat.readMatrix(channel));
+            final RealVector readDense = RealMatrixBinaryFormat.readVector(channel);
+            Assert.assertTrue(readDense instanceof ArrayRealVector);
+            Assert.assertEquals(dense, readDense);
+            Assert.assertEquals(file.length(), channel.position());
+            try {
+                RealMatrixBinaryFormat.readVector(channel);
+                Assert.fail("an exception should have been thrown");
+            } catch (EOFException eofe) {
+                // expected
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        final RandomGenerator random = new Well1024a(0x17f3b8d56e20ac49l);
+        final RealMatrix block = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 120, 75).getData());
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            RealMatrixBinaryFormat.write(block, raf.getChannel());
+        } finally {
+            raf.close();
+        }
+        final MappedBlockRealMatrix mapped = RealMatrixBinaryFormat.map(file, FileChannel.MapMode.READ_ONLY);
+        Assert.assertEquals(block, mapped);
+    }
+
+    @Test(expected = MathParseException.class)
+    public void testMapWrongKind() throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(2, 2), raf.getChannel());
+        } finally {
+            raf.close();
+        }
+        RealMatrixBinaryFormat.map(file, FileChannel.MapMode.READ_ONLY);
+    }
+
+    @Test(expected = MathParseException.class)
+    public void testWrongMagic() {
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(2, 2), buffer);
+        buffer.put(0, (byte) 0);
+        buffer.rewind();
+        RealMatrixBinaryFormat.readMatrix(buffer);
+    }
+
+    @Test(expected = MathParseException.class)
+    public void testVectorAsMatrix() {
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        RealMatrixBinaryFormat.write(new ArrayRealVector(3), buffer);
+        buffer.rewind();
+        RealMatrixBinaryFormat.readMatrix(buffer);
+    }
+
+    @Test
+    public void testInvalidDimensions() {
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(2, 2), buffer);
+        checkCorrupted(buffer, 8, -3, true);
+        checkCorrupted(buffer, 12, 0, true);
+        buffer.clear();
+        RealMatrixBinaryFormat.write(new ArrayRealVector(3), buffer);
+        checkCorrupted(buffer, 8, -1, false);
+        checkCorrupted(buffer, 12, 2, false);
+    }
+
+    @Test
+    public void testTruncated() {
+        // huge dimensions must be detected before allocation
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        RealMatrixBinaryFormat.write(new BlockRealMatrix(2, 2), buffer);
+        checkCorrupted(buffer, 8, Integer.MAX_VALUE, true);
+        buffer.clear();
+        RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(3, 3), buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 8);
+        try {
+            RealMatrixBinaryFormat.readMatrix(buffer);
+            Assert.fail("an exception should have been thrown");
+        } catch (MathParseException mpe) {
+            // expected
+        }
+        buffer.clear();
+        RealMatrixBinaryFormat.write(new ArrayRealVector(3), buffer);
+        checkCorrupted(buffer, 8, 1 << 30, false);
+    }
+
+    @Test
+    public void testTruncatedBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(200);
+        RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(2, 2), buffer);
+        final int size = buffer.position();
+        for (final int length : new int[] { 0, 10, RealMatrixBinaryFormat.HEADER_SIZE - 1, size - 1 }) {
+            final ByteBuffer truncated = ByteBuffer.wrap(buffer.array(), 0, length);
+            try {
+                RealMatrixBinaryFormat.readMatrix(truncated);
+                Assert.fail("an exception should have been thrown");
+            } catch (MathParseException mpe) {
+                // expected
+            }
+        }
+
+        buffer.clear();
+        final RealVector v = new OpenMapRealVector(7);
+        v.setEntry(2, 1.0);
+        v.setEntry(5, 2.0);
+        RealMatrixBinaryFormat.write(v, buffer);
+        for (int length = 0; length < buffer.position(); ++length) {
+            try {
+                RealMatrixBinaryFormat.readVector(ByteBuffer.wrap(buffer.array(), 0, length));
+                Assert.fail("an exception should have been thrown");
+            } catch (MathParseException mpe) {
+                // expected
+            }
+        }
+        Assert.assertEquals(v, RealMatrixBinaryFormat.readVector(ByteBuffer.wrap(buffer.array(), 0, buffer.position())));
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(100).order(ByteOrder.LITTLE_ENDIAN);
+            RealMatrixBinaryFormat.write(new Array2DRowRealMatrix(2, 2), buffer);
+            buffer.putInt(8, 1 << 20);
+            buffer.flip();
+            raf.getChannel().write(buffer);
+            raf.seek(0);
+            RealMatrixBinaryFormat.readMatrix(raf.getChannel());
+            Assert.fail("an exception should have been thrown");
+        } catch (MathParseException mpe) {
+            // expected
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testInvalidCompressed() {
+        // 3x4 matrix with entries at (0, 1), (0, 3) and (2, 2)
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(3, 4);
+        builder.add(0, 1, 1.0);
+        builder.add(0, 3, 2.0);
+        builder.add(2, 2, 3.0);
+        final ByteBuffer buffer = ByteBuffer.allocate(200);
+        RealMatrixBinaryFormat.write(builder.buildCompressedRow(), buffer);
+        final int nnz      = RealMatrixBinaryFormat.HEADER_SIZE;
+        final int pointers = nnz + 8;
+        final int indices  = pointers + 4 * 4;
+        checkCorrupted(buffer, nnz, -1, true);
+        checkCorrupted(buffer, nnz, 13, true);
+        checkCorrupted(buffer, nnz, 2, true);
+        checkCorrupted(buffer, pointers, 1, true);
+        checkCorrupted(buffer, pointers + 4, 3, true);
+        checkCorrupted(buffer, pointers + 8, 1, true);
+        checkCorrupted(buffer, pointers + 12, 2, true);
+        checkCorrupted(buffer, indices, 4, true);
+        checkCorrupted(buffer, indices, -1, true);
+        checkCorrupted(buffer, indices + 4, 1, true);
+
+        // the untouched data is still valid
+        buffer.rewind();
+        Assert.assertEquals(builder.buildCompressedRow(), RealMatrixBinaryFormat.readMatrix(buffer));
+    }
+
+    @Test
+    public void testInvalidSparseVector() {
+        final RealVector v = new OpenMapRealVector(5);
+        v.setEntry(1, 1.0);
+        v.setEntry(3, 2.0);
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        RealMatrixBinaryFormat.write(v, buffer);
+        final int nnz     = RealMatrixBinaryFormat.HEADER_SIZE;
+        final int indices = nnz + 8;
+        checkCorrupted(buffer, nnz, -2, false);
+        checkCorrupted(buffer, nnz, 6, false);
+        checkCorrupted(buffer, indices, -1, false);
+        checkCorrupted(buffer, indices, 3, false);
+        checkCorrupted(buffer, indices + 4, 5, false);
+    }
+
+    private static void checkCorrupted(final ByteBuffer buffer, final int position, final int value,
+                                       final boolean matrix) {
+        final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final int saved = le.getInt(position);
+        le.putInt(position, value);
+        buffer.rewind();
+        try {
+            if (matrix) {
+                RealMatrixBinaryFormat.readMatrix(buffer);
+            } else {
+                RealMatrixBinaryFormat.readVector(buffer);
+            }
+            Assert.fail("an exception should have been thrown");
+        } catch (MathParseException mpe) {
+            // expected
+        } finally {
+            le.putInt(position, saved);
+        }
+    }
+
+    private static CompressedRealMatrixBuilder createSparse(final RandomGenerator random) {
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(40, 30);
+        for (int k = 0; k < 75; ++k) {
+            builder.add(random.nextInt(40), random.nextInt(30), random.nextDouble());
+        }
+        return builder;
+    }
+
+    private static void checkRead(final RealMatrix expected, final Class<?> type, final RealMatrix read) {
+        Assert.assertEquals(type, read.getClass());
+        Assert.assertEquals(expected, read);
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RealMatrixExpressionTest {
+
+    @Test
+    public void testGemmEpilogue() {
+        final RandomGenerator random = new Well1024a(0x4a7e21c90d6b3f58l);
+        final RealMatrix a = new Array2DRowRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 70, 110).getData());
+        final RealMatrix b = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 110, 60).getData());
+        final RealMatrix c = new Array2DRowRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 70, 60).getData());
+        final RealMatrix d = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 70, 60).getData());
+        final RealMatrix e = new DiagonalMatrix(new double[] { 1, 2, 3, 4 });
+
+        final RealMatrix expected = a.multiply(b).add(c).subtract(d).scalarMultiply(2.5).scalarAdd(-1.0);
+        final RealMatrix fused =
+            RealMatrixExpression.of(a).multiply(b).add(c).subtract(d).scalarMultiply(2.5).scalarAdd(-1.0).evaluate();
+        TestUtils.assertEquals("", expected, fused, 1.0e-12 * expected.getNorm());
+
+        // matrices in neither block nor array layout
+        final RealMatrix f = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 4, 4).getData());
+        TestUtils.assertEquals("", e.multiply(f).add(e),
+                               RealMatrixExpression.of(e).multiply(f).add(e).evaluate(), 1.0e-14);
+    }
+
+    @Test
+    public void testSingleProduct() {
+        final RandomGenerator random = new Well1024a(0x93c5e0f7a1b2d846l);
+        final BlockRealMatrix a = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 80, 57).getData());
+        final BlockRealMatrix b = new BlockRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 57, 105).getData());
+        Assert.assertEquals(a.multiply(b), RealMatrixExpression.of(a).multiply(b).evaluate());
+    }
+
+    @Test
+    public void testCombination() {
+        final RandomGenerator random = new Well1024a(0x0f5d8b3a6e2c9174l);
+        final RealMatrix a = BlockQRDecompositionTest.createRandomMatrix(random, 30, 20);
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 20, 40);
+        final RealMatrix c = BlockQRDecompositionTest.createRandomMatrix(random, 30, 40);
+        final RealMatrix d = BlockQRDecompositionTest.createRandomMatrix(random, 40, 10);
+
+        final RealMatrixExpression ab = RealMatrixExpression.of(a).multiply(b).scalarMultiply(-2.0);
+        final RealMatrixExpression cc = RealMatrixExpression.of(c).scalarAdd(0.5);
+        TestUtils.assertEquals("", a.multiply(b).scalarMultiply(-2.0).subtract(c.scalarAdd(0.5)),
+                               ab.subtract(cc).evaluate(), 1.0e-13);
+
+        // a sum cannot be fused with a product, it is evaluated first
+        final RealMatrix expected = a.multiply(b).add(c).multiply(d).scalarMultiply(3.0);
+        final RealMatrixExpression e = ab.scalarMultiply(-0.5).add(c).multiply(d).scalarMultiply(3.0);
+        Assert.assertEquals(30, e.getRowDimension());
+        Assert.assertEquals(10, e.getColumnDimension());
+        Assert.assertFalse(e.isSquare());
+        TestUtils.assertEquals("", expected, e.evaluate(), 1.0e-12);
+    }
+
+    @Test
+    public void testSharedOperandConvertedOnce() {
+        final RandomGenerator random = new Well1024a(0x3d70a9c18e5f2b46l);
+        final int[] conversions = new int[1];
+        final RealMatrix a = new Array2DRowRealMatrix(BlockQRDecompositionTest.createRandomMatrix(random, 25, 30).getData()) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public double[][] getData() {
+                ++conversions[0];
+                return super.getData();
+            }
+        };
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 30, 15);
+        final RealMatrix c = BlockQRDecompositionTest.createRandomMatrix(random, 30, 15);
+        final RealMatrixExpression e =
+            RealMatrixExpression.of(a).multiply(b).add(RealMatrixExpression.of(a).multiply(c).scalarMultiply(2.0));
+        final RealMatrix result = e.evaluate();
+        Assert.assertEquals(1, conversions[0]);
+        TestUtils.assertEquals("", a.multiply(b).add(a.multiply(c).scalarMultiply(2.0)), result, 1.0e-13);
+    }
+
+    @Test
+    public void testOperate() {
+        final RandomGenerator random = new Well1024a(0x6b1e4d2f80c7a935l);
+        final RealMatrix a = BlockQRDecompositionTest.createRandomMatrix(random, 50, 30);
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 30, 45);
+        final RealMatrix c = BlockQRDecompositionTest.createRandomMatrix(random, 50, 45);
+        final RealMatrixExpression e = RealMatrixExpression.of(a).multiply(b).add(c).scalarAdd(0.25).scalarMultiply(-3.0);
+        final double[] v = BlockQRDecompositionTest.createRandomMatrix(random, 1, 45).getRow(0);
+        TestUtils.assertEquals(e.evaluate().operate(v), e.operate(v), 1.0e-13);
+        TestUtils.assertEquals(e.evaluate().operate(v), e.operate(new ArrayRealVector(v)).toArray(), 1.0e-13);
+    }
+
+    @Test(expected = MatrixDimensionMismatchException.class)
+    public void testAddDimensionMismatch() {
+        RealMatrixExpression.of(new BlockRealMatrix(3, 4)).add(new BlockRealMatrix(4, 3));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testMultiplyDimensionMismatch() {
+        RealMatrixExpression.of(new BlockRealMatrix(3, 4)).multiply(new BlockRealMatrix(3, 4));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() {
+        RealMatrixExpression.of(new BlockRealMatrix(3, 4)).operate(new double[3]);
+    }
+
+}
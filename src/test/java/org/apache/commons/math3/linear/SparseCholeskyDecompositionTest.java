@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SparseCholeskyDecompositionTest {
+
+    @Test
+    public void testDecomposition() {
+        final CompressedRowRealMatrix a = IncompleteCholeskyPreconditionerTest.createLaplacian(8);
+        final SparseCholeskyDecomposition cholesky = new SparseCholeskyDecomposition(a);
+
+        // P A P^T = L L^T
+        final int[] p = cholesky.getPermutation();
+        final RealMatrix pap = new Array2DRowRealMatrix(a.getData()).getSubMatrix(p, p);
+        final RealMatrix l = cholesky.getL();
+        for (int i = 0; i < l.getRowDimension(); ++i) {
+            for (int j = i + 1; j < l.getColumnDimension(); ++j) {
+                Assert.assertEquals(0.0, l.getEntry(i, j), 0);
+            }
+        }
+        TestUtils.assertEquals("", pap, l.multiply(l.transpose()), 1.0e-12);
+        Assert.assertEquals(cholesky.getSymbolicAnalysis().getNonZeroCount(),
+                            ((CompressedColumnRealMatrix) l).getNonZeroCount());
+
+        final CholeskyDecomposition reference = new CholeskyDecomposition(a);
+        Assert.assertEquals(reference.getDeterminant(), cholesky.getDeterminant(),
+                            1.0e-12 * reference.getDeterminant());
+    }
+
+    @Test
+    public void testSolve() {
+        final RandomGenerator random = new Well1024a(0x7d2e4b91c05f3a68l);
+        final CompressedRowRealMatrix a = IncompleteCholeskyPreconditionerTest.createLaplacian(10);
+        final DecompositionSolver solver = new SparseCholeskyDecomposition(a).getSolver();
+        final DecompositionSolver reference = new CholeskyDecomposition(a).getSolver();
+        Assert.assertTrue(solver.isNonSingular());
+
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 100, 3);
+        TestUtils.assertEquals("", reference.solve(b), solver.solve(b), 1.0e-12);
+        TestUtils.assertEquals(reference.solve(b.getColumnVector(1)).toArray(),
+                               solver.solve(b.getColumnVector(1)).toArray(), 1.0e-12);
+        TestUtils.assertEquals("", MatrixUtils.createRealIdentityMatrix(100),
+                               a.multiply(solver.getInverse()), 1.0e-12);
+    }
+
+    @Test
+    public void testReuseAnalysis() {
+        final CompressedRowRealMatrix a = IncompleteCholeskyPreconditionerTest.createLaplacian(6);
+        final SparseCholeskyDecomposition.SymbolicAnalysis analysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(a);
+        final RealVector b = new ArrayRealVector(36, 1.0);
+        final RealVector x = new SparseCholeskyDecomposition(a, analysis).getSolver().solve(b);
+
+        // same pattern, different values
+        final RealMatrix scaled = a.scalarMultiply(2.0);
+        final SparseCholeskyDecomposition cholesky = new SparseCholeskyDecomposition(scaled, analysis);
+        Assert.assertSame(analysis, cholesky.getSymbolicAnalysis());
+        TestUtils.assertEquals(x.mapMultiply(0.5).toArray(), cholesky.getSolver().solve(b).toArray(), 1.0e-14);
+
+        // subset of the pattern
+        final CompressedRowRealMatrix diagonal =
+            new CompressedRealMatrixBuilder(36, 36).add(0, 0, 4.0).add(35, 35, 2.0).buildCompressedRow();
+        for (int i = 1; i < 35; ++i) {
+            diagonal.setEntry(i, i, 1.0);
+        }
+        final RealVector y = new SparseCholeskyDecomposition(diagonal, analysis).getSolver().solve(b);
+        Assert.assertEquals(0.25, y.getEntry(0), 1.0e-15);
+        Assert.assertEquals(1.0, y.getEntry(17), 1.0e-15);
+        Assert.assertEquals(0.5, y.getEntry(35), 1.0e-15);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testPatternMismatch() {
+        final CompressedRowRealMatrix a = IncompleteCholeskyPreconditionerTest.createLaplacian(4);
+        final SparseCholeskyDecomposition.SymbolicAnalysis analysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(a);
+        final RealMatrix b = new CompressedRealMatrixBuilder(16, 16).add(0, 15, 0.5).add(15, 0, 0.5).buildCompressedRow();
+        new SparseCholeskyDecomposition(a.add(b), analysis);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        final SparseCholeskyDecomposition.SymbolicAnalysis analysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(IncompleteCholeskyPreconditionerTest.createLaplacian(4));
+        new SparseCholeskyDecomposition(IncompleteCholeskyPreconditionerTest.createLaplacian(3), analysis);
+    }
+
+    @Test(expected = NonPositiveDefiniteMatrixException.class)
+    public void testNotPositiveDefinite() {
+        final CompressedRowRealMatrix a = IncompleteCholeskyPreconditionerTest.createLaplacian(5);
+        a.setEntry(12, 12, 0.5);
+        new SparseCholeskyDecomposition(a);
+    }
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new SparseCholeskyDecomposition(new CompressedRowRealMatrix(3, 4));
+    }
+
+    @Test
+    public void testFillReduction() {
+        // 2D grid with randomly shuffled nodes
+        final int k = 15;
+        final int n = k * k;
+        final RandomGenerator random = new Well1024a(0x19f4c2e8a7b35d60l);
+        final int[] shuffle = new int[n];
+        for (int i = 0; i < n; ++i) {
+            shuffle[i] = i;
+        }
+        for (int i = n - 1; i > 0; --i) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = shuffle[i];
+            shuffle[i] = shuffle[j];
+            shuffle[j] = tmp;
+        }
+        final CompressedRowRealMatrix laplacian = IncompleteCholeskyPreconditionerTest.createLaplacian(k);
+        final CompressedRealMatrixBuilder builder = new CompressedRealMatrixBuilder(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                final double value = laplacian.getEntry(i, j);
+                if (value != 0) {
+                    builder.add(shuffle[i], shuffle[j], value);
+                }
+            }
+        }
+        final CompressedColumnRealMatrix a = builder.buildCompressedColumn();
+
+        final int[] natural = new int[n];
+        for (int i = 0; i < n; ++i) {
+            natural[i] = i;
+        }
+        final SparseCholeskyDecomposition.SymbolicAnalysis naturalAnalysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(a, natural);
+        final SparseCholeskyDecomposition.SymbolicAnalysis bandAnalysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(a, shuffle);
+        final SparseCholeskyDecomposition.SymbolicAnalysis amdAnalysis =
+            new SparseCholeskyDecomposition.SymbolicAnalysis(a);
+
+        // minimum degree is much better than a random ordering and
+        // better than the band ordering of the unshuffled grid
+        Assert.assertTrue(amdAnalysis.getNonZeroCount() < naturalAnalysis.getNonZeroCount() / 2);
+        Assert.assertTrue(amdAnalysis.getNonZeroCount() < 0.6 * bandAnalysis.getNonZeroCount());
+
+        final RealVector b = new ArrayRealVector(n, 1.0);
+        TestUtils.assertEquals(new SparseCholeskyDecomposition(a, naturalAnalysis).getSolver().solve(b).toArray(),
+                               new SparseCholeskyDecomposition(a, amdAnalysis).getSolver().solve(b).toArray(),
+                               1.0e-12);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testInvalidPermutation() {
+        new SparseCholeskyDecomposition.SymbolicAnalysis(IncompleteCholeskyPreconditionerTest.createLaplacian(2),
+                                                         new int[] { 0, 1, 1, 3 });
+    }
+
+}
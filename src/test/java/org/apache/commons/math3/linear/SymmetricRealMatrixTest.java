@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.linear;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymmetricRealMatrixTest {
+
+    @Test(expected = NonSymmetricMatrixException.class)
+    public void testNonSymmetric() {
+        new SymmetricRealMatrix(new double[][] { { 1, 2 }, { 2.5, 1 } });
+    }
+
+    @Test(expected = NonSquareMatrixException.class)
+    public void testNonSquare() {
+        new SymmetricRealMatrix(new double[][] { { 1, 2, 3 }, { 2, 1, 3 } });
+    }
+
+    @Test
+    public void testEntries() {
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(4);
+        m.setEntry(2, 1, 3.0);
+        m.setEntry(0, 3, 2.0);
+        m.addToEntry(3, 0, 1.0);
+        m.multiplyEntry(1, 2, 2.0);
+        m.setEntry(3, 3, 5.0);
+        Assert.assertEquals(6.0, m.getEntry(1, 2), 0);
+        Assert.assertEquals(6.0, m.getEntry(2, 1), 0);
+        Assert.assertEquals(3.0, m.getEntry(0, 3), 0);
+        Assert.assertEquals(3.0, m.getEntry(3, 0), 0);
+        Assert.assertEquals(5.0, m.getEntry(3, 3), 0);
+        Assert.assertEquals(0.0, m.getEntry(0, 1), 0);
+        Assert.assertEquals(10, m.getDataRef().length);
+        Assert.assertEquals(5.0, m.getDataRef()[9], 0);
+        Assert.assertEquals(3.0, m.getDataRef()[6], 0);
+    }
+
+    @Test
+    public void testChangingWalks() {
+        final RealMatrixChangingVisitor doubler = new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(final int row, final int column, final double value) {
+                return 2 * value;
+            }
+        };
+        final double[][] expected = { { 2, 4 }, { 4, 6 } };
+
+        SymmetricRealMatrix m = new SymmetricRealMatrix(new double[][] { { 1, 2 }, { 2, 3 } });
+        m.walkInRowOrder(doubler);
+        Assert.assertEquals(new Array2DRowRealMatrix(expected), m);
+
+        m = new SymmetricRealMatrix(new double[][] { { 1, 2 }, { 2, 3 } });
+        m.walkInColumnOrder(doubler);
+        Assert.assertEquals(new Array2DRowRealMatrix(expected), m);
+
+        m = new SymmetricRealMatrix(new double[][] { { 1, 2 }, { 2, 3 } });
+        m.walkInOptimizedOrder(doubler);
+        Assert.assertEquals(new Array2DRowRealMatrix(expected), m);
+    }
+
+    @Test
+    public void testChangingSubMatrixWalks() {
+        final RandomGenerator random = new Well1024a(0x7d20c94be1f35a86l);
+        final RealMatrix dense = createRandomSymmetric(random, 6);
+        final RealMatrixChangingVisitor incrementer = new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(final int row, final int column, final double value) {
+                return value + 1;
+            }
+        };
+
+        // the sub-matrix covers both halves of some elements and one half of others
+        final int[][] ranges = { { 1, 4, 0, 3 }, { 3, 5, 0, 1 }, { 0, 5, 0, 5 } };
+        for (final int[] r : ranges) {
+            final RealMatrix expected = dense.copy();
+            for (int i = 0; i < 6; ++i) {
+                for (int j = 0; j <= i; ++j) {
+                    final boolean inRange =
+                        (i >= r[0] && i <= r[1] && j >= r[2] && j <= r[3]) ||
+                        (j >= r[0] && j <= r[1] && i >= r[2] && i <= r[3]);
+                    if (inRange) {
+                        expected.addToEntry(i, j, 1);
+                        if (i != j) {
+                            expected.addToEntry(j, i, 1);
+                        }
+                    }
+                }
+            }
+
+            SymmetricRealMatrix m = new SymmetricRealMatrix(dense, 0);
+            m.walkInRowOrder(incrementer, r[0], r[1], r[2], r[3]);
+            TestUtils.assertEquals("", expected, m, 1.0e-15);
+
+            m = new SymmetricRealMatrix(dense, 0);
+            m.walkInColumnOrder(incrementer, r[0], r[1], r[2], r[3]);
+            TestUtils.assertEquals("", expected, m, 1.0e-15);
+
+            m = new SymmetricRealMatrix(dense, 0);
+            m.walkInOptimizedOrder(incrementer, r[0], r[1], r[2], r[3]);
+            TestUtils.assertEquals("", expected, m, 1.0e-15);
+        }
+    }
+
+    @Test
+    public void testSetRowAndColumn() {
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(new double[][] { { 1, 2 }, { 2, 3 } });
+        m.setRow(0, new double[] { 5, 6 });
+        Assert.assertArrayEquals(new double[] { 5, 6 }, m.getRow(0), 0);
+        Assert.assertArrayEquals(new double[] { 5, 6 }, m.getColumn(0), 0);
+        Assert.assertEquals(3, m.getEntry(1, 1), 0);
+
+        m.setColumn(1, new double[] { 7, 8 });
+        Assert.assertArrayEquals(new double[] { 7, 8 }, m.getColumn(1), 0);
+        Assert.assertArrayEquals(new double[] { 7, 8 }, m.getRow(1), 0);
+
+        m.setRowVector(1, new ArrayRealVector(new double[] { -1, -2 }));
+        Assert.assertArrayEquals(new double[] { -1, -2 }, m.getColumn(1), 0);
+        m.setColumnVector(0, new ArrayRealVector(new double[] { 4, -3 }));
+        Assert.assertArrayEquals(new double[] { 4, -3 }, m.getRow(0), 0);
+        m.setRowMatrix(0, new Array2DRowRealMatrix(new double[][] { { 9, 10 } }));
+        Assert.assertArrayEquals(new double[] { 9, 10 }, m.getColumn(0), 0);
+        m.setColumnMatrix(1, new Array2DRowRealMatrix(new double[][] { { 11 }, { 12 } }));
+        Assert.assertArrayEquals(new double[] { 11, 12 }, m.getRow(1), 0);
+        Assert.assertTrue(MatrixUtils.isSymmetric(new Array2DRowRealMatrix(m.getData()), 0));
+        Assert.assertEquals(new Array2DRowRealMatrix(new double[][] { { 9, 11 }, { 11, 12 } }), m);
+    }
+
+    @Test
+    public void testSetSubMatrix() {
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(4);
+
+        // off-diagonal block, its mirror is set too
+        m.setSubMatrix(new double[][] { { 1, 2 }, { 3, 4 } }, 0, 2);
+        Assert.assertEquals(new Array2DRowRealMatrix(new double[][] {
+            { 0, 0, 1, 2 }, { 0, 0, 3, 4 }, { 1, 3, 0, 0 }, { 2, 4, 0, 0 }
+        }), m);
+
+        // block straddling the diagonal, consistent with itself
+        m.setSubMatrix(new double[][] { { 5, 6 }, { 6, 7 } }, 1, 1);
+        Assert.assertEquals(new Array2DRowRealMatrix(new double[][] {
+            { 0, 0, 1, 2 }, { 0, 5, 6, 4 }, { 1, 6, 7, 0 }, { 2, 4, 0, 0 }
+        }), m);
+
+        // inconsistent block is rejected before anything is written
+        try {
+            m.setSubMatrix(new double[][] { { 8, 9 }, { 10, 11 } }, 2, 2);
+            Assert.fail("an exception should have been thrown");
+        } catch (NonSymmetricMatrixException nsme) {
+            // expected
+        }
+        Assert.assertEquals(7, m.getEntry(2, 2), 0);
+    }
+
+    @Test
+    public void testDenseConversion() {
+        final RandomGenerator random = new Well1024a(0x5a0c1e7d3b9f2468l);
+        final RealMatrix dense = createRandomSymmetric(random, 9);
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(dense.getData());
+        Assert.assertEquals(dense, m);
+        Assert.assertEquals(dense, new Array2DRowRealMatrix(m.getData(), false));
+        Assert.assertEquals(m, m.transpose());
+        Assert.assertEquals(m, m.copy());
+        Assert.assertNotSame(m.getDataRef(), m.copy().getDataRef());
+    }
+
+    @Test
+    public void testOperate() {
+        final RandomGenerator random = new Well1024a(0x2c7e90f1a84b365dl);
+        final RealMatrix dense = createRandomSymmetric(random, 17);
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(dense, 0);
+        final double[] v = new double[17];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = random.nextDouble() - 0.5;
+        }
+        TestUtils.assertEquals(dense.operate(v), m.operate(v), 1.0e-14);
+        TestUtils.assertEquals(dense.preMultiply(v), m.preMultiply(v), 1.0e-14);
+        Assert.assertEquals(new ArrayRealVector(v).dotProduct(dense.operate(new ArrayRealVector(v))),
+                            m.quadraticForm(v), 1.0e-14);
+        Assert.assertEquals(m.quadraticForm(v), m.quadraticForm(new ArrayRealVector(v)), 0);
+
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 17, 5);
+        TestUtils.assertEquals("", dense.multiply(b), m.multiply(b), 1.0e-14);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() {
+        new SymmetricRealMatrix(4).operate(new double[3]);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testQuadraticFormDimensionMismatch() {
+        new SymmetricRealMatrix(4).quadraticForm(new double[5]);
+    }
+
+    @Test
+    public void testArithmetic() {
+        final RandomGenerator random = new Well1024a(0x61d3f8a4c02b7e95l);
+        final RealMatrix a = createRandomSymmetric(random, 6);
+        final RealMatrix b = createRandomSymmetric(random, 6);
+        final SymmetricRealMatrix sa = new SymmetricRealMatrix(a, 0);
+        final SymmetricRealMatrix sb = new SymmetricRealMatrix(b, 0);
+        Assert.assertTrue(sa.add((RealMatrix) sb) instanceof SymmetricRealMatrix);
+        TestUtils.assertEquals("", a.add(b), sa.add(sb), 1.0e-15);
+        TestUtils.assertEquals("", a.subtract(b), sa.subtract(sb), 1.0e-15);
+        TestUtils.assertEquals("", a.scalarMultiply(1.5), sa.scalarMultiply(1.5), 1.0e-15);
+        TestUtils.assertEquals("", a.scalarAdd(0.5), sa.scalarAdd(0.5), 1.0e-15);
+
+        // operations which do not preserve symmetry
+        final RealMatrix c = BlockQRDecompositionTest.createRandomMatrix(random, 6, 6);
+        TestUtils.assertEquals("", a.add(c), sa.add(c), 1.0e-15);
+        TestUtils.assertEquals("", a.getSubMatrix(1, 3, 0, 4), sa.getSubMatrix(1, 3, 0, 4), 1.0e-15);
+    }
+
+    @Test
+    public void testRankUpdates() {
+        final RandomGenerator random = new Well1024a(0x0e4f7b2d91c3a856l);
+        final RealMatrix a = createRandomSymmetric(random, 8);
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 8, 3);
+
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(a, 0);
+        m.rankKUpdate(-0.5, b);
+        TestUtils.assertEquals("", a.add(b.multiply(b.transpose()).scalarMultiply(-0.5)),
+                               m, 1.0e-14);
+
+        final SymmetricRealMatrix m1 = new SymmetricRealMatrix(a, 0);
+        for (int k = 0; k < 3; ++k) {
+            m1.rankOneUpdate(-0.5, b.getColumn(k));
+        }
+        TestUtils.assertEquals("", m, m1, 1.0e-14);
+    }
+
+    @Test
+    public void testDecompositions() {
+        final RandomGenerator random = new Well1024a(0x3b8d6a1f50e27c94l);
+        final RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 10, 10);
+        final RealMatrix spd = b.multiply(b.transpose()).add(MatrixUtils.createRealIdentityMatrix(10));
+        final SymmetricRealMatrix m = new SymmetricRealMatrix(10);
+        m.rankKUpdate(1.0, b);
+        for (int i = 0; i < 10; ++i) {
+            m.addToEntry(i, i, 1.0);
+        }
+
+        final CholeskyDecomposition reference = new CholeskyDecomposition(spd);
+        final CholeskyDecomposition cholesky  = new CholeskyDecomposition(m);
+        TestUtils.assertEquals("", reference.getL(), cholesky.getL(), 1.0e-12);
+        Assert.assertEquals(reference.getDeterminant(), cholesky.getDeterminant(),
+                            1.0e-12 * reference.getDeterminant());
+
+        final EigenDecomposition eigen = new EigenDecomposition(m);
+        final double[] expected = new EigenDecomposition(spd).getRealEigenvalues();
+        TestUtils.assertEquals(expected, eigen.getRealEigenvalues(), 1.0e-12);
+        Assert.assertTrue(MatrixUtils.isSymmetric(m, 0));
+    }
+
+    static RealMatrix createRandomSymmetric(final RandomGenerator random, final int n) {
+        final RealMatrix m = new Array2DRowRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                final double value = 2 * random.nextDouble() - 1;
+                m.setEntry(i, j, value);
+                m.setEntry(j, i, value);
+            }
+        }
+        return m;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math3.linear;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TSQRDecompositionTest {
+
+    /** test R against the one computed by the unblocked algorithm */
+    @Test
+    public void testR() {
+        RandomGenerator random = new Well1024a(0x4d07a9e3c1b5f286l);
+        // 1, 2 (odd tree), 5 and 8 chunks
+        for (int rows : new int[] { 30, 500, 555, 800 }) {
+            RealMatrix matrix = BlockQRDecompositionTest.createRandomMatrix(random, rows, 23);
+            RealMatrix r = new TSQRDecomposition(matrix, 100, 0.0, null).getR();
+            RealMatrix reference = new QRDecomposition(matrix).getR();
+            Assert.assertEquals(23, r.getRowDimension());
+            Assert.assertEquals(23, r.getColumnDimension());
+            for (int i = 0; i < 23; ++i) {
+                double sign = FastMath.signum(r.getEntry(i, i) * reference.getEntry(i, i));
+                for (int j = 0; j < 23; ++j) {
+                    Assert.assertEquals(reference.getEntry(i, j), sign * r.getEntry(i, j), 1.0e-12);
+                }
+            }
+            TestUtils.assertEquals("RTR", matrix.transpose().multiply(matrix),
+                                   r.transpose().multiply(r), 1.0e-11);
+        }
+    }
+
+    /** test a wide matrix */
+    @Test
+    public void testWide() {
+        RandomGenerator random = new Well1024a(0xe5a3196f27cd048bl);
+        RealMatrix matrix = BlockQRDecompositionTest.createRandomMatrix(random, 4, 9);
+        RealMatrix r = new TSQRDecomposition(matrix).getR();
+        Assert.assertEquals(4, r.getRowDimension());
+        Assert.assertEquals(9, r.getColumnDimension());
+        TestUtils.assertEquals("RTR", matrix.transpose().multiply(matrix),
+                               r.transpose().multiply(r), 1.0e-13);
+    }
+
+    /** test the least squares solution */
+    @Test
+    public void testLeastSquares() {
+        RandomGenerator random = new Well1024a(0x1f6b3c08e2d97a45l);
+        RealMatrix matrix = BlockQRDecompositionTest.createRandomMatrix(random, 1234, 17);
+        DecompositionSolver solver = new TSQRDecomposition(matrix, 200, 0.0, null).getSolver();
+        DecompositionSolver reference = new QRDecomposition(matrix).getSolver();
+        Assert.assertTrue(solver.isNonSingular());
+
+        RealMatrix b = BlockQRDecompositionTest.createRandomMatrix(random, 1234, 4);
+        TestUtils.assertEquals("matrix", reference.solve(b), solver.solve(b), 1.0e-12);
+        TestUtils.assertEquals(reference.solve(b.getColumnVector(2)).toArray(),
+                               solver.solve(b.getColumnVector(2)).toArray(),
+                               1.0e-12);
+    }
+
+    /** test that the parallel decomposition gives exactly the same result */
+    @Test
+    public void testParallel() {
+        RandomGenerator random = new Well1024a(0xa7c2e15b90f34d68l);
+        RealMatrix matrix = BlockQRDecompositionTest.createRandomMatrix(random, 3000, 31);
+        RealVector b = new ArrayRealVector(3000);
+        for (int i = 0; i < b.getDimension(); ++i) {
+            b.setEntry(i, random.nextDouble());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TSQRDecomposition serial   = new TSQRDecomposition(matrix, 250, 0.0, null);
+            TSQRDecomposition parallel = new TSQRDecomposition(matrix, 250, 0.0, executor);
+            Assert.assertEquals(serial.getR(), parallel.getR());
+            Assert.assertEquals(serial.getSolver().solve(b), parallel.getSolver().solve(b));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** test rank deficient matrix */
+    @Test
+    public void testSingular() {
+        RandomGenerator random = new Well1024a(0x58d1f0b6e3a27c94l);
+        RealMatrix matrix = BlockQRDecompositionTest.createRandomMatrix(random, 400, 5);
+        matrix.setColumnVector(3, matrix.getColumnVector(0).add(matrix.getColumnVector(1)));
+        DecompositionSolver solver = new TSQRDecomposition(matrix, 50, 1.0e-10, null).getSolver();
+        Assert.assertFalse(solver.isNonSingular());
+        try {
+            solver.solve(new ArrayRealVector(400));
+            Assert.fail("an exception should have been thrown");
+        } catch (SingularMatrixException sme) {
+            // expected
+        }
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testChunksTooSmall() {
+        new TSQRDecomposition(new BlockRealMatrix(100, 10), 9, 0.0, null);
+    }
+
+}
@@ -17,7 +17,12 @@
 package org.apache.commons.math3.stat;
 
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.commons.math3.TestUtils;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.commons.math3.util.Precision;
@@ -553,4 +558,46 @@ public final class StatUtilsTest {
         }
     }
 
+    @Test
+    public void testParallelReductions() {
+        final RandomGenerator random = new Well1024a(0x0f6a3e8d21c7b594l);
+        final double[] values = new double[1000003];
+        for (int i = 0; i < values.length; ++i) {
+            // large offset to exercise the accuracy of the merged moments
+            values[i] = 1.0e9 + random.nextGaussian();
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertEquals(StatUtils.sum(values), StatUtils.sum(values, executor), 1.0e-12 * values.length * 1.0e9);
+            Assert.assertEquals(StatUtils.sumSq(values), StatUtils.sumSq(values, executor), 1.0e-12 * values.length * 1.0e18);
+            Assert.assertEquals(StatUtils.mean(values), StatUtils.mean(values, executor), 1.0e-6);
+            Assert.assertEquals(StatUtils.variance(values), StatUtils.variance(values, executor), 1.0e-9);
+            Assert.assertEquals(1.0, StatUtils.variance(values, executor), 0.01);
+            Assert.assertEquals(StatUtils.min(values), StatUtils.min(values, executor), 0);
+            Assert.assertEquals(StatUtils.max(values), StatUtils.max(values, executor), 0);
+            for (final double p : new double[] { 1.0e-4, 0.1, 25, 50, 99.9, 100 }) {
+                Assert.assertEquals(StatUtils.percentile(values, p),
+                                    StatUtils.percentile(values, p, executor), 0);
+            }
+
+            // duplicates, NaN and small arrays
+            final double[] discrete = new double[300000];
+            for (int i = 0; i < discrete.length; ++i) {
+                discrete[i] = random.nextInt(7);
+            }
+            Assert.assertEquals(StatUtils.percentile(discrete, 33), StatUtils.percentile(discrete, 33, executor), 0);
+            discrete[12345] = Double.NaN;
+            Assert.assertEquals(StatUtils.percentile(discrete, 60), StatUtils.percentile(discrete, 60, executor), 0);
+            Assert.assertEquals(StatUtils.max(discrete), StatUtils.max(discrete, executor), 0);
+            Assert.assertTrue(Double.isNaN(StatUtils.mean(discrete, executor)));
+            Assert.assertEquals(StatUtils.variance(new double[] { 1, 2, 2, 3 }),
+                                StatUtils.variance(new double[] { 1, 2, 2, 3 }, executor), 0);
+            Assert.assertTrue(Double.isNaN(StatUtils.mean(new double[0], executor)));
+            Assert.assertTrue(Double.isNaN(StatUtils.sum(new double[0], executor)));
+            Assert.assertEquals(0.0, StatUtils.variance(new double[] { 3.0 }, executor), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -149,6 +149,8 @@ public class CovarianceTest {
          };
 
          TestUtils.assertEquals("covariance matrix", createRealMatrix(rData, 5, 5), covarianceMatrix, 10E-13);
+         TestUtils.assertEquals("packed covariance matrix", covarianceMatrix,
+                                new Covariance(matrix).getCovarianceMatrixPacked(), 1.0e-12);
     }
 
     /**
@@ -199,6 +199,8 @@ public class StorelessCovarianceTest {
         RealMatrix covarianceMatrix = covMatrix.getCovarianceMatrix();
 
         TestUtils.assertEquals("covariance matrix", createRealMatrix(rData, 5, 5), covarianceMatrix, 10E-13);
+        TestUtils.assertEquals("packed covariance matrix", covarianceMatrix,
+                               covMatrix.getCovarianceMatrixPacked(), 1.0e-12);
     }
 
     /**
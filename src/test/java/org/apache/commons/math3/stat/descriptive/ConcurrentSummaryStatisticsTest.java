@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.stat.descriptive.moment.Kurtosis;
+import org.apache.commons.math3.stat.descriptive.moment.Skewness;
+import org.apache.commons.math3.util.ConcurrencyUtils;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link ConcurrentSummaryStatistics} class.
+ *
+ * @version $Id$
+ */
+public class ConcurrentSummaryStatisticsTest {
+
+    private final double[] testArray =
+        { 12.5, 12.0, 11.8, 14.2, 14.9, 14.5, 21.0,  8.2, 10.3, 11.3,
+          14.1,  9.9, 12.2, 12.0, 12.1, 11.0, 19.8, 11.0, 10.0,  8.8,
+           9.0, 12.3 };
+
+    @Test
+    public void testSingleThread() {
+        final ConcurrentSummaryStatistics concurrent = new ConcurrentSummaryStatistics();
+        final SummaryStatistics reference = new SummaryStatistics();
+        for (final double x : testArray) {
+            concurrent.addValue(x);
+            reference.addValue(x);
+        }
+        checkAgainst(reference, testArray, concurrent, 1.0e-12);
+    }
+
+    @Test
+    public void testEmptyAndSmall() {
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics();
+        Assert.assertEquals(0, stats.getN());
+        Assert.assertTrue(Double.isNaN(stats.getMean()));
+        Assert.assertTrue(Double.isNaN(stats.getVariance()));
+        Assert.assertTrue(Double.isNaN(stats.getStandardDeviation()));
+        Assert.assertTrue(Double.isNaN(stats.getMin()));
+        Assert.assertTrue(Double.isNaN(stats.getMax()));
+        Assert.assertTrue(Double.isNaN(stats.getGeometricMean()));
+        stats.addValue(2.0);
+        Assert.assertEquals(2.0, stats.getMean(), 0);
+        Assert.assertEquals(0.0, stats.getVariance(), 0);
+        Assert.assertEquals(0.0, stats.getStandardDeviation(), 0);
+        Assert.assertTrue(Double.isNaN(stats.getSkewness()));
+        stats.clear();
+        Assert.assertEquals(0, stats.getN());
+        Assert.assertTrue(Double.isNaN(stats.getMean()));
+    }
+
+    @Test
+    public void testConcurrentUpdates() {
+        final int nbThreads = 8;
+        final int perThread = 50000;
+        final RandomGenerator random = new Well1024a(0x38c5e1a09f4d7b62l);
+        final double[][] data = new double[nbThreads][perThread];
+        final SummaryStatistics reference = new SummaryStatistics();
+        final double[] all = new double[nbThreads * perThread];
+        for (int t = 0; t < nbThreads; ++t) {
+            for (int i = 0; i < perThread; ++i) {
+                data[t][i] = 100 + 10 * random.nextGaussian() + 5 * random.nextDouble() * t;
+                reference.addValue(data[t][i]);
+                all[t * perThread + i] = data[t][i];
+            }
+        }
+
+        final ConcurrentSummaryStatistics concurrent = new ConcurrentSummaryStatistics();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < nbThreads; ++t) {
+            final double[] values = data[t];
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = 0; i < values.length; ++i) {
+                        concurrent.addValue(values[i]);
+                        if (i % 1000 == 0) {
+                            // snapshots taken during updates must be consistent
+                            final StatisticalSummary summary = concurrent.getSummary();
+                            Assert.assertTrue(summary.getMin() <= summary.getMean());
+                            Assert.assertTrue(summary.getMean() <= summary.getMax());
+                            Assert.assertEquals(summary.getSum() / summary.getN(), summary.getMean(), 1.0e-9);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            ConcurrencyUtils.invokeAll(executor, tasks);
+        } finally {
+            executor.shutdown();
+        }
+
+        checkAgainst(reference, all, concurrent, 1.0e-9);
+    }
+
+    @Test
+    public void testThreadChurn() throws InterruptedException {
+        // many short-lived writers, as with a request pool, must not add cells
+        final ConcurrentSummaryStatistics concurrent = new ConcurrentSummaryStatistics();
+        final SummaryStatistics reference = new SummaryStatistics();
+        for (int round = 0; round < 50; ++round) {
+            final Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; ++t) {
+                final double offset = round + 0.125 * t;
+                for (int i = 0; i < 100; ++i) {
+                    reference.addValue(offset + i);
+                }
+                threads[t] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < 100; ++i) {
+                            concurrent.addValue(offset + i);
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+        }
+        Assert.assertTrue(concurrent.getCellCount() <= 2 * Runtime.getRuntime().availableProcessors());
+        Assert.assertEquals(reference.getN(), concurrent.getN());
+        checkRelative(reference.getMean(), concurrent.getMean(), 1.0e-12);
+        checkRelative(reference.getVariance(), concurrent.getVariance(), 1.0e-12);
+
+        // clearing resets the cells in place
+        final int cellCount = concurrent.getCellCount();
+        concurrent.clear();
+        Assert.assertEquals(cellCount, concurrent.getCellCount());
+        Assert.assertEquals(0, concurrent.getN());
+        Assert.assertTrue(Double.isNaN(concurrent.getMin()));
+        concurrent.addValue(-1.0);
+        concurrent.addValue(3.0);
+        Assert.assertEquals(2, concurrent.getN());
+        Assert.assertEquals(-1.0, concurrent.getMin(), 0);
+        Assert.assertEquals(1.0, concurrent.getMean(), 0);
+        Assert.assertEquals(8.0, concurrent.getVariance(), 0);
+    }
+
+    private void checkAgainst(final SummaryStatistics reference, final double[] values,
+                              final ConcurrentSummaryStatistics concurrent, final double tol) {
+        Assert.assertEquals(reference.getN(), concurrent.getN());
+        Assert.assertEquals(reference.getMin(), concurrent.getMin(), 0);
+        Assert.assertEquals(reference.getMax(), concurrent.getMax(), 0);
+        checkRelative(reference.getSum(), concurrent.getSum(), tol);
+        checkRelative(reference.getMean(), concurrent.getMean(), tol);
+        checkRelative(reference.getVariance(), concurrent.getVariance(), tol);
+        checkRelative(reference.getStandardDeviation(), concurrent.getStandardDeviation(), tol);
+        checkRelative(reference.getPopulationVariance(), concurrent.getPopulationVariance(), tol);
+        checkRelative(reference.getSecondMoment(), concurrent.getSecondMoment(), tol);
+        checkRelative(reference.getSumOfLogs(), concurrent.getSumOfLogs(), tol);
+        checkRelative(reference.getGeometricMean(), concurrent.getGeometricMean(), tol);
+        checkRelative(new Skewness().evaluate(values), concurrent.getSkewness(), 1.0e3 * tol);
+        checkRelative(new Kurtosis().evaluate(values), concurrent.getKurtosis(), 1.0e3 * tol);
+        final StatisticalSummary summary = concurrent.getSummary();
+        Assert.assertEquals(reference.getN(), summary.getN());
+        checkRelative(reference.getVariance(), summary.getVariance(), tol);
+    }
+
+    private void checkRelative(final double expected, final double actual, final double tol) {
+        Assert.assertEquals(expected, actual, tol * FastMath.abs(expected));
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link RollingStatistics} class.
+ *
+ * @version $Id$
+ */
+public class RollingStatisticsTest {
+
+    @Test
+    public void testAgainstDescriptiveStatistics() {
+        final RandomGenerator random = new Well1024a(0x6e3b90f2c8a1d457l);
+        final int windowSize = 257;
+        final RollingStatistics rolling = new RollingStatistics(windowSize);
+        final DescriptiveStatistics reference = new DescriptiveStatistics(windowSize);
+        for (int i = 0; i < 20000; ++i) {
+            // drifting data with many duplicates
+            final double x = 1.0e6 + i + random.nextInt(50) * 0.25;
+            rolling.addValue(x);
+            reference.addValue(x);
+            if (i % 97 == 0 || i < 2 * windowSize) {
+                Assert.assertEquals(reference.getN(), rolling.getN());
+                Assert.assertEquals(reference.getMin(), rolling.getMin(), 0);
+                Assert.assertEquals(reference.getMax(), rolling.getMax(), 0);
+                Assert.assertEquals(reference.getMean(), rolling.getMean(), 1.0e-8);
+                Assert.assertEquals(reference.getSum(), rolling.getSum(), 1.0e-5);
+                Assert.assertEquals(reference.getVariance(), rolling.getVariance(),
+                                    1.0e-9 * FastMath.max(1.0, reference.getVariance()));
+                Assert.assertEquals(reference.getPopulationVariance(), rolling.getPopulationVariance(),
+                                    1.0e-9 * FastMath.max(1.0, reference.getVariance()));
+                Assert.assertEquals(reference.getStandardDeviation(), rolling.getStandardDeviation(), 1.0e-9);
+                for (final double p : new double[] { 0.1, 1, 25, 50, 75, 99, 99.9, 100 }) {
+                    Assert.assertEquals(reference.getPercentile(p), rolling.getPercentile(p), 0);
+                }
+            }
+        }
+        Assert.assertArrayEquals(reference.getValues(), rolling.getValues(), 0);
+        Assert.assertArrayEquals(reference.getSortedValues(), rolling.getSortedValues(), 0);
+    }
+
+    @Test
+    public void testSmallWindows() {
+        final RollingStatistics single = new RollingStatistics(1);
+        Assert.assertTrue(Double.isNaN(single.getMean()));
+        Assert.assertTrue(Double.isNaN(single.getMedian()));
+        Assert.assertTrue(Double.isNaN(single.getMin()));
+        single.addValue(3);
+        single.addValue(-2);
+        Assert.assertEquals(1, single.getN());
+        Assert.assertEquals(-2, single.getMedian(), 0);
+        Assert.assertEquals(-2, single.getMean(), 0);
+        Assert.assertEquals(0, single.getVariance(), 0);
+
+        final RollingStatistics three = new RollingStatistics(3);
+        for (final double x : new double[] { 5, 1, 4, 1, 5, 9 }) {
+            three.addValue(x);
+        }
+        Assert.assertArrayEquals(new double[] { 1, 5, 9 }, three.getValues(), 0);
+        Assert.assertEquals(5, three.getMedian(), 0);
+        Assert.assertEquals(5, three.getMean(), 1.0e-15);
+        Assert.assertEquals(16, three.getVariance(), 1.0e-14);
+        three.clear();
+        Assert.assertEquals(0, three.getN());
+        three.addValue(2);
+        Assert.assertEquals(2, three.getMax(), 0);
+    }
+
+    @Test
+    public void testNonFiniteValues() {
+        final RollingStatistics rolling = new RollingStatistics(4);
+        rolling.addValue(1);
+        rolling.addValue(Double.NaN);
+        rolling.addValue(Double.POSITIVE_INFINITY);
+        rolling.addValue(2);
+        Assert.assertTrue(Double.isNaN(rolling.getMean()));
+        Assert.assertTrue(Double.isNaN(rolling.getVariance()));
+        Assert.assertEquals(1, rolling.getMin(), 0);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, rolling.getMax(), 0);
+        final double[] sorted = rolling.getSortedValues();
+        Assert.assertTrue(Double.isNaN(sorted[3]));
+
+        // evict 1 and NaN, then infinity
+        rolling.addValue(3);
+        rolling.addValue(4);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, rolling.getMean(), 0);
+        rolling.addValue(5);
+        Assert.assertEquals(3.5, rolling.getMean(), 1.0e-15);
+        Assert.assertEquals(5.0 / 3, rolling.getVariance(), 1.0e-14);
+
+        final RollingStatistics nans = new RollingStatistics(2);
+        nans.addValue(Double.NaN);
+        Assert.assertTrue(Double.isNaN(nans.getMax()));
+    }
+
+    @Test
+    public void testLongStreamAccuracy() {
+        // incremental updates must not drift over many windows
+        final RandomGenerator random = new Well1024a(0x1ad49c7e35f0b862l);
+        final int windowSize = 1000;
+        final RollingStatistics rolling = new RollingStatistics(windowSize);
+        for (int i = 0; i < 500000; ++i) {
+            rolling.addValue(1.0e8 + random.nextGaussian() * ((i / 10000) % 2 == 0 ? 1.0e4 : 1.0e-2));
+        }
+        final double[] values = rolling.getValues();
+        final DescriptiveStatistics reference = new DescriptiveStatistics(values);
+        Assert.assertEquals(reference.getVariance(), rolling.getVariance(), 1.0e-6 * reference.getVariance());
+        Arrays.sort(values);
+        Assert.assertArrayEquals(values, rolling.getSortedValues(), 0);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testInvalidWindow() {
+        new RollingStatistics(0);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testInvalidPercentile() {
+        new RollingStatistics(10).getPercentile(101);
+    }
+
+}
@@ -22,6 +22,7 @@ import org.apache.commons.math3.TestUtils;
 import org.apache.commons.math3.stat.descriptive.moment.GeometricMean;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.descriptive.moment.Variance;
+import org.apache.commons.math3.stat.descriptive.rank.StreamingPercentile;
 import org.apache.commons.math3.stat.descriptive.summary.Sum;
 import org.apache.commons.math3.util.FastMath;
 import org.junit.Assert;
@@ -287,6 +288,32 @@ public class SummaryStatisticsTest {
         u.setMeanImpl(new Mean()); // OK after clear
     }
 
+    @Test
+    public void testPercentile() {
+        SummaryStatistics u = createSummaryStatistics();
+        Assert.assertNull(u.getPercentileImpl());
+        u.addValue(1);
+        Assert.assertTrue(Double.isNaN(u.getPercentile(50)));
+        u.clear();
+        u.setPercentileImpl(new StreamingPercentile());
+        for (int i = 1; i <= 1000; ++i) {
+            u.addValue(i);
+        }
+        Assert.assertEquals(500, u.getPercentile(50), 10);
+        Assert.assertEquals(990, u.getPercentile(99), 10);
+        Assert.assertEquals(1000, u.getPercentile(100), 0);
+
+        // the sketch is deep-copied along with the other statistics
+        SummaryStatistics v = u.copy();
+        v.addValue(1001);
+        Assert.assertEquals(1000, u.getPercentileImpl().getN());
+        Assert.assertEquals(1001, v.getPercentile(100), 0);
+
+        u.clear();
+        Assert.assertEquals(0, u.getPercentileImpl().getN());
+        Assert.assertTrue(Double.isNaN(u.getPercentile(50)));
+    }
+
     @Test
     public void testSetterIllegalState() {
         SummaryStatistics u = createSummaryStatistics();
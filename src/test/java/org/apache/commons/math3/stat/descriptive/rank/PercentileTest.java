@@ -16,6 +16,11 @@
  */
 package org.apache.commons.math3.stat.descriptive.rank;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
 import org.apache.commons.math3.stat.descriptive.UnivariateStatistic;
 import org.apache.commons.math3.stat.descriptive.UnivariateStatisticAbstractTest;
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
@@ -167,4 +172,56 @@ public class PercentileTest extends UnivariateStatisticAbstractTest{
         }
     }
 
+    @Test
+    public void testMultiplePercentiles() {
+        final double[] ps = { 99, 5, 50, 95, 50, 100, 1.0e-3 };
+        final double[] expected = new double[ps.length];
+        for (int i = 0; i < ps.length; ++i) {
+            expected[i] = new Percentile().evaluate(testArray, ps[i]);
+        }
+        final double[] copy = testArray.clone();
+        final double[] result = new Percentile().evaluate(testArray, ps);
+        Assert.assertArrayEquals(expected, result, 0);
+        Assert.assertArrayEquals(copy, testArray, 0);
+        Assert.assertEquals(percentile95, result[3], tolerance);
+
+        // stored data
+        final Percentile stored = new Percentile();
+        stored.setData(testArray);
+        Assert.assertArrayEquals(expected, stored.evaluate(stored.getData(), ps), 0);
+        Assert.assertArrayEquals(expected, stored.evaluate(testArray, 0, testArray.length, ps), 0);
+
+        Assert.assertTrue(Double.isNaN(new Percentile().evaluate(new double[0], ps)[2]));
+        Assert.assertEquals(3.0, new Percentile().evaluate(new double[] { 3.0 }, ps)[4], 0);
+        try {
+            new Percentile().evaluate(testArray, new double[] { 50, 0 });
+            Assert.fail("Expecting MathIllegalArgumentException");
+        } catch (MathIllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testParallelPercentiles() {
+        final RandomGenerator random = new Well1024a(0x4b7e2d019fa3c658l);
+        final double[] values = new double[500000];
+        for (int i = 0; i < values.length; ++i) {
+            // many duplicates
+            values[i] = random.nextInt(100000) * 0.5;
+        }
+        final double[] ps = { 0.01, 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99, 100 };
+        final double[] expected = new double[ps.length];
+        for (int i = 0; i < ps.length; ++i) {
+            expected[i] = new Percentile().evaluate(values, ps[i]);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertArrayEquals(expected, new Percentile().evaluate(values, ps, executor), 0);
+            Assert.assertArrayEquals(new double[] { expected[5] },
+                                     new Percentile().evaluate(values, new double[] { 50 }, executor), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math3.stat.descriptive.rank;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well1024a;
+import org.apache.commons.math3.stat.descriptive.StorelessUnivariateStatisticAbstractTest;
+import org.apache.commons.math3.stat.descriptive.UnivariateStatistic;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link StreamingPercentile} class.
+ * @version $Id$
+ */
+public class StreamingPercentileTest extends StorelessUnivariateStatisticAbstractTest {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UnivariateStatistic getUnivariateStatistic() {
+        return new StreamingPercentile();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double expectedValue() {
+        // small samples are retained exactly
+        return this.median;
+    }
+
+    @Test
+    public void testRankError() {
+        final RandomGenerator random = new Well1024a(0x3c81f5a0d27e694bl);
+        final int n = 1000000;
+        final double[] data = new double[n];
+        final StreamingPercentile sketch = new StreamingPercentile();
+        for (int i = 0; i < n; ++i) {
+            // heavy-tailed latency-like data
+            data[i] = FastMath.exp(3 * random.nextGaussian());
+            sketch.increment(data[i]);
+        }
+        Arrays.sort(data);
+        Assert.assertEquals(n, sketch.getN());
+        Assert.assertTrue(sketch.getRetainedCount() < 3 * sketch.getK() + 200);
+        Assert.assertEquals(data[n - 1], sketch.getPercentile(100), 0);
+        for (final double p : new double[] { 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9 }) {
+            checkRank(data, p, sketch.getPercentile(p), 0.015);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        final RandomGenerator random = new Well1024a(0x9e27b4c05d1f83a6l);
+        final int n = 200000;
+        final double[] data = new double[n];
+        final StreamingPercentile[] parts = new StreamingPercentile[4];
+        for (int j = 0; j < parts.length; ++j) {
+            parts[j] = new StreamingPercentile(99, 100);
+        }
+        for (int i = 0; i < n; ++i) {
+            data[i] = random.nextDouble();
+            parts[i % parts.length].increment(data[i]);
+        }
+        final StreamingPercentile merged = new StreamingPercentile(99, 100);
+        for (final StreamingPercentile part : parts) {
+            merged.merge(part);
+        }
+        Arrays.sort(data);
+        Assert.assertEquals(n, merged.getN());
+        Assert.assertEquals(n / parts.length, parts[0].getN());
+        Assert.assertTrue(merged.getRetainedCount() < 3 * merged.getK() + 200);
+        checkRank(data, 99, merged.getResult(), 0.03);
+        checkRank(data, 50, merged.getPercentile(50), 0.03);
+        Assert.assertEquals(data[n - 1], merged.getPercentile(100), 0);
+    }
+
+    @Test
+    public void testSelfMerge() {
+        // merging a sketch with itself counts every value twice
+        final StreamingPercentile sketch = new StreamingPercentile(50, 20);
+        for (int i = 1; i <= 10; ++i) {
+            sketch.increment(i);
+        }
+        sketch.merge(sketch);
+        Assert.assertEquals(20, sketch.getN());
+        Assert.assertEquals(1, sketch.getPercentile(0.1), 0);
+        Assert.assertEquals(10, sketch.getPercentile(100), 0);
+
+        final RandomGenerator random = new Well1024a(0x4b83e0c9d26a175fl);
+        final StreamingPercentile large = new StreamingPercentile(90, 50);
+        final double[] data = new double[20000];
+        for (int i = 0; i < data.length / 2; ++i) {
+            data[2 * i]     = random.nextDouble();
+            data[2 * i + 1] = data[2 * i];
+            large.increment(data[2 * i]);
+        }
+        large.merge(large);
+        Arrays.sort(data);
+        Assert.assertEquals(data.length, large.getN());
+        Assert.assertTrue(large.getRetainedCount() < 3 * large.getK() + 200);
+        checkRank(data, 90, large.getResult(), 0.05);
+    }
+
+    @Test
+    public void testCopy() {
+        final RandomGenerator random = new Well1024a(0x61f0d8a3b5c47e29l);
+        final StreamingPercentile master = new StreamingPercentile(90, 50);
+        for (int i = 0; i < 10000; ++i) {
+            master.increment(random.nextDouble());
+        }
+        final StreamingPercentile replica = new StreamingPercentile(master);
+        Assert.assertEquals(master.getK(), replica.getK());
+        Assert.assertEquals(master.getQuantile(), replica.getQuantile(), 0);
+        for (int i = 0; i < 10000; ++i) {
+            final double x = random.nextDouble();
+            master.increment(x);
+            replica.increment(x);
+        }
+        Assert.assertEquals(master, replica);
+        Assert.assertEquals(master.getPercentile(10), replica.getPercentile(10), 0);
+        Assert.assertEquals(master.getRetainedCount(), replica.getRetainedCount());
+    }
+
+    @Test
+    public void testNaN() {
+        final StreamingPercentile sketch = new StreamingPercentile();
+        sketch.increment(Double.NaN);
+        Assert.assertEquals(0, sketch.getN());
+        Assert.assertTrue(Double.isNaN(sketch.getResult()));
+        sketch.increment(3);
+        sketch.increment(Double.NaN);
+        sketch.increment(1);
+        Assert.assertEquals(2, sketch.getN());
+        Assert.assertEquals(1, sketch.getResult(), 0);
+        Assert.assertEquals(3, sketch.getPercentile(75), 0);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testInvalidQuantile() {
+        new StreamingPercentile().getPercentile(0);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testInvalidK() {
+        new StreamingPercentile(50, 4);
+    }
+
+    private static void checkRank(final double[] sorted, final double p,
+                                  final double estimate, final double epsilon) {
+        final int lower = lowerRank(sorted, estimate);
+        final int upper = upperRank(sorted, estimate);
+        final double target = p * sorted.length / 100;
+        final double error = FastMath.max(0, FastMath.max(lower - target, target - upper));
+        Assert.assertTrue("p = " + p + ", normalized rank error = " + error / sorted.length,
+                          error <= epsilon * sorted.length);
+    }
+
+    private static int lowerRank(final double[] sorted, final double x) {
+        int index = Arrays.binarySearch(sorted, x);
+        while (index > 0 && sorted[index - 1] == x) {
+            --index;
+        }
+        return index;
+    }
+
+    private static int upperRank(final double[] sorted, final double x) {
+        int index = Arrays.binarySearch(sorted, x);
+        while (index < sorted.length - 1 && sorted[index + 1] == x) {
+            ++index;
+        }
+        return index + 1;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.apache.commons.math3.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.exception.MathIllegalStateException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link ConcurrencyUtils}.
+ */
+public class ConcurrencyUtilsTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testResultsOrder() {
+        final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 20; ++i) {
+            final int index = i;
+            tasks.add(new Callable<Integer>() {
+                public Integer call() {
+                    return index * index;
+                }
+            });
+        }
+        final List<Integer> results = ConcurrencyUtils.invokeAll(executor, tasks);
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertEquals(i * i, results.get(i).intValue());
+        }
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testUncheckedExceptionRethrown() {
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        tasks.add(new Callable<Void>() {
+            public Void call() {
+                throw new OutOfRangeException(3, 0, 2);
+            }
+        });
+        ConcurrencyUtils.invokeAll(executor, tasks);
+    }
+
+    @Test
+    public void testCheckedExceptionWrapped() {
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        tasks.add(new Callable<Void>() {
+            public Void call() throws IOException {
+                throw new IOException("boom");
+            }
+        });
+        try {
+            ConcurrencyUtils.invokeAll(executor, tasks);
+            Assert.fail("an exception should have been thrown");
+        } catch (MathIllegalStateException mise) {
+            Assert.assertTrue(mise.getCause() instanceof IOException);
+        }
+    }
+
+    @Test(expected=NullArgumentException.class)
+    public void testNullExecutor() {
+        ConcurrencyUtils.invokeAll(null, new ArrayList<Callable<Void>>());
+    }
+
+    @Test
+    public void testRunInCallingThread() {
+        final Thread caller = Thread.currentThread();
+        final List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+        for (int i = 0; i < 5; ++i) {
+            tasks.add(new Callable<Boolean>() {
+                public Boolean call() {
+                    return Thread.currentThread() == caller;
+                }
+            });
+        }
+        for (final Boolean sameThread : ConcurrencyUtils.invokeAllOrRun(null, tasks)) {
+            Assert.assertTrue(sameThread);
+        }
+        Assert.assertEquals(5, ConcurrencyUtils.invokeAllOrRun(executor, tasks).size());
+    }
+
+    @Test
+    public void testRunCheckedExceptionWrapped() {
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        tasks.add(new Callable<Void>() {
+            public Void call() throws IOException {
+                throw new IOException("boom");
+            }
+        });
+        try {
+            ConcurrencyUtils.invokeAllOrRun(null, tasks);
+            Assert.fail("an exception should have been thrown");
+        } catch (MathIllegalStateException mise) {
+            Assert.assertTrue(mise.getCause() instanceof IOException);
+        }
+    }
+}